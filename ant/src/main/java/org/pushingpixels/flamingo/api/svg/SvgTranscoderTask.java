@@ -19,9 +19,16 @@ package org.pushingpixels.flamingo.api.svg;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.Project;
 import org.apache.tools.ant.taskdefs.Copy;
 import org.apache.tools.ant.util.FileNameMapper;
 import org.apache.tools.ant.util.GlobPatternMapper;
@@ -41,12 +48,194 @@ public class SvgTranscoderTask extends Copy {
     /** The template to use for the generated classes. */
     private Template template = Template.getDefault();
 
+    /** The name of the template, or null for the default template. */
+    private String templateName;
+
+    /** The tolerance of the path simplification, 0 to disable the simplification. */
+    private float tolerance;
+
+    /** The number of decimals of the path coordinates, -1 to keep the coordinates unchanged. */
+    private int precision = -1;
+
+    /** The maximum rendering difference of the tuned simplification, -1 to disable the tuning. */
+    private float maxDifference = -1;
+
+    /** The sizes at which the renderings are compared by the tuning. */
+    private String tuningSizes = "16,32,64";
+
+    /** Tells if the invisible nodes are removed. */
+    private boolean cull;
+
+    /** Tells if the shapes covered by opaque shapes are removed. */
+    private boolean occlusion;
+
+    /** Tells if the painting code of the groups outside of the clip is skipped. */
+    private boolean clipGroups;
+
+    /** The comma separated sizes of the simplified variants generated, or null to disable them. */
+    private String levelsOfDetail;
+
+    /** The cache of the glyph outlines shared by the files converted, or null to disable it. */
+    private GlyphOutlineCache glyphCache;
+
+    /** The session loading the files converted, created for each execution. */
+    private TranscodingSession session;
+
+    /** The file receiving the metrics of the files converted, or null to disable the report. */
+    private File reportFile;
+
+    /** The report of the metrics, created for each execution. */
+    private MetricsReport report;
+
+    /** The maximum complexity of the generated code, or null to disable the check. */
+    private ComplexityBudget budget;
+
+    /** The complexity limits of the budget, as specified. */
+    private String budgetLimits;
+
+    /** Tells if the build fails when an image exceeds the complexity budget. */
+    private boolean failOnBudget;
+
+    /** The files exceeding the complexity budget, collected for each execution. */
+    private List<String> overBudgetFiles;
+
+    /** Tells if the documents and the painting code are kept out of the heap. */
+    private boolean boundedMemory;
+
+    /** Tells if the files are converted by the transcoding daemon when it's running. */
+    private boolean daemon;
+
+    /** Tells if the generated classes are compiled in memory to check them. */
+    private boolean compileCheck;
+
+    /** The classpath of the API used by the template, for the compilation check. */
+    private String compileClasspath = System.getProperty("java.class.path");
+
     public void setPackage(String targetPackage) {
         this.targetPackage = targetPackage;
     }
 
     public void setTemplate(String template) throws IOException {
         this.template = new Template(template.toLowerCase() + ".template");
+        this.templateName = template;
+    }
+
+    /**
+     * Set the tolerance of the path simplification (disabled by default)
+     */
+    public void setTolerance(float tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Set the number of decimals of the path coordinates (unchanged by default)
+     */
+    public void setPrecision(int precision) {
+        this.precision = precision;
+    }
+
+    /**
+     * Enable the tuning of the simplification for each image, with the maximum
+     * rendering difference accepted (for example 0.01 for 1%)
+     */
+    public void setMaxDifference(float maxDifference) {
+        this.maxDifference = maxDifference;
+    }
+
+    /**
+     * Set the comma separated sizes at which the renderings are compared by the tuning (16,32,64 by default)
+     */
+    public void setTuningSizes(String tuningSizes) {
+        this.tuningSizes = tuningSizes;
+    }
+
+    /**
+     * Enable the removal of the invisible nodes (disabled by default)
+     */
+    public void setCull(boolean cull) {
+        this.cull = cull;
+    }
+
+    /**
+     * Enable the removal of the shapes covered by opaque shapes (disabled by default).
+     * Only for the images painted with a fully opaque graphics context.
+     */
+    public void setOcclusion(boolean occlusion) {
+        this.occlusion = occlusion;
+    }
+
+    /**
+     * Enable the clip tests of the groups in the generated code (disabled by default)
+     */
+    public void setClipGroups(boolean clipGroups) {
+        this.clipGroups = clipGroups;
+    }
+
+    /**
+     * Set the comma separated sizes in pixels of the simplified variants generated for the small renderings (disabled by default)
+     */
+    public void setLevelsOfDetail(String levelsOfDetail) {
+        this.levelsOfDetail = levelsOfDetail;
+    }
+
+    /**
+     * Enable the transcoding of each distinct glyph of the texts once (disabled by default)
+     */
+    public void setGlyphCache(boolean glyphCache) {
+        this.glyphCache = glyphCache ? new GlyphOutlineCache() : null;
+    }
+
+    /**
+     * Set the file receiving the time spent in each stage and the size of the code generated for each file,
+     * in CSV if the name ends with .csv and in NDJSON otherwise (disabled by default)
+     */
+    public void setReport(File reportFile) {
+        this.reportFile = reportFile;
+    }
+
+    /**
+     * Set the comma separated complexity limits of the generated code, for example
+     * "segments=10000,drawcalls=500,statechanges=1000,bytecode=65536,gradients=20" (disabled by default)
+     */
+    public void setBudget(String budget) {
+        this.budget = ComplexityBudget.parse(budget);
+        this.budgetLimits = budget;
+    }
+
+    /**
+     * Fail the build if an image exceeds the complexity budget, instead of logging a warning (disabled by default)
+     */
+    public void setFailOnBudget(boolean failOnBudget) {
+        this.failOnBudget = failOnBudget;
+    }
+
+    /**
+     * Enable the bounded memory mode for the very large documents: the documents are released once their
+     * GVT tree is built, and the intermediate content is written into temporary files (disabled by default)
+     */
+    public void setBoundedMemory(boolean boundedMemory) {
+        this.boundedMemory = boundedMemory;
+    }
+
+    /**
+     * Convert the files with the transcoding daemon when it's running, instead of the JVM of the build (disabled by default)
+     */
+    public void setDaemon(boolean daemon) {
+        this.daemon = daemon;
+    }
+
+    /**
+     * Compile the generated classes in memory, and fail the build if a class doesn't compile (disabled by default)
+     */
+    public void setCompileCheck(boolean compileCheck) {
+        this.compileCheck = compileCheck;
+    }
+
+    /**
+     * Set the classpath of the API used by the template, for the compilation check (the classpath of Ant by default)
+     */
+    public void setCompileClasspath(String compileClasspath) {
+        this.compileClasspath = compileClasspath;
     }
 
     /**
@@ -92,9 +281,31 @@ public class SvgTranscoderTask extends Copy {
         if (fileCopyMap.size() > 0) {
             File basedir = getProject().getBaseDir();
             log("Converting " + fileCopyMap.size() + " file" + (fileCopyMap.size() == 1 ? "" : "s") + " to " + destDir.getAbsolutePath());
+            session = new TranscodingSession();
+            if (reportFile != null) {
+                try {
+                    report = new MetricsReport(reportFile);
+                } catch (IOException ioe) {
+                    throw new BuildException("Failed to create the report " + reportFile + " due to " + ioe.getMessage(), ioe, getLocation());
+                }
+            }
+            
+            overBudgetFiles = new ArrayList<>();
+            Object batchEvent = TranscodingEvents.get().beginBatch();
+            int fileCount = 0;
+            
+            DaemonClient client = daemon ? DaemonClient.find(DaemonClient.getDefaultFile()) : null;
+            if (client != null) {
+                try {
+                    fileCount = transcodeWithDaemon(client, basedir);
+                } catch (IOException ioe) {
+                    log("The transcoding daemon is unavailable (" + ioe.getMessage() + "), converting the files locally", Project.MSG_WARN);
+                    client = null;
+                }
+            }
             
             Enumeration e = fileCopyMap.keys();
-            while (e.hasMoreElements()) {
+            while (client == null && e.hasMoreElements()) {
                 String fromFile = (String) e.nextElement();
                 String[] toFiles = (String[]) fileCopyMap.get(fromFile);
 
@@ -106,6 +317,7 @@ public class SvgTranscoderTask extends Copy {
                         String t = fileUtils.isLeadingPath(basedir, to) ? fileUtils.removeLeadingPath(basedir, to) : to.toString();
                         log("Converting " + f + " to " + t, verbosity);
                         transcode(from, to);
+                        fileCount++;
                         
                     } catch (IOException ioe) {
                         String msg = "Failed to convert " + fromFile + " to " + toFile + " due to " + ioe.getMessage();
@@ -116,19 +328,260 @@ public class SvgTranscoderTask extends Copy {
                     }
                 }
             }
+            
+            TranscodingEvents.get().commitBatch(batchEvent, destDir.getPath(), fileCount);
+            
+            if (glyphCache != null && glyphCache.getGlyphCount() > 0) {
+                log("Glyphs: " + glyphCache.getGlyphCount() + " distinct glyphs, " + glyphCache.getHitCount() + " reused", verbosity);
+            }
+            
+            if (report != null) {
+                report.close();
+                log("Report: " + report.getSummary(), verbosity);
+            }
+            
+            session = null;
+            report = null;
+            
+            if (compileCheck) {
+                checkCompilation();
+            }
+            
+            if (failOnBudget && !overBudgetFiles.isEmpty()) {
+                throw new BuildException(overBudgetFiles.size() + " file" + (overBudgetFiles.size() == 1 ? "" : "s") + " over the complexity budget: " + overBudgetFiles, getLocation());
+            }
+        }
+    }
+
+    /**
+     * Compiles the generated classes in memory, and fails if a class doesn't compile.
+     */
+    private void checkCompilation() {
+        long start = System.nanoTime();
+        CompilationCheck check = new CompilationCheck(compileClasspath, Runtime.getRuntime().availableProcessors(), CompilationCheck.DEFAULT_BATCH_SIZE);
+        int classCount = 0;
+        Map<String, String> images = new HashMap<>();
+        Map<String, String> sources = new HashMap<>();
+        Enumeration e = fileCopyMap.keys();
+        while (e.hasMoreElements()) {
+            String fromFile = (String) e.nextElement();
+            for (String toFile : (String[]) fileCopyMap.get(fromFile)) {
+                String className = namingStrategy.getClassName(new File(fromFile));
+                String qualifiedName = targetPackage == null ? className : targetPackage + "." + className;
+                images.put(qualifiedName, fromFile);
+                sources.put(qualifiedName, toFile);
+                try {
+                    check.add(qualifiedName, new String(Files.readAllBytes(new File(toFile).toPath())));
+                    classCount++;
+                } catch (IOException ioe) {
+                    throw new BuildException("Failed to read " + toFile + " due to " + ioe.getMessage(), ioe, getLocation());
+                }
+            }
+        }
+        
+        Map<String, List<String>> failures;
+        try {
+            failures = check.finish();
+        } catch (InterruptedException ie) {
+            throw new BuildException("The compilation check was interrupted", ie, getLocation());
+        }
+        
+        for (Map.Entry<String, List<String>> failure : failures.entrySet()) {
+            log(failure.getKey() + " generated from " + images.get(failure.getKey()) + " doesn't compile: " + failure.getValue(), Project.MSG_ERR);
+            // the class is removed to be generated and checked again by the next build
+            new File(sources.get(failure.getKey())).delete();
+        }
+        log("Compiled " + classCount + " class" + (classCount == 1 ? "" : "es") + " in " + (System.nanoTime() - start) / 1000000 + " ms", verbosity);
+        
+        if (!failures.isEmpty()) {
+            throw new BuildException(failures.size() + " class" + (failures.size() == 1 ? "" : "es") + " failing to compile: " + failures.keySet(), getLocation());
+        }
+    }
+
+    /**
+     * Converts the files with the transcoding daemon.
+     *
+     * @return the number of files converted
+     */
+    private int transcodeWithDaemon(DaemonClient client, File basedir) throws IOException {
+        DaemonClient.Request request = new DaemonClient.Request(targetPackage, getOptions());
+        List<File[]> files = new ArrayList<>();
+        Enumeration e = fileCopyMap.keys();
+        while (e.hasMoreElements()) {
+            String fromFile = (String) e.nextElement();
+            for (String toFile : (String[]) fileCopyMap.get(fromFile)) {
+                File from = new File(fromFile);
+                File to = new File(toFile);
+                to.getParentFile().mkdirs();
+                request.add(from, to, namingStrategy.getClassName(from));
+                files.add(new File[] { from, to });
+            }
+        }
+        
+        log("Converting with the transcoding daemon", verbosity);
+        DaemonClient.Response response = client.transcode(request);
+        
+        for (int i = 0; i < files.size(); i++) {
+            File from = files.get(i)[0];
+            File to = files.get(i)[1];
+            String f = fileUtils.isLeadingPath(basedir, from) ? fileUtils.removeLeadingPath(basedir, from) : from.toString();
+            String t = fileUtils.isLeadingPath(basedir, to) ? fileUtils.removeLeadingPath(basedir, to) : to.toString();
+            log("Converting " + f + " to " + t, verbosity);
+            
+            if (response.getError(i) != null) {
+                String msg = "Failed to convert " + from + " to " + to + " due to " + response.getMetrics(i).getError();
+                if (to.exists() && !to.delete()) {
+                    msg += " and I couldn't delete the corrupt " + to;
+                }
+                throw new BuildException(msg, getLocation());
+            }
+            if (response.getMetrics(i).getError() != null) {
+                log("Unable to transcode " + from.getName() + ": " + response.getMetrics(i).getError(), Project.MSG_ERR);
+            }
+            
+            for (String line : response.getLog(i).split("\r?\n")) {
+                if (line.length() > 0) {
+                    log(line, verbosity);
+                }
+            }
+            
+            if (report != null) {
+                report.write(response.getMetrics(i));
+            }
+            
+            List<String> violations = response.getBudgetViolations(i);
+            if (!violations.isEmpty()) {
+                log(from.getName() + " exceeds the complexity budget: " + violations, failOnBudget ? Project.MSG_ERR : Project.MSG_WARN);
+                overBudgetFiles.add(from.getName());
+            }
+        }
+        
+        if (response.getGlyphSummary() != null) {
+            log(response.getGlyphSummary(), verbosity);
+        }
+        
+        return files.size();
+    }
+
+    /**
+     * Returns the options of the conversion, in the syntax of the command line converter.
+     */
+    private List<String> getOptions() {
+        List<String> options = new ArrayList<>();
+        if (tolerance > 0) {
+            options.addAll(Arrays.asList("-tolerance", String.valueOf(tolerance)));
+        }
+        if (precision >= 0) {
+            options.addAll(Arrays.asList("-precision", String.valueOf(precision)));
+        }
+        if (maxDifference >= 0) {
+            options.addAll(Arrays.asList("-maxdiff", String.valueOf(maxDifference), "-sizes", tuningSizes));
+        }
+        if (cull) {
+            options.add("-cull");
+        }
+        if (occlusion) {
+            options.add("-occlusion");
+        }
+        if (clipGroups) {
+            options.add("-clipgroups");
+        }
+        if (parseSizes(levelsOfDetail) != null) {
+            options.addAll(Arrays.asList("-lod", levelsOfDetail));
+        }
+        if (glyphCache != null) {
+            options.add("-glyphs");
+        }
+        if (templateName != null) {
+            options.addAll(Arrays.asList("-template", templateName));
+        }
+        if (budgetLimits != null) {
+            options.addAll(Arrays.asList("-budget", budgetLimits));
+        }
+        if (boundedMemory) {
+            options.add("-boundedmemory");
+        }
+        return options;
+    }
+
+    private SimplificationTuner getSimplificationTuner() {
+        if (maxDifference < 0) {
+            return null;
         }
+        
+        return new SimplificationTuner(maxDifference, parseSizes(tuningSizes));
+    }
+
+    /**
+     * Parses a comma separated list of sizes.
+     */
+    private int[] parseSizes(String sizes) {
+        if (sizes == null || sizes.trim().length() == 0) {
+            return null;
+        }
+        
+        String[] values = sizes.split(",");
+        int[] array = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            array[i] = Integer.parseInt(values[i].trim());
+        }
+        return array;
     }
 
     private void transcode(File file, File target) throws IOException {
         target.getParentFile().mkdirs();
         PrintWriter pw = new PrintWriter(target);
+        TranscodingMetrics metrics = report != null || budget != null ? new TranscodingMetrics(file.getName()) : null;
         
         SvgTranscoder transcoder = new SvgTranscoder(file.toURI().toURL(), namingStrategy.getClassName(file));
         transcoder.setTemplate(template);
         transcoder.setJavaPackageName(targetPackage);
+        transcoder.setSimplificationTolerance(tolerance);
+        transcoder.setCoordinatePrecision(precision);
+        transcoder.setSimplificationTuner(getSimplificationTuner());
+        transcoder.setCullInvisibleNodes(cull);
+        transcoder.setCullOccludedNodes(occlusion);
+        transcoder.setGroupClipping(clipGroups);
+        transcoder.setLevelsOfDetail(parseSizes(levelsOfDetail));
+        transcoder.setGlyphOutlineCache(glyphCache);
+        transcoder.setSession(session);
+        transcoder.setBoundedMemory(boundedMemory);
+        transcoder.setMetrics(metrics);
         transcoder.setPrintWriter(pw);
         transcoder.transcode();
         
         pw.close();
+        
+        if (report != null) {
+            report.write(metrics);
+        }
+        
+        if (budget != null && metrics.getError() == null) {
+            log("Complexity of " + file.getName() + ": " + ComplexityBudget.getSummary(metrics), verbosity);
+            List<String> violations = budget.check(metrics);
+            if (!violations.isEmpty()) {
+                log(file.getName() + " exceeds the complexity budget: " + violations, failOnBudget ? Project.MSG_ERR : Project.MSG_WARN);
+                overBudgetFiles.add(file.getName());
+            }
+        }
+        
+        if (maxDifference >= 0) {
+            log("Tuned " + file.getName() + ": tolerance " + transcoder.getSimplificationTolerance() + ", precision " + transcoder.getCoordinatePrecision(), verbosity);
+        }
+        
+        InvisibleNodeCuller culler = transcoder.getNodeCuller();
+        if (culler != null && culler.getCulledNodeCount() > 0) {
+            log("Culled " + file.getName() + ": " + culler.getSummary(), verbosity);
+        }
+        
+        OcclusionCuller occlusionCuller = transcoder.getOcclusionCuller();
+        if (occlusionCuller != null && occlusionCuller.getOccludedShapeCount() > 0) {
+            log("Occluded " + file.getName() + ": " + occlusionCuller.getOccludedShapeCount() + " shapes", verbosity);
+        }
+        
+        PathSimplifier simplifier = transcoder.getPathSimplifier();
+        if (simplifier != null) {
+            log("Simplified " + file.getName() + ": " + simplifier.getInputSegmentCount() + " -> " + simplifier.getOutputSegmentCount() + " segments", verbosity);
+        }
     }
 }
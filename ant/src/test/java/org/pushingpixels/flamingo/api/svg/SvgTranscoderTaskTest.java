@@ -16,6 +16,7 @@
 
 package org.pushingpixels.flamingo.api.svg;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.OutputStream;
 import java.io.PrintStream;
@@ -54,6 +55,7 @@ public class SvgTranscoderTaskTest extends TestCase {
     private void redirectOutput(OutputStream out) {
         DefaultLogger logger = new DefaultLogger();
         logger.setOutputPrintStream(new PrintStream(out));
+        logger.setErrorPrintStream(new PrintStream(out));
         logger.setMessageOutputLevel(Project.MSG_INFO);
         project.addBuildListener(logger);
     }
@@ -73,4 +75,46 @@ public class SvgTranscoderTaskTest extends TestCase {
         File transcoded = new File("target/test-classes/ApacheFeather.java");
         assertTrue(transcoded + " wasn't generated", transcoded.exists());
     }
+
+    public void testComplexityBudget() {
+        try {
+            project.executeTarget("budget");
+            fail("BuildException expected");
+        } catch (BuildException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("complexity budget"));
+        }
+    }
+
+    public void testCompileCheck() {
+        try {
+            // the Codename One API of the default template isn't on the classpath
+            project.executeTarget("compile-check");
+            fail("BuildException expected");
+        } catch (BuildException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("3 classes failing to compile"));
+        }
+    }
+
+    public void testCompileCheckReport() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        redirectOutput(out);
+        try {
+            project.executeTarget("compile-check");
+            fail("BuildException expected");
+        } catch (BuildException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("foo.edit_cut"));
+        }
+        
+        String report = out.toString();
+        assertTrue(report, report.contains("foo.edit_cut generated from "));
+        assertTrue(report, report.contains("edit-cut.svg doesn't compile"));
+    }
+
+    public void testCompileCheckPassed() {
+        project.executeTarget("compile-check-icon");
+        
+        assertTrue(new File("target/test-classes/target/compile-check-icon/EditCopy.java").exists());
+        assertTrue(new File("target/test-classes/target/compile-check-icon/EditCut.java").exists());
+        assertTrue(new File("target/test-classes/target/compile-check-icon/EditPaste.java").exists());
+    }
 }
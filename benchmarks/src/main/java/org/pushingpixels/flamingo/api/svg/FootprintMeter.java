@@ -0,0 +1,235 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.swing.Icon;
+
+/**
+ * Measures the cold start and the footprint of the classes generated with
+ * the Java2D templates. The sources found in a directory are compiled in
+ * memory, and each class is loaded in its own class loader to measure:
+ * <ul>
+ *   <li>the size of its bytecode, nested classes included</li>
+ *   <li>the time spent loading the class, and initializing it</li>
+ *   <li>the time and the memory allocated by the first painting at the original size</li>
+ *   <li>the heap retained once the class is loaded and painted</li>
+ * </ul>
+ * The results are written in a CSV file sorted by decreasing startup time
+ * (loading, initialization and first painting).
+ *
+ * <pre>java -cp benchmarks.jar org.pushingpixels.flamingo.api.svg.FootprintMeter &lt;dir&gt; &lt;csv&gt;</pre>
+ */
+public class FootprintMeter {
+
+    private static final Pattern PACKAGE = Pattern.compile("^\\s*package\\s+([\\w.]+)\\s*;", Pattern.MULTILINE);
+
+    private final InMemoryCompiler compiler = new InMemoryCompiler();
+
+    /** The last icon measured, keeping its class loaded until the retained heap is measured. */
+    private Object measuredIcon;
+
+    /**
+     * The measures of a generated class.
+     */
+    static class Footprint {
+        String className;
+        long bytecodeSize;
+        long loadTime;
+        long initTime;
+        long firstPaintTime;
+        long firstPaintAllocation;
+        long retainedHeap;
+
+        long getStartupTime() {
+            return loadTime + initTime + firstPaintTime;
+        }
+    }
+
+    /**
+     * Compiles the specified source file and measures the class generated.
+     *
+     * @return the measures, or null if the file doesn't compile
+     */
+    Footprint measure(File file) throws Exception {
+        String source = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        String simpleName = file.getName().substring(0, file.getName().length() - ".java".length());
+        Matcher matcher = PACKAGE.matcher(source);
+        String className = matcher.find() ? matcher.group(1) + "." + simpleName : simpleName;
+
+        Map<String, byte[]> classes = compiler.compile(Collections.singletonMap(className, source), null);
+        if (classes == null) {
+            return null;
+        }
+
+        Footprint footprint = new Footprint();
+        footprint.className = className;
+        for (byte[] bytecode : classes.values()) {
+            footprint.bytecodeSize += bytecode.length;
+        }
+
+        measuredIcon = null;
+        ClassLoader loader = new InMemoryCompiler.CompiledClassLoader(classes, getClass().getClassLoader());
+        long heap = getUsedHeap();
+
+        long start = System.nanoTime();
+        Class<?> iconClass = Class.forName(className, false, loader);
+        footprint.loadTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        Class.forName(className, true, loader);
+        footprint.initTime = System.nanoTime() - start;
+
+        Icon icon = (Icon) iconClass.newInstance();
+        Method paint = iconClass.getDeclaredMethod("paint", Graphics2D.class);
+        if (!Modifier.isStatic(paint.getModifiers())) {
+            throw new IllegalArgumentException(className + " has no static paint(Graphics2D) method");
+        }
+        paint.setAccessible(true);
+
+        BufferedImage image = new BufferedImage(Math.max(1, icon.getIconWidth()), Math.max(1, icon.getIconHeight()), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+        long allocation = getAllocatedBytes();
+        start = System.nanoTime();
+        paint.invoke(null, g);
+        footprint.firstPaintTime = System.nanoTime() - start;
+        footprint.firstPaintAllocation = getAllocatedBytes() - allocation;
+        g.dispose();
+
+        image = null;
+        measuredIcon = icon;
+        footprint.retainedHeap = Math.max(0, getUsedHeap() - heap);
+
+        return footprint;
+    }
+
+    /**
+     * Returns the heap used after a garbage collection.
+     */
+    private static long getUsedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Returns the bytes allocated by the current thread, or 0 if the JVM doesn't track the allocations.
+     */
+    private static long getAllocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    /**
+     * Adds the Java source files of the directory and of its subdirectories to the list.
+     */
+    private static void collectSources(File dir, List<File> files) {
+        File[] children = dir.listFiles();
+        if (children == null) {
+            return;
+        }
+        for (File file : children) {
+            if (file.isDirectory()) {
+                collectSources(file, files);
+            } else if (file.getName().endsWith(".java")) {
+                files.add(file);
+            }
+        }
+    }
+
+    private static void write(List<Footprint> footprints, File csv) throws IOException {
+        try (PrintWriter out = new PrintWriter(csv, "UTF-8")) {
+            out.println("class,bytecode_bytes,load_us,init_us,first_paint_us,startup_us,first_paint_allocated_bytes,retained_heap_bytes");
+            for (Footprint footprint : footprints) {
+                out.println(footprint.className
+                        + "," + footprint.bytecodeSize
+                        + "," + footprint.loadTime / 1000
+                        + "," + footprint.initTime / 1000
+                        + "," + footprint.firstPaintTime / 1000
+                        + "," + footprint.getStartupTime() / 1000
+                        + "," + footprint.firstPaintAllocation
+                        + "," + footprint.retainedHeap);
+            }
+        }
+    }
+
+    public static void main(String... args) throws Exception {
+        if (args.length != 2) {
+            System.out.println("param 0 : dir of the classes generated with the icon or resizable template, param 1 : csv report");
+            System.exit(1);
+        }
+
+        List<File> files = new ArrayList<>();
+        collectSources(new File(args[0]), files);
+        Collections.sort(files);
+
+        FootprintMeter meter = new FootprintMeter();
+        List<Footprint> footprints = new ArrayList<>();
+        boolean warmedUp = false;
+        for (File file : files) {
+            try {
+                if (!warmedUp) {
+                    // load the compiler and Java2D classes before the first measure
+                    warmedUp = meter.measure(file) != null;
+                }
+
+                Footprint footprint = meter.measure(file);
+                if (footprint == null) {
+                    System.err.println("Skipped " + file.getName() + ": compilation failed");
+                } else {
+                    footprints.add(footprint);
+                    System.err.println("Measured " + file.getName() + ": startup " + footprint.getStartupTime() / 1000 + " us, " + footprint.bytecodeSize + " bytes of bytecode");
+                }
+            } catch (Exception e) {
+                System.err.println("Skipped " + file.getName() + ": " + e);
+            }
+        }
+
+        Collections.sort(footprints, new Comparator<Footprint>() {
+            @Override
+            public int compare(Footprint footprint1, Footprint footprint2) {
+                return Long.compare(footprint2.getStartupTime(), footprint1.getStartupTime());
+            }
+        });
+
+        write(footprints, new File(args[1]));
+    }
+}
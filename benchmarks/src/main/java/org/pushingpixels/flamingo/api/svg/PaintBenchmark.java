@@ -0,0 +1,96 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import javax.swing.Icon;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Painting of the classes generated for the sample images with the Java2D
+ * templates. The classes are compiled in memory and painted into an offscreen
+ * image of the size specified, with the antialiasing enabled.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaintBenchmark {
+
+    @Param({"apache-feather.svg", "edit-copy.svg", "edit-cut.svg", "edit-paste.svg", "text.svg"})
+    public String file;
+
+    @Param({"icon", "resizable"})
+    public String template;
+
+    @Param({"16", "32", "64", "256"})
+    public int size;
+
+    /** The static paint(Graphics2D) method of the class generated. */
+    private MethodHandle paint;
+
+    private BufferedImage image;
+
+    private Graphics2D graphics;
+
+    @Setup
+    public void setUp() throws Exception {
+        Class<?> iconClass = Samples.compile(Samples.getURL(file), new Template(template + ".template"));
+        Method method = iconClass.getDeclaredMethod("paint", Graphics2D.class);
+        method.setAccessible(true);
+        paint = MethodHandles.lookup().unreflect(method);
+
+        Icon icon = (Icon) iconClass.newInstance();
+        double scale = Math.min((double) size / icon.getIconWidth(), (double) size / icon.getIconHeight());
+
+        image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        graphics = image.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        graphics.scale(scale, scale);
+    }
+
+    @TearDown
+    public void tearDown() {
+        graphics.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage paint() throws Throwable {
+        paint.invokeExact(graphics);
+        return image;
+    }
+}
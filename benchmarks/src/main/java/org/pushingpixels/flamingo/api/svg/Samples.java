@@ -0,0 +1,91 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Access to the sample images of the benchmarks.
+ */
+class Samples {
+
+    private Samples() {
+    }
+
+    /**
+     * Returns the URL of the specified sample image.
+     */
+    static URL getURL(String name) {
+        URL url = Samples.class.getResource("/svg/" + name);
+        if (url == null) {
+            throw new IllegalArgumentException("Unknown sample image: " + name);
+        }
+        return url;
+    }
+
+    /**
+     * Transcodes the specified image with the default template.
+     *
+     * @param url     the URL of the image
+     * @param session the session loading the image, or null to use a new session
+     */
+    static String transcode(URL url, TranscodingSession session) {
+        return transcode(url, session, Template.getDefault());
+    }
+
+    /**
+     * Transcodes the specified image into the class Icon.
+     *
+     * @param url      the URL of the image
+     * @param session  the session loading the image, or null to use a new session
+     * @param template the template of the class generated
+     */
+    static String transcode(URL url, TranscodingSession session, Template template) {
+        StringWriter out = new StringWriter();
+
+        SvgTranscoder transcoder = new SvgTranscoder(url, "Icon");
+        transcoder.setTemplate(template);
+        transcoder.setSession(session);
+        transcoder.setPrintWriter(new PrintWriter(out));
+        transcoder.transcode();
+
+        String code = out.toString();
+        if (code.isEmpty()) {
+            throw new IllegalStateException("Unable to transcode " + url);
+        }
+        return code;
+    }
+
+    /**
+     * Transcodes the specified image and compiles the class generated.
+     *
+     * @param url      the URL of the image
+     * @param template the template of the class generated
+     */
+    static Class<?> compile(URL url, Template template) throws ClassNotFoundException {
+        Map<String, byte[]> classes = new InMemoryCompiler().compile(Collections.singletonMap("Icon", transcode(url, null, template)), null);
+        if (classes == null) {
+            throw new IllegalStateException("Unable to compile the class generated for " + url);
+        }
+
+        return new InMemoryCompiler.CompiledClassLoader(classes, Samples.class.getClassLoader()).loadClass("Icon");
+    }
+}
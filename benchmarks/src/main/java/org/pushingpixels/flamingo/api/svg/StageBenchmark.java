@@ -0,0 +1,144 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.awt.geom.Rectangle2D;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.batik.bridge.BridgeContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The stages of the transcoding of the sample images, each stage receiving
+ * the result of the previous stages computed once by the setup:
+ * <ol>
+ *   <li>the cleanup of the SVG file by the XSLT stylesheet</li>
+ *   <li>the parsing of the cleaned document and the build of the GVT tree, with its bounds</li>
+ *   <li>the traversal of the GVT tree and the emission of the painting code</li>
+ *   <li>the application of the template</li>
+ * </ol>
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StageBenchmark {
+
+    @Param({"apache-feather.svg", "apache-feather.svgz", "edit-copy.svg", "edit-cut.svg", "edit-paste.svg", "text.svg"})
+    public String file;
+
+    private URL url;
+
+    /** The session running the cleanup and the build stages. */
+    private TranscodingSession session;
+
+    /** The content of the file cleaned by the stylesheet. */
+    private byte[] cleanedContent;
+
+    /** The session holding the GVT tree traversed by the emission stage. */
+    private TranscodingSession contextSession;
+
+    /** The context holding the GVT tree traversed by the emission stage. */
+    private BridgeContext context;
+
+    private SvgTranscoder transcoder;
+
+    /** The parameters of the template, as computed by the emission stage. */
+    private Map<Template.Token, Object> parameters;
+
+    private Template template = Template.getDefault();
+
+    @Setup
+    public void setUp() throws Exception {
+        url = Samples.getURL(file);
+        session = new TranscodingSession();
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (InputStream in = session.clean(url)) {
+            byte[] bytes = new byte[8192];
+            int length;
+            while ((length = in.read(bytes)) != -1) {
+                buffer.write(bytes, 0, length);
+            }
+        }
+        cleanedContent = buffer.toByteArray();
+
+        contextSession = new TranscodingSession();
+        context = contextSession.load(url);
+
+        transcoder = new SvgTranscoder(url, "Icon");
+        parameters = transcoder.transcodeParameters(context);
+    }
+
+    @TearDown
+    public void tearDown() {
+        contextSession.release(context);
+    }
+
+    @Benchmark
+    public InputStream cleanup() throws Exception {
+        return session.clean(url);
+    }
+
+    /**
+     * Parses the cleaned document and builds the GVT tree. The bounds of the
+     * nodes are computed lazily by Batik, they are computed here to prevent
+     * the emission stage from benefiting from the cached bounds.
+     */
+    @Benchmark
+    public Rectangle2D build() throws Exception {
+        BridgeContext context = session.load(url, new ByteArrayInputStream(cleanedContent));
+        try {
+            return context.getGraphicsNode(context.getDocument()).getBounds();
+        } finally {
+            session.release(context);
+        }
+    }
+
+    @Benchmark
+    public Map<Template.Token, Object> emission() throws IOException {
+        return transcoder.transcodeParameters(context);
+    }
+
+    @Benchmark
+    public String template() {
+        StringWriter out = new StringWriter();
+        template.apply(new PrintWriter(out), parameters);
+        return out.toString();
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Full transcodings of the sample images with the default template,
+ * from the SVG file to the generated class.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TranscoderBenchmark {
+
+    @Param({"apache-feather.svg", "apache-feather.svgz", "edit-copy.svg", "edit-cut.svg", "edit-paste.svg", "text.svg"})
+    public String file;
+
+    private URL url;
+
+    /** The session reused by the transcodings of the thread. */
+    private TranscodingSession session;
+
+    @Setup
+    public void setUp() {
+        url = Samples.getURL(file);
+        session = new TranscodingSession();
+    }
+
+    /**
+     * Transcodes the image with the session of the thread, like the batch converter.
+     */
+    @Benchmark
+    public String transcode() {
+        return Samples.transcode(url, session);
+    }
+
+    /**
+     * Transcodes the image with a new session, like a single transcoding.
+     */
+    @Benchmark
+    public String transcodeWithNewSession() {
+        return Samples.transcode(url, null);
+    }
+}
@@ -0,0 +1,463 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.lang.model.SourceVersion;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.ToolProvider;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.commons.ClassRemapper;
+import org.objectweb.asm.commons.SimpleRemapper;
+
+/**
+ * Emits the class files of the transcoded images directly, without generating and compiling their source.
+ * 
+ * <p>The template is compiled once into a skeleton class, with the painting code replaced by the call of
+ * an empty method and the dimensions and the other values replaced by static fields. For each image the skeleton
+ * is renamed, the values are inlined, and the painting operations recorded by the transcoder are compiled into
+ * a chain of methods split by their size in bytes, each method staying below the limit of the JIT compiler.</p>
+ * 
+ * <p>The constants of the painting code are added to the constant pool before the skeleton, the most
+ * frequent first, to load them with the short form of the ldc instruction. The path coordinates are
+ * stored in single precision, like the double precision coordinates are rounded by the paths.</p>
+ * 
+ * <p>The bytecode is emitted from the {@link PaintingOperations} recorded alongside the painting code, each
+ * operation holding the values of the statement written for it, and never from the text of the painting code.
+ * The operations are compiled by {@link PaintingOperationsCompiler} against the types and the members of the
+ * template. The source of the class is written instead if a statement has no operation, like the glyphs
+ * of the glyph cache. The skeleton is compiled by the Java compiler once per emitter, with the 1.7 level
+ * of the project, or the lowest level supported by the compiler above it.</p>
+ * 
+ * <p>The emitter isn't thread safe.</p>
+ */
+public class ClassFileEmitter {
+
+    /** The maximum size in bytes of the painting methods, the larger methods aren't compiled by the JIT compiler. */
+    public static final int METHOD_SIZE_LIMIT = 8000;
+
+    /** The name of the class compiled from the template. */
+    private static final String SKELETON_NAME = "SvgTranscoderSkeleton";
+
+    /** The names of the static fields replacing the values of the tokens in the skeleton, by token. */
+    private static final Map<Template.Token, String> VALUE_FIELDS = new LinkedHashMap<>();
+
+    static {
+        for (Template.Token token : Arrays.asList(Template.Token.X, Template.Token.Y, Template.Token.WIDTH, Template.Token.HEIGHT, Template.Token.GROUP_CLIPPING)) {
+            VALUE_FIELDS.put(token, "SVG_TRANSCODER_" + token.name());
+        }
+    }
+
+    /** The bytecode of the skeleton and of its nested classes, by internal name. */
+    private final Map<String, byte[]> skeleton;
+
+    /** The descriptor of the painting methods. */
+    private final String descriptor;
+
+    /** The names of the parameters of the painting methods. */
+    private final List<String> parameterNames;
+
+    private final ClassModel model;
+
+    /**
+     * Creates an emitter of the classes of the specified template.
+     *
+     * @param template  the template, declaring the parameters of the painting methods
+     * @param classpath the classpath of the API used by the template
+     * @throws IllegalArgumentException if the template doesn't declare the parameters of the painting
+     *         methods or doesn't compile against the classpath
+     */
+    public ClassFileEmitter(Template template, String classpath) {
+        String parameters = template.getPaintingParameters();
+        if (parameters == null || !template.hasToken(Template.Token.PAINTING_CODE) || !template.hasToken(Template.Token.DECLARATIONS)) {
+            throw new IllegalArgumentException("The template " + template.getURL() + " doesn't declare the painting parameters and declarations");
+        }
+        parameterNames = Arrays.asList(SvgTranscoder.getParameterNames(parameters).split(", "));
+        
+        StringBuilder declarations = new StringBuilder();
+        Map<Template.Token, Object> params = new HashMap<>();
+        params.put(Template.Token.PACKAGE, "");
+        params.put(Template.Token.CLASSNAME, SKELETON_NAME);
+        for (Map.Entry<Template.Token, String> field : VALUE_FIELDS.entrySet()) {
+            // qualified to be read by the initializers of the fields declared before
+            params.put(field.getKey(), SKELETON_NAME + "." + field.getValue());
+            declarations.append(field.getKey() == Template.Token.GROUP_CLIPPING ? "    static boolean " : "    static int ").append(field.getValue()).append(";\n");
+        }
+        declarations.append("\n    private static void paint0(").append(parameters).append(") {\n    }\n");
+        params.put(Template.Token.DECLARATIONS, declarations.toString());
+        params.put(Template.Token.PAINTING_CODE, "        paint0(" + SvgTranscoder.getParameterNames(parameters) + ");");
+        
+        StringWriter source = new StringWriter();
+        template.apply(new PrintWriter(source), params);
+        
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalArgumentException("No Java compiler is available, a JDK is required");
+        }
+        List<String> options = getCompilerOptions(getRelease(compiler));
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        Map<String, byte[]> classes = new InMemoryCompiler(classpath, options).compile(Collections.singletonMap(SKELETON_NAME, source.toString()), diagnostics);
+        if (classes == null) {
+            String error = "";
+            for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+                if (diagnostic.getKind() == Diagnostic.Kind.ERROR && error.isEmpty()) {
+                    error = ": line " + diagnostic.getLineNumber() + ": " + diagnostic.getMessage(null);
+                }
+            }
+            throw new IllegalArgumentException("The template " + template.getURL() + " doesn't compile" + error);
+        }
+        
+        skeleton = new HashMap<>();
+        for (Map.Entry<String, byte[]> cls : classes.entrySet()) {
+            skeleton.put(cls.getKey().replace('.', '/'), cls.getValue());
+        }
+        
+        final String[] paintDescriptor = new String[1];
+        new ClassReader(skeleton.get(SKELETON_NAME)).accept(new ClassVisitor(Opcodes.ASM9) {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                if (name.equals("paint0")) {
+                    paintDescriptor[0] = descriptor;
+                }
+                return null;
+            }
+        }, ClassReader.SKIP_CODE);
+        descriptor = paintDescriptor[0];
+        
+        model = new ClassModel(SKELETON_NAME, skeleton, source.toString(), new URLClassLoader(toURLs(classpath), ClassLoader.getSystemClassLoader().getParent()));
+    }
+
+    /**
+     * Returns the release the skeleton is compiled for: the 1.7 level of the project, or the lowest
+     * release above it accepted by the compiler. The compilers of Java 20 and later no longer support
+     * the release 7, and the source versions they declare include the releases they reject, each
+     * release is thus tried until the compiler accepts the options.
+     *
+     * @param compiler the Java compiler
+     * @return the version of the release, 7 for Java 7
+     * @throws IllegalArgumentException if the compiler supports no release from Java 7
+     */
+    static int getRelease(JavaCompiler compiler) {
+        List<SourceVersion> versions = new ArrayList<>(compiler.getSourceVersions());
+        Collections.sort(versions);
+        for (SourceVersion version : versions) {
+            if (version.compareTo(SourceVersion.RELEASE_7) >= 0) {
+                int release = Integer.parseInt(version.name().substring("RELEASE_".length()));
+                try {
+                    compiler.getTask(null, null, null, getCompilerOptions(release), null, null);
+                    return release;
+                } catch (IllegalArgumentException e) {
+                    // release not supported, try the next one
+                }
+            }
+        }
+        throw new IllegalArgumentException("The Java compiler doesn't support any release from Java 7");
+    }
+
+    private static List<String> getCompilerOptions(int release) {
+        List<String> options = new ArrayList<>(Arrays.asList("-Xlint:-options"));
+        if (System.getProperty("java.specification.version").startsWith("1.")) {
+            options.addAll(Arrays.asList("-source", "1." + release, "-target", "1." + release));
+        } else {
+            options.addAll(Arrays.asList("--release", String.valueOf(release)));
+        }
+        return options;
+    }
+
+    private static URL[] toURLs(String classpath) {
+        List<URL> urls = new ArrayList<>();
+        for (String path : classpath.split(File.pathSeparator)) {
+            if (!path.isEmpty()) {
+                try {
+                    urls.add(new File(path).toURI().toURL());
+                } catch (MalformedURLException e) {
+                    throw new IllegalArgumentException("Invalid classpath entry: " + path, e);
+                }
+            }
+        }
+        return urls.toArray(new URL[urls.size()]);
+    }
+
+    /**
+     * Emits the classes of a transcoded image.
+     *
+     * @param packageName the package of the class, or null for the default package
+     * @param params      the values of the tokens of the template, the painting code being ignored
+     * @param operations  the painting operations recorded with the painting code, or null if they weren't recorded
+     * @param metrics     the metrics receiving the number of painting methods and the size of the classes, or null
+     * @return the bytecode of the class and of its nested classes, by fully qualified class name
+     * @throws IllegalArgumentException if the operations weren't recorded or aren't complete, if the template
+     *         can't compile an operation, or if the class exceeds the limits of the class file format
+     */
+    Map<String, byte[]> emit(String packageName, Map<Template.Token, Object> params, PaintingOperations operations, TranscodingMetrics metrics) {
+        if (operations == null) {
+            throw new IllegalArgumentException("The painting operations weren't recorded");
+        }
+        if (operations.getUnsupported() != null) {
+            throw new IllegalArgumentException("No painting operation is recorded for " + operations.getUnsupported());
+        }
+        if (!params.get(Template.Token.DECLARATIONS).toString().trim().isEmpty()) {
+            throw new IllegalArgumentException("The declarations of the painting code aren't supported");
+        }
+        
+        String className = params.get(Template.Token.CLASSNAME).toString();
+        String internalName = packageName == null || packageName.isEmpty() ? className : packageName.replace('.', '/') + "/" + className;
+        Map<String, String> mapping = new HashMap<>();
+        for (String name : skeleton.keySet()) {
+            mapping.put(name, internalName + name.substring(SKELETON_NAME.length()));
+        }
+        
+        Map<String, Integer> values = new HashMap<>();
+        for (Map.Entry<Template.Token, String> field : VALUE_FIELDS.entrySet()) {
+            Object value = params.get(field.getKey());
+            values.put(field.getValue(), value instanceof Boolean ? ((Boolean) value ? 1 : 0) : (Integer) value);
+        }
+        
+        Map<String, byte[]> classes = new LinkedHashMap<>();
+        int methodCount = 0;
+        long byteCount = 0;
+        try {
+            for (Map.Entry<String, byte[]> cls : skeleton.entrySet()) {
+                boolean top = cls.getKey().equals(SKELETON_NAME);
+                ClassWriter cw = top ? new FrameComputingClassWriter(mapping) : new ClassWriter(0);
+                PaintingMethods methods = null;
+                if (top) {
+                    // the constants of the painting code first, in the first 256 entries of the pool
+                    registerConstants(cw, operations.getOperations());
+                    methods = new PaintingMethods(cw, operations.getOperations());
+                }
+                
+                ClassVisitor cv = new ClassRemapper(cw, new SimpleRemapper(mapping));
+                new ClassReader(cls.getValue()).accept(new SkeletonVisitor(cv, className + ".java", values, methods), 0);
+                
+                byte[] bytecode = cw.toByteArray();
+                classes.put(mapping.get(cls.getKey()).replace('/', '.'), bytecode);
+                byteCount += bytecode.length;
+                if (methods != null) {
+                    methodCount = methods.count;
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            // MethodTooLargeException and ClassTooLargeException
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+        
+        if (metrics != null) {
+            metrics.methodCount = methodCount;
+            metrics.byteCount = byteCount;
+            metrics.lineCount = 0;
+        }
+        return classes;
+    }
+
+    /**
+     * Adds the constants loaded by the painting code to the pool of the class, the single slot
+     * constants first by decreasing frequency, to load the most frequent with the short ldc instruction.
+     */
+    private void registerConstants(ClassWriter cw, List<PaintingOperations.Operation> operations) {
+        final Map<Object, Integer> counts = new HashMap<>();
+        PaintingOperationsCompiler compiler = new PaintingOperationsCompiler(model, parameterNames, descriptor);
+        for (PaintingOperations.Operation operation : operations) {
+            for (Object constant : compiler.compile(operation).getConstants()) {
+                Integer count = counts.get(constant);
+                counts.put(constant, count == null ? 1 : count + 1);
+            }
+        }
+        
+        List<Object> constants = new ArrayList<>(counts.keySet());
+        Collections.sort(constants, new Comparator<Object>() {
+            @Override
+            public int compare(Object constant1, Object constant2) {
+                boolean wide1 = constant1 instanceof Long || constant1 instanceof Double;
+                boolean wide2 = constant2 instanceof Long || constant2 instanceof Double;
+                if (wide1 != wide2) {
+                    return wide1 ? 1 : -1;
+                }
+                return counts.get(constant2) - counts.get(constant1);
+            }
+        });
+        
+        for (Object constant : constants) {
+            cw.newConst(constant);
+        }
+    }
+
+    /**
+     * The painting code compiled into a chain of methods, each method calling the next one.
+     */
+    private class PaintingMethods {
+        /** The number of methods. */
+        int count;
+
+        private final List<PaintingOperationsCompiler.Code> methods = new ArrayList<>();
+
+        PaintingMethods(ClassWriter cw, List<PaintingOperations.Operation> operations) {
+            PaintingOperationsCompiler compiler = new PaintingOperationsCompiler(model, parameterNames, descriptor);
+            int epilogueSize = compiler.end("paint", descriptor).size(cw);
+            
+            PaintingOperationsCompiler.Code method = compiler.begin();
+            int size = method.size(cw);
+            boolean empty = true;
+            for (PaintingOperations.Operation operation : operations) {
+                Object[] state = compiler.saveState();
+                PaintingOperationsCompiler.Code statement = compiler.compile(operation);
+                int statementSize = statement.size(cw);
+                if (!empty && size + statementSize + epilogueSize > METHOD_SIZE_LIMIT) {
+                    // the operation starts the next method, the blocks open are closed and tested again
+                    compiler.restoreState(state);
+                    method.add(compiler.end("paint" + (methods.size() + 1), descriptor));
+                    methods.add(method);
+                    
+                    method = compiler.begin();
+                    size = method.size(cw);
+                    statement = compiler.compile(operation);
+                    statementSize = statement.size(cw);
+                    empty = true;
+                }
+                method.add(statement);
+                size += statementSize;
+                empty &= statementSize == 0;
+            }
+            method.add(compiler.end(null, descriptor));
+            methods.add(method);
+            count = methods.size();
+        }
+
+        void accept(ClassVisitor cv) {
+            for (int i = 0; i < methods.size(); i++) {
+                MethodVisitor mv = cv.visitMethod(Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC, "paint" + i, descriptor, null, null);
+                mv.visitCode();
+                methods.get(i).accept(mv);
+                mv.visitMaxs(0, 0);
+                mv.visitEnd();
+            }
+        }
+    }
+
+    /**
+     * Renames the source of the classes of the skeleton, inlines the values of the tokens,
+     * and replaces the empty painting method with the painting methods.
+     */
+    private class SkeletonVisitor extends ClassVisitor {
+        private final String source;
+        private final Map<String, Integer> values;
+        private final PaintingMethods methods;
+
+        SkeletonVisitor(ClassVisitor cv, String source, Map<String, Integer> values, PaintingMethods methods) {
+            super(Opcodes.ASM9, cv);
+            this.source = source;
+            this.values = values;
+            this.methods = methods;
+        }
+
+        @Override
+        public void visitSource(String source, String debug) {
+            super.visitSource(this.source, debug);
+        }
+
+        @Override
+        public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
+            return values.containsKey(name) ? null : super.visitField(access, name, descriptor, signature, value);
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+            if (methods != null && name.equals("paint0") && descriptor.equals(ClassFileEmitter.this.descriptor)) {
+                return null;
+            }
+            
+            return new MethodVisitor(Opcodes.ASM9, super.visitMethod(access, name, descriptor, signature, exceptions)) {
+                @Override
+                public void visitFieldInsn(int opcode, String owner, String name, String descriptor) {
+                    Integer value = values.get(name);
+                    if (opcode == Opcodes.GETSTATIC && owner.equals(SKELETON_NAME) && value != null) {
+                        if (value >= -1 && value <= 5) {
+                            super.visitInsn(Opcodes.ICONST_0 + value);
+                        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+                            super.visitIntInsn(value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE ? Opcodes.BIPUSH : Opcodes.SIPUSH, value);
+                        } else {
+                            super.visitLdcInsn(value);
+                        }
+                    } else {
+                        super.visitFieldInsn(opcode, owner, name, descriptor);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public void visitEnd() {
+            if (methods != null) {
+                methods.accept(cv);
+            }
+            super.visitEnd();
+        }
+    }
+
+    /**
+     * Class writer computing the stack map frames with the classes of the template and of the classpath.
+     */
+    private class FrameComputingClassWriter extends ClassWriter {
+        /** The internal names of the classes of the skeleton, by their name once renamed. */
+        private final Map<String, String> skeletonNames = new HashMap<>();
+
+        FrameComputingClassWriter(Map<String, String> mapping) {
+            super(ClassWriter.COMPUTE_FRAMES);
+            for (Map.Entry<String, String> name : mapping.entrySet()) {
+                skeletonNames.put(name.getValue(), name.getKey());
+            }
+        }
+
+        @Override
+        protected String getCommonSuperClass(String type1, String type2) {
+            String superClass = model.getCommonSuperClass(getSkeletonName(type1), getSkeletonName(type2));
+            for (Map.Entry<String, String> name : skeletonNames.entrySet()) {
+                if (name.getValue().equals(superClass)) {
+                    return name.getKey();
+                }
+            }
+            return superClass;
+        }
+
+        private String getSkeletonName(String type) {
+            return skeletonNames.containsKey(type) ? skeletonNames.get(type) : type;
+        }
+    }
+}
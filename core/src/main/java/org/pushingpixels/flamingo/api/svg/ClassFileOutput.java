@@ -0,0 +1,91 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+/**
+ * Writes the class files emitted into a folder, or into a jar if the name of the file ends with .jar.
+ * The classes of the jar are kept in memory and the jar is written again when the output is flushed,
+ * the classes converted again replacing the previous ones.
+ */
+class ClassFileOutput {
+
+    /** The folder or the jar receiving the class files. */
+    private final File file;
+
+    /** The class files of the jar by entry name, or null if the class files are written into a folder. */
+    private final Map<String, byte[]> entries;
+
+    ClassFileOutput(File file) {
+        this.file = file;
+        this.entries = file.getName().toLowerCase().endsWith(".jar") ? new LinkedHashMap<String, byte[]>() : null;
+    }
+
+    /**
+     * Writes the class files of a transcoded image.
+     *
+     * @param classes the bytecode of the classes by fully qualified class name
+     */
+    synchronized void write(Map<String, byte[]> classes) throws IOException {
+        for (Map.Entry<String, byte[]> cls : classes.entrySet()) {
+            String name = cls.getKey().replace('.', '/') + ".class";
+            if (entries != null) {
+                entries.put(name, cls.getValue());
+            } else {
+                File target = new File(file, name);
+                target.getParentFile().mkdirs();
+                Files.write(target.toPath(), cls.getValue());
+            }
+        }
+    }
+
+    /**
+     * Writes the jar with the class files written so far.
+     */
+    synchronized void flush() throws IOException {
+        if (entries == null) {
+            return;
+        }
+        
+        try (JarOutputStream out = new JarOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                out.putNextEntry(new JarEntry(entry.getKey()));
+                out.write(entry.getValue());
+                out.closeEntry();
+            }
+        }
+    }
+
+    /**
+     * Returns the file receiving the class file of the specified class, the jar itself if the classes are written into a jar.
+     *
+     * @param className the fully qualified name of the class
+     */
+    File getTarget(String className) {
+        return entries != null ? file : new File(file, className.replace('.', '/') + ".class");
+    }
+}
@@ -0,0 +1,453 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+/**
+ * Resolves the types and the members referenced by the painting code like the Java compiler
+ * compiling the source of the template: the simple names are resolved against the nested classes
+ * of the template and its imports, and the members against the bytecode of the template classes
+ * and the classes of the classpath.
+ */
+class ClassModel {
+
+    /**
+     * A method, a constructor or a field.
+     */
+    static class Member {
+        final String owner;
+        final String name;
+        final String descriptor;
+        final boolean isStatic;
+
+        Member(String owner, String name, String descriptor, boolean isStatic) {
+            this.owner = owner;
+            this.name = name;
+            this.descriptor = descriptor;
+            this.isStatic = isStatic;
+        }
+    }
+
+    /**
+     * The hierarchy and the non private members declared by a class.
+     */
+    static class ClassInfo {
+        String name;
+        String superName;
+        String[] interfaces = new String[0];
+        boolean isInterface;
+        final List<Member> methods = new ArrayList<>();
+        final List<Member> fields = new ArrayList<>();
+    }
+
+    /** The internal name of the top level class of the template. */
+    private final String className;
+
+    /** The bytecode of the classes of the template by internal name. */
+    private final Map<String, byte[]> templateClasses;
+
+    /** The class loader of the classes referenced by the template. */
+    private final ClassLoader loader;
+
+    /** The internal names of the classes imported by the template, by simple name. */
+    private final Map<String, String> imports = new HashMap<>();
+
+    /** The packages imported on demand by the template, as prefixes of internal names. */
+    private final List<String> packages = new ArrayList<>();
+
+    /** The internal names of the classes whose static members are imported on demand. */
+    private final List<String> staticImports = new ArrayList<>();
+
+    /** The classes loaded by internal name, null for the classes not found. */
+    private final Map<String, ClassInfo> classes = new HashMap<>();
+
+    /** The types resolved by name, null for the names not resolved. */
+    private final Map<String, Type> types = new HashMap<>();
+
+    /** The methods found by owner, name and number of parameters. */
+    private final Map<String, List<Member>> methods = new HashMap<>();
+
+    /**
+     * @param className       the internal name of the top level class of the template
+     * @param templateClasses the bytecode of the classes compiled from the template, by internal name
+     * @param source          the source of the template, declaring the imports
+     * @param loader          the class loader of the classes referenced by the template
+     */
+    ClassModel(String className, Map<String, byte[]> templateClasses, String source, ClassLoader loader) {
+        this.className = className;
+        this.templateClasses = templateClasses;
+        this.loader = loader;
+        
+        packages.add("java/lang/");
+        for (String line : source.split("\n")) {
+            line = line.trim();
+            if (line.startsWith("import ") && line.endsWith(";")) {
+                String name = line.substring("import ".length(), line.length() - 1).trim();
+                boolean isStatic = name.startsWith("static ");
+                if (isStatic) {
+                    name = name.substring("static ".length()).trim();
+                }
+                
+                if (name.endsWith(".*")) {
+                    name = name.substring(0, name.length() - 2);
+                    if (isStatic) {
+                        Type type = resolveType(name);
+                        if (type != null) {
+                            staticImports.add(type.getInternalName());
+                        }
+                    } else {
+                        packages.add(name.replace('.', '/') + "/");
+                    }
+                } else if (!isStatic) {
+                    Type type = resolveType(name);
+                    if (type != null) {
+                        imports.put(name.substring(name.lastIndexOf('.') + 1), type.getInternalName());
+                    }
+                }
+            }
+        }
+    }
+
+    String getClassName() {
+        return className;
+    }
+
+    /**
+     * Resolves the name of a type as written in the template.
+     *
+     * @param name the simple or qualified name of a class, of a nested class or of a primitive type, with
+     *             optional type arguments and array brackets
+     * @return the type, or null if the name doesn't resolve
+     */
+    Type resolveType(String name) {
+        if (!types.containsKey(name)) {
+            types.put(name, resolveTypeName(name));
+        }
+        return types.get(name);
+    }
+
+    private Type resolveTypeName(String name) {
+        if (name.contains("<")) {
+            name = name.substring(0, name.indexOf('<')) + name.substring(name.lastIndexOf('>') + 1);
+        }
+        name = name.replace(" ", "");
+        if (name.endsWith("[]")) {
+            Type component = resolveType(name.substring(0, name.length() - 2));
+            return component != null ? Type.getType("[" + component.getDescriptor()) : null;
+        }
+        
+        switch (name) {
+            case "boolean": return Type.BOOLEAN_TYPE;
+            case "byte": return Type.BYTE_TYPE;
+            case "char": return Type.CHAR_TYPE;
+            case "short": return Type.SHORT_TYPE;
+            case "int": return Type.INT_TYPE;
+            case "long": return Type.LONG_TYPE;
+            case "float": return Type.FLOAT_TYPE;
+            case "double": return Type.DOUBLE_TYPE;
+            case "void": return Type.VOID_TYPE;
+        }
+        
+        String[] segments = name.split("\\.");
+        String internalName = resolveSimpleName(segments[0]);
+        int next = 1;
+        if (internalName == null) {
+            // qualified name, the package is the longest prefix followed by an existing class
+            for (int i = segments.length - 1; i > 0 && internalName == null; i--) {
+                StringBuilder candidate = new StringBuilder();
+                for (int j = 0; j <= i; j++) {
+                    candidate.append(j > 0 ? "/" : "").append(segments[j]);
+                }
+                if (getClassInfo(candidate.toString()) != null) {
+                    internalName = candidate.toString();
+                    next = i + 1;
+                }
+            }
+        }
+        
+        for (int i = next; i < segments.length && internalName != null; i++) {
+            internalName = internalName + "$" + segments[i];
+            if (getClassInfo(internalName) == null) {
+                internalName = null;
+            }
+        }
+        
+        return internalName != null ? Type.getObjectType(internalName) : null;
+    }
+
+    /**
+     * Resolves a simple class name against the nested classes of the template and its imports.
+     *
+     * @return the internal name of the class, or null if the name doesn't resolve
+     */
+    private String resolveSimpleName(String name) {
+        if (templateClasses.containsKey(className + "$" + name)) {
+            return className + "$" + name;
+        }
+        if (imports.containsKey(name)) {
+            return imports.get(name);
+        }
+        for (String pkg : packages) {
+            if (getClassInfo(pkg + name) != null) {
+                return pkg + name;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the hierarchy and the members of a class, read from the bytecode of the template classes
+     * or loaded from the classpath.
+     *
+     * @param internalName the internal name of the class
+     * @return the class, or null if not found
+     */
+    ClassInfo getClassInfo(String internalName) {
+        if (classes.containsKey(internalName)) {
+            return classes.get(internalName);
+        }
+        
+        ClassInfo info;
+        byte[] bytecode = templateClasses.get(internalName);
+        if (bytecode != null) {
+            info = read(bytecode);
+        } else {
+            try {
+                info = load(Class.forName(internalName.replace('/', '.'), false, loader));
+            } catch (ClassNotFoundException | LinkageError e) {
+                info = null;
+            }
+        }
+        
+        classes.put(internalName, info);
+        return info;
+    }
+
+    /**
+     * Reads the hierarchy and the members of a class compiled from the template.
+     */
+    private static ClassInfo read(byte[] bytecode) {
+        final ClassInfo info = new ClassInfo();
+        new ClassReader(bytecode).accept(new ClassVisitor(Opcodes.ASM9) {
+            @Override
+            public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+                info.name = name;
+                info.superName = superName;
+                info.interfaces = interfaces;
+                info.isInterface = (access & Opcodes.ACC_INTERFACE) != 0;
+            }
+
+            @Override
+            public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
+                if ((access & Opcodes.ACC_PRIVATE) == 0) {
+                    info.fields.add(new Member(info.name, name, descriptor, (access & Opcodes.ACC_STATIC) != 0));
+                }
+                return null;
+            }
+
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                if ((access & (Opcodes.ACC_PRIVATE | Opcodes.ACC_SYNTHETIC | Opcodes.ACC_BRIDGE)) == 0) {
+                    info.methods.add(new Member(info.name, name, descriptor, (access & Opcodes.ACC_STATIC) != 0));
+                }
+                return null;
+            }
+        }, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        return info;
+    }
+
+    /**
+     * Reads the hierarchy and the members of a class of the classpath by reflection.
+     */
+    private static ClassInfo load(Class<?> cls) {
+        ClassInfo info = new ClassInfo();
+        info.name = Type.getInternalName(cls);
+        info.isInterface = cls.isInterface();
+        if (cls.getSuperclass() != null) {
+            info.superName = Type.getInternalName(cls.getSuperclass());
+        } else if (cls.isInterface()) {
+            info.superName = "java/lang/Object";
+        }
+        Class<?>[] interfaces = cls.getInterfaces();
+        info.interfaces = new String[interfaces.length];
+        for (int i = 0; i < interfaces.length; i++) {
+            info.interfaces[i] = Type.getInternalName(interfaces[i]);
+        }
+        
+        for (Field field : cls.getDeclaredFields()) {
+            if (!Modifier.isPrivate(field.getModifiers())) {
+                info.fields.add(new Member(info.name, field.getName(), Type.getDescriptor(field.getType()), Modifier.isStatic(field.getModifiers())));
+            }
+        }
+        for (Method method : cls.getDeclaredMethods()) {
+            if (!Modifier.isPrivate(method.getModifiers()) && !method.isSynthetic() && !method.isBridge()) {
+                info.methods.add(new Member(info.name, method.getName(), Type.getMethodDescriptor(method), Modifier.isStatic(method.getModifiers())));
+            }
+        }
+        for (Constructor<?> constructor : cls.getDeclaredConstructors()) {
+            if (!Modifier.isPrivate(constructor.getModifiers()) && !constructor.isSynthetic()) {
+                info.methods.add(new Member(info.name, "<init>", Type.getConstructorDescriptor(constructor), false));
+            }
+        }
+        return info;
+    }
+
+    /**
+     * Returns the methods with the specified name and number of parameters, declared or inherited
+     * by a class. The constructors aren't inherited.
+     *
+     * @param owner the internal name of the class
+     * @param name  the name of the methods, {@code <init>} for the constructors
+     * @param arity the number of parameters
+     */
+    List<Member> getMethods(String owner, String name, int arity) {
+        String key = owner + "." + name + "/" + arity;
+        List<Member> found = methods.get(key);
+        if (found == null) {
+            Map<String, Member> methods = new LinkedHashMap<>();
+            collectMethods(owner, name, arity, methods);
+            found = new ArrayList<>(methods.values());
+            this.methods.put(key, found);
+        }
+        return found;
+    }
+
+    private void collectMethods(String owner, String name, int arity, Map<String, Member> methods) {
+        ClassInfo info = owner != null ? getClassInfo(owner) : null;
+        if (info == null) {
+            return;
+        }
+        
+        for (Member method : info.methods) {
+            if (method.name.equals(name) && Type.getArgumentTypes(method.descriptor).length == arity && !methods.containsKey(method.descriptor)) {
+                methods.put(method.descriptor, method);
+            }
+        }
+        
+        if (!name.equals("<init>")) {
+            collectMethods(info.superName, name, arity, methods);
+            for (String itf : info.interfaces) {
+                collectMethods(itf, name, arity, methods);
+            }
+        }
+    }
+
+    /**
+     * Returns the field with the specified name declared or inherited by a class.
+     *
+     * @return the field, or null if not found
+     */
+    Member getField(String owner, String name) {
+        ClassInfo info = owner != null ? getClassInfo(owner) : null;
+        if (info == null) {
+            return null;
+        }
+        
+        for (Member field : info.fields) {
+            if (field.name.equals(name)) {
+                return field;
+            }
+        }
+        
+        Member field = getField(info.superName, name);
+        for (int i = 0; i < info.interfaces.length && field == null; i++) {
+            field = getField(info.interfaces[i], name);
+        }
+        return field;
+    }
+
+    /**
+     * Returns the static field referenced by a simple name, declared by the top level class
+     * of the template or imported statically.
+     *
+     * @return the field, or null if not found
+     */
+    Member getStaticField(String name) {
+        Member field = getField(className, name);
+        for (int i = 0; i < staticImports.size() && (field == null || !field.isStatic); i++) {
+            field = getField(staticImports.get(i), name);
+        }
+        return field != null && field.isStatic ? field : null;
+    }
+
+    boolean isInterface(String internalName) {
+        ClassInfo info = getClassInfo(internalName);
+        return info != null && info.isInterface;
+    }
+
+    /**
+     * Tells if a value of the specified reference type can be assigned to the other type without cast.
+     */
+    boolean isAssignable(String from, String to) {
+        if (from.equals(to) || to.equals("java/lang/Object")) {
+            return true;
+        }
+        
+        ClassInfo info = getClassInfo(from);
+        if (info == null) {
+            return false;
+        }
+        if (info.superName != null && isAssignable(info.superName, to)) {
+            return true;
+        }
+        for (String itf : info.interfaces) {
+            if (isAssignable(itf, to)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the closest common super class of two classes, used to compute the stack map frames.
+     */
+    String getCommonSuperClass(String type1, String type2) {
+        if (isAssignable(type2, type1)) {
+            return type1;
+        }
+        if (isAssignable(type1, type2)) {
+            return type2;
+        }
+        if (isInterface(type1) || isInterface(type2)) {
+            return "java/lang/Object";
+        }
+        
+        String type = type1;
+        while (type != null && !isAssignable(type2, type)) {
+            ClassInfo info = getClassInfo(type);
+            type = info != null ? info.superName : null;
+        }
+        return type != null ? type : "java/lang/Object";
+    }
+}
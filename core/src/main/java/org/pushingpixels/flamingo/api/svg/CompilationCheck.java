@@ -0,0 +1,186 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaFileObject;
+
+/**
+ * Checks that the generated classes compile, before they reach the build of the
+ * project using them. The classes are compiled in memory by batches, amortizing
+ * the startup of the compiler, and the batches are compiled in parallel. The
+ * class files produced are discarded.
+ */
+public class CompilationCheck {
+
+    /** The number of classes compiled together by default. */
+    public static final int DEFAULT_BATCH_SIZE = 50;
+
+    private final InMemoryCompiler compiler;
+
+    /** The number of classes compiled together. */
+    private final int batchSize;
+
+    /** The threads compiling the batches. */
+    private final ExecutorService executor;
+
+    /** The names of the classes checked, in the order they were added. */
+    private final List<String> classNames = new ArrayList<>();
+
+    /** The sources of the batch being filled, by class name. */
+    private Map<String, String> batch = new LinkedHashMap<>();
+
+    /** The errors of the batches submitted. */
+    private final List<Future<Map<String, List<String>>>> results = new ArrayList<>();
+
+    /**
+     * Creates a check compiling the classes against the specified classpath.
+     *
+     * @param classpath   the classpath of the API used by the template of the generated classes
+     * @param threadCount the number of batches compiled simultaneously
+     * @param batchSize   the number of classes compiled together
+     */
+    public CompilationCheck(String classpath, int threadCount, int batchSize) {
+        this.compiler = new InMemoryCompiler(classpath);
+        this.batchSize = batchSize;
+        this.executor = Executors.newFixedThreadPool(threadCount);
+    }
+
+    /**
+     * Adds a generated class to the check. The class is compiled once its batch is full.
+     *
+     * @param className the fully qualified name of the class
+     * @param source    the source of the class
+     */
+    public void add(String className, String source) {
+        classNames.add(className);
+        batch.put(className, source);
+        if (batch.size() >= batchSize) {
+            submit();
+        }
+    }
+
+    private void submit() {
+        final Map<String, String> sources = batch;
+        batch = new LinkedHashMap<>();
+        results.add(executor.submit(new Callable<Map<String, List<String>>>() {
+            @Override
+            public Map<String, List<String>> call() {
+                return compile(sources);
+            }
+        }));
+    }
+
+    /**
+     * Compiles the last batch and waits for the compilation of all the classes.
+     *
+     * @return the errors of the classes failing to compile by class name, in the order the classes were added
+     */
+    public Map<String, List<String>> finish() throws InterruptedException {
+        if (!batch.isEmpty()) {
+            submit();
+        }
+        executor.shutdown();
+
+        Map<String, List<String>> errors = new HashMap<>();
+        try {
+            for (Future<Map<String, List<String>>> result : results) {
+                errors.putAll(result.get());
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Unable to compile the generated classes", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Map<String, List<String>> failures = new LinkedHashMap<>();
+        for (String className : classNames) {
+            if (errors.containsKey(className)) {
+                failures.put(className, errors.get(className));
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Compiles a batch of classes.
+     *
+     * @return the errors of the classes failing to compile, by class name
+     */
+    private Map<String, List<String>> compile(Map<String, String> sources) {
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        if (compiler.compile(sources, diagnostics) != null) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, List<String>> errors = new HashMap<>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() != Diagnostic.Kind.ERROR) {
+                continue;
+            }
+
+            String message = diagnostic.getMessage(null).replaceAll("\\s*\\n\\s*", " ");
+            Collection<String> failedClasses = sources.keySet();
+            if (diagnostic.getSource() != null) {
+                message = "line " + diagnostic.getLineNumber() + ": " + message;
+                failedClasses = Collections.singleton(getClassName(diagnostic.getSource()));
+            }
+
+            for (String className : failedClasses) {
+                if (!errors.containsKey(className)) {
+                    errors.put(className, new ArrayList<String>());
+                }
+                errors.get(className).add(message);
+            }
+        }
+
+        if (errors.isEmpty()) {
+            // the compilation failed without error reported on a class
+            for (String className : sources.keySet()) {
+                errors.put(className, Collections.singletonList("compilation failed"));
+            }
+        } else if (errors.size() < sources.size()) {
+            // the compiler stops reporting after 100 errors, the other classes are compiled again
+            Map<String, String> remaining = new LinkedHashMap<>(sources);
+            remaining.keySet().removeAll(errors.keySet());
+            errors.putAll(compile(remaining));
+        }
+        return errors;
+    }
+
+    /**
+     * Returns the name of the class of an in-memory source file.
+     */
+    private static String getClassName(JavaFileObject source) {
+        String path = source.toUri().getPath();
+        return path.substring(1, path.length() - JavaFileObject.Kind.SOURCE.extension.length()).replace('/', '.');
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The maximum complexity accepted for the code generated for an image. The budget is
+ * checked against the metrics of the transcoding, a limit of 0 disables the check.
+ */
+public class ComplexityBudget {
+
+    /** The maximum number of path segments. */
+    private long maxSegments;
+
+    /** The maximum number of draw calls. */
+    private int maxDrawCalls;
+
+    /** The maximum number of changes of the state of the graphics context. */
+    private int maxStateChanges;
+
+    /** The maximum estimated size of the bytecode of the painting methods. */
+    private long maxBytecodeSize;
+
+    /** The maximum number of gradients. */
+    private int maxGradients;
+
+    /**
+     * Parses a budget from a comma separated list of limits, for example
+     * <tt>segments=10000,drawcalls=500,statechanges=1000,bytecode=65536,gradients=20</tt>.
+     *
+     * @throws IllegalArgumentException if a limit is unknown or invalid
+     */
+    public static ComplexityBudget parse(String limits) {
+        ComplexityBudget budget = new ComplexityBudget();
+        for (String limit : limits.split(",")) {
+            String[] pair = limit.split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Invalid complexity limit: " + limit);
+            }
+
+            String name = pair[0].trim().toLowerCase();
+            long value = Long.parseLong(pair[1].trim());
+            switch (name) {
+                case "segments":
+                    budget.setMaxSegments(value);
+                    break;
+                case "drawcalls":
+                    budget.setMaxDrawCalls((int) value);
+                    break;
+                case "statechanges":
+                    budget.setMaxStateChanges((int) value);
+                    break;
+                case "bytecode":
+                    budget.setMaxBytecodeSize(value);
+                    break;
+                case "gradients":
+                    budget.setMaxGradients((int) value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown complexity limit: " + name + " (expected segments, drawcalls, statechanges, bytecode or gradients)");
+            }
+        }
+        return budget;
+    }
+
+    public void setMaxSegments(long maxSegments) {
+        this.maxSegments = maxSegments;
+    }
+
+    public void setMaxDrawCalls(int maxDrawCalls) {
+        this.maxDrawCalls = maxDrawCalls;
+    }
+
+    public void setMaxStateChanges(int maxStateChanges) {
+        this.maxStateChanges = maxStateChanges;
+    }
+
+    public void setMaxBytecodeSize(long maxBytecodeSize) {
+        this.maxBytecodeSize = maxBytecodeSize;
+    }
+
+    public void setMaxGradients(int maxGradients) {
+        this.maxGradients = maxGradients;
+    }
+
+    /**
+     * Checks the metrics of an image against the budget.
+     *
+     * @return the description of the limits exceeded, empty if the image is within the budget
+     */
+    public List<String> check(TranscodingMetrics metrics) {
+        List<String> violations = new ArrayList<>();
+        check(violations, "path segments", metrics.getSegmentCount(), maxSegments);
+        check(violations, "draw calls", metrics.getDrawCallCount(), maxDrawCalls);
+        check(violations, "state changes", metrics.getStateChangeCount(), maxStateChanges);
+        check(violations, "bytes of bytecode (estimated)", metrics.getEstimatedBytecodeSize(), maxBytecodeSize);
+        check(violations, "gradients", metrics.getGradientCount(), maxGradients);
+        return violations;
+    }
+
+    private void check(List<String> violations, String name, long value, long max) {
+        if (max > 0 && value > max) {
+            violations.add(value + " " + name + " > " + max);
+        }
+    }
+
+    /**
+     * Returns a summary of the complexity of the code generated for an image.
+     */
+    public static String getSummary(TranscodingMetrics metrics) {
+        return metrics.getSegmentCount() + " path segments, "
+                + metrics.getDrawCallCount() + " draw calls, "
+                + metrics.getStateChangeCount() + " state changes, "
+                + metrics.getGradientCount() + " gradients, "
+                + metrics.getEstimatedBytecodeSize() + " bytes of bytecode (estimated), "
+                + metrics.getMethodCount() + " method" + (metrics.getMethodCount() == 1 ? "" : "s");
+    }
+}
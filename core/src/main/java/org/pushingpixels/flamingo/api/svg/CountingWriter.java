@@ -0,0 +1,79 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writer counting the lines and the UTF-8 encoded bytes of the characters written.
+ */
+class CountingWriter extends FilterWriter {
+
+    private long lineCount;
+
+    private long byteCount;
+
+    CountingWriter(Writer out) {
+        super(out);
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        count((char) c);
+        out.write(c);
+    }
+
+    @Override
+    public void write(char[] buffer, int offset, int length) throws IOException {
+        for (int i = offset; i < offset + length; i++) {
+            count(buffer[i]);
+        }
+        out.write(buffer, offset, length);
+    }
+
+    @Override
+    public void write(String str, int offset, int length) throws IOException {
+        for (int i = offset; i < offset + length; i++) {
+            count(str.charAt(i));
+        }
+        out.write(str, offset, length);
+    }
+
+    private void count(char c) {
+        if (c == '\n') {
+            lineCount++;
+        }
+        if (c < 0x80) {
+            byteCount++;
+        } else if (c < 0x800 || Character.isSurrogate(c)) {
+            // a surrogate pair is encoded in 4 bytes
+            byteCount += 2;
+        } else {
+            byteCount += 3;
+        }
+    }
+
+    long getLineCount() {
+        return lineCount;
+    }
+
+    long getByteCount() {
+        return byteCount;
+    }
+}
@@ -0,0 +1,271 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Client of the {@link TranscodingDaemon} running on this machine. The address, the port
+ * and the token of the daemon are read from the file published by the daemon. The requests
+ * and the responses are exchanged as properties.
+ */
+class DaemonClient {
+
+    /** The header of the requests holding the token of the daemon. */
+    static final String TOKEN_HEADER = "X-Daemon-Token";
+
+    /** The time to wait for the connection to the daemon and for its status, in milliseconds. */
+    private static final int TIMEOUT = 2000;
+
+    private final String host;
+
+    private final int port;
+
+    private final String token;
+
+    DaemonClient(String host, int port, String token) {
+        this.host = host;
+        this.port = port;
+        this.token = token;
+    }
+
+    /**
+     * Returns the file where the daemon of the user publishes its address, its port and its token
+     * (~/.flamingo-svg-transcoder/daemon.properties).
+     */
+    static File getDefaultFile() {
+        return new File(System.getProperty("user.home"), ".flamingo-svg-transcoder" + File.separator + "daemon.properties");
+    }
+
+    /**
+     * Returns the client of the daemon published in the specified file, or null if no daemon is running.
+     */
+    static DaemonClient find(File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            properties.load(in);
+            DaemonClient client = new DaemonClient(properties.getProperty("host"), Integer.parseInt(properties.getProperty("port")), properties.getProperty("token"));
+            return "ok".equals(client.getHealth().getProperty("status")) ? client : null;
+        } catch (IOException | RuntimeException e) {
+            // the file was left by a daemon that was killed
+            return null;
+        }
+    }
+
+    /**
+     * Returns the status of the daemon.
+     */
+    Properties getHealth() throws IOException {
+        return send("GET", "/health", null);
+    }
+
+    /**
+     * Converts the files of the request with the daemon, and waits for the result.
+     */
+    Response transcode(Request request) throws IOException {
+        return new Response(send("POST", "/transcode", request.properties));
+    }
+
+    /**
+     * Stops the daemon once the requests in progress are completed.
+     */
+    void shutdown() throws IOException {
+        send("POST", "/shutdown", null);
+    }
+
+    private Properties send(String method, String path, Properties body) throws IOException {
+        URL url = new URL("http", host.contains(":") ? "[" + host + "]" : host, port, path);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setConnectTimeout(TIMEOUT);
+        if (body == null) {
+            connection.setReadTimeout(TIMEOUT);
+        }
+        connection.setRequestMethod(method);
+        connection.setRequestProperty(TOKEN_HEADER, token);
+        if (body != null) {
+            connection.setDoOutput(true);
+            try (OutputStream out = connection.getOutputStream()) {
+                body.store(out, null);
+            }
+        }
+
+        int status = connection.getResponseCode();
+        Properties response = new Properties();
+        try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            if (in != null) {
+                response.load(in);
+            }
+        }
+        if (status != HttpURLConnection.HTTP_OK) {
+            throw new IOException("The daemon returned the error " + status + ": " + response.getProperty("error"));
+        }
+
+        return response;
+    }
+
+    /**
+     * The files converted by a request, with the options and the package of the generated classes.
+     */
+    static class Request {
+
+        private final Properties properties;
+
+        Request(String packageName, List<String> options) {
+            properties = new Properties();
+            if (packageName != null) {
+                properties.setProperty("package", packageName);
+            }
+            properties.setProperty("options", String.valueOf(options.size()));
+            for (int i = 0; i < options.size(); i++) {
+                properties.setProperty("option." + i, options.get(i));
+            }
+            properties.setProperty("files", "0");
+        }
+
+        Request(Properties properties) {
+            this.properties = properties;
+        }
+
+        /**
+         * Adds a file converted by the request.
+         *
+         * @param file      the SVG image
+         * @param target    the file receiving the class generated
+         * @param className the name of the class generated
+         */
+        void add(File file, File target, String className) {
+            int index = getFileCount();
+            properties.setProperty("file." + index + ".source", file.getAbsolutePath());
+            properties.setProperty("file." + index + ".target", target.getAbsolutePath());
+            properties.setProperty("file." + index + ".class", className);
+            properties.setProperty("files", String.valueOf(index + 1));
+        }
+
+        String getPackageName() {
+            return properties.getProperty("package");
+        }
+
+        List<String> getOptions() {
+            List<String> options = new ArrayList<>();
+            int count = Integer.parseInt(properties.getProperty("options", "0"));
+            for (int i = 0; i < count; i++) {
+                options.add(properties.getProperty("option." + i));
+            }
+            return options;
+        }
+
+        int getFileCount() {
+            return Integer.parseInt(properties.getProperty("files", "0"));
+        }
+
+        File getFile(int index) {
+            return new File(properties.getProperty("file." + index + ".source"));
+        }
+
+        File getTarget(int index) {
+            return new File(properties.getProperty("file." + index + ".target"));
+        }
+
+        String getClassName(int index) {
+            return properties.getProperty("file." + index + ".class");
+        }
+    }
+
+    /**
+     * The result of the conversion of each file of a request: the messages logged, the error thrown,
+     * the metrics and the limits of the complexity budget exceeded.
+     */
+    static class Response {
+
+        private final Properties properties;
+
+        Response() {
+            this(new Properties());
+        }
+
+        Response(Properties properties) {
+            this.properties = properties;
+        }
+
+        Properties getProperties() {
+            return properties;
+        }
+
+        void setResult(int index, String log, String error, TranscodingMetrics metrics, List<String> budgetViolations) {
+            String prefix = "file." + index + ".";
+            properties.setProperty(prefix + "name", metrics.getFile());
+            properties.setProperty(prefix + "log", log);
+            if (error != null) {
+                properties.setProperty(prefix + "exception", error);
+            }
+            if (!budgetViolations.isEmpty()) {
+                StringBuilder violations = new StringBuilder();
+                for (String violation : budgetViolations) {
+                    violations.append(violations.length() > 0 ? "\n" : "").append(violation);
+                }
+                properties.setProperty(prefix + "budget", violations.toString());
+            }
+            metrics.store(properties, prefix + "metrics.");
+        }
+
+        /** Returns the messages logged by the conversion of the file. */
+        String getLog(int index) {
+            return properties.getProperty("file." + index + ".log", "");
+        }
+
+        /** Returns the stack trace of the exception that stopped the conversion of the file, or null. */
+        String getError(int index) {
+            return properties.getProperty("file." + index + ".exception");
+        }
+
+        TranscodingMetrics getMetrics(int index) {
+            String prefix = "file." + index + ".";
+            return TranscodingMetrics.load(properties.getProperty(prefix + "name"), properties, prefix + "metrics.");
+        }
+
+        List<String> getBudgetViolations(int index) {
+            String violations = properties.getProperty("file." + index + ".budget");
+            return violations != null ? Arrays.asList(violations.split("\n")) : Collections.<String>emptyList();
+        }
+
+        String getGlyphSummary() {
+            return properties.getProperty("glyphs");
+        }
+
+        void setGlyphSummary(String summary) {
+            if (summary != null) {
+                properties.setProperty("glyphs", summary);
+            }
+        }
+    }
+}
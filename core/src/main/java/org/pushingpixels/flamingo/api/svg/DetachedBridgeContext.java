@@ -0,0 +1,61 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.awt.geom.Dimension2D;
+
+import org.apache.batik.bridge.BridgeContext;
+import org.apache.batik.dom.GenericDOMImplementation;
+import org.apache.batik.gvt.GraphicsNode;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+
+/**
+ * Bridge context holding the GVT tree of a document without the document itself,
+ * which is released once the tree is built. The document is replaced by an empty
+ * document with the same URI, mapped to the root of the tree.
+ */
+class DetachedBridgeContext extends BridgeContext {
+
+    /** The empty document replacing the document released. */
+    private final Document document;
+
+    /** The root of the GVT tree. */
+    private GraphicsNode root;
+
+    DetachedBridgeContext(String documentURI, GraphicsNode root, Dimension2D documentSize) {
+        document = GenericDOMImplementation.getDOMImplementation().createDocument(null, "svg", null);
+        document.setDocumentURI(documentURI);
+        setDocumentSize(documentSize);
+        this.root = root;
+    }
+
+    @Override
+    public Document getDocument() {
+        return document;
+    }
+
+    @Override
+    public GraphicsNode getGraphicsNode(Node node) {
+        return node == document ? root : null;
+    }
+
+    @Override
+    public void dispose() {
+        root = null;
+    }
+}
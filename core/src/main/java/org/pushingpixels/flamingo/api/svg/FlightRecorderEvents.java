@@ -0,0 +1,266 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.pushingpixels.flamingo.api.svg;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The events of the transcoding recorded by Java Flight Recorder. This class is
+ * loaded by {@link TranscodingEvents} only if the JFR API is available.
+ */
+class FlightRecorderEvents extends TranscodingEvents {
+
+    @Category({"Flamingo", "SVG Transcoder"})
+    @StackTrace(false)
+    abstract static class FileEvent extends Event {
+        @Label("File")
+        String file;
+    }
+
+    @Name("org.pushingpixels.flamingo.svg.Transcode")
+    @Label("SVG Transcode")
+    @Description("The transcoding of an SVG file into a Java class")
+    static class TranscodeEvent extends FileEvent {
+        @Label("Nodes")
+        int nodes;
+
+        @Label("Shapes")
+        int shapes;
+
+        @Label("Path Segments")
+        long segments;
+
+        @Label("Glyphs")
+        int glyphs;
+
+        @Label("Lines")
+        long lines;
+
+        @Label("Size")
+        @DataAmount
+        long bytes;
+
+        @Label("Methods")
+        int methods;
+
+        @Label("Error")
+        String error;
+    }
+
+    @Name("org.pushingpixels.flamingo.svg.Clean")
+    @Label("SVG Cleanup")
+    @Description("The parsing and the cleanup of the SVG file by the XSLT stylesheet")
+    static class CleanEvent extends FileEvent {
+    }
+
+    @Name("org.pushingpixels.flamingo.svg.Parse")
+    @Label("SVG Parse")
+    @Description("The loading of the cleaned document by Batik")
+    static class ParseEvent extends FileEvent {
+    }
+
+    @Name("org.pushingpixels.flamingo.svg.Build")
+    @Label("GVT Build")
+    @Description("The build of the GVT tree of the document")
+    static class BuildEvent extends FileEvent {
+    }
+
+    @Name("org.pushingpixels.flamingo.svg.Tune")
+    @Label("Simplification Tuning")
+    @Description("The search of the simplification settings keeping the rendering within the maximum difference")
+    static class TuneEvent extends FileEvent {
+    }
+
+    @Name("org.pushingpixels.flamingo.svg.Emit")
+    @Label("Code Emission")
+    @Description("The traversal of the GVT tree and the emission of the painting code")
+    static class EmitEvent extends FileEvent {
+        @Label("Nodes")
+        int nodes;
+
+        @Label("Shapes")
+        int shapes;
+
+        @Label("Path Segments")
+        long segments;
+
+        @Label("Glyphs")
+        int glyphs;
+
+        @Label("Methods")
+        int methods;
+    }
+
+    @Name("org.pushingpixels.flamingo.svg.Write")
+    @Label("Class Writing")
+    @Description("The application of the template and the writing of the generated class")
+    static class WriteEvent extends FileEvent {
+        @Label("Lines")
+        long lines;
+
+        @Label("Size")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("org.pushingpixels.flamingo.svg.Batch")
+    @Label("SVG Batch Transcode")
+    @Description("The transcoding of a set of SVG files")
+    @Category({"Flamingo", "SVG Transcoder"})
+    @StackTrace(false)
+    static class BatchEvent extends Event {
+        @Label("Directory")
+        String directory;
+
+        @Label("Files")
+        int files;
+    }
+
+    private final EventType transcodeType = EventType.getEventType(TranscodeEvent.class);
+
+    /** The types of the events of the stages, indexed by the ordinal of the stage. */
+    private final EventType[] stageTypes = {
+            EventType.getEventType(CleanEvent.class),
+            EventType.getEventType(ParseEvent.class),
+            EventType.getEventType(BuildEvent.class),
+            EventType.getEventType(TuneEvent.class),
+            EventType.getEventType(EmitEvent.class),
+            EventType.getEventType(WriteEvent.class)
+    };
+
+    private final EventType batchType = EventType.getEventType(BatchEvent.class);
+
+    @Override
+    boolean isEnabled() {
+        if (transcodeType.isEnabled()) {
+            return true;
+        }
+        for (EventType type : stageTypes) {
+            if (type.isEnabled()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    Object begin(TranscodingMetrics.Stage stage) {
+        if (!(stage == null ? transcodeType : stageTypes[stage.ordinal()]).isEnabled()) {
+            return null;
+        }
+
+        FileEvent event;
+        if (stage == null) {
+            event = new TranscodeEvent();
+        } else {
+            switch (stage) {
+                case CLEAN:
+                    event = new CleanEvent();
+                    break;
+                case PARSE:
+                    event = new ParseEvent();
+                    break;
+                case BUILD:
+                    event = new BuildEvent();
+                    break;
+                case TUNE:
+                    event = new TuneEvent();
+                    break;
+                case EMIT:
+                    event = new EmitEvent();
+                    break;
+                default:
+                    event = new WriteEvent();
+            }
+        }
+        event.begin();
+        return event;
+    }
+
+    @Override
+    void commit(Object object, TranscodingMetrics metrics) {
+        if (object == null) {
+            return;
+        }
+
+        FileEvent event = (FileEvent) object;
+        event.end();
+        if (!event.shouldCommit()) {
+            return;
+        }
+
+        if (metrics != null) {
+            event.file = metrics.getFile();
+            if (event instanceof TranscodeEvent) {
+                TranscodeEvent transcodeEvent = (TranscodeEvent) event;
+                transcodeEvent.nodes = metrics.getNodeCount();
+                transcodeEvent.shapes = metrics.getShapeCount();
+                transcodeEvent.segments = metrics.getSegmentCount();
+                transcodeEvent.glyphs = metrics.getGlyphCount();
+                transcodeEvent.lines = metrics.getLineCount();
+                transcodeEvent.bytes = metrics.getByteCount();
+                transcodeEvent.methods = metrics.getMethodCount();
+                transcodeEvent.error = metrics.getError();
+            } else if (event instanceof EmitEvent) {
+                EmitEvent emitEvent = (EmitEvent) event;
+                emitEvent.nodes = metrics.getNodeCount();
+                emitEvent.shapes = metrics.getShapeCount();
+                emitEvent.segments = metrics.getSegmentCount();
+                emitEvent.glyphs = metrics.getGlyphCount();
+                emitEvent.methods = metrics.getMethodCount();
+            } else if (event instanceof WriteEvent) {
+                WriteEvent writeEvent = (WriteEvent) event;
+                writeEvent.lines = metrics.getLineCount();
+                writeEvent.bytes = metrics.getByteCount();
+            }
+        }
+        event.commit();
+    }
+
+    @Override
+    Object beginBatch() {
+        if (!batchType.isEnabled()) {
+            return null;
+        }
+
+        BatchEvent event = new BatchEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    void commitBatch(Object object, String directory, int fileCount) {
+        if (object == null) {
+            return;
+        }
+
+        BatchEvent event = (BatchEvent) object;
+        event.end();
+        if (event.shouldCommit()) {
+            event.directory = directory;
+            event.files = fileCount;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.awt.Shape;
+import java.awt.geom.PathIterator;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.batik.gvt.font.GVTFont;
+import org.pushingpixels.flamingo.api.svg.transcoders.GlyphTranscoder;
+
+/**
+ * Cache of the glyph outlines and of their transcoded paths, shared by the
+ * texts of an image and by the images transcoded in a batch.
+ *
+ * The glyphs are identified by the family and the size of their font and by
+ * their glyph code. Since the style of the font isn't exposed by Batik, the
+ * outlines of the glyphs sharing the same key are compared to distinguish
+ * the variants of a font family.
+ */
+public class GlyphOutlineCache {
+
+    /** The maximum distance between the coordinates of two identical outlines. */
+    private static final float TOLERANCE = 0.001f;
+
+    /** The glyphs by font family, font size and glyph code. */
+    private final Map<String, List<Glyph>> glyphs = new HashMap<>();
+
+    /** The number of glyphs found in the cache. */
+    private int hitCount;
+
+    /** The number of glyphs added to the cache. */
+    private int missCount;
+
+    /**
+     * Returns the transcoded path of the specified glyph, relative to the position of the glyph.
+     *
+     * @param font       the font of the glyph
+     * @param glyphCode  the code of the glyph
+     * @param outline    the outline of the glyph at the origin
+     * @param simplifier the simplifier applied to the outline, or null to keep it unchanged
+     */
+    public synchronized String getPath(GVTFont font, int glyphCode, Shape outline, PathSimplifier simplifier) {
+        String key = font.getFamilyName() + "/" + font.getSize() + "/" + glyphCode;
+
+        List<Glyph> variants = glyphs.get(key);
+        if (variants == null) {
+            variants = new ArrayList<>(1);
+            glyphs.put(key, variants);
+        }
+
+        Glyph glyph = null;
+        for (Glyph variant : variants) {
+            if (equals(variant.outline, outline)) {
+                glyph = variant;
+                hitCount++;
+                break;
+            }
+        }
+        if (glyph == null) {
+            glyph = new Glyph(outline);
+            variants.add(glyph);
+            missCount++;
+        }
+
+        String settings = simplifier != null ? simplifier.getTolerance() + "/" + simplifier.getPrecision() : "";
+        String path = glyph.paths.get(settings);
+        if (path == null) {
+            path = GlyphTranscoder.INSTANCE.transcode(simplifier != null ? simplifier.simplify(glyph.outline) : glyph.outline);
+            glyph.paths.put(settings, path);
+        }
+
+        return path;
+    }
+
+    /**
+     * Returns the number of distinct glyphs in the cache.
+     */
+    public synchronized int getGlyphCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the number of glyphs found in the cache.
+     */
+    public synchronized int getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Tells if two outlines have the same segments, with the same coordinates within the tolerance.
+     */
+    private boolean equals(Shape outline1, Shape outline2) {
+        PathIterator iterator1 = outline1.getPathIterator(null);
+        PathIterator iterator2 = outline2.getPathIterator(null);
+        float[] coords1 = new float[6];
+        float[] coords2 = new float[6];
+
+        while (!iterator1.isDone() && !iterator2.isDone()) {
+            int type = iterator1.currentSegment(coords1);
+            if (type != iterator2.currentSegment(coords2)) {
+                return false;
+            }
+            for (int i = 0; i < getCoordinateCount(type); i++) {
+                if (Math.abs(coords1[i] - coords2[i]) > TOLERANCE) {
+                    return false;
+                }
+            }
+            iterator1.next();
+            iterator2.next();
+        }
+
+        return iterator1.isDone() && iterator2.isDone();
+    }
+
+    private int getCoordinateCount(int type) {
+        switch (type) {
+            case PathIterator.SEG_CUBICTO:
+                return 6;
+            case PathIterator.SEG_QUADTO:
+                return 4;
+            case PathIterator.SEG_CLOSE:
+                return 0;
+            default:
+                return 2;
+        }
+    }
+
+    /**
+     * A glyph outline, with its paths transcoded for each simplification setting.
+     */
+    private static class Glyph {
+        final Shape outline;
+        final Map<String, String> paths = new HashMap<>();
+
+        Glyph(Shape outline) {
+            this.outline = outline;
+        }
+    }
+}
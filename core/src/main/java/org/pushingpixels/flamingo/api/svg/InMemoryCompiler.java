@@ -0,0 +1,154 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.tools.DiagnosticListener;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * Compiles the generated classes in memory with the compiler of the JDK,
+ * without writing the sources or the class files on the disk.
+ */
+public class InMemoryCompiler {
+
+    private final JavaCompiler compiler;
+
+    /** The options of the compiler. */
+    private final List<String> options;
+
+    /**
+     * Creates a compiler resolving the classes referenced on the classpath of the current JVM.
+     */
+    public InMemoryCompiler() {
+        this(System.getProperty("java.class.path"));
+    }
+
+    /**
+     * Creates a compiler resolving the classes referenced on the specified classpath.
+     */
+    public InMemoryCompiler(String classpath) {
+        this(classpath, Collections.<String>emptyList());
+    }
+
+    /**
+     * Creates a compiler resolving the classes referenced on the specified classpath, with additional
+     * options of the compiler, for example the target release.
+     */
+    public InMemoryCompiler(String classpath, List<String> options) {
+        compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("No Java compiler available, the compilation requires a JDK");
+        }
+        this.options = new ArrayList<>(Arrays.asList("-classpath", classpath, "-proc:none", "-nowarn"));
+        this.options.addAll(options);
+    }
+
+    /**
+     * Compiles the specified sources.
+     *
+     * @param sources  the source files by fully qualified class name
+     * @param listener the listener receiving the errors, or null to print them on the error output
+     * @return the bytecode of the classes compiled by fully qualified class name, nested classes included,
+     *         or null if the compilation failed
+     */
+    public Map<String, byte[]> compile(Map<String, String> sources, DiagnosticListener<? super JavaFileObject> listener) {
+        List<JavaFileObject> units = new ArrayList<>();
+        for (Map.Entry<String, String> source : sources.entrySet()) {
+            units.add(new SourceFile(source.getKey(), source.getValue()));
+        }
+
+        final Map<String, ByteArrayOutputStream> outputs = new HashMap<>();
+        StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(listener, null, null);
+        ForwardingJavaFileManager<StandardJavaFileManager> fileManager = new ForwardingJavaFileManager<StandardJavaFileManager>(standardFileManager) {
+            @Override
+            public JavaFileObject getJavaFileForOutput(Location location, final String className, JavaFileObject.Kind kind, FileObject sibling) {
+                return new SimpleJavaFileObject(URI.create("mem:///" + className.replace('.', '/') + kind.extension), kind) {
+                    @Override
+                    public OutputStream openOutputStream() {
+                        ByteArrayOutputStream out = new ByteArrayOutputStream();
+                        outputs.put(className, out);
+                        return out;
+                    }
+                };
+            }
+        };
+
+        boolean success = compiler.getTask(null, fileManager, listener, options, null, units).call();
+        if (!success) {
+            return null;
+        }
+
+        Map<String, byte[]> classes = new HashMap<>();
+        for (Map.Entry<String, ByteArrayOutputStream> output : outputs.entrySet()) {
+            classes.put(output.getKey(), output.getValue().toByteArray());
+        }
+        return classes;
+    }
+
+    /**
+     * A source file held in memory.
+     */
+    private static class SourceFile extends SimpleJavaFileObject {
+        private final String content;
+
+        SourceFile(String className, String content) {
+            super(URI.create("mem:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.content = content;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return content;
+        }
+    }
+
+    /**
+     * Class loader defining the classes compiled in memory.
+     */
+    public static class CompiledClassLoader extends ClassLoader {
+        private final Map<String, byte[]> classes;
+
+        public CompiledClassLoader(Map<String, byte[]> classes, ClassLoader parent) {
+            super(parent);
+            this.classes = classes;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] bytecode = classes.get(name);
+            if (bytecode == null) {
+                throw new ClassNotFoundException(name);
+            }
+            return defineClass(name, bytecode, 0, bytecode.length);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Paint;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.batik.ext.awt.MultipleGradientPaint;
+import org.apache.batik.gvt.CompositeGraphicsNode;
+import org.apache.batik.gvt.CompositeShapePainter;
+import org.apache.batik.gvt.FillShapePainter;
+import org.apache.batik.gvt.GraphicsNode;
+import org.apache.batik.gvt.ShapeNode;
+import org.apache.batik.gvt.ShapePainter;
+import org.apache.batik.gvt.StrokeShapePainter;
+import org.apache.batik.gvt.TextNode;
+
+/**
+ * Finds the nodes of a GVT tree that are provably invisible and can be
+ * skipped by the transcoder:
+ * <ul>
+ *   <li>the shapes with visibility="hidden"</li>
+ *   <li>the nodes with a zero opacity</li>
+ *   <li>the shapes without fill and stroke, or painted with fully transparent colors</li>
+ *   <li>the empty shapes, texts and groups</li>
+ *   <li>the nodes lying entirely outside the bounds of the document</li>
+ * </ul>
+ *
+ * Only the topmost invisible node of a subtree is reported.
+ */
+public class InvisibleNodeCuller {
+
+    /**
+     * The reasons for culling a node.
+     */
+    public enum Reason {
+        HIDDEN, TRANSPARENT, NOT_PAINTED, EMPTY, OUT_OF_BOUNDS
+    }
+
+    /** The nodes culled, with the reason. */
+    private final Map<GraphicsNode, Reason> culledNodes = new IdentityHashMap<>();
+
+    /**
+     * Finds the invisible nodes of the specified tree.
+     *
+     * @param root   the root of the GVT tree
+     * @param bounds the bounds of the document in the user space of the root, or null to keep the nodes out of the document
+     * @return the nodes culled
+     */
+    public Set<GraphicsNode> cull(GraphicsNode root, Rectangle2D bounds) {
+        culledNodes.clear();
+        if (bounds != null && root.getTransform() != null) {
+            // the bounds of the nodes are computed in the parent space of the root
+            bounds = root.getTransform().createTransformedShape(bounds).getBounds2D();
+        }
+        cull(root, new AffineTransform(), bounds);
+        return Collections.unmodifiableSet(culledNodes.keySet());
+    }
+
+    /**
+     * Returns the number of nodes culled by the last pass.
+     */
+    public int getCulledNodeCount() {
+        return culledNodes.size();
+    }
+
+    /**
+     * Returns the number of nodes culled by the last pass for the specified reason.
+     */
+    public int getCulledNodeCount(Reason reason) {
+        return Collections.frequency(culledNodes.values(), reason);
+    }
+
+    /**
+     * Returns the number of nodes culled by the last pass for each reason.
+     */
+    public Map<Reason, Integer> getCulledNodeCounts() {
+        Map<Reason, Integer> counts = new EnumMap<>(Reason.class);
+        for (Reason reason : Reason.values()) {
+            int count = getCulledNodeCount(reason);
+            if (count > 0) {
+                counts.put(reason, count);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Returns a summary of the nodes culled by the last pass, for example "3 nodes (hidden: 1, empty: 2)".
+     */
+    public String getSummary() {
+        StringBuilder summary = new StringBuilder();
+        summary.append(getCulledNodeCount()).append(getCulledNodeCount() == 1 ? " node" : " nodes");
+        String separator = " (";
+        for (Map.Entry<Reason, Integer> entry : getCulledNodeCounts().entrySet()) {
+            summary.append(separator).append(entry.getKey().name().toLowerCase().replace('_', ' ')).append(": ").append(entry.getValue());
+            separator = ", ";
+        }
+        if (getCulledNodeCount() > 0) {
+            summary.append(")");
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Examines the specified node and its children.
+     *
+     * @param node      the node
+     * @param transform the transformation from the parent of the node to the root
+     * @param bounds    the bounds of the document
+     * @return true if the node is visible
+     */
+    private boolean cull(GraphicsNode node, AffineTransform transform, Rectangle2D bounds) {
+        Reason reason = getReason(node, transform, bounds);
+
+        if (reason == null && node instanceof CompositeGraphicsNode) {
+            AffineTransform childTransform = new AffineTransform(transform);
+            if (node.getTransform() != null) {
+                childTransform.concatenate(node.getTransform());
+            }
+
+            boolean visibleChildren = false;
+            List children = ((CompositeGraphicsNode) node).getChildren();
+            for (int i = 0; i < children.size(); i++) {
+                visibleChildren |= cull((GraphicsNode) children.get(i), childTransform, bounds);
+            }
+
+            if (!visibleChildren) {
+                // the invisible children are reported with the group instead
+                for (int i = 0; i < children.size(); i++) {
+                    culledNodes.remove(children.get(i));
+                }
+                reason = Reason.EMPTY;
+            }
+        }
+
+        if (reason != null) {
+            culledNodes.put(node, reason);
+        }
+
+        return reason == null;
+    }
+
+    /**
+     * Returns the reason for culling the specified node, or null if the node may be visible.
+     */
+    private Reason getReason(GraphicsNode node, AffineTransform transform, Rectangle2D bounds) {
+        Composite composite = node.getComposite();
+        if (composite instanceof AlphaComposite && ((AlphaComposite) composite).getAlpha() < 0.001) {
+            return Reason.TRANSPARENT;
+        }
+
+        if (node instanceof ShapeNode) {
+            ShapeNode shapeNode = (ShapeNode) node;
+            if (!shapeNode.isVisible()) {
+                return Reason.HIDDEN;
+            }
+            if (shapeNode.getShape() == null || shapeNode.getShape().getPathIterator(null).isDone()) {
+                return Reason.EMPTY;
+            }
+            if (!isPainted(shapeNode.getShapePainter())) {
+                return Reason.NOT_PAINTED;
+            }
+        } else if (node instanceof TextNode) {
+            String text = ((TextNode) node).getText();
+            if (text == null || text.trim().length() == 0) {
+                return Reason.EMPTY;
+            }
+        }
+
+        Rectangle2D nodeBounds = node.getTransformedBounds(transform);
+        if (nodeBounds == null) {
+            return Reason.EMPTY;
+        }
+        if (bounds != null && (nodeBounds.getMaxX() < bounds.getMinX() || nodeBounds.getMinX() > bounds.getMaxX()
+                            || nodeBounds.getMaxY() < bounds.getMinY() || nodeBounds.getMinY() > bounds.getMaxY())) {
+            return Reason.OUT_OF_BOUNDS;
+        }
+
+        return null;
+    }
+
+    /**
+     * Tells if the specified painter paints something.
+     */
+    private boolean isPainted(ShapePainter painter) {
+        if (painter instanceof CompositeShapePainter) {
+            CompositeShapePainter compositePainter = (CompositeShapePainter) painter;
+            for (int i = 0; i < compositePainter.getShapePainterCount(); i++) {
+                if (isPainted(compositePainter.getShapePainter(i))) {
+                    return true;
+                }
+            }
+            return false;
+        } else if (painter instanceof FillShapePainter) {
+            return isVisible(((FillShapePainter) painter).getPaint());
+        } else if (painter instanceof StrokeShapePainter) {
+            return isVisible(((StrokeShapePainter) painter).getPaint());
+        } else {
+            return painter != null;
+        }
+    }
+
+    /**
+     * Tells if the specified paint has a visible color.
+     */
+    private boolean isVisible(Paint paint) {
+        if (paint instanceof Color) {
+            return ((Color) paint).getAlpha() > 0;
+        } else if (paint instanceof MultipleGradientPaint) {
+            for (Color color : ((MultipleGradientPaint) paint).getColors()) {
+                if (color.getAlpha() > 0) {
+                    return true;
+                }
+            }
+            return false;
+        } else {
+            return paint != null;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.math.BigDecimal;
+
+/**
+ * Report of the metrics of the files transcoded, one record per file followed
+ * by the sum of all the files. The report is written in CSV if the name of the
+ * file ends with .csv, and in NDJSON (one JSON object per line) otherwise.
+ */
+public class MetricsReport {
+
+    private static final String[] COLUMNS = {
+            "file", "total_ms", "clean_ms", "parse_ms", "build_ms", "tune_ms", "emit_ms", "write_ms",
+            "nodes", "shapes", "segments", "glyphs", "lines", "bytes", "methods",
+            "draw_calls", "state_changes", "gradients", "bytecode_estimate", "error"
+    };
+
+    private final PrintWriter out;
+
+    private final boolean csv;
+
+    /** The sum of the metrics of the files. */
+    private final TranscodingMetrics total = new TranscodingMetrics(null);
+
+    /** The number of files reported. */
+    private int fileCount;
+
+    /** The metrics of the file transcoded the most slowly. */
+    private TranscodingMetrics slowest;
+
+    public MetricsReport(File file) throws IOException {
+        out = new PrintWriter(file, "UTF-8");
+        csv = file.getName().toLowerCase().endsWith(".csv");
+        if (csv) {
+            StringBuilder header = new StringBuilder();
+            for (String column : COLUMNS) {
+                header.append(header.length() > 0 ? "," : "").append(column);
+            }
+            out.println(header);
+        }
+    }
+
+    /**
+     * Writes the metrics of a file transcoded.
+     */
+    public synchronized void write(TranscodingMetrics metrics) {
+        writeRecord(metrics, false);
+        total.add(metrics);
+        fileCount++;
+        if (slowest == null || metrics.getTotalTime() > slowest.getTotalTime()) {
+            slowest = metrics;
+        }
+    }
+
+    /**
+     * Writes the sum of the metrics of all the files and closes the report.
+     */
+    public synchronized void close() {
+        writeRecord(total, true);
+        out.close();
+    }
+
+    /**
+     * Returns a summary of the metrics of all the files.
+     */
+    public synchronized String getSummary() {
+        StringBuilder summary = new StringBuilder();
+        summary.append(fileCount).append(" files in ").append(millis(total.getTotalTime())).append(" ms (");
+        for (TranscodingMetrics.Stage stage : TranscodingMetrics.Stage.values()) {
+            summary.append(stage.name().toLowerCase()).append(" ").append(millis(total.getTime(stage))).append(" ms");
+            summary.append(stage.ordinal() < TranscodingMetrics.Stage.values().length - 1 ? ", " : ")");
+        }
+        summary.append(", ").append(total.getNodeCount()).append(" nodes, ")
+               .append(total.getSegmentCount()).append(" segments, ")
+               .append(total.getLineCount()).append(" lines, ")
+               .append(total.getByteCount()).append(" bytes");
+        if (slowest != null) {
+            summary.append(", slowest: ").append(slowest.getFile()).append(" (").append(millis(slowest.getTotalTime())).append(" ms)");
+        }
+        return summary.toString();
+    }
+
+    private void writeRecord(TranscodingMetrics metrics, boolean summary) {
+        Object[] values = {
+                summary ? null : metrics.getFile(),
+                millis(metrics.getTotalTime()),
+                millis(metrics.getTime(TranscodingMetrics.Stage.CLEAN)),
+                millis(metrics.getTime(TranscodingMetrics.Stage.PARSE)),
+                millis(metrics.getTime(TranscodingMetrics.Stage.BUILD)),
+                millis(metrics.getTime(TranscodingMetrics.Stage.TUNE)),
+                millis(metrics.getTime(TranscodingMetrics.Stage.EMIT)),
+                millis(metrics.getTime(TranscodingMetrics.Stage.WRITE)),
+                metrics.getNodeCount(),
+                metrics.getShapeCount(),
+                metrics.getSegmentCount(),
+                metrics.getGlyphCount(),
+                metrics.getLineCount(),
+                metrics.getByteCount(),
+                metrics.getMethodCount(),
+                metrics.getDrawCallCount(),
+                metrics.getStateChangeCount(),
+                metrics.getGradientCount(),
+                metrics.getEstimatedBytecodeSize(),
+                metrics.getError()
+        };
+
+        StringBuilder record = new StringBuilder();
+        if (csv) {
+            for (int i = 0; i < values.length; i++) {
+                record.append(i > 0 ? "," : "");
+                if (i == 0 && summary) {
+                    record.append("TOTAL");
+                } else if (values[i] instanceof String) {
+                    record.append('"').append(((String) values[i]).replace("\"", "\"\"")).append('"');
+                } else if (values[i] != null) {
+                    record.append(values[i]);
+                }
+            }
+        } else {
+            record.append('{');
+            if (summary) {
+                record.append("\"summary\":true,\"files\":").append(fileCount);
+            }
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] == null) {
+                    continue;
+                }
+                record.append(record.length() > 1 ? "," : "").append('"').append(COLUMNS[i]).append("\":");
+                if (values[i] instanceof String) {
+                    record.append('"').append(escape((String) values[i])).append('"');
+                } else {
+                    record.append(values[i]);
+                }
+            }
+            record.append('}');
+        }
+
+        out.println(record);
+    }
+
+    /**
+     * Converts a duration in nanoseconds into milliseconds, with 3 decimals.
+     */
+    private static BigDecimal millis(long nanos) {
+        return BigDecimal.valueOf(nanos / 1000, 3);
+    }
+
+    /**
+     * Escapes the quotes, the backslashes and the control characters of a JSON string.
+     */
+    private static String escape(String value) {
+        StringBuilder escaped = new StringBuilder();
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 0x20) {
+                escaped.append(String.format("\\u%04x", (int) c));
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
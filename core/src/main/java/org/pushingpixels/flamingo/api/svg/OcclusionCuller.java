@@ -0,0 +1,299 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Paint;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Area;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.batik.ext.awt.MultipleGradientPaint;
+import org.apache.batik.gvt.CompositeGraphicsNode;
+import org.apache.batik.gvt.CompositeShapePainter;
+import org.apache.batik.gvt.FillShapePainter;
+import org.apache.batik.gvt.GraphicsNode;
+import org.apache.batik.gvt.ShapeNode;
+import org.apache.batik.gvt.ShapePainter;
+
+/**
+ * Finds the shapes of a GVT tree that are entirely covered by the opaque fills
+ * painted after them, and can be skipped by the transcoder to reduce the overdraw.
+ *
+ * The shapes are examined from the last painted to the first, while the area
+ * covered by the opaque fills is accumulated. A fill is considered opaque if
+ * its paint is fully opaque, and if neither the shape nor its ancestors are
+ * translucent, masked or filtered. The covered area is computed with {@link Area},
+ * after a quick rejection of the shapes outside of its bounding box. To bound
+ * the cost of the analysis the complexity of the covered area is limited, the
+ * rectangular fills beyond this limit are still checked individually with a
+ * conservative bounding box test. The groups whose children are all covered
+ * are skipped too.
+ *
+ * The analysis assumes the image is painted fully opaque. The generated code
+ * multiplies the opacity of the shapes by the opacity of the graphics context
+ * (<code>origAlpha</code>), and when the image is painted with a translucent
+ * graphics context the opaque fills become translucent too: the shapes removed
+ * would have shown through, and the rendering differs. The culling should only
+ * be enabled for the images always painted with a fully opaque context.
+ */
+public class OcclusionCuller {
+
+    /** The maximum number of segments of the covered area, beyond which the area operations become too expensive. */
+    private static final int MAX_SEGMENTS = 1000;
+
+    /** The nodes culled. */
+    private final Map<GraphicsNode, Boolean> culledNodes = new IdentityHashMap<>();
+
+    /** The number of shapes covered by the last pass. */
+    private int occludedShapeCount;
+
+    /**
+     * Finds the covered shapes of the specified tree.
+     *
+     * @param root the root of the GVT tree
+     * @return the nodes culled
+     */
+    public Set<GraphicsNode> cull(GraphicsNode root) {
+        culledNodes.clear();
+        occludedShapeCount = 0;
+
+        List<PaintedShape> shapes = new ArrayList<>();
+        collect(root, new AffineTransform(), null, true, true, shapes);
+
+        List<Rectangle2D> coveredRectangles = new ArrayList<>();
+        Area coveredArea = new Area();
+        int coveredAreaSegmentCount = 0;
+        for (int i = shapes.size() - 1; i >= 0; i--) {
+            PaintedShape shape = shapes.get(i);
+
+            if (shape.occludable && isCovered(shape.paintedArea, coveredRectangles, coveredArea)) {
+                culledNodes.put(shape.node, Boolean.TRUE);
+                occludedShapeCount++;
+                continue;
+            }
+
+            if (shape.opaqueFill != null) {
+                Area fill = new Area(shape.opaqueFill);
+                if (fill.isRectangular()) {
+                    coveredRectangles.add(fill.getBounds2D());
+                }
+                int segmentCount = getSegmentCount(fill);
+                if (coveredAreaSegmentCount + segmentCount <= MAX_SEGMENTS) {
+                    coveredArea.add(fill);
+                    coveredAreaSegmentCount += segmentCount;
+                }
+            }
+        }
+
+        if (occludedShapeCount > 0) {
+            cullEmptyGroups(root);
+        }
+
+        return Collections.unmodifiableSet(culledNodes.keySet());
+    }
+
+    /**
+     * Returns the number of shapes covered found by the last pass.
+     */
+    public int getOccludedShapeCount() {
+        return occludedShapeCount;
+    }
+
+    /**
+     * Tells if the specified area is covered by one of the rectangles or by the area.
+     */
+    private boolean isCovered(Shape paintedArea, List<Rectangle2D> coveredRectangles, Area coveredArea) {
+        Rectangle2D bounds = paintedArea.getBounds2D();
+        for (Rectangle2D rectangle : coveredRectangles) {
+            if (rectangle.contains(bounds)) {
+                return true;
+            }
+        }
+
+        if (!coveredArea.isEmpty() && coveredArea.getBounds2D().contains(bounds)) {
+            Area area = new Area(paintedArea);
+            area.subtract(coveredArea);
+            return area.isEmpty();
+        }
+
+        return false;
+    }
+
+    private int getSegmentCount(Shape shape) {
+        int count = 0;
+        for (PathIterator iterator = shape.getPathIterator(null); !iterator.isDone(); iterator.next()) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Collects the shapes in the painting order, with their painted area in the space of the root.
+     *
+     * @param node       the node
+     * @param transform  the transformation from the parent of the node to the root
+     * @param clip       the clip of the ancestors in the space of the root, or null if they aren't clipped
+     * @param opaque     tells if the ancestors are opaque
+     * @param unfiltered tells if the ancestors are unfiltered
+     * @param shapes     the list receiving the shapes
+     */
+    private void collect(GraphicsNode node, AffineTransform transform, Area clip, boolean opaque, boolean unfiltered, List<PaintedShape> shapes) {
+        AffineTransform nodeTransform = new AffineTransform(transform);
+        if (node.getTransform() != null) {
+            nodeTransform.concatenate(node.getTransform());
+        }
+
+        opaque = opaque && isOpaque(node.getComposite()) && node.getMask() == null && node.getFilter() == null;
+        unfiltered = unfiltered && node.getFilter() == null;
+
+        if (node.getClip() != null) {
+            Area nodeClip = new Area(nodeTransform.createTransformedShape(node.getClip().getClipPath()));
+            if (clip != null) {
+                nodeClip.intersect(clip);
+            }
+            clip = nodeClip;
+        }
+
+        if (node instanceof CompositeGraphicsNode) {
+            List children = ((CompositeGraphicsNode) node).getChildren();
+            for (int i = 0; i < children.size(); i++) {
+                collect((GraphicsNode) children.get(i), nodeTransform, clip, opaque, unfiltered, shapes);
+            }
+        } else if (node instanceof ShapeNode && node.isVisible()) {
+            ShapePainter painter = ((ShapeNode) node).getShapePainter();
+            if (painter != null && painter.getPaintedArea() != null) {
+                PaintedShape shape = new PaintedShape();
+                shape.node = node;
+                shape.occludable = unfiltered;
+                shape.paintedArea = nodeTransform.createTransformedShape(painter.getPaintedArea());
+                if (opaque) {
+                    Shape fill = getOpaqueFill(painter);
+                    if (fill != null) {
+                        fill = nodeTransform.createTransformedShape(fill);
+                        if (clip != null && !(clip.isRectangular() && clip.getBounds2D().contains(fill.getBounds2D()))) {
+                            // only the visible part of the fill covers the previous shapes
+                            Area clippedFill = new Area(fill);
+                            clippedFill.intersect(clip);
+                            fill = clippedFill;
+                        }
+                        shape.opaqueFill = fill;
+                    }
+                }
+                shapes.add(shape);
+            }
+        } else {
+            // the other nodes can't be culled, but they are still painted over the previous shapes
+            Rectangle2D bounds = node.getTransformedBounds(transform);
+            if (bounds != null) {
+                PaintedShape shape = new PaintedShape();
+                shape.node = node;
+                shape.paintedArea = bounds;
+                shapes.add(shape);
+            }
+        }
+    }
+
+    /**
+     * Returns the shape filled with an opaque paint by the specified painter, or null if there is none.
+     */
+    private Shape getOpaqueFill(ShapePainter painter) {
+        if (painter instanceof CompositeShapePainter) {
+            CompositeShapePainter compositePainter = (CompositeShapePainter) painter;
+            for (int i = 0; i < compositePainter.getShapePainterCount(); i++) {
+                Shape fill = getOpaqueFill(compositePainter.getShapePainter(i));
+                if (fill != null) {
+                    return fill;
+                }
+            }
+        } else if (painter instanceof FillShapePainter && isOpaque(((FillShapePainter) painter).getPaint())) {
+            return painter.getShape();
+        }
+
+        return null;
+    }
+
+    private boolean isOpaque(Composite composite) {
+        if (composite == null) {
+            return true;
+        }
+        if (composite instanceof AlphaComposite) {
+            AlphaComposite alphaComposite = (AlphaComposite) composite;
+            return alphaComposite.getRule() == AlphaComposite.SRC_OVER && alphaComposite.getAlpha() >= 1;
+        }
+        return false;
+    }
+
+    private boolean isOpaque(Paint paint) {
+        if (paint instanceof Color) {
+            return ((Color) paint).getAlpha() == 255;
+        } else if (paint instanceof MultipleGradientPaint) {
+            for (Color color : ((MultipleGradientPaint) paint).getColors()) {
+                if (color.getAlpha() != 255) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Culls the groups whose children are all culled.
+     *
+     * @return true if the node is culled
+     */
+    private boolean cullEmptyGroups(GraphicsNode node) {
+        if (culledNodes.containsKey(node)) {
+            return true;
+        }
+
+        if (node instanceof CompositeGraphicsNode) {
+            List children = ((CompositeGraphicsNode) node).getChildren();
+            boolean culled = !children.isEmpty();
+            for (int i = 0; i < children.size(); i++) {
+                culled &= cullEmptyGroups((GraphicsNode) children.get(i));
+            }
+            if (culled) {
+                culledNodes.put(node, Boolean.TRUE);
+            }
+            return culled;
+        }
+
+        return false;
+    }
+
+    /**
+     * A node painted, with its area in the space of the root.
+     */
+    private static class PaintedShape {
+        GraphicsNode node;
+        boolean occludable;
+        Shape paintedArea;
+        Shape opaqueFill;
+    }
+}
@@ -0,0 +1,367 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.LinearGradientPaint;
+import java.awt.MultipleGradientPaint;
+import java.awt.Paint;
+import java.awt.Shape;
+import java.awt.Stroke;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.GeneralPath;
+import java.awt.geom.Line2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.geom.RoundRectangle2D;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Interprets the painting code generated by the transcoder and replays it on
+ * a Java2D graphics context, with the semantics of the Codename One graphics
+ * API targeted by the generated code (the alpha channel of the colors is
+ * ignored and the opacity is set separately). This allows the rendering of
+ * the generated code to be checked without compiling it.
+ *
+ * The code is parsed once and can be painted several times.
+ */
+public class PaintingCodeInterpreter {
+
+    /** The operations parsed from the painting code. */
+    private final List<Operation> operations = new ArrayList<>();
+
+    /**
+     * Parses the specified painting code.
+     *
+     * @param paintingCode the painting code, before it's split into several methods
+     * @throws IllegalArgumentException if the code contains an unsupported statement
+     */
+    public PaintingCodeInterpreter(String paintingCode) {
+        try {
+            BufferedReader reader = new BufferedReader(new StringReader(paintingCode));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.startsWith("//")) {
+                    continue;
+                }
+                if (line.startsWith("if (clip == null || ") || line.startsWith("}")) {
+                    // the clip tests of the groups, the whole image is painted
+                    continue;
+                }
+                int comment = line.indexOf("; //");
+                if (comment != -1) {
+                    line = line.substring(0, comment + 1);
+                }
+                if (line.length() > 0) {
+                    operations.add(parse(line));
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the number of operations parsed.
+     */
+    public int getOperationCount() {
+        return operations.size();
+    }
+
+    /**
+     * Paints the image on the specified graphics context.
+     *
+     * @param g the graphics context
+     */
+    public void paint(Graphics2D g) {
+        State state = new State(g);
+        for (Operation operation : operations) {
+            operation.execute(state);
+        }
+    }
+
+    private Operation parse(String line) {
+        if (line.equals("shape = new GeneralPath();")) {
+            return new Operation() {
+                void execute(State state) {
+                    state.shape = new GeneralPath();
+                }
+            };
+        } else if (line.startsWith("((GeneralPath) shape).")) {
+            return parsePathSegment(line.substring("((GeneralPath) shape).".length()));
+        } else if (line.startsWith("shape = new ")) {
+            final Shape shape = parseShape(line.substring("shape = ".length(), line.length() - 1));
+            return new Operation() {
+                void execute(State state) {
+                    state.shape = shape;
+                }
+            };
+        } else if (line.equals("g.fillShape(shape);")) {
+            return new Operation() {
+                void execute(State state) {
+                    state.g.setPaint(state.paint);
+                    state.g.fill(state.shape);
+                }
+            };
+        } else if (line.equals("g.drawShape(shape, baseStroke);")) {
+            return new Operation() {
+                void execute(State state) {
+                    state.g.setPaint(state.paint);
+                    state.g.setStroke(state.stroke);
+                    state.g.draw(state.shape);
+                }
+            };
+        } else if (line.startsWith("g.setColor(")) {
+            final Paint paint = parsePaint(getArguments(line, "g.setColor").get(0));
+            return new Operation() {
+                void execute(State state) {
+                    state.paint = paint;
+                }
+            };
+        } else if (line.startsWith("baseStroke = ")) {
+            final Stroke stroke = parseStroke(line.substring("baseStroke = ".length(), line.length() - 1));
+            return new Operation() {
+                void execute(State state) {
+                    state.stroke = stroke;
+                }
+            };
+        } else if (line.startsWith("g.setAlpha((int)Math.round(") && line.endsWith(" * origAlpha));")) {
+            final float alpha = (float) parseNumber(line.substring("g.setAlpha((int)Math.round(".length(), line.length() - " * origAlpha));".length()));
+            return new Operation() {
+                void execute(State state) {
+                    state.g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, Math.round(alpha * 255) / 255f));
+                }
+            };
+        } else if (line.equals("transformations.push(g.getTransform());")) {
+            return new Operation() {
+                void execute(State state) {
+                    state.transformations.push(state.g.getTransform());
+                }
+            };
+        } else if (line.equals("g.setTransform(transformations.pop());")) {
+            return new Operation() {
+                void execute(State state) {
+                    state.g.setTransform(state.transformations.pop());
+                }
+            };
+        } else if (line.startsWith("g.transform(")) {
+            final AffineTransform transform = parseTransform(getArguments(line, "g.transform").get(0));
+            return new Operation() {
+                void execute(State state) {
+                    state.g.transform(transform);
+                }
+            };
+        }
+
+        throw new IllegalArgumentException("Unsupported painting code: " + line);
+    }
+
+    private Operation parsePathSegment(String statement) {
+        if (statement.equals("closePath();")) {
+            return new Operation() {
+                void execute(State state) {
+                    ((GeneralPath) state.shape).closePath();
+                }
+            };
+        }
+
+        String method = statement.substring(0, statement.indexOf('('));
+        final float[] c = toFloats(getArguments(statement, method));
+        switch (method) {
+            case "moveTo":
+                return new Operation() {
+                    void execute(State state) {
+                        ((GeneralPath) state.shape).moveTo(c[0], c[1]);
+                    }
+                };
+            case "lineTo":
+                return new Operation() {
+                    void execute(State state) {
+                        ((GeneralPath) state.shape).lineTo(c[0], c[1]);
+                    }
+                };
+            case "quadTo":
+                return new Operation() {
+                    void execute(State state) {
+                        ((GeneralPath) state.shape).quadTo(c[0], c[1], c[2], c[3]);
+                    }
+                };
+            case "curveTo":
+                return new Operation() {
+                    void execute(State state) {
+                        ((GeneralPath) state.shape).curveTo(c[0], c[1], c[2], c[3], c[4], c[5]);
+                    }
+                };
+            default:
+                throw new IllegalArgumentException("Unsupported path segment: " + statement);
+        }
+    }
+
+    private Shape parseShape(String expression) {
+        if (expression.startsWith("new Rectangle2D.Double(")) {
+            double[] c = toDoubles(getArguments(expression, "new Rectangle2D.Double"));
+            return new Rectangle2D.Double(c[0], c[1], c[2], c[3]);
+        } else if (expression.startsWith("new RoundRectangle2D.Double(")) {
+            double[] c = toDoubles(getArguments(expression, "new RoundRectangle2D.Double"));
+            return new RoundRectangle2D.Double(c[0], c[1], c[2], c[3], c[4], c[5]);
+        } else if (expression.startsWith("new Line2D.Float(")) {
+            float[] c = toFloats(getArguments(expression, "new Line2D.Float"));
+            return new Line2D.Float(c[0], c[1], c[2], c[3]);
+        }
+
+        throw new IllegalArgumentException("Unsupported shape: " + expression);
+    }
+
+    private Paint parsePaint(String expression) {
+        if (expression.startsWith("new LinearGradientPaint(")) {
+            List<String> args = getArguments(expression, "new LinearGradientPaint");
+            double[] points = toDoubles(args.subList(0, 4));
+            float[] fractions = toFloats(getArguments(args.get(4), "new float[]"));
+            List<String> values = getArguments(args.get(5), "new int[]");
+            Color[] colors = new Color[values.size()];
+            for (int i = 0; i < colors.length; i++) {
+                colors[i] = parseColor(values.get(i), true);
+            }
+            MultipleGradientPaint.CycleMethod cycleMethod = MultipleGradientPaint.CycleMethod.valueOf(args.get(6));
+            MultipleGradientPaint.ColorSpaceType colorSpace = MultipleGradientPaint.ColorSpaceType.valueOf(args.get(7));
+            AffineTransform transform = parseTransform(args.get(8));
+
+            try {
+                return new LinearGradientPaint(new Point2D.Double(points[0], points[1]), new Point2D.Double(points[2], points[3]),
+                        fractions, colors, cycleMethod, colorSpace, transform);
+            } catch (IllegalArgumentException e) {
+                // degenerated gradient
+                return colors[0];
+            }
+        }
+
+        return parseColor(expression, false);
+    }
+
+    private Color parseColor(String expression, boolean alpha) {
+        int argb = (int) parseNumber(expression);
+        boolean hasAlpha = alpha && expression.length() > "0xRRGGBB".length();
+        return new Color(hasAlpha ? argb : argb & 0xFFFFFF, hasAlpha);
+    }
+
+    private Stroke parseStroke(String expression) {
+        List<String> args = getArguments(expression, "new Stroke");
+        float width = (float) parseNumber(args.get(0));
+        int cap = (int) parseNumber(args.get(1));
+        int join = (int) parseNumber(args.get(2));
+        float miterLimit = Math.max(1, (float) parseNumber(args.get(3)));
+        if (args.size() > 4 && !args.get(4).equals("null")) {
+            float[] dash = toFloats(getArguments(args.get(4), "new float[]"));
+            return new BasicStroke(width, cap, join, miterLimit, dash, (float) parseNumber(args.get(5)));
+        } else {
+            return new BasicStroke(width, cap, join, miterLimit);
+        }
+    }
+
+    private AffineTransform parseTransform(String expression) {
+        if (expression.equals("new AffineTransform().toTransform()")) {
+            return new AffineTransform();
+        }
+        double[] m = toDoubles(getArguments(expression, "new AffineTransform"));
+        return new AffineTransform(m[0], m[1], m[2], m[3], m[4], m[5]);
+    }
+
+    /**
+     * Returns the arguments of the method call or of the array initializer following the specified prefix.
+     */
+    private List<String> getArguments(String expression, String prefix) {
+        int start = prefix.length() + 1;
+        List<String> args = new ArrayList<>();
+        int depth = 0;
+        for (int i = start; i < expression.length(); i++) {
+            char c = expression.charAt(i);
+            if (c == '(' || c == '{' || c == '[') {
+                depth++;
+            } else if ((c == ')' || c == '}' || c == ']') && depth > 0) {
+                depth--;
+            } else if (c == ')' || c == '}') {
+                String arg = expression.substring(start, i).trim();
+                if (arg.length() > 0) {
+                    args.add(arg);
+                }
+                return args;
+            } else if (c == ',' && depth == 0) {
+                args.add(expression.substring(start, i).trim());
+                start = i + 1;
+            }
+        }
+
+        throw new IllegalArgumentException("Unbalanced expression: " + expression);
+    }
+
+    private double parseNumber(String value) {
+        if (value.startsWith("0x")) {
+            return Long.parseLong(value.substring(2), 16);
+        }
+        if (value.endsWith("f") || value.endsWith("F") || value.endsWith("d") || value.endsWith("D")) {
+            value = value.substring(0, value.length() - 1);
+        }
+        return Double.parseDouble(value);
+    }
+
+    private float[] toFloats(List<String> values) {
+        float[] array = new float[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = (float) parseNumber(values.get(i));
+        }
+        return array;
+    }
+
+    private double[] toDoubles(List<String> values) {
+        double[] array = new double[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = parseNumber(values.get(i));
+        }
+        return array;
+    }
+
+    /**
+     * The state of the generated code during the painting.
+     */
+    private static class State {
+        final Graphics2D g;
+        final LinkedList<AffineTransform> transformations = new LinkedList<>();
+        Shape shape;
+        Paint paint = Color.BLACK;
+        Stroke stroke = new BasicStroke();
+
+        State(Graphics2D g) {
+            this.g = g;
+        }
+    }
+
+    /**
+     * A statement of the painting code.
+     */
+    private static abstract class Operation {
+        abstract void execute(State state);
+    }
+}
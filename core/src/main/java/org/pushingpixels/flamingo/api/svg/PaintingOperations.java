@@ -0,0 +1,169 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.awt.BasicStroke;
+import java.awt.Paint;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.GeneralPath;
+import java.awt.geom.PathIterator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.batik.ext.awt.geom.ExtendedGeneralPath;
+
+/**
+ * The drawing operations of the painting code, recorded by the transcoder alongside the statements
+ * it writes. Each operation matches a statement, or the opening or the closing of a block, and holds
+ * the values written by the statement. The class files are emitted from these operations.
+ */
+class PaintingOperations {
+
+    /**
+     * The kinds of operations, with the statements written for them.
+     */
+    enum Kind {
+        /** <tt>shape = new GeneralPath();</tt> */
+        NEW_PATH,
+        /** <tt>((GeneralPath) shape).moveTo(x, y);</tt>, the value is the coordinates. */
+        MOVE_TO,
+        /** <tt>((GeneralPath) shape).lineTo(x, y);</tt>, the value is the coordinates. */
+        LINE_TO,
+        /** <tt>((GeneralPath) shape).quadTo(x1, y1, x2, y2);</tt>, the value is the coordinates. */
+        QUAD_TO,
+        /** <tt>((GeneralPath) shape).curveTo(x1, y1, x2, y2, x3, y3);</tt>, the value is the coordinates. */
+        CURVE_TO,
+        /** <tt>((GeneralPath) shape).closePath();</tt> */
+        CLOSE_PATH,
+        /** <tt>shape = new Rectangle2D.Double(...);</tt> and the other shapes, the value is the shape. */
+        SHAPE,
+        /** <tt>g.setColor(paint);</tt>, the value is the paint. */
+        PAINT,
+        /** <tt>baseStroke = new Stroke(...);</tt>, the value is the stroke. */
+        STROKE,
+        /** <tt>g.setAlpha((int)Math.round(alpha * origAlpha));</tt>, the value is the alpha as a Float. */
+        ALPHA,
+        /** <tt>g.fillShape(shape);</tt> */
+        FILL,
+        /** <tt>g.drawShape(shape, baseStroke);</tt> */
+        DRAW,
+        /** <tt>transformations.push(g.getTransform()); g.transform(...);</tt>, the value is the transform. */
+        PUSH_TRANSFORM,
+        /** <tt>g.setTransform(transformations.pop());</tt> */
+        POP_TRANSFORM,
+        /** <tt>if (clip == null || clip.intersects(x, y, w, h)) {</tt>, the value is the rectangle as a float array. */
+        CLIP_TEST,
+        /** <tt>if (size &gt; min &amp;&amp; size &lt;= max) {</tt>, the value is the bounds as an int array, 0 and Integer.MAX_VALUE if unbounded. */
+        SIZE_TEST,
+        /** <tt>}</tt> closing the block of a test. */
+        END
+    }
+
+    /**
+     * An operation and its value.
+     */
+    static class Operation {
+        final Kind kind;
+        final Object value;
+
+        Operation(Kind kind, Object value) {
+            this.kind = kind;
+            this.value = value;
+        }
+    }
+
+    private final List<Operation> operations = new ArrayList<>();
+
+    /** The statement written without operation, or null if every statement is recorded. */
+    private String unsupported;
+
+    void add(Kind kind, Object value) {
+        operations.add(new Operation(kind, value));
+    }
+
+    void add(Kind kind) {
+        operations.add(new Operation(kind, null));
+    }
+
+    /**
+     * Adds the operations building the specified shape, as written by the shape transcoder. The coordinates
+     * of the segments are the values of the double literals written.
+     */
+    void addShape(Shape shape) {
+        if (shape instanceof GeneralPath || shape instanceof ExtendedGeneralPath || shape instanceof Ellipse2D) {
+            add(Kind.NEW_PATH);
+            // the paths are written in single precision, the ellipses in double precision
+            boolean single = !(shape instanceof Ellipse2D);
+            float[] floats = new float[6];
+            double[] doubles = new double[6];
+            for (PathIterator iterator = shape.getPathIterator(null); !iterator.isDone(); iterator.next()) {
+                int type = single ? iterator.currentSegment(floats) : iterator.currentSegment(doubles);
+                int count = type == PathIterator.SEG_CLOSE ? 0 : type == PathIterator.SEG_CUBICTO ? 6 : type == PathIterator.SEG_QUADTO ? 4 : 2;
+                double[] coords = new double[count];
+                for (int i = 0; i < count; i++) {
+                    coords[i] = single ? Double.parseDouble(String.valueOf(floats[i])) : doubles[i];
+                }
+                switch (type) {
+                    case PathIterator.SEG_MOVETO: add(Kind.MOVE_TO, coords); break;
+                    case PathIterator.SEG_LINETO: add(Kind.LINE_TO, coords); break;
+                    case PathIterator.SEG_QUADTO: add(Kind.QUAD_TO, coords); break;
+                    case PathIterator.SEG_CUBICTO: add(Kind.CURVE_TO, coords); break;
+                    default: add(Kind.CLOSE_PATH); break;
+                }
+            }
+        } else {
+            add(Kind.SHAPE, shape);
+        }
+    }
+
+    void addPaint(Paint paint) {
+        add(Kind.PAINT, paint);
+    }
+
+    void addStroke(BasicStroke stroke) {
+        add(Kind.STROKE, stroke);
+    }
+
+    void addTransform(AffineTransform transform) {
+        add(Kind.PUSH_TRANSFORM, new AffineTransform(transform));
+    }
+
+    /**
+     * Marks the painting code as containing a statement without operation, the class files can't be emitted.
+     *
+     * @param statement the description of the statement
+     */
+    void setUnsupported(String statement) {
+        if (unsupported == null) {
+            unsupported = statement;
+        }
+    }
+
+    /**
+     * Returns the description of the first statement written without operation, or null if every statement is recorded.
+     */
+    String getUnsupported() {
+        return unsupported;
+    }
+
+    List<Operation> getOperations() {
+        return Collections.unmodifiableList(operations);
+    }
+}
@@ -0,0 +1,1097 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Line2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.geom.RoundRectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.batik.ext.awt.LinearGradientPaint;
+import org.apache.batik.ext.awt.RadialGradientPaint;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.pushingpixels.flamingo.api.svg.transcoders.ColorTranscoder;
+import org.pushingpixels.flamingo.api.svg.transcoders.DoubleTranscoder;
+import org.pushingpixels.flamingo.api.svg.transcoders.FloatTranscoder;
+import org.pushingpixels.flamingo.api.svg.transcoders.LinearGradientPaintTranscoder;
+import org.pushingpixels.flamingo.api.svg.transcoders.RadialGradientPaintTranscoder;
+
+/**
+ * Compiles the painting operations recorded by the transcoder into bytecode, with the semantics of the
+ * Java compiler for the statements written for them: the types, the methods and the fields are resolved
+ * by name against the template like in the source, the overloads are selected like the Java compiler does,
+ * and the literals have the values written by the transcoders. The path segments are added with the float
+ * overloads of the methods of the path, rounding the coordinates like the double overloads, and the shape
+ * cast into a path is cached into a local variable.
+ *
+ * <p>The operations the template can't compile are rejected with an {@link IllegalArgumentException}.</p>
+ */
+class PaintingOperationsCompiler {
+
+    private static final Type OBJECT = Type.getObjectType("java/lang/Object");
+
+    /** The type of the null literal. */
+    private static final Type NULL = Type.getObjectType("null");
+
+    /** The primitive types ordered by widening conversion. */
+    private static final List<Type> NUMERIC_TYPES = Arrays.asList(Type.INT_TYPE, Type.LONG_TYPE, Type.FLOAT_TYPE, Type.DOUBLE_TYPE);
+
+    /**
+     * A local variable of the painting methods.
+     */
+    private static class Variable {
+        final int index;
+        final Type type;
+
+        Variable(int index, Type type) {
+            this.index = index;
+            this.type = type;
+        }
+    }
+
+    /**
+     * The instructions compiled from an operation, recorded to measure their size
+     * before they are written into a method.
+     */
+    static class Code {
+        private final List<Object[]> instructions = new ArrayList<>();
+
+        void insn(int opcode) {
+            instructions.add(new Object[] {opcode});
+        }
+
+        void intInsn(int opcode, int operand) {
+            instructions.add(new Object[] {opcode, operand});
+        }
+
+        void varInsn(int opcode, int var) {
+            instructions.add(new Object[] {opcode, var});
+        }
+
+        void typeInsn(int opcode, String type) {
+            instructions.add(new Object[] {opcode, type});
+        }
+
+        void fieldInsn(int opcode, String owner, String name, String descriptor) {
+            instructions.add(new Object[] {opcode, owner, name, descriptor});
+        }
+
+        void methodInsn(int opcode, String owner, String name, String descriptor, boolean isInterface) {
+            instructions.add(new Object[] {opcode, owner, name, descriptor, isInterface});
+        }
+
+        void jumpInsn(int opcode, Label label) {
+            instructions.add(new Object[] {opcode, label});
+        }
+
+        void label(Label label) {
+            instructions.add(new Object[] {-1, label});
+        }
+
+        void ldc(Object value) {
+            instructions.add(new Object[] {Opcodes.LDC, value});
+        }
+
+        void add(Code code) {
+            instructions.addAll(code.instructions);
+        }
+
+        /**
+         * Returns the constants loaded with the ldc instructions.
+         */
+        List<Object> getConstants() {
+            List<Object> constants = new ArrayList<>();
+            for (Object[] instruction : instructions) {
+                if ((Integer) instruction[0] == Opcodes.LDC) {
+                    constants.add(instruction[1]);
+                }
+            }
+            return constants;
+        }
+
+        /**
+         * Returns the size in bytes of the instructions, the constants being added to the pool of the class.
+         * The short forms of the instructions are used like {@link MethodVisitor} writes them, the jumps are
+         * assumed to be shorter than 32K.
+         */
+        int size(ClassWriter cw) {
+            int size = 0;
+            for (Object[] instruction : instructions) {
+                int opcode = (Integer) instruction[0];
+                switch (opcode) {
+                    case -1:
+                        break;
+                    case Opcodes.BIPUSH:
+                    case Opcodes.NEWARRAY:
+                        size += 2;
+                        break;
+                    case Opcodes.LDC:
+                        Object value = instruction[1];
+                        size += value instanceof Long || value instanceof Double || cw.newConst(value) >= 256 ? 3 : 2;
+                        break;
+                    case Opcodes.INVOKEINTERFACE:
+                        size += 5;
+                        break;
+                    default:
+                        if (opcode >= Opcodes.ILOAD && opcode <= Opcodes.ALOAD || opcode >= Opcodes.ISTORE && opcode <= Opcodes.ASTORE) {
+                            int var = (Integer) instruction[1];
+                            size += var < 4 ? 1 : var < 256 ? 2 : 4;
+                        } else {
+                            size += instruction.length == 1 ? 1 : 3;
+                        }
+                }
+            }
+            return size;
+        }
+
+        void accept(MethodVisitor mv) {
+            for (Object[] instruction : instructions) {
+                int opcode = (Integer) instruction[0];
+                if (opcode == -1) {
+                    mv.visitLabel((Label) instruction[1]);
+                } else if (opcode == Opcodes.LDC) {
+                    mv.visitLdcInsn(instruction[1]);
+                } else if (instruction.length == 1) {
+                    mv.visitInsn(opcode);
+                } else if (instruction.length == 5) {
+                    mv.visitMethodInsn(opcode, (String) instruction[1], (String) instruction[2], (String) instruction[3], (Boolean) instruction[4]);
+                } else if (instruction.length == 4) {
+                    mv.visitFieldInsn(opcode, (String) instruction[1], (String) instruction[2], (String) instruction[3]);
+                } else if (instruction[1] instanceof Label) {
+                    mv.visitJumpInsn(opcode, (Label) instruction[1]);
+                } else if (instruction[1] instanceof String) {
+                    mv.visitTypeInsn(opcode, (String) instruction[1]);
+                } else if (opcode == Opcodes.BIPUSH || opcode == Opcodes.SIPUSH || opcode == Opcodes.NEWARRAY) {
+                    mv.visitIntInsn(opcode, (Integer) instruction[1]);
+                } else {
+                    mv.visitVarInsn(opcode, (Integer) instruction[1]);
+                }
+            }
+        }
+    }
+
+    /**
+     * A block opened by a clip test or a size test.
+     */
+    private static class Block {
+        final PaintingOperations.Operation test;
+        Label end;
+
+        Block(PaintingOperations.Operation test) {
+            this.test = test;
+        }
+    }
+
+    /**
+     * An expression of a statement, typed before it's compiled to select the overloads of the methods.
+     */
+    private abstract class Operand {
+        /**
+         * Returns the type of the value of the expression.
+         */
+        abstract Type getType();
+
+        /**
+         * Compiles the expression, leaving its value on the stack.
+         */
+        abstract void compile(Code code);
+
+        /**
+         * Compiles the expression, leaving its value converted into the expected type on the stack.
+         */
+        void compile(Type expected, Code code) {
+            compile(code);
+            convert(getType(), expected, code);
+        }
+    }
+
+    /**
+     * A numeric literal, or the null literal.
+     */
+    private class Literal extends Operand {
+        private final Number value;
+
+        Literal(Number value) {
+            this.value = value;
+        }
+
+        @Override
+        Type getType() {
+            if (value instanceof Integer) {
+                return Type.INT_TYPE;
+            } else if (value instanceof Long) {
+                return Type.LONG_TYPE;
+            } else if (value instanceof Float) {
+                return Type.FLOAT_TYPE;
+            } else if (value instanceof Double) {
+                return Type.DOUBLE_TYPE;
+            } else {
+                return NULL;
+            }
+        }
+
+        @Override
+        void compile(Code code) {
+            compile(getType(), code);
+        }
+
+        @Override
+        void compile(Type expected, Code code) {
+            pushLiteral(value, getType(), expected, code);
+        }
+    }
+
+    /**
+     * A parameter or a local variable of the painting methods.
+     */
+    private class VariableOperand extends Operand {
+        private final Variable variable;
+
+        VariableOperand(String name) {
+            variable = variables.get(name);
+            if (variable == null) {
+                throw new IllegalArgumentException("Unknown variable: " + name);
+            }
+        }
+
+        @Override
+        Type getType() {
+            return variable.type;
+        }
+
+        @Override
+        void compile(Code code) {
+            code.varInsn(variable.type.getOpcode(Opcodes.ILOAD), variable.index);
+        }
+    }
+
+    /**
+     * A static field of the top level class of the template or imported statically.
+     */
+    private class StaticField extends Operand {
+        private final ClassModel.Member field;
+
+        StaticField(String name) {
+            field = model.getStaticField(name);
+            if (field == null) {
+                throw new IllegalArgumentException("Unable to resolve " + name);
+            }
+        }
+
+        @Override
+        Type getType() {
+            return Type.getType(field.descriptor);
+        }
+
+        @Override
+        void compile(Code code) {
+            code.fieldInsn(Opcodes.GETSTATIC, field.owner, field.name, field.descriptor);
+        }
+    }
+
+    /**
+     * The shape cast into a path, cached into a local variable until another shape is assigned.
+     */
+    private class PathOperand extends Operand {
+        @Override
+        Type getType() {
+            return resolveType("GeneralPath");
+        }
+
+        @Override
+        void compile(Code code) {
+            if (!pathCached) {
+                Variable shape = variables.get("shape");
+                code.varInsn(Opcodes.ALOAD, shape.index);
+                if (!isAssignable(shape.type, getType())) {
+                    code.typeInsn(Opcodes.CHECKCAST, getType().getInternalName());
+                }
+                code.insn(Opcodes.DUP);
+                code.varInsn(Opcodes.ASTORE, pathVariable);
+                pathCached = true;
+            } else {
+                code.varInsn(Opcodes.ALOAD, pathVariable);
+            }
+        }
+    }
+
+    /**
+     * A cast into a primitive type or a reference type.
+     */
+    private class Cast extends Operand {
+        private final Type type;
+        private final Operand operand;
+
+        Cast(Type type, Operand operand) {
+            this.type = type;
+            this.operand = operand;
+        }
+
+        @Override
+        Type getType() {
+            return type;
+        }
+
+        @Override
+        void compile(Code code) {
+            operand.compile(code);
+            if (type.getSort() == Type.OBJECT || type.getSort() == Type.ARRAY) {
+                if (!isAssignable(operand.getType(), type)) {
+                    code.typeInsn(Opcodes.CHECKCAST, type.getInternalName());
+                }
+            } else {
+                convertPrimitive(operand.getType(), type, code);
+            }
+        }
+    }
+
+    /**
+     * The multiplication of two numbers, promoted into the same type.
+     */
+    private class Multiplication extends Operand {
+        private final Operand left;
+        private final Operand right;
+
+        Multiplication(Operand left, Operand right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        Type getType() {
+            return getPromotedType(left.getType(), right.getType());
+        }
+
+        @Override
+        void compile(Code code) {
+            Type type = getType();
+            left.compile(type, code);
+            right.compile(type, code);
+            code.insn(type.getOpcode(Opcodes.IMUL));
+        }
+    }
+
+    /**
+     * An array initializer.
+     */
+    private class ArrayInitializer extends Operand {
+        private final Type component;
+        private final Operand[] elements;
+
+        ArrayInitializer(Type component, Operand... elements) {
+            this.component = component;
+            this.elements = elements;
+        }
+
+        @Override
+        Type getType() {
+            return Type.getType("[" + component.getDescriptor());
+        }
+
+        @Override
+        void compile(Code code) {
+            pushLiteral(elements.length, Type.INT_TYPE, Type.INT_TYPE, code);
+            switch (component.getSort()) {
+                case Type.OBJECT:
+                case Type.ARRAY:
+                    code.typeInsn(Opcodes.ANEWARRAY, component.getInternalName());
+                    break;
+                case Type.INT: code.intInsn(Opcodes.NEWARRAY, Opcodes.T_INT); break;
+                case Type.FLOAT: code.intInsn(Opcodes.NEWARRAY, Opcodes.T_FLOAT); break;
+                case Type.LONG: code.intInsn(Opcodes.NEWARRAY, Opcodes.T_LONG); break;
+                case Type.DOUBLE: code.intInsn(Opcodes.NEWARRAY, Opcodes.T_DOUBLE); break;
+                default: throw new IllegalArgumentException("Unsupported array of " + component.getClassName());
+            }
+
+            for (int i = 0; i < elements.length; i++) {
+                code.insn(Opcodes.DUP);
+                pushLiteral(i, Type.INT_TYPE, Type.INT_TYPE, code);
+                elements[i].compile(component, code);
+                code.insn(component.getOpcode(Opcodes.IASTORE));
+            }
+        }
+    }
+
+    /**
+     * The call of the most specific method applicable to the arguments, or of the constructor.
+     */
+    private class Invocation extends Operand {
+        /** The receiver of the instance method, or null for the static methods and the constructors. */
+        private final Operand receiver;
+        private final Type owner;
+        private final String name;
+        private final Operand[] arguments;
+        private ClassModel.Member method;
+
+        /**
+         * @param receiver the receiver of the instance method, or null
+         * @param owner    the class of the static method or of the constructor, ignored with a receiver
+         * @param name     the name of the method, {@code <init>} for the constructor
+         */
+        Invocation(Operand receiver, Type owner, String name, Operand... arguments) {
+            this.receiver = receiver;
+            this.owner = receiver != null ? receiver.getType() : owner;
+            this.name = name;
+            this.arguments = arguments;
+            if (this.owner.getSort() != Type.OBJECT) {
+                throw new IllegalArgumentException("Unable to call " + name + " on " + this.owner.getClassName());
+            }
+        }
+
+        private ClassModel.Member getMethod() {
+            if (method != null) {
+                return method;
+            }
+
+            boolean isStatic = receiver == null && !name.equals("<init>");
+            int methodCost = Integer.MAX_VALUE;
+            for (ClassModel.Member candidate : model.getMethods(owner.getInternalName(), name, arguments.length)) {
+                if (candidate.isStatic != isStatic && !name.equals("<init>")) {
+                    continue;
+                }
+                Type[] parameters = Type.getArgumentTypes(candidate.descriptor);
+                int cost = 0;
+                for (int i = 0; i < parameters.length && cost != -1; i++) {
+                    int argumentCost = getConversionCost(arguments[i].getType(), parameters[i]);
+                    cost = argumentCost == -1 ? -1 : cost + argumentCost;
+                }
+                if (cost != -1 && cost < methodCost) {
+                    method = candidate;
+                    methodCost = cost;
+                }
+            }
+            if (method == null) {
+                throw new IllegalArgumentException("No method " + name + " applicable to " + arguments.length + " arguments in " + owner.getClassName());
+            }
+            return method;
+        }
+
+        @Override
+        Type getType() {
+            return name.equals("<init>") ? owner : Type.getReturnType(getMethod().descriptor);
+        }
+
+        @Override
+        void compile(Code code) {
+            ClassModel.Member method = getMethod();
+            if (receiver != null) {
+                receiver.compile(code);
+            } else if (name.equals("<init>")) {
+                code.typeInsn(Opcodes.NEW, owner.getInternalName());
+                code.insn(Opcodes.DUP);
+            }
+
+            Type[] parameters = Type.getArgumentTypes(method.descriptor);
+            for (int i = 0; i < parameters.length; i++) {
+                arguments[i].compile(parameters[i], code);
+            }
+
+            invoke(owner, method, receiver == null && !name.equals("<init>"), code);
+        }
+    }
+
+    private final ClassModel model;
+
+    /** The variables of the painting methods by name, the parameters first. */
+    private final Map<String, Variable> variables = new LinkedHashMap<>();
+
+    /** The number of slots used by the parameters of the painting methods. */
+    private final int parameterSize;
+
+    /** The local variable holding the shape cast into a path. */
+    private final int pathVariable;
+
+    /** Tells if the local variable of the path holds the current shape. */
+    private boolean pathCached;
+
+    /** The blocks open, the innermost last. */
+    private final List<Block> blocks = new ArrayList<>();
+
+    /**
+     * @param model      the model resolving the types and the members
+     * @param names      the names of the parameters of the painting methods
+     * @param descriptor the descriptor of the painting methods
+     */
+    PaintingOperationsCompiler(ClassModel model, List<String> names, String descriptor) {
+        this.model = model;
+
+        Type[] types = Type.getArgumentTypes(descriptor);
+        int index = 0;
+        for (int i = 0; i < types.length; i++) {
+            variables.put(names.get(i), new Variable(index, types[i]));
+            index += types[i].getSize();
+        }
+        parameterSize = index;
+
+        if (!variables.containsKey("shape")) {
+            variables.put("shape", new Variable(index++, resolveType("Shape")));
+        }
+        pathVariable = index;
+    }
+
+    /**
+     * Returns the instructions opening a painting method: the initialization of the shape
+     * if it isn't a parameter, and the test of the blocks still open by the previous method.
+     * The path cached is cleared.
+     */
+    Code begin() {
+        Code code = new Code();
+        Variable shape = variables.get("shape");
+        if (shape.index >= parameterSize) {
+            code.insn(Opcodes.ACONST_NULL);
+            code.varInsn(Opcodes.ASTORE, shape.index);
+        }
+        for (Block block : blocks) {
+            block.end = new Label();
+            compileTest(block.test, code, block.end);
+        }
+        pathCached = false;
+        return code;
+    }
+
+    /**
+     * Returns the instructions closing a painting method: the end of the blocks still open,
+     * and the call of the next painting method if specified.
+     *
+     * @param next the name of the next painting method, or null for the last method
+     */
+    Code end(String next, String descriptor) {
+        Code code = new Code();
+        for (Block block : blocks) {
+            code.label(block.end);
+        }
+        if (next != null) {
+            for (Variable variable : variables.values()) {
+                if (variable.index < parameterSize) {
+                    code.varInsn(variable.type.getOpcode(Opcodes.ILOAD), variable.index);
+                }
+            }
+            code.methodInsn(Opcodes.INVOKESTATIC, model.getClassName(), next, descriptor, false);
+        }
+        code.insn(Opcodes.RETURN);
+        return code;
+    }
+
+    /**
+     * Saves the state changed by the compilation of an operation, to compile it again in another method.
+     */
+    Object[] saveState() {
+        return new Object[] {pathCached, new ArrayList<>(blocks)};
+    }
+
+    @SuppressWarnings("unchecked")
+    void restoreState(Object[] state) {
+        pathCached = (Boolean) state[0];
+        blocks.clear();
+        blocks.addAll((List<Block>) state[1]);
+    }
+
+    /**
+     * Compiles a painting operation.
+     *
+     * @return the instructions
+     * @throws IllegalArgumentException if the template can't compile the operation
+     */
+    Code compile(PaintingOperations.Operation operation) {
+        Code code = new Code();
+        Object value = operation.value;
+        switch (operation.kind) {
+            case NEW_PATH:
+                assign("shape", new Invocation(null, resolveType("GeneralPath"), "<init>"), code);
+                break;
+            case MOVE_TO:
+                compileSegment("moveTo", (double[]) value, code);
+                break;
+            case LINE_TO:
+                compileSegment("lineTo", (double[]) value, code);
+                break;
+            case QUAD_TO:
+                compileSegment("quadTo", (double[]) value, code);
+                break;
+            case CURVE_TO:
+                compileSegment("curveTo", (double[]) value, code);
+                break;
+            case CLOSE_PATH:
+                compileStatement(new Invocation(new PathOperand(), null, "closePath"), code);
+                break;
+            case SHAPE:
+                assign("shape", getShape((Shape) value), code);
+                break;
+            case PAINT:
+                compileStatement(new Invocation(new VariableOperand("g"), null, "setColor", getPaint(value)), code);
+                break;
+            case STROKE:
+                assign("baseStroke", getStroke((BasicStroke) value), code);
+                break;
+            case ALPHA:
+                Operand alpha = new Multiplication(getFloat((Float) value), new VariableOperand("origAlpha"));
+                Operand round = new Invocation(null, resolveType("Math"), "round", alpha);
+                compileStatement(new Invocation(new VariableOperand("g"), null, "setAlpha", new Cast(Type.INT_TYPE, round)), code);
+                break;
+            case FILL:
+                compileStatement(new Invocation(new VariableOperand("g"), null, "fillShape", new VariableOperand("shape")), code);
+                break;
+            case DRAW:
+                compileStatement(new Invocation(new VariableOperand("g"), null, "drawShape", new VariableOperand("shape"), new VariableOperand("baseStroke")), code);
+                break;
+            case PUSH_TRANSFORM:
+                Operand transform = new Invocation(new VariableOperand("g"), null, "getTransform");
+                compileStatement(new Invocation(new VariableOperand("transformations"), null, "push", transform), code);
+                compileStatement(new Invocation(new VariableOperand("g"), null, "transform", getTransform((AffineTransform) value)), code);
+                break;
+            case POP_TRANSFORM:
+                Operand pop = new Invocation(new VariableOperand("transformations"), null, "pop");
+                compileStatement(new Invocation(new VariableOperand("g"), null, "setTransform", pop), code);
+                break;
+            case CLIP_TEST:
+            case SIZE_TEST:
+                Block block = new Block(operation);
+                block.end = new Label();
+                compileTest(operation, code, block.end);
+                blocks.add(block);
+                pathCached = false;
+                break;
+            case END:
+                if (blocks.isEmpty()) {
+                    throw new IllegalArgumentException("No block to close");
+                }
+                code.label(blocks.remove(blocks.size() - 1).end);
+                pathCached = false;
+                break;
+        }
+        return code;
+    }
+
+    /**
+     * Compiles the assignment of a variable. The shape assigned with a path is cached into the local variable of the path.
+     */
+    private void assign(String name, Operand operand, Code code) {
+        Variable variable = new VariableOperand(name).variable;
+        operand.compile(variable.type, code);
+        if (name.equals("shape")) {
+            pathCached = operand.getType().equals(resolveType("GeneralPath"));
+            if (pathCached) {
+                code.insn(Opcodes.DUP);
+                code.varInsn(Opcodes.ASTORE, pathVariable);
+            }
+        }
+        code.varInsn(variable.type.getOpcode(Opcodes.ISTORE), variable.index);
+    }
+
+    /**
+     * Compiles an expression statement, the value returned being discarded.
+     */
+    private void compileStatement(Operand operand, Code code) {
+        operand.compile(code);
+        Type type = operand.getType();
+        if (type.getSize() > 0) {
+            code.insn(type.getSize() == 2 ? Opcodes.POP2 : Opcodes.POP);
+        }
+    }
+
+    /**
+     * Compiles a segment of the path. The segments are added in single precision if the path declares the float
+     * overload of the method, the coordinates being rounded like Path2D.Float does.
+     */
+    private void compileSegment(String name, double[] coords, Code code) {
+        Type path = resolveType("GeneralPath");
+        for (ClassModel.Member method : model.getMethods(path.getInternalName(), name, coords.length)) {
+            if (!method.isStatic && method.descriptor.replace("F", "").equals("()V")) {
+                new PathOperand().compile(code);
+                for (double coord : coords) {
+                    pushLiteral((float) coord, Type.FLOAT_TYPE, Type.FLOAT_TYPE, code);
+                }
+                invoke(path, method, false, code);
+                return;
+            }
+        }
+
+        Operand[] arguments = new Operand[coords.length];
+        for (int i = 0; i < coords.length; i++) {
+            arguments[i] = new Literal(coords[i]);
+        }
+        compileStatement(new Invocation(new PathOperand(), null, name, arguments), code);
+    }
+
+    /**
+     * Compiles the test of a block, jumping to the end of the block if the test fails.
+     */
+    private void compileTest(PaintingOperations.Operation test, Code code, Label end) {
+        if (test.kind == PaintingOperations.Kind.CLIP_TEST) {
+            // clip == null || clip.intersects(x, y, width, height)
+            float[] bounds = (float[]) test.value;
+            Operand clip = new VariableOperand("clip");
+            Label inside = new Label();
+            clip.compile(code);
+            code.jumpInsn(Opcodes.IFNULL, inside);
+            Operand[] arguments = new Operand[bounds.length];
+            for (int i = 0; i < bounds.length; i++) {
+                arguments[i] = getFloat(bounds[i]);
+            }
+            Operand intersects = new Invocation(clip, null, "intersects", arguments);
+            if (intersects.getType().getSort() != Type.BOOLEAN) {
+                throw new IllegalArgumentException("Unsupported clip test returning " + intersects.getType().getClassName());
+            }
+            intersects.compile(code);
+            code.jumpInsn(Opcodes.IFEQ, end);
+            code.label(inside);
+        } else {
+            // size > min && size <= max
+            int[] range = (int[]) test.value;
+            if (range[0] != Integer.MIN_VALUE) {
+                compileComparison(new VariableOperand("size"), range[0], true, code, end);
+            }
+            if (range[1] != Integer.MAX_VALUE) {
+                compileComparison(new VariableOperand("size"), range[1], false, code, end);
+            }
+        }
+    }
+
+    /**
+     * Compiles the comparison of a number with a bound, jumping to the label if the comparison fails.
+     *
+     * @param greater true to test if the number is greater than the bound, false to test if it's less or equal
+     */
+    private void compileComparison(Operand operand, int bound, boolean greater, Code code, Label label) {
+        Type type = getPromotedType(operand.getType(), Type.INT_TYPE);
+        if (operand.getType().getSort() == Type.OBJECT || operand.getType().getSort() == Type.ARRAY) {
+            throw new IllegalArgumentException("Incompatible types: " + operand.getType().getClassName() + " and int");
+        }
+
+        operand.compile(type, code);
+        if (type.equals(Type.INT_TYPE) && bound == 0) {
+            code.jumpInsn(greater ? Opcodes.IFLE : Opcodes.IFGT, label);
+            return;
+        }
+        pushLiteral(bound, Type.INT_TYPE, type, code);
+        if (type.equals(Type.INT_TYPE)) {
+            code.jumpInsn(greater ? Opcodes.IF_ICMPLE : Opcodes.IF_ICMPGT, label);
+            return;
+        }
+        if (type.equals(Type.LONG_TYPE)) {
+            code.insn(Opcodes.LCMP);
+        } else {
+            // the comparisons with NaN are false
+            boolean isFloat = type.equals(Type.FLOAT_TYPE);
+            code.insn(greater ? (isFloat ? Opcodes.FCMPL : Opcodes.DCMPL) : (isFloat ? Opcodes.FCMPG : Opcodes.DCMPG));
+        }
+        code.jumpInsn(greater ? Opcodes.IFLE : Opcodes.IFGT, label);
+    }
+
+    /**
+     * Returns the constructor call of a shape, as written by the shape transcoder.
+     */
+    private Operand getShape(Shape shape) {
+        if (shape instanceof Rectangle2D) {
+            Rectangle2D rect = (Rectangle2D) shape;
+            return new Invocation(null, resolveType("Rectangle2D.Double"), "<init>",
+                    getDouble(rect.getX()), getDouble(rect.getY()), getDouble(rect.getWidth()), getDouble(rect.getHeight()));
+        } else if (shape instanceof RoundRectangle2D) {
+            RoundRectangle2D rect = (RoundRectangle2D) shape;
+            return new Invocation(null, resolveType("RoundRectangle2D.Double"), "<init>",
+                    getDouble(rect.getX()), getDouble(rect.getY()), getDouble(rect.getWidth()), getDouble(rect.getHeight()),
+                    getDouble(rect.getArcWidth()), getDouble(rect.getArcHeight()));
+        } else if (shape instanceof Line2D.Float) {
+            Line2D.Float line = (Line2D.Float) shape;
+            float[] coords = {line.x1, line.y1, line.x2, line.y2};
+            Operand[] arguments = new Operand[coords.length];
+            for (int i = 0; i < coords.length; i++) {
+                // written with 6 decimals
+                arguments[i] = new Literal(Float.parseFloat(String.format(Locale.ENGLISH, "%f", coords[i])));
+            }
+            return new Invocation(null, resolveType("Line2D.Float"), "<init>", arguments);
+        } else {
+            throw new IllegalArgumentException("Unsupported shape: " + shape.getClass().getName());
+        }
+    }
+
+    /**
+     * Returns the value of a paint, as written by the paint transcoder.
+     */
+    private Operand getPaint(Object paint) {
+        if (paint instanceof RadialGradientPaint) {
+            return new Literal(RadialGradientPaintTranscoder.INSTANCE.getValue((RadialGradientPaint) paint));
+        } else if (paint instanceof LinearGradientPaint) {
+            LinearGradientPaint gradient = (LinearGradientPaint) paint;
+            LinearGradientPaintTranscoder transcoder = LinearGradientPaintTranscoder.INSTANCE;
+
+            Operand colors = new Literal(null);
+            if (gradient.getFractions() != null) {
+                Operand[] values = new Operand[gradient.getColors().length];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = new Literal(ColorTranscoder.INSTANCE.getValue(gradient.getColors()[i]));
+                }
+                colors = new ArrayInitializer(Type.INT_TYPE, values);
+            }
+
+            return new Invocation(null, resolveType("LinearGradientPaint"), "<init>",
+                    getDouble(gradient.getStartPoint().getX()),
+                    getDouble(gradient.getStartPoint().getY()),
+                    getDouble(gradient.getEndPoint().getX()),
+                    getDouble(gradient.getEndPoint().getY()),
+                    getFloats(transcoder.normalizeFractions(gradient.getFractions())),
+                    colors,
+                    new StaticField(transcoder.transcode(gradient.getCycleMethod())),
+                    new StaticField(transcoder.transcode(gradient.getColorSpace())),
+                    getTransform(gradient.getTransform()));
+        } else if (paint instanceof Color) {
+            return new Literal(ColorTranscoder.INSTANCE.getValue((Color) paint));
+        } else {
+            throw new IllegalArgumentException("Unsupported paint: " + paint.getClass().getName());
+        }
+    }
+
+    /**
+     * Returns the constructor call of a stroke, as written by the stroke transcoder.
+     */
+    private Operand getStroke(BasicStroke stroke) {
+        Type type = resolveType("Stroke");
+        Operand width = getFloat(stroke.getLineWidth());
+        Operand cap = new Literal(stroke.getEndCap());
+        Operand join = new Literal(stroke.getLineJoin());
+        Operand miterLimit = getFloat(stroke.getMiterLimit());
+        if (stroke.getDashArray() == null) {
+            return new Invocation(null, type, "<init>", width, cap, join, miterLimit);
+        } else {
+            return new Invocation(null, type, "<init>", width, cap, join, miterLimit, getFloats(stroke.getDashArray()), getFloat(stroke.getDashPhase()));
+        }
+    }
+
+    /**
+     * Returns the transformation converted by the template, as written by the transform transcoder.
+     */
+    private Operand getTransform(AffineTransform transform) {
+        Operand[] arguments = new Operand[0];
+        if (!transform.isIdentity()) {
+            double[] matrix = new double[6];
+            transform.getMatrix(matrix);
+            arguments = new Operand[matrix.length];
+            for (int i = 0; i < matrix.length; i++) {
+                arguments[i] = getFloat((float) matrix[i]);
+            }
+        }
+        return new Invocation(new Invocation(null, resolveType("AffineTransform"), "<init>", arguments), null, "toTransform");
+    }
+
+    private Operand getFloat(float value) {
+        return new Literal(FloatTranscoder.INSTANCE.getValue(value));
+    }
+
+    private Operand getFloats(float[] values) {
+        if (values == null) {
+            return new Literal(null);
+        }
+        Operand[] elements = new Operand[values.length];
+        for (int i = 0; i < values.length; i++) {
+            elements[i] = getFloat(values[i]);
+        }
+        return new ArrayInitializer(Type.FLOAT_TYPE, elements);
+    }
+
+    /**
+     * Returns the literal written for a double, the integers being written as int literals.
+     */
+    private Operand getDouble(double value) {
+        Number literal = DoubleTranscoder.INSTANCE.getValue(value);
+        if (literal instanceof Long) {
+            long l = (Long) literal;
+            if (l < Integer.MIN_VALUE || l > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Integer number too large: " + l);
+            }
+            literal = (int) l;
+        }
+        return new Literal(literal);
+    }
+
+    /**
+     * Compiles the call of a method, the receiver and the arguments being already on the stack.
+     *
+     * @param owner the static type of the receiver, or the class of the static method or of the constructor
+     */
+    private void invoke(Type owner, ClassModel.Member method, boolean isStatic, Code code) {
+        boolean isInterface = model.isInterface(owner.getInternalName());
+        int opcode;
+        if (method.name.equals("<init>")) {
+            opcode = Opcodes.INVOKESPECIAL;
+        } else if (isStatic) {
+            opcode = Opcodes.INVOKESTATIC;
+        } else {
+            opcode = isInterface ? Opcodes.INVOKEINTERFACE : Opcodes.INVOKEVIRTUAL;
+        }
+        code.methodInsn(opcode, method.name.equals("<init>") ? method.owner : owner.getInternalName(), method.name, method.descriptor, isInterface);
+    }
+
+    /**
+     * Returns the cost of the conversion of an argument into the type of a parameter, the number
+     * of widening steps for the primitive types and 1 for the erased type arguments requiring a cast.
+     *
+     * @return the cost, or -1 if the argument isn't applicable
+     */
+    private int getConversionCost(Type type, Type parameter) {
+        if (type.getSort() == Type.OBJECT || type.getSort() == Type.ARRAY) {
+            if (parameter.getSort() != Type.OBJECT && parameter.getSort() != Type.ARRAY) {
+                return -1;
+            } else if (isAssignable(type, parameter)) {
+                return 0;
+            } else {
+                return OBJECT.equals(type) ? 1 : -1;
+            }
+        }
+
+        if (type.equals(parameter)) {
+            return 0;
+        }
+        int from = NUMERIC_TYPES.indexOf(type.getSort() == Type.SHORT || type.getSort() == Type.BYTE || type.getSort() == Type.CHAR ? Type.INT_TYPE : type);
+        int to = NUMERIC_TYPES.indexOf(parameter);
+        return from != -1 && to >= from ? to - from : -1;
+    }
+
+    private boolean isAssignable(Type from, Type to) {
+        if (from.equals(NULL) || from.equals(to)) {
+            return true;
+        } else if (from.getSort() == Type.ARRAY || to.getSort() == Type.ARRAY) {
+            return to.equals(OBJECT);
+        } else {
+            return model.isAssignable(from.getInternalName(), to.getInternalName());
+        }
+    }
+
+    /**
+     * Converts the value on the stack into the expected type.
+     */
+    private void convert(Type type, Type expected, Code code) {
+        if (expected.getSort() == Type.OBJECT || expected.getSort() == Type.ARRAY) {
+            if (!isAssignable(type, expected)) {
+                if (!OBJECT.equals(type)) {
+                    throw new IllegalArgumentException("Incompatible types: " + type.getClassName() + " and " + expected.getClassName());
+                }
+                // erased type argument
+                code.typeInsn(Opcodes.CHECKCAST, expected.getInternalName());
+            }
+        } else if (type.getSort() == Type.OBJECT || type.getSort() == Type.ARRAY) {
+            throw new IllegalArgumentException("Incompatible types: " + type.getClassName() + " and " + expected.getClassName());
+        } else {
+            convertPrimitive(type, expected, code);
+        }
+    }
+
+    private static void convertPrimitive(Type type, Type expected, Code code) {
+        Type from = type.getSort() <= Type.INT ? Type.INT_TYPE : type;
+        Type to = expected.getSort() <= Type.INT ? Type.INT_TYPE : expected;
+        if (!from.equals(to)) {
+            int[] opcodes = {
+                Opcodes.NOP, Opcodes.I2L, Opcodes.I2F, Opcodes.I2D,
+                Opcodes.L2I, Opcodes.NOP, Opcodes.L2F, Opcodes.L2D,
+                Opcodes.F2I, Opcodes.F2L, Opcodes.NOP, Opcodes.F2D,
+                Opcodes.D2I, Opcodes.D2L, Opcodes.D2F, Opcodes.NOP
+            };
+            code.insn(opcodes[4 * NUMERIC_TYPES.indexOf(from) + NUMERIC_TYPES.indexOf(to)]);
+        }
+
+        // narrowing into the types shorter than int
+        if (type.getSort() != expected.getSort() && !(type.getSort() == Type.BYTE && expected.getSort() == Type.SHORT)) {
+            switch (expected.getSort()) {
+                case Type.BYTE: code.insn(Opcodes.I2B); break;
+                case Type.CHAR: code.insn(Opcodes.I2C); break;
+                case Type.SHORT: code.insn(Opcodes.I2S); break;
+            }
+        }
+    }
+
+    private static Type getPromotedType(Type type1, Type type2) {
+        int index = Math.max(NUMERIC_TYPES.indexOf(type1), NUMERIC_TYPES.indexOf(type2));
+        return NUMERIC_TYPES.get(Math.max(index, 0));
+    }
+
+    private Type resolveType(String name) {
+        Type type = model.resolveType(name);
+        if (type == null) {
+            throw new IllegalArgumentException("Unable to resolve the type " + name);
+        }
+        return type;
+    }
+
+    /**
+     * Pushes a literal converted into the expected type with the shortest instruction.
+     *
+     * @param value the value of the literal, null for the null literal
+     * @param type  the type of the literal
+     */
+    private void pushLiteral(Number value, Type type, Type expected, Code code) {
+        if (value == null || expected.getSort() == Type.OBJECT || expected.getSort() == Type.ARRAY) {
+            if (value != null) {
+                throw new IllegalArgumentException("Incompatible types: " + value + " and " + expected.getClassName());
+            }
+            code.insn(Opcodes.ACONST_NULL);
+            return;
+        }
+        if (getConversionCost(type, expected) == -1) {
+            throw new IllegalArgumentException("Incompatible types: " + value + " and " + expected.getClassName());
+        }
+
+        switch (expected.getSort()) {
+            case Type.LONG:
+                if (value.longValue() == 0 || value.longValue() == 1) {
+                    code.insn(Opcodes.LCONST_0 + (int) value.longValue());
+                } else {
+                    code.ldc(value.longValue());
+                }
+                break;
+            case Type.FLOAT:
+                float f = value instanceof Long ? (float) value.longValue() : value.floatValue();
+                if (Float.floatToIntBits(f) == 0 || f == 1 || f == 2) {
+                    code.insn(Opcodes.FCONST_0 + (int) f);
+                } else {
+                    code.ldc(f);
+                }
+                break;
+            case Type.DOUBLE:
+                double d = value instanceof Long ? (double) value.longValue() : value.doubleValue();
+                if (Double.doubleToLongBits(d) == 0 || d == 1) {
+                    code.insn(Opcodes.DCONST_0 + (int) d);
+                } else {
+                    code.ldc(d);
+                }
+                break;
+            default:
+                int i = value.intValue();
+                if (i >= -1 && i <= 5) {
+                    code.insn(Opcodes.ICONST_0 + i);
+                } else if (i >= Byte.MIN_VALUE && i <= Byte.MAX_VALUE) {
+                    code.intInsn(Opcodes.BIPUSH, i);
+                } else if (i >= Short.MIN_VALUE && i <= Short.MAX_VALUE) {
+                    code.intInsn(Opcodes.SIPUSH, i);
+                } else {
+                    code.ldc(i);
+                }
+        }
+    }
+}
@@ -0,0 +1,361 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.awt.Shape;
+import java.awt.geom.GeneralPath;
+import java.awt.geom.Line2D;
+import java.awt.geom.PathIterator;
+
+/**
+ * Simplifies the path data before it's transcoded. The simplified path never
+ * deviates from the original path by more than the tolerance, measured in the
+ * coordinates of the path, before the transform of its node is applied:
+ * <ul>
+ *   <li>flat quadratic and cubic curves are turned into lines</li>
+ *   <li>runs of line segments are reduced with the Douglas-Peucker algorithm,
+ *       which also merges the collinear and the zero-length segments</li>
+ *   <li>cubic curves equivalent to a quadratic curve are degree reduced</li>
+ *   <li>consecutive moves are merged</li>
+ * </ul>
+ *
+ * The flattening of the curves and the Douglas-Peucker reduction add up their
+ * errors, each of them gets half of the tolerance.
+ *
+ * The coordinates of the simplified path can also be rounded to a number of
+ * decimals to shorten the generated code. The error of the rounding comes in
+ * addition to the tolerance.
+ *
+ * The simplifier counts the segments read and written to report the reduction.
+ */
+public class PathSimplifier {
+
+    /** The maximum distance between the original and the simplified path. */
+    private final float tolerance;
+
+    /** The maximum distance allowed by the flattening of the curves, and then by the reduction of the lines. */
+    private final float lineTolerance;
+
+    /** The number of decimals kept in the coordinates, or -1 to keep the coordinates unchanged. */
+    private final int precision;
+
+    /** The factor applied to the coordinates before the rounding. */
+    private final double scale;
+
+    /** The last point written in the simplified path. */
+    private float lastX, lastY;
+
+    /** The number of segments read. */
+    private int inputSegmentCount;
+
+    /** The number of segments written. */
+    private int outputSegmentCount;
+
+    /** The points of the pending polyline (x0, y0, x1, y1...), the first point being the current point. */
+    private float[] polyline = new float[64];
+
+    /** The number of points in the pending polyline. */
+    private int polylineSize;
+
+    /**
+     * Creates a new path simplifier.
+     *
+     * @param tolerance the maximum distance between the original and the simplified path
+     */
+    public PathSimplifier(float tolerance) {
+        this(tolerance, -1);
+    }
+
+    /**
+     * Creates a new path simplifier.
+     *
+     * @param tolerance the maximum distance between the original and the simplified path
+     * @param precision the number of decimals kept in the coordinates, or -1 to keep the coordinates unchanged
+     */
+    public PathSimplifier(float tolerance, int precision) {
+        this.tolerance = tolerance;
+        this.lineTolerance = tolerance / 2;
+        this.precision = precision;
+        this.scale = Math.pow(10, precision);
+    }
+
+    public float getTolerance() {
+        return tolerance;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Returns the number of segments read since the creation of the simplifier or the last reset.
+     */
+    public int getInputSegmentCount() {
+        return inputSegmentCount;
+    }
+
+    /**
+     * Returns the number of segments written since the creation of the simplifier or the last reset.
+     */
+    public int getOutputSegmentCount() {
+        return outputSegmentCount;
+    }
+
+    /**
+     * Resets the segment counters.
+     */
+    public void reset() {
+        inputSegmentCount = 0;
+        outputSegmentCount = 0;
+    }
+
+    /**
+     * Returns a simplified copy of the specified shape.
+     *
+     * @param shape the shape to simplify
+     */
+    public GeneralPath simplify(Shape shape) {
+        PathIterator iterator = shape.getPathIterator(null);
+        GeneralPath path = new GeneralPath(iterator.getWindingRule());
+
+        float[] coords = new float[6];
+        float currentX = 0;
+        float currentY = 0;
+        float startX = 0;
+        float startY = 0;
+        boolean pendingMove = false;
+        polylineSize = 0;
+
+        for (; !iterator.isDone(); iterator.next()) {
+            int type = iterator.currentSegment(coords);
+            inputSegmentCount++;
+
+            switch (type) {
+                case PathIterator.SEG_MOVETO:
+                    flushPolyline(path);
+                    currentX = startX = coords[0];
+                    currentY = startY = coords[1];
+                    pendingMove = true;
+                    break;
+
+                case PathIterator.SEG_LINETO:
+                    pendingMove = flushMove(path, pendingMove, currentX, currentY);
+                    addPolylinePoint(currentX, currentY, coords[0], coords[1]);
+                    currentX = coords[0];
+                    currentY = coords[1];
+                    break;
+
+                case PathIterator.SEG_QUADTO:
+                    pendingMove = flushMove(path, pendingMove, currentX, currentY);
+                    if (Line2D.ptSegDist(currentX, currentY, coords[2], coords[3], coords[0], coords[1]) <= lineTolerance) {
+                        addPolylinePoint(currentX, currentY, coords[2], coords[3]);
+                    } else {
+                        flushPolyline(path);
+                        quadTo(path, coords[0], coords[1], coords[2], coords[3]);
+                    }
+                    currentX = coords[2];
+                    currentY = coords[3];
+                    break;
+
+                case PathIterator.SEG_CUBICTO:
+                    pendingMove = flushMove(path, pendingMove, currentX, currentY);
+                    if (Line2D.ptSegDist(currentX, currentY, coords[4], coords[5], coords[0], coords[1]) <= lineTolerance
+                            && Line2D.ptSegDist(currentX, currentY, coords[4], coords[5], coords[2], coords[3]) <= lineTolerance) {
+                        addPolylinePoint(currentX, currentY, coords[4], coords[5]);
+                    } else {
+                        flushPolyline(path);
+
+                        // control points of the quadratic curves matching each end of the cubic curve
+                        float q1x = (3 * coords[0] - currentX) / 2;
+                        float q1y = (3 * coords[1] - currentY) / 2;
+                        float q2x = (3 * coords[2] - coords[4]) / 2;
+                        float q2y = (3 * coords[3] - coords[5]) / 2;
+
+                        // maximum distance between the cubic curve and the quadratic curve using the middle control point
+                        double error = Math.sqrt(3) / 18 * Math.hypot(q1x - q2x, q1y - q2y);
+                        if (error <= tolerance) {
+                            quadTo(path, (q1x + q2x) / 2, (q1y + q2y) / 2, coords[4], coords[5]);
+                        } else {
+                            curveTo(path, coords[0], coords[1], coords[2], coords[3], coords[4], coords[5]);
+                        }
+                    }
+                    currentX = coords[4];
+                    currentY = coords[5];
+                    break;
+
+                case PathIterator.SEG_CLOSE:
+                    if (pendingMove) {
+                        // empty subpath
+                        pendingMove = false;
+                    } else {
+                        // the closing segment joins the last point with the start of the subpath
+                        if (polylineSize > 2) {
+                            int last = 2 * (polylineSize - 1);
+                            if (Math.hypot(polyline[last] - startX, polyline[last + 1] - startY) <= lineTolerance) {
+                                polylineSize--;
+                            }
+                        }
+                        flushPolyline(path);
+                        path.closePath();
+                        outputSegmentCount++;
+                        lastX = round(startX);
+                        lastY = round(startY);
+                    }
+                    currentX = startX;
+                    currentY = startY;
+                    break;
+            }
+        }
+
+        flushPolyline(path);
+
+        return path;
+    }
+
+    /**
+     * Writes the pending move before the first segment of a subpath.
+     *
+     * @return false
+     */
+    private boolean flushMove(GeneralPath path, boolean pendingMove, float x, float y) {
+        if (pendingMove) {
+            lastX = round(x);
+            lastY = round(y);
+            path.moveTo(lastX, lastY);
+            outputSegmentCount++;
+        }
+        return false;
+    }
+
+    /**
+     * Appends a line to the path, unless it has a zero length once rounded.
+     */
+    private void lineTo(GeneralPath path, float x, float y) {
+        x = round(x);
+        y = round(y);
+        if (x != lastX || y != lastY) {
+            path.lineTo(x, y);
+            outputSegmentCount++;
+            lastX = x;
+            lastY = y;
+        }
+    }
+
+    private void quadTo(GeneralPath path, float x1, float y1, float x2, float y2) {
+        lastX = round(x2);
+        lastY = round(y2);
+        path.quadTo(round(x1), round(y1), lastX, lastY);
+        outputSegmentCount++;
+    }
+
+    private void curveTo(GeneralPath path, float x1, float y1, float x2, float y2, float x3, float y3) {
+        lastX = round(x3);
+        lastY = round(y3);
+        path.curveTo(round(x1), round(y1), round(x2), round(y2), lastX, lastY);
+        outputSegmentCount++;
+    }
+
+    /**
+     * Rounds the specified coordinate to the precision of the simplifier.
+     */
+    private float round(float value) {
+        if (precision < 0) {
+            return value;
+        }
+        return (float) (Math.round(value * scale) / scale);
+    }
+
+    /**
+     * Appends a point to the pending polyline.
+     *
+     * @param currentX the X coordinate of the current point, starting the polyline if it's empty
+     * @param currentY the Y coordinate of the current point, starting the polyline if it's empty
+     */
+    private void addPolylinePoint(float currentX, float currentY, float x, float y) {
+        if (polylineSize == 0) {
+            polyline[0] = currentX;
+            polyline[1] = currentY;
+            polylineSize = 1;
+        }
+
+        if (2 * polylineSize + 2 > polyline.length) {
+            float[] array = new float[polyline.length * 2];
+            System.arraycopy(polyline, 0, array, 0, polyline.length);
+            polyline = array;
+        }
+
+        polyline[2 * polylineSize] = x;
+        polyline[2 * polylineSize + 1] = y;
+        polylineSize++;
+    }
+
+    /**
+     * Simplifies the pending polyline with the Douglas-Peucker algorithm and appends the remaining lines to the path.
+     */
+    private void flushPolyline(GeneralPath path) {
+        if (polylineSize < 2) {
+            polylineSize = 0;
+            return;
+        }
+
+        boolean[] kept = new boolean[polylineSize];
+        kept[0] = true;
+        kept[polylineSize - 1] = true;
+
+        // ranges of points remaining to be examined, handled iteratively to support long polylines
+        int[] stack = new int[2 * polylineSize];
+        int stackSize = 0;
+        stack[stackSize++] = 0;
+        stack[stackSize++] = polylineSize - 1;
+
+        while (stackSize > 0) {
+            int last = stack[--stackSize];
+            int first = stack[--stackSize];
+
+            float x1 = polyline[2 * first];
+            float y1 = polyline[2 * first + 1];
+            float x2 = polyline[2 * last];
+            float y2 = polyline[2 * last + 1];
+
+            double maxDistance = -1;
+            int farthest = -1;
+            for (int i = first + 1; i < last; i++) {
+                double distance = Line2D.ptSegDist(x1, y1, x2, y2, polyline[2 * i], polyline[2 * i + 1]);
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    farthest = i;
+                }
+            }
+
+            if (maxDistance > lineTolerance) {
+                kept[farthest] = true;
+                stack[stackSize++] = first;
+                stack[stackSize++] = farthest;
+                stack[stackSize++] = farthest;
+                stack[stackSize++] = last;
+            }
+        }
+
+        for (int i = 1; i < polylineSize; i++) {
+            if (kept[i]) {
+                lineTo(path, polyline[2 * i], polyline[2 * i + 1]);
+            }
+        }
+
+        polylineSize = 0;
+    }
+}
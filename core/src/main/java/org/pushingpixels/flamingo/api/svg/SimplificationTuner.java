@@ -0,0 +1,195 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.batik.bridge.BridgeContext;
+import org.apache.batik.ext.awt.image.GraphicsUtil;
+import org.apache.batik.gvt.GraphicsNode;
+
+/**
+ * Searches the most aggressive path simplification tolerance and coordinate
+ * precision keeping the rendering of the generated code close to the rendering
+ * of the original image.
+ *
+ * The original image is rendered by Batik, and the candidate settings are
+ * evaluated by rendering the generated code with the {@link PaintingCodeInterpreter}
+ * at each of the target sizes. The difference between two renderings is the mean
+ * absolute difference of the premultiplied ARGB components, from 0 (identical)
+ * to 1. Since the generated code doesn't support every SVG feature, the
+ * difference accepted is relative to the rendering of the unsimplified code:
+ * a candidate is retained if its difference with the original image doesn't
+ * exceed the difference of the unsimplified code by more than the threshold.
+ */
+public class SimplificationTuner {
+
+    /** The tolerances tried, in pixels at the largest target size, from the most to the least aggressive. */
+    private static final float[] TOLERANCES = {2f, 1f, 0.5f, 0.25f, 0.1f};
+
+    /** The coordinate precisions tried, from the most to the least aggressive. */
+    private static final int[] PRECISIONS = {0, 1, 2, 3, 4};
+
+    /** The maximum difference accepted between the renderings. */
+    private final float maxDifference;
+
+    /** The sizes in pixels at which the renderings are compared. */
+    private final int[] sizes;
+
+    /**
+     * Creates a new simplification tuner.
+     *
+     * @param maxDifference the maximum difference accepted between the renderings (for example 0.01 for 1%)
+     * @param sizes         the sizes in pixels at which the renderings are compared
+     */
+    public SimplificationTuner(float maxDifference, int... sizes) {
+        if (sizes.length == 0) {
+            throw new IllegalArgumentException("At least one size is required");
+        }
+        this.maxDifference = maxDifference;
+        this.sizes = sizes.clone();
+    }
+
+    public float getMaxDifference() {
+        return maxDifference;
+    }
+
+    /**
+     * Searches the simplification settings for the specified image, and applies them to the transcoder.
+     * The paths are left unchanged if the image can't be rendered.
+     *
+     * @param transcoder the transcoder receiving the settings
+     * @param context    the context of the image, with its GVT tree built
+     */
+    public void tune(SvgTranscoder transcoder, BridgeContext context) {
+        GraphicsNode root = context.getGraphicsNode(context.getDocument());
+
+        Rectangle2D bounds = root.getBounds();
+        if (bounds == null || bounds.isEmpty()) {
+            transcoder.setSimplificationTolerance(0);
+            transcoder.setCoordinatePrecision(-1);
+            return;
+        }
+
+        int maxSize = 0;
+        BufferedImage[] originals = new BufferedImage[sizes.length];
+        for (int i = 0; i < sizes.length; i++) {
+            maxSize = Math.max(maxSize, sizes[i]);
+            originals[i] = render(root, null, bounds, sizes[i]);
+        }
+
+        try {
+            double reference = getDifference(transcoder, context, bounds, originals, 0, -1) + maxDifference;
+
+            float pixel = (float) Math.max(bounds.getWidth(), bounds.getHeight()) / maxSize;
+            float tolerance = 0;
+            for (float candidate : TOLERANCES) {
+                if (getDifference(transcoder, context, bounds, originals, candidate * pixel, -1) <= reference) {
+                    tolerance = candidate * pixel;
+                    break;
+                }
+            }
+
+            int precision = -1;
+            for (int candidate : PRECISIONS) {
+                if (getDifference(transcoder, context, bounds, originals, tolerance, candidate) <= reference) {
+                    precision = candidate;
+                    break;
+                }
+            }
+
+            transcoder.setSimplificationTolerance(tolerance);
+            transcoder.setCoordinatePrecision(precision);
+        } catch (RuntimeException e) {
+            Logger.getLogger(getClass().getName()).log(Level.WARNING, "Unable to tune the simplification of " + context.getDocument().getDocumentURI(), e);
+            transcoder.setSimplificationTolerance(0);
+            transcoder.setCoordinatePrecision(-1);
+        }
+    }
+
+    /**
+     * Returns the largest difference between the original renderings and the renderings of the code
+     * generated with the specified settings.
+     */
+    private double getDifference(SvgTranscoder transcoder, BridgeContext context, Rectangle2D bounds, BufferedImage[] originals, float tolerance, int precision) {
+        transcoder.setSimplificationTolerance(tolerance);
+        transcoder.setCoordinatePrecision(precision);
+        PaintingCodeInterpreter interpreter = new PaintingCodeInterpreter(transcoder.transcodePaintingCode(context));
+        GraphicsNode root = context.getGraphicsNode(context.getDocument());
+
+        double difference = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            difference = Math.max(difference, getDifference(originals[i], render(root, interpreter, bounds, sizes[i])));
+        }
+        return difference;
+    }
+
+    /**
+     * Renders the image with Batik, or with the interpreter of the generated code if specified.
+     */
+    private BufferedImage render(GraphicsNode root, PaintingCodeInterpreter interpreter, Rectangle2D bounds, int size) {
+        double scale = size / Math.max(bounds.getWidth(), bounds.getHeight());
+        int width = Math.max(1, (int) Math.ceil(bounds.getWidth() * scale));
+        int height = Math.max(1, (int) Math.ceil(bounds.getHeight() * scale));
+
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = GraphicsUtil.createGraphics(image);
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+        g.scale(scale, scale);
+        g.translate(-bounds.getX(), -bounds.getY());
+        if (interpreter != null) {
+            interpreter.paint(g);
+        } else {
+            root.paint(g);
+        }
+        g.dispose();
+
+        return image;
+    }
+
+    /**
+     * Returns the mean absolute difference of the premultiplied ARGB components of two images of the same size.
+     */
+    private double getDifference(BufferedImage image1, BufferedImage image2) {
+        int width = image1.getWidth();
+        int height = image1.getHeight();
+        int[] pixels1 = image1.getRGB(0, 0, width, height, null, 0, width);
+        int[] pixels2 = image2.getRGB(0, 0, width, height, null, 0, width);
+
+        long sum = 0;
+        for (int i = 0; i < pixels1.length; i++) {
+            int p1 = pixels1[i];
+            int p2 = pixels2[i];
+            int a1 = p1 >>> 24;
+            int a2 = p2 >>> 24;
+            sum += Math.abs(a1 - a2);
+            for (int shift = 0; shift <= 16; shift += 8) {
+                int c1 = ((p1 >> shift) & 0xFF) * a1 / 255;
+                int c2 = ((p2 >> shift) & 0xFF) * a2 / 255;
+                sum += Math.abs(c1 - c2);
+            }
+        }
+
+        return sum / (255.0 * 4 * pixels1.length);
+    }
+}
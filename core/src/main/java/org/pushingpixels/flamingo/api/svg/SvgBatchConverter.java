@@ -1,52 +1,621 @@
 package org.pushingpixels.flamingo.api.svg;
 
 import java.io.File;
+import java.io.FileWriter;
 import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 public class SvgBatchConverter {
 
+    /** The time without change after which the images modified are converted in the watch mode, in milliseconds. */
+    private static final long DEBOUNCE_DELAY = 30;
+
+    /** The session loading the files, created on the first local conversion. */
+    private TranscodingSession session;
+
+    private final NamingStrategy namingStrategy = new DefaultNamingStrategy();
+
+    private String packageName;
+    private float tolerance;
+    private int precision = -1;
+    private float maxDifference = -1;
+    private String tuningSizes = "16,32,64";
+    private SimplificationTuner tuner;
+    private boolean cull;
+    private boolean occlusion;
+    private boolean clipGroups;
+    private int[] levelsOfDetail;
+    private GlyphOutlineCache glyphCache;
+    private Template template = Template.getDefault();
+    private ComplexityBudget budget;
+    private boolean failOnBudget;
+    private boolean boundedMemory;
+
+    /** The conversion options, forwarded to the daemon. */
+    private final List<String> options = new ArrayList<>();
+
+    /** The client of the daemon converting the images, or null to convert them in this JVM. */
+    private DaemonClient daemon;
+
+    /** The number of images exceeding the complexity budget. */
+    private int overBudgetCount;
+
+    /** The output of the class files emitted, or null to write the sources of the classes. */
+    private ClassFileOutput classOutput;
+
+    /** The emitter of the class files, or null to write the sources of the classes. */
+    private ClassFileEmitter classFileEmitter;
+
+    /** The sources written by the last conversion of a folder, by qualified name of their class. */
+    private final Map<String, File> writtenSources = new LinkedHashMap<>();
+
+    SvgBatchConverter() {
+    }
+
+    /**
+     * Creates a converter loading the files with the specified session.
+     */
+    SvgBatchConverter(TranscodingSession session) {
+        this.session = session;
+    }
+
     /**
      * Main method for testing.
      *
      * @param args First parameter should point to a folder with SVG images, and
      *             the second parameter should be the package name for the
-     *             transcoded classes.
+     *             transcoded classes. They can be preceded by the options:
+     *             <ul>
+     *               <li>-tolerance &lt;distance&gt; : simplify the paths with the specified tolerance</li>
+     *               <li>-precision &lt;decimals&gt; : round the path coordinates to the specified number of decimals</li>
+     *               <li>-maxdiff &lt;difference&gt; : search the most aggressive tolerance and precision for each image,
+     *                   with a rendering difference below the specified value (0.01 for 1%)</li>
+     *               <li>-sizes &lt;sizes&gt; : the comma separated sizes at which the renderings are compared (16,32,64 by default)</li>
+     *               <li>-cull : remove the invisible nodes</li>
+     *               <li>-occlusion : remove the shapes covered by opaque shapes, for the images painted fully opaque</li>
+     *               <li>-clipgroups : skip the painting of the groups outside of the clip</li>
+     *               <li>-lod &lt;sizes&gt; : generate simplified variants for the renderings up to the comma separated sizes</li>
+     *               <li>-glyphs : transcode each distinct glyph of the texts once</li>
+     *               <li>-template &lt;name&gt; : the template of the generated classes (plain, icon or resizable)</li>
+     *               <li>-report &lt;file&gt; : write the time spent in each stage and the size of the code generated
+     *                   for each file, in CSV if the file name ends with .csv and in NDJSON otherwise</li>
+     *               <li>-budget &lt;limits&gt; : warn about the images exceeding the comma separated complexity limits,
+     *                   for example segments=10000,drawcalls=500,statechanges=1000,bytecode=65536,gradients=20</li>
+     *               <li>-failbudget : exit with an error if an image exceeds the complexity budget</li>
+     *               <li>-boundedmemory : release the documents once their GVT tree is built and write the
+     *                   intermediate content into temporary files, for the very large documents</li>
+     *               <li>-watch : keep running after the conversion, and convert again the SVG images created or
+     *                   modified in the folder</li>
+     *               <li>-daemon : convert the images with the {@link TranscodingDaemon} when it's running, instead of this JVM</li>
+     *               <li>-compilecheck : compile the generated classes in memory, and exit with an error if a class
+     *                   doesn't compile</li>
+     *               <li>-compileclasspath &lt;path&gt; : the classpath of the API used by the template, for the
+     *                   compilation check and the emission of the class files (the classpath of the converter by default)</li>
+     *               <li>-classes &lt;dir|file.jar&gt; : emit the class files into the folder or the jar instead of
+     *                   writing the sources, the source is written if the class files can't be emitted</li>
+     *             </ul>
      */
-    public static void main(String... args) {
-        if (args.length != 2) {
+    public static void main(String... args) throws IOException {
+        SvgBatchConverter converter = new SvgBatchConverter();
+        File reportFile = null;
+        boolean watch = false;
+        boolean useDaemon = false;
+        boolean compileCheck = false;
+        String compileClasspath = System.getProperty("java.class.path");
+        File classesFile = null;
+
+        List<String> params = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-report":
+                    reportFile = new File(args[++i]);
+                    break;
+                case "-watch":
+                    watch = true;
+                    break;
+                case "-daemon":
+                    useDaemon = true;
+                    break;
+                case "-compilecheck":
+                    compileCheck = true;
+                    break;
+                case "-compileclasspath":
+                    compileClasspath = args[++i];
+                    break;
+                case "-classes":
+                    classesFile = new File(args[++i]);
+                    break;
+                default:
+                    int last = converter.parseOption(args, i);
+                    if (last == -1) {
+                        params.add(args[i]);
+                    } else {
+                        i = last;
+                    }
+            }
+        }
+
+        if (params.size() != 2) {
             System.out.println("param 0 : dir, param 1 : pkg");
+            System.out.println("options : -tolerance <distance>, -precision <decimals>, -maxdiff <difference>, -sizes <size,size...>, -cull, -occlusion, -clipgroups, -lod <size,size...>, -glyphs, -template <name>, -report <file>, -budget <limits>, -failbudget, -boundedmemory, -watch, -daemon, -compilecheck, -compileclasspath <path>, -classes <dir|file.jar>");
             System.exit(1);
         }
 
-        File dir = new File(args[0]);
+        File dir = new File(params.get(0));
         if (!dir.exists()) {
             return;
         }
+
+        converter.packageName = params.get(1);
+        if (classesFile != null) {
+            try {
+                converter.setClassOutput(new ClassFileOutput(classesFile), compileClasspath);
+            } catch (IllegalArgumentException e) {
+                System.err.println("ERROR: " + e.getMessage());
+                System.exit(1);
+            }
+        }
+        if (useDaemon && classesFile == null) {
+            converter.daemon = DaemonClient.find(DaemonClient.getDefaultFile());
+        }
+
+        MetricsReport report = null;
+        if (reportFile != null) {
+            report = new MetricsReport(reportFile);
+        }
+
+        converter.convertDirectory(dir, report);
+        if (converter.classOutput != null) {
+            converter.classOutput.flush();
+        }
+
+        if (report != null) {
+            report.close();
+            System.err.println("Report: " + report.getSummary());
+        }
+
+        int failedCount = compileCheck ? converter.checkCompilation(compileClasspath) : 0;
+        if (failedCount > 0 && !watch) {
+            System.exit(1);
+        }
+
+        int overBudgetCount = converter.overBudgetCount;
+        if (converter.failOnBudget && overBudgetCount > 0) {
+            System.err.println(overBudgetCount + " file" + (overBudgetCount == 1 ? "" : "s") + " over the complexity budget");
+            if (!watch) {
+                System.exit(1);
+            }
+        }
+
+        if (watch) {
+            // the changes are converted in this JVM, already warm
+            converter.daemon = null;
+            converter.watch(dir);
+        }
+    }
+
+    /**
+     * Parses the conversion option at the specified index of the arguments.
+     *
+     * @return the index of the last argument of the option, or -1 if the argument isn't a conversion option
+     */
+    int parseOption(String[] args, int i) {
+        int start = i;
+        switch (args[i]) {
+            case "-tolerance":
+                tolerance = Float.parseFloat(args[++i]);
+                break;
+            case "-precision":
+                precision = Integer.parseInt(args[++i]);
+                break;
+            case "-maxdiff":
+                maxDifference = Float.parseFloat(args[++i]);
+                tuner = null;
+                break;
+            case "-sizes":
+                tuningSizes = args[++i];
+                tuner = null;
+                break;
+            case "-cull":
+                cull = true;
+                break;
+            case "-occlusion":
+                occlusion = true;
+                break;
+            case "-clipgroups":
+                clipGroups = true;
+                break;
+            case "-lod":
+                levelsOfDetail = parseSizes(args[++i]);
+                break;
+            case "-glyphs":
+                glyphCache = new GlyphOutlineCache();
+                break;
+            case "-template":
+                try {
+                    template = new Template(args[++i].toLowerCase() + ".template");
+                } catch (IOException e) {
+                    throw new IllegalArgumentException("Unable to load the template " + args[i], e);
+                }
+                break;
+            case "-budget":
+                budget = ComplexityBudget.parse(args[++i]);
+                break;
+            case "-failbudget":
+                failOnBudget = true;
+                break;
+            case "-boundedmemory":
+                boundedMemory = true;
+                break;
+            default:
+                return -1;
+        }
+
+        options.addAll(Arrays.asList(args).subList(start, i + 1));
+        return i;
+    }
+
+    void setPackageName(String packageName) {
+        this.packageName = packageName;
+    }
+
+    /**
+     * Emits the class files of the images instead of writing their sources. The template of the
+     * classes is compiled against the classpath, the options must be parsed before.
+     *
+     * @param output    the output of the class files
+     * @param classpath the classpath of the API used by the template
+     * @throws IllegalArgumentException if the template doesn't compile against the classpath
+     */
+    void setClassOutput(ClassFileOutput output, String classpath) {
+        this.classFileEmitter = new ClassFileEmitter(template, classpath);
+        this.classOutput = output;
+    }
+
+    /**
+     * Converts all the SVG images of the folder.
+     *
+     * @param dir    the folder containing the SVG images, and receiving the classes generated
+     * @param report the report receiving the metrics of each file, or null
+     */
+    void convertDirectory(File dir, MetricsReport report) {
+        File[] files = listImages(dir);
+        writtenSources.clear();
+
+        if (daemon != null) {
+            try {
+                convertRemotely(files, report);
+                return;
+            } catch (IOException e) {
+                System.err.println("The daemon is unavailable (" + e.getMessage() + "), converting the images locally");
+                daemon = null;
+            }
+        }
+
+        Object batchEvent = TranscodingEvents.get().beginBatch();
+        int fileCount = 0;
+
+        for (File file : files) {
+            convert(file, report);
+            fileCount++;
+        }
+
+        TranscodingEvents.get().commitBatch(batchEvent, dir.getPath(), fileCount);
+
+        if (getGlyphSummary() != null) {
+            System.err.println(getGlyphSummary());
+        }
+    }
+
+    /**
+     * Compiles in memory the classes written by the last conversion of a folder, and logs the errors
+     * of the classes failing to compile. The sources left by the previous conversions, and the sources
+     * of the classes emitted as class files, aren't compiled.
+     *
+     * @param classpath the classpath of the API used by the template
+     * @return the number of classes failing to compile
+     */
+    int checkCompilation(String classpath) throws IOException {
+        long start = System.nanoTime();
+        CompilationCheck check = new CompilationCheck(classpath, Runtime.getRuntime().availableProcessors(), CompilationCheck.DEFAULT_BATCH_SIZE);
+        int classCount = 0;
+        for (Map.Entry<String, File> source : writtenSources.entrySet()) {
+            check.add(source.getKey(), new String(Files.readAllBytes(source.getValue().toPath())));
+            classCount++;
+        }
+
+        Map<String, List<String>> failures;
+        try {
+            failures = check.finish();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("The compilation check was interrupted", e);
+        }
+
+        for (Map.Entry<String, List<String>> failure : failures.entrySet()) {
+            System.err.println("ERROR: " + failure.getKey() + " doesn't compile: " + failure.getValue());
+        }
+        System.err.println("Compiled " + classCount + " class" + (classCount == 1 ? "" : "es") + " in " + (System.nanoTime() - start) / 1000000 + " ms, "
+                + failures.size() + " failed");
+        return failures.size();
+    }
+
+    private String getQualifiedName(String className) {
+        return packageName == null || packageName.isEmpty() ? className : packageName + "." + className;
+    }
+
+    /**
+     * Converts the images with the daemon, and logs the messages returned for each image.
+     */
+    private void convertRemotely(File[] files, MetricsReport report) throws IOException {
+        DaemonClient.Request request = new DaemonClient.Request(packageName, options);
+        for (File file : files) {
+            String className = namingStrategy.getClassName(file);
+            request.add(file, new File(file.getParentFile(), className + ".java"), className);
+        }
+
+        DaemonClient.Response response = daemon.transcode(request);
+        for (int i = 0; i < files.length; i++) {
+            System.err.println("Processing " + files[i].getName());
+            System.err.print(response.getLog(i));
+            if (response.getError(i) != null) {
+                System.err.print(response.getError(i));
+            } else if (response.getMetrics(i).getError() != null) {
+                System.err.println("Unable to transcode " + files[i].getName() + ": " + response.getMetrics(i).getError());
+            }
+            if (!response.getBudgetViolations(i).isEmpty()) {
+                reportBudgetViolations(files[i], response.getBudgetViolations(i));
+            }
+            if (report != null) {
+                report.write(response.getMetrics(i));
+            }
+            if (response.getError(i) == null) {
+                String className = namingStrategy.getClassName(files[i]);
+                writtenSources.put(getQualifiedName(className), new File(files[i].getParentFile(), className + ".java"));
+            }
+        }
+
+        if (response.getGlyphSummary() != null) {
+            System.err.println(response.getGlyphSummary());
+        }
+    }
+
+    /**
+     * Converts a SVG image into a class written in the same folder.
+     *
+     * @param file   the SVG image
+     * @param report the report receiving the metrics of the file, or null
+     */
+    void convert(File file, MetricsReport report) {
+        String svgClassName = namingStrategy.getClassName(file);
+
+        System.err.println("Processing " + file.getName());
+
+        TranscodingMetrics metrics = report != null || budget != null ? new TranscodingMetrics(file.getName()) : null;
+
+        PrintWriter log = new PrintWriter(new OutputStreamWriter(System.err), true);
+        try {
+            List<String> violations = convert(file, new File(file.getParentFile(), svgClassName + ".java"), svgClassName, metrics, log);
+            if (!violations.isEmpty()) {
+                reportBudgetViolations(file, violations);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            if (metrics != null) {
+                metrics.setError(String.valueOf(e));
+            }
+        }
+        log.flush();
+
+        if (report != null) {
+            report.write(metrics);
+        }
+    }
+
+    private void reportBudgetViolations(File file, List<String> violations) {
+        System.err.println((failOnBudget ? "ERROR" : "WARNING") + ": " + file.getName() + " exceeds the complexity budget: " + violations);
+        overBudgetCount++;
+    }
+
+    /**
+     * Converts a SVG image into a class.
+     *
+     * @param file      the SVG image
+     * @param target    the file receiving the class generated
+     * @param className the name of the class generated
+     * @param metrics   the metrics of the conversion, or null. The metrics are required to check the complexity budget
+     * @param log       the output receiving the messages of the conversion
+     * @return the limits of the complexity budget exceeded by the image
+     */
+    List<String> convert(File file, File target, String className, TranscodingMetrics metrics, PrintWriter log) throws IOException {
+        StringWriter source = classOutput != null ? new StringWriter() : null;
+        PrintWriter pw = source != null ? new PrintWriter(source) : new PrintWriter(target);
+
+        if (session == null) {
+            session = new TranscodingSession();
+        }
+        if (tuner == null && maxDifference >= 0) {
+            tuner = new SimplificationTuner(maxDifference, parseSizes(tuningSizes));
+        }
+
+        SvgTranscoder transcoder = new SvgTranscoder(file.toURI().toURL(), className);
+        transcoder.setTemplate(template);
+        transcoder.setJavaPackageName(packageName);
+        transcoder.setSimplificationTolerance(tolerance);
+        transcoder.setCoordinatePrecision(precision);
+        transcoder.setSimplificationTuner(tuner);
+        transcoder.setCullInvisibleNodes(cull);
+        transcoder.setCullOccludedNodes(occlusion);
+        transcoder.setGroupClipping(clipGroups);
+        transcoder.setLevelsOfDetail(levelsOfDetail);
+        transcoder.setGlyphOutlineCache(glyphCache);
+        transcoder.setSession(session);
+        transcoder.setBoundedMemory(boundedMemory);
+        transcoder.setMetrics(metrics);
+        transcoder.setPrintWriter(pw);
+        transcoder.setClassFileEmitter(classFileEmitter);
+        transcoder.transcode();
+
+        if (transcoder.getClassFiles() != null) {
+            classOutput.write(transcoder.getClassFiles());
+        } else if (transcoder.getClassFileError() != null) {
+            log.println("WARNING: Unable to emit the class files of " + file.getName() + " (" + transcoder.getClassFileError() + "), the source is written");
+            try (Writer out = new FileWriter(target)) {
+                out.write(source.toString());
+            }
+            writtenSources.put(getQualifiedName(className), target);
+        } else if (classOutput == null) {
+            writtenSources.put(getQualifiedName(className), target);
+        }
+
+        if (tuner != null) {
+            log.println("Tuned " + file.getName() + ": tolerance " + transcoder.getSimplificationTolerance() + ", precision " + transcoder.getCoordinatePrecision());
+        }
+
+        InvisibleNodeCuller culler = transcoder.getNodeCuller();
+        if (culler != null && culler.getCulledNodeCount() > 0) {
+            log.println("Culled " + file.getName() + ": " + culler.getSummary());
+        }
+
+        OcclusionCuller occlusionCuller = transcoder.getOcclusionCuller();
+        if (occlusionCuller != null && occlusionCuller.getOccludedShapeCount() > 0) {
+            log.println("Occluded " + file.getName() + ": " + occlusionCuller.getOccludedShapeCount() + " shapes");
+        }
+
+        PathSimplifier simplifier = transcoder.getPathSimplifier();
+        if (simplifier != null) {
+            log.println("Simplified " + file.getName() + ": " + simplifier.getInputSegmentCount() + " -> " + simplifier.getOutputSegmentCount() + " segments");
+        }
+
+        if (budget != null && metrics != null && metrics.getError() == null) {
+            log.println("Complexity of " + file.getName() + ": " + ComplexityBudget.getSummary(metrics));
+            return budget.check(metrics);
+        }
         
-        NamingStrategy namingStrategy = new DefaultNamingStrategy();
-        
-        for (File file : dir.listFiles(new FilenameFilter() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Returns the number of glyphs cached and reused, or null if the glyph cache is disabled or empty.
+     */
+    String getGlyphSummary() {
+        if (glyphCache == null || glyphCache.getGlyphCount() == 0) {
+            return null;
+        }
+        return "Glyphs: " + glyphCache.getGlyphCount() + " distinct glyphs, " + glyphCache.getHitCount() + " reused";
+    }
+
+    /**
+     * Watches the folder and converts again the SVG images created or modified, until the thread
+     * is interrupted. The bursts of changes are debounced: the images are converted once the folder
+     * is left unchanged for {@link #DEBOUNCE_DELAY} milliseconds. The time spent converting each image
+     * and the latency since its change was detected are logged.
+     *
+     * @param dir the folder containing the SVG images, and receiving the classes generated
+     */
+    void watch(File dir) throws IOException {
+        try (WatchService watcher = FileSystems.getDefault().newWatchService()) {
+            dir.toPath().register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            System.err.println("Watching " + dir + " for changes");
+
+            // the images changed, with the time their first change was detected
+            Map<File, Long> changes = new LinkedHashMap<>();
+
+            // the images modified before the folder was watched are converted first
+            for (File file : dir.listFiles()) {
+                String className = namingStrategy.getClassName(file);
+                File target = classOutput != null ? classOutput.getTarget(getQualifiedName(className)) : new File(dir, className + ".java");
+                if (isImage(file.getName()) && file.lastModified() >= target.lastModified()) {
+                    changes.put(file, System.nanoTime());
+                }
+            }
+
+            while (true) {
+                WatchKey key = changes.isEmpty() ? watcher.take() : watcher.poll();
+                while (key != null) {
+                    long time = System.nanoTime();
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            // events were lost, all the images are converted
+                            for (File file : dir.listFiles()) {
+                                if (isImage(file.getName()) && !changes.containsKey(file)) {
+                                    changes.put(file, time);
+                                }
+                            }
+                        } else {
+                            File file = new File(dir, event.context().toString());
+                            if (isImage(file.getName()) && !changes.containsKey(file)) {
+                                changes.put(file, time);
+                            }
+                        }
+                    }
+
+                    if (!key.reset()) {
+                        System.err.println("Stopped watching " + dir + ", the folder is no longer accessible");
+                        return;
+                    }
+                    key = watcher.poll(DEBOUNCE_DELAY, TimeUnit.MILLISECONDS);
+                }
+
+                for (Map.Entry<File, Long> change : changes.entrySet()) {
+                    File file = change.getKey();
+                    if (file.exists()) {
+                        long start = System.nanoTime();
+                        convert(file, null);
+                        long end = System.nanoTime();
+                        System.err.println("Converted " + file.getName() + " in " + (end - start) / 1000000 + " ms, "
+                                + (end - change.getValue()) / 1000000 + " ms after the change");
+                    }
+                }
+                if (classOutput != null) {
+                    classOutput.flush();
+                }
+                changes = new LinkedHashMap<>();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static File[] listImages(File dir) {
+        return dir.listFiles(new FilenameFilter() {
             @Override
             public boolean accept(File dir, String name) {
-                return name.endsWith(".svg") || name.endsWith(".svgz");
+                return isImage(name);
             }
-        })) {
-            String svgClassName = namingStrategy.getClassName(file);
-            String javaClassFilename = dir + File.separator + svgClassName + ".java";
-            
-            System.err.println("Processing " + file.getName());
+        });
+    }
 
-            try {
-                PrintWriter pw = new PrintWriter(javaClassFilename);
+    private static boolean isImage(String name) {
+        return name.endsWith(".svg") || name.endsWith(".svgz");
+    }
 
-                SvgTranscoder transcoder = new SvgTranscoder(file.toURI().toURL(), svgClassName);
-                transcoder.setJavaPackageName(args[1]);
-                transcoder.setPrintWriter(pw);
-                transcoder.transcode();
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
+    /**
+     * Parses a comma separated list of sizes.
+     */
+    private static int[] parseSizes(String sizes) {
+        String[] values = sizes.split(",");
+        int[] array = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            array[i] = Integer.parseInt(values[i].trim());
         }
+        return array;
     }
 }
@@ -39,33 +39,32 @@ import java.awt.RenderingHints;
 import java.awt.Shape;
 import java.awt.Stroke;
 import java.awt.geom.AffineTransform;
+import java.awt.geom.GeneralPath;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintWriter;
-import java.io.StringReader;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.zip.GZIPInputStream;
-import javax.xml.parsers.SAXParser;
-import javax.xml.parsers.SAXParserFactory;
-import javax.xml.transform.Result;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.sax.SAXSource;
-import javax.xml.transform.stream.StreamResult;
-import javax.xml.transform.stream.StreamSource;
 
 import org.apache.batik.bridge.BridgeContext;
-import org.apache.batik.bridge.DocumentLoader;
-import org.apache.batik.bridge.GVTBuilder;
-import org.apache.batik.bridge.UserAgentAdapter;
+import org.apache.batik.ext.awt.geom.ExtendedGeneralPath;
 import org.apache.batik.gvt.CompositeGraphicsNode;
 import org.apache.batik.gvt.CompositeShapePainter;
 import org.apache.batik.gvt.FillShapePainter;
@@ -74,16 +73,13 @@ import org.apache.batik.gvt.ShapeNode;
 import org.apache.batik.gvt.ShapePainter;
 import org.apache.batik.gvt.StrokeShapePainter;
 import org.apache.batik.gvt.TextNode;
+import org.apache.batik.gvt.font.GVTGlyphVector;
+import org.apache.batik.gvt.renderer.StrokingTextPainter;
 import org.pushingpixels.flamingo.api.svg.transcoders.AffineTransformTranscoder;
 import org.pushingpixels.flamingo.api.svg.transcoders.BasicStrokeTranscoder;
 import org.pushingpixels.flamingo.api.svg.transcoders.FloatTranscoder;
 import org.pushingpixels.flamingo.api.svg.transcoders.PaintTranscoder;
 import org.pushingpixels.flamingo.api.svg.transcoders.ShapeTranscoder;
-import org.w3c.dom.Document;
-import org.xml.sax.EntityResolver;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
-import org.xml.sax.XMLReader;
 
 /**
  * SVG to Java2D transcoder.
@@ -92,6 +88,15 @@ import org.xml.sax.XMLReader;
  */
 public class SvgTranscoder {
 
+    /** The parameters of the painting methods if they aren't declared by the template. */
+    private static final String DEFAULT_PAINTING_PARAMETERS = "Graphics2D g, float origAlpha, java.util.LinkedList<AffineTransform> transformations";
+
+    /** The number of coordinates of the path segments, indexed by the type of segment. */
+    private static final int[] COORDINATE_COUNTS = {2, 2, 4, 6, 0};
+
+    /** The composite marking an unknown opacity, always different from the composites of the nodes. */
+    private static final AlphaComposite UNKNOWN_COMPOSITE = AlphaComposite.Clear;
+
     /** The output writer receiving the generated class. */
     protected PrintWriter externalPrintWriter;
 
@@ -122,6 +127,87 @@ public class SvgTranscoder {
     /** The current shape. */
     private Shape currentShape;
 
+    /** The tolerance of the path simplification, 0 to keep the paths unchanged. */
+    private float simplificationTolerance;
+
+    /** The number of decimals kept in the path coordinates, or -1 to keep the coordinates unchanged. */
+    private int coordinatePrecision = -1;
+
+    /** The tuner searching the simplification settings for each image, or null to use fixed settings. */
+    private SimplificationTuner simplificationTuner;
+
+    /** The simplifier applied to the paths before the transcoding, or null to keep the paths unchanged. */
+    private PathSimplifier pathSimplifier;
+
+    /** The culler removing the invisible nodes, or null to transcode all the nodes. */
+    private InvisibleNodeCuller nodeCuller;
+
+    /** The culler removing the nodes covered by opaque shapes, or null to keep them. */
+    private OcclusionCuller occlusionCuller;
+
+    /** Tells if the painting code of the groups is skipped when their bounds are outside of the clip. */
+    private boolean groupClipping;
+
+    /** The sizes in pixels of the simplified variants of the image, or null to generate only the full detail painting code. */
+    private int[] levelsOfDetail;
+
+    /** The stack of the nodes being transcoded, reused between the transcodings. */
+    private Frame[] frames = new Frame[32];
+
+    /** The number of frames in the stack. */
+    private int depth;
+
+    /** The cache of the glyph outlines, or null to transcode the texts as plain paths. */
+    private GlyphOutlineCache glyphOutlineCache;
+
+    /** The members declared in the generated class. */
+    private StringBuilder declarations;
+
+    /** The names of the methods building the glyph outlines by transcoded path, or null if the glyphs aren't cached. */
+    private Map<String, String> glyphMethods;
+
+    /** The session loading the SVG files, or null to use a new session for each transcoding. */
+    private TranscodingSession session;
+
+    /** The metrics of the transcoding, or null if the transcoding isn't measured. */
+    private TranscodingMetrics metrics;
+
+    /** Tells if the document and the painting code are kept out of the heap. */
+    private boolean boundedMemory;
+
+    /** The nodes skipped by the transcoding. */
+    private Set<GraphicsNode> culledNodes = Collections.emptySet();
+
+    /** Tells if the painting code is kept for the next transcodings of the same context. */
+    private boolean paintingCodeCached;
+
+    /** The context of the painting code kept, or null if no painting code is kept. */
+    private BridgeContext cachedContext;
+
+    /** The settings of the transcoder the painting code kept was generated with. */
+    private String cachedSettings;
+
+    /** The painting code kept, before it's split into several methods. */
+    private String cachedPaintingCode;
+
+    /** The painting operations kept with the painting code, or null if they weren't recorded. */
+    private PaintingOperations cachedOperations;
+
+    /** The painting operations being recorded with the painting code, or null if they aren't recorded. */
+    private PaintingOperations operations;
+
+    /** The painting operations recorded with the painting code of the last transcoding, or null. */
+    private PaintingOperations paintingOperations;
+
+    /** The emitter of the class files, or null to write the source of the class. */
+    private ClassFileEmitter classFileEmitter;
+
+    /** The class files emitted by the last transcoding, or null if the source was written. */
+    private Map<String, byte[]> classFiles;
+
+    /** The reason why the source of the class was written instead of the class files. */
+    private String classFileError;
+
     /**
      * Creates a new transcoder.
      *
@@ -142,44 +228,6 @@ public class SvgTranscoder {
         this.javaClassName = javaClassname;
     }
 
-    /**
-     * Returns the filtered image content. The metadata are removed from
-     * the document to prevent illegal elements from breaking the parsing.
-     * (For example several KDE icons have unrecognized RDF elements)
-     */
-    private InputStream getInputStream() throws Exception {
-        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-        
-        SAXParserFactory factory = SAXParserFactory.newInstance();
-        factory.setNamespaceAware(true);
-        SAXParser parser = factory.newSAXParser();
-        XMLReader reader = parser.getXMLReader();
-        reader.setEntityResolver(new EntityResolver() {
-            public InputSource resolveEntity(String pid, String sid) throws SAXException {
-                return new InputSource(new StringReader(""));
-            }
-        });
-        
-        InputSource input;
-        if (url.toString().endsWith(".svgz")) {
-            input = new InputSource(new GZIPInputStream(url.openStream()));
-        } else {
-            input = new InputSource(url.openStream());
-        }
-        SAXSource source = new SAXSource(reader, input);
-        
-        Result result = new StreamResult(buffer);
-        
-        StreamSource stylesheet = new StreamSource(getClass().getResourceAsStream("/svg-cleanup.xsl"));
-        
-        Transformer transformer = TransformerFactory.newInstance().newTransformer(stylesheet);
-        transformer.transform(source, result);
-        
-        stylesheet.getInputStream().close();
-        
-        return new ByteArrayInputStream(buffer.toByteArray());
-    }
-
     /**
      * Transcodes the SVG image into Java2D code.
      */
@@ -188,26 +236,110 @@ public class SvgTranscoder {
             return;
         }
 
-        UserAgentAdapter ua = new UserAgentAdapter();
-        DocumentLoader loader = new DocumentLoader(ua);
-        BridgeContext context = new BridgeContext(ua, loader);
-        context.setDynamicState(BridgeContext.DYNAMIC);
-        ua.setBridgeContext(context);
+        TranscodingSession session = this.session != null ? this.session : new TranscodingSession();
+        BridgeContext context = null;
+        
+        // the counters of the recorded events are collected by metrics of their own if no metrics are set
+        TranscodingEvents events = TranscodingEvents.get();
+        boolean recorded = metrics == null && events.isEnabled();
+        if (recorded) {
+            metrics = new TranscodingMetrics(url.getPath().substring(url.getPath().lastIndexOf('/') + 1));
+        }
+        Object fileEvent = events.begin(null);
         
         try {
-            Document svgDoc = loader.loadDocument(url.toString(), getInputStream());
-            new GVTBuilder().build(context, svgDoc);
+            long start = System.nanoTime();
+            Object event = events.begin(TranscodingMetrics.Stage.CLEAN);
+            InputStream content = session.clean(url, boundedMemory);
+            end(TranscodingMetrics.Stage.CLEAN, start, event);
+            
+            try {
+                context = session.load(url, content, metrics, boundedMemory);
+            } finally {
+                content.close();
+            }
+            
+            if (simplificationTuner != null) {
+                start = System.nanoTime();
+                event = events.begin(TranscodingMetrics.Stage.TUNE);
+                simplificationTuner.tune(this, context);
+                end(TranscodingMetrics.Stage.TUNE, start, event);
+            }
             
             transcode(context);
         } catch (Exception e) {
             Logger.getLogger(getClass().getName()).log(Level.SEVERE, "Unable to transcode " + url, e);
+            if (metrics != null) {
+                metrics.setError(String.valueOf(e));
+            }
+        } finally {
+            if (context != null) {
+                session.release(context);
+            }
+            events.commit(fileEvent, metrics);
+            if (recorded) {
+                metrics = null;
+            }
         }
     }
 
+    /**
+     * Adds the time elapsed since the specified start to the metrics, and commits the event of the stage.
+     */
+    private void end(TranscodingMetrics.Stage stage, long start, Object event) {
+        if (metrics != null) {
+            metrics.addTime(stage, System.nanoTime() - start);
+        }
+        TranscodingEvents.get().commit(event, metrics);
+    }
+
+    /**
+     * Sets the metrics receiving the time spent in each stage of the transcoding
+     * and the size of the image and of the generated code.
+     *
+     * @param metrics the metrics of the file transcoded, or null to disable the measures
+     */
+    public void setMetrics(TranscodingMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public TranscodingMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Enables the bounded memory mode for the very large documents. The document is
+     * filtered on the fly and released as soon as its GVT tree is built, and the
+     * painting code is written into temporary files instead of the heap.
+     *
+     * @param boundedMemory true to enable the bounded memory mode
+     */
+    public void setBoundedMemory(boolean boundedMemory) {
+        this.boundedMemory = boundedMemory;
+    }
+
+    public boolean isBoundedMemory() {
+        return boundedMemory;
+    }
+
+    /**
+     * Sets the session loading the SVG files, shared by the transcoders of a worker
+     * to reuse the parser, the stylesheet and the Batik objects between the files.
+     *
+     * @param session the session, or null to use a new session for each transcoding
+     */
+    public void setSession(TranscodingSession session) {
+        this.session = session;
+    }
+
     public void setTemplate(Template template) {
         this.template = template;
     }
 
+    public void setJavaClassName(String javaClassName) {
+        this.javaClassName = javaClassName;
+    }
+
     public void setJavaPackageName(String javaPackageName) {
         this.javaPackageName = javaPackageName;
     }
@@ -216,31 +348,304 @@ public class SvgTranscoder {
         this.externalPrintWriter = printWriter;
     }
 
+    /**
+     * Sets the tolerance of the path simplification. The paths are transcoded
+     * unchanged if the tolerance isn't positive.
+     *
+     * @param tolerance the maximum distance between the original and the simplified paths, in user space units
+     */
+    public void setSimplificationTolerance(float tolerance) {
+        this.simplificationTolerance = tolerance;
+    }
+
+    public float getSimplificationTolerance() {
+        return simplificationTolerance;
+    }
+
+    /**
+     * Sets the number of decimals kept in the path coordinates. The coordinates
+     * are transcoded unchanged if the precision is negative.
+     *
+     * @param precision the number of decimals
+     */
+    public void setCoordinatePrecision(int precision) {
+        this.coordinatePrecision = precision;
+    }
+
+    public int getCoordinatePrecision() {
+        return coordinatePrecision;
+    }
+
+    /**
+     * Sets the tuner searching the most aggressive simplification tolerance and
+     * coordinate precision for each image. The tuned settings replace the
+     * settings of the transcoder.
+     *
+     * @param tuner the tuner, or null to use the settings of the transcoder
+     */
+    public void setSimplificationTuner(SimplificationTuner tuner) {
+        this.simplificationTuner = tuner;
+    }
+
+    /**
+     * Enables the removal of the provably invisible nodes before the transcoding
+     * (hidden, fully transparent, unpainted, empty or outside of the document).
+     */
+    public void setCullInvisibleNodes(boolean cull) {
+        this.nodeCuller = cull ? new InvisibleNodeCuller() : null;
+    }
+
+    /**
+     * Returns the culler holding the nodes removed by the last transcoding,
+     * or null if the invisible nodes aren't removed.
+     */
+    public InvisibleNodeCuller getNodeCuller() {
+        return nodeCuller;
+    }
+
+    /**
+     * Enables the removal of the shapes entirely covered by the opaque shapes painted after them.
+     * The rendering is only preserved if the image is painted with a fully opaque graphics
+     * context, see {@link OcclusionCuller}.
+     */
+    public void setCullOccludedNodes(boolean cull) {
+        this.occlusionCuller = cull ? new OcclusionCuller() : null;
+    }
+
+    /**
+     * Returns the culler holding the shapes removed by the last transcoding,
+     * or null if the covered shapes aren't removed.
+     */
+    public OcclusionCuller getOcclusionCuller() {
+        return occlusionCuller;
+    }
+
+    /**
+     * Enables the clip tests of the groups. The painting code of each group
+     * is guarded by a test of its bounds against the clip, so that a partial
+     * repaint only runs the code of the groups intersecting the repainted area.
+     * The template must declare the clip in the user space of the image as
+     * a <code>Rectangle2D</code> named <code>clip</code>, or null if the
+     * image isn't clipped. The <code>${GROUP_CLIPPING}</code> token of the
+     * template is replaced with <code>true</code> if the clip is tested,
+     * so that the clip is only computed when the painting code uses it.
+     */
+    public void setGroupClipping(boolean groupClipping) {
+        this.groupClipping = groupClipping;
+    }
+
+    /**
+     * Enables the generation of simplified variants of the painting code for
+     * the small renderings. For each size a variant is generated without the
+     * nodes smaller than a pixel at this size, and with the paths simplified
+     * to half a pixel. The variant painted is chosen from the size of the
+     * rendering, the full detail code is painted above the largest size.
+     * The template must declare the size of the rendering in pixels as
+     * an <code>int</code> named <code>size</code>.
+     *
+     * @param sizes the sizes in pixels of the variants, or null to generate only the full detail code
+     */
+    public void setLevelsOfDetail(int... sizes) {
+        if (sizes == null || sizes.length == 0) {
+            this.levelsOfDetail = null;
+        } else {
+            this.levelsOfDetail = sizes.clone();
+            Arrays.sort(this.levelsOfDetail);
+        }
+    }
+
+    /**
+     * Sets the cache of the glyph outlines. Each distinct glyph of the texts is then
+     * transcoded once into a method building its outline, and the texts are
+     * assembled from the glyphs placed at their positions. The cache can be
+     * shared by the transcoders of several images. The template must contain
+     * the <code>${DECLARATIONS}</code> token receiving the methods, otherwise
+     * the texts are transcoded as plain paths.
+     *
+     * @param cache the cache, or null to transcode the texts as plain paths
+     */
+    public void setGlyphOutlineCache(GlyphOutlineCache cache) {
+        this.glyphOutlineCache = cache;
+    }
+
+    /**
+     * Returns the path simplifier holding the segment counts of the last transcoding,
+     * or null if the paths weren't simplified.
+     */
+    public PathSimplifier getPathSimplifier() {
+        return pathSimplifier;
+    }
+
+    /**
+     * Keeps the painting code generated for the next transcodings of the same context. The class
+     * is then generated again without traversing the GVT tree if only the template, the package or
+     * the name of the class change. The painting code is generated again when the settings of the
+     * simplification, of the culling, of the clipping or of the levels of detail change. The painting
+     * code isn't kept in the bounded memory mode, when the glyphs of the texts are declared by the
+     * template, or when the transcoding is measured, the counters being collected by the traversal.
+     *
+     * @param cached true to keep the painting code
+     */
+    public void setPaintingCodeCached(boolean cached) {
+        this.paintingCodeCached = cached;
+        if (!cached) {
+            cachedContext = null;
+            cachedSettings = null;
+            cachedPaintingCode = null;
+            cachedOperations = null;
+        }
+    }
+
+    /**
+     * Returns the settings of the transcoder affecting the painting code generated.
+     */
+    private String getPaintingCodeSettings() {
+        return simplificationTolerance + "," + coordinatePrecision + "," + (nodeCuller != null) + "," + (occlusionCuller != null)
+                + "," + groupClipping + "," + Arrays.toString(levelsOfDetail) + "," + System.identityHashCode(glyphOutlineCache);
+    }
+
+    /**
+     * Sets the emitter of the class files. The class files are emitted instead of the source of the class,
+     * the source is written as a fallback if the painting code can't be emitted, for example with the glyph
+     * cache or in the bounded memory mode.
+     *
+     * @param emitter the emitter, or null to write the source of the class
+     */
+    public void setClassFileEmitter(ClassFileEmitter emitter) {
+        this.classFileEmitter = emitter;
+    }
+
+    /**
+     * Returns the class files emitted by the last transcoding, by fully qualified class name,
+     * or null if the source of the class was written instead.
+     */
+    public Map<String, byte[]> getClassFiles() {
+        return classFiles;
+    }
+
+    /**
+     * Returns the reason why the source of the class was written instead of the class files
+     * by the last transcoding, or null.
+     */
+    public String getClassFileError() {
+        return classFileError;
+    }
+
     /**
      * Transcodes the SVG image into Java2D code.
      */
     public void transcode(BridgeContext context) throws IOException {
-        GraphicsNode root = context.getGraphicsNode(context.getDocument());
+        TranscodingEvents events = TranscodingEvents.get();
         
-        ByteArrayOutputStream paintingCodeStream = new ByteArrayOutputStream();
-        this.printWriter = new IndentingPrintWriter(new PrintWriter(paintingCodeStream));
-        transcodeGraphicsNode(root, "");
-        this.printWriter.close();
+        long start = System.nanoTime();
+        Object event = events.begin(TranscodingMetrics.Stage.EMIT);
+        Map<Template.Token, Object> params = transcodeParameters(context);
+        end(TranscodingMetrics.Stage.EMIT, start, event);
         
-        String separator = 
-                  "        paint${count}(g, origAlpha, transformations);\n"
-                + "    }\n\n"
-                + "    private static void paint${count}(Graphics2D g, float origAlpha, java.util.LinkedList<AffineTransform> transformations) {\n"
-                + "        Shape shape = null;\n";
+        start = System.nanoTime();
+        event = events.begin(TranscodingMetrics.Stage.WRITE);
+        classFiles = null;
+        classFileError = null;
+        if (classFileEmitter != null && !boundedMemory) {
+            try {
+                classFiles = classFileEmitter.emit(javaPackageName, params, paintingOperations, metrics);
+                end(TranscodingMetrics.Stage.WRITE, start, event);
+                return;
+            } catch (IllegalArgumentException e) {
+                classFileError = e.getMessage();
+                params.put(Template.Token.PAINTING_CODE, split((String) params.get(Template.Token.PAINTING_CODE)));
+            }
+        }
         
-        String paintingCode = new String(paintingCodeStream.toByteArray());
-        paintingCode = TextSplitter.insert(paintingCode, separator, 3000);
+        CountingWriter counter = metrics != null ? new CountingWriter(externalPrintWriter) : null;
+        PrintWriter out = counter != null ? new PrintWriter(counter) : externalPrintWriter;
+        Object paintingCode = params.get(Template.Token.PAINTING_CODE);
+        if (paintingCode instanceof Reader) {
+            try (Reader content = (Reader) paintingCode) {
+                template.apply(out, params, Template.Token.PAINTING_CODE, content);
+            }
+        } else {
+            template.apply(out, params);
+        }
+        if (counter != null) {
+            metrics.lineCount = counter.getLineCount();
+            metrics.byteCount = counter.getByteCount();
+        }
+        end(TranscodingMetrics.Stage.WRITE, start, event);
+    }
+
+    /**
+     * Transcodes the SVG image into the parameters of the template.
+     *
+     * @param context the context of the image, with its GVT tree built
+     * @return the values of the tokens of the template. In the bounded memory mode the painting code
+     *         is a reader of a temporary file, deleted when the reader is closed
+     */
+    Map<Template.Token, Object> transcodeParameters(BridgeContext context) throws IOException {
+        if (metrics != null) {
+            metrics.resetCounts();
+        }
         
-        Rectangle2D bounds = root.getBounds();
-        if (bounds == null) {
-            bounds = new Rectangle2D.Double(0, 0, context.getDocumentSize().getWidth(), context.getDocumentSize().getHeight());
+        declarations = new StringBuilder();
+        if (glyphOutlineCache != null && template.hasToken(Template.Token.DECLARATIONS)) {
+            glyphMethods = new HashMap<>();
         }
         
+        boolean cacheable = paintingCodeCached && !boundedMemory && metrics == null && glyphMethods == null;
+        String settings = cacheable ? getPaintingCodeSettings() : null;
+        
+        String paintingCode = null;
+        File paintingCodeFile = null;
+        paintingOperations = null;
+        try {
+            if (cacheable && context == cachedContext && settings.equals(cachedSettings) && (classFileEmitter == null || cachedOperations != null)) {
+                paintingCode = cachedPaintingCode;
+                paintingOperations = cachedOperations;
+            } else if (boundedMemory) {
+                paintingCodeFile = TemporaryFiles.create(".java");
+                transcodePaintingCode(context, TemporaryFiles.openWriter(paintingCodeFile));
+            } else {
+                // the operations are recorded for the emitter of the class files
+                operations = classFileEmitter != null ? new PaintingOperations() : null;
+                StringWriter out = new StringWriter();
+                transcodePaintingCode(context, out);
+                paintingCode = out.toString();
+                paintingOperations = operations;
+                if (cacheable) {
+                    cachedContext = context;
+                    cachedSettings = settings;
+                    cachedPaintingCode = paintingCode;
+                    cachedOperations = paintingOperations;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            if (paintingCodeFile != null) {
+                paintingCodeFile.delete();
+            }
+            throw e;
+        } finally {
+            glyphMethods = null;
+            operations = null;
+        }
+        
+        Object splitPaintingCode;
+        if (paintingCodeFile != null) {
+            splitPaintingCode = split(paintingCodeFile, getSeparator());
+        } else if (classFileEmitter != null) {
+            // split by the emitter of the class files, or once it fails
+            if (metrics != null) {
+                metrics.countStatements(paintingCode);
+            }
+            splitPaintingCode = paintingCode;
+        } else {
+            splitPaintingCode = split(paintingCode);
+            if (metrics != null) {
+                metrics.countStatements(paintingCode);
+            }
+        }
+        
+        Rectangle2D bounds = getDocumentBounds(context);
+        
         Map<Template.Token, Object> params = new HashMap<>();
         params.put(Template.Token.PACKAGE, javaPackageName != null ? "package " + javaPackageName + ";" : "");
         params.put(Template.Token.CLASSNAME, javaClassName);
@@ -248,9 +653,291 @@ public class SvgTranscoder {
         params.put(Template.Token.Y, (int) Math.ceil(bounds.getY()));
         params.put(Template.Token.WIDTH,  (int) Math.ceil(bounds.getWidth()));
         params.put(Template.Token.HEIGHT, (int) Math.ceil(bounds.getHeight()));
-        params.put(Template.Token.PAINTING_CODE, paintingCode);
+        params.put(Template.Token.PAINTING_CODE, splitPaintingCode);
+        params.put(Template.Token.DECLARATIONS, declarations.toString());
+        params.put(Template.Token.GROUP_CLIPPING, groupClipping);
+
+        return params;
+    }
+
+    /**
+     * Returns the string inserted between the methods receiving the split painting code.
+     */
+    private String getSeparator() {
+        String parameters = template.getPaintingParameters();
+        if (parameters == null) {
+            // the clip and the size are only declared by the templates using the clip tests and the levels of detail
+            parameters = DEFAULT_PAINTING_PARAMETERS;
+            if (groupClipping) {
+                parameters += ", Rectangle2D clip";
+            }
+            if (levelsOfDetail != null) {
+                parameters += ", int size";
+            }
+        }
+        
+        String names = getParameterNames(parameters);
+        return    "        paint${count}(" + names + ");\n"
+                + "    }\n\n"
+                + "    private static void paint${count}(" + parameters + ") {\n"
+                + (Arrays.asList(names.split(", ")).contains("shape") ? "" : "        Shape shape = null;\n");
+    }
+
+    /**
+     * Splits the painting code into several methods.
+     */
+    private String split(String paintingCode) {
+        paintingCode = TextSplitter.insert(paintingCode, getSeparator(), 3000);
+        if (metrics != null) {
+            metrics.methodCount = 1 + countOccurrences(paintingCode, "    private static void paint");
+        }
+        return paintingCode;
+    }
+
+    /**
+     * Splits the painting code spilled into a temporary file into several methods. The file is deleted.
+     *
+     * @return the reader of the temporary file receiving the split painting code
+     */
+    private Reader split(File paintingCodeFile, String separator) throws IOException {
+        File splitFile = TemporaryFiles.create(".java");
+        try {
+            if (metrics != null) {
+                try (BufferedReader in = TemporaryFiles.openReader(paintingCodeFile)) {
+                    String line;
+                    while ((line = in.readLine()) != null) {
+                        metrics.countStatement(line);
+                    }
+                    metrics.endVariants();
+                }
+            }
+            
+            int separatorCount;
+            try (Reader in = TemporaryFiles.openReader(paintingCodeFile); Writer out = TemporaryFiles.openWriter(splitFile)) {
+                separatorCount = TextSplitter.insert(in, out, separator, 3000);
+            }
+            if (metrics != null) {
+                metrics.methodCount = 1 + separatorCount;
+            }
+            
+            return TemporaryFiles.openReaderAndDelete(splitFile);
+        } catch (IOException | RuntimeException e) {
+            splitFile.delete();
+            throw e;
+        } finally {
+            paintingCodeFile.delete();
+        }
+    }
+
+    private static int countOccurrences(String text, String substring) {
+        int count = 0;
+        for (int index = text.indexOf(substring); index != -1; index = text.indexOf(substring, index + substring.length())) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the comma separated names of the parameters declared.
+     */
+    static String getParameterNames(String parameters) {
+        StringBuilder names = new StringBuilder();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i <= parameters.length(); i++) {
+            char c = i < parameters.length() ? parameters.charAt(i) : ',';
+            if (c == '<') {
+                depth++;
+            } else if (c == '>') {
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                String[] words = parameters.substring(start, i).trim().split("\\s+");
+                names.append(names.length() > 0 ? ", " : "").append(words[words.length - 1]);
+                start = i + 1;
+            }
+        }
+        return names.toString();
+    }
+
+    /**
+     * Returns the bounds of the document in the user space of the root node.
+     */
+    private Rectangle2D getDocumentBounds(BridgeContext context) {
+        Rectangle2D bounds = context.getGraphicsNode(context.getDocument()).getBounds();
+        if (bounds == null) {
+            bounds = new Rectangle2D.Double(0, 0, context.getDocumentSize().getWidth(), context.getDocumentSize().getHeight());
+        }
+        return bounds;
+    }
+
+    /**
+     * Transcodes the document into the painting code, before it's split into several methods.
+     *
+     * @param context the context of the image, with its GVT tree built
+     */
+    String transcodePaintingCode(BridgeContext context) {
+        GraphicsNode root = context.getGraphicsNode(context.getDocument());
+        Set<GraphicsNode> nodes = cull(context);
+        
+        StringWriter out = new StringWriter();
+        this.printWriter = new IndentingPrintWriter(new PrintWriter(out));
+        transcodeVariant(root, nodes, simplificationTolerance, coordinatePrecision);
+        this.printWriter.close();
+        
+        return out.toString();
+    }
 
-        template.apply(externalPrintWriter, params);
+    /**
+     * Transcodes the document into the painting code, with the variants for each
+     * level of detail if enabled, before it's split into several methods.
+     *
+     * @param context the context of the image, with its GVT tree built
+     * @param out     the output receiving the painting code, closed once the code is written
+     */
+    private void transcodePaintingCode(BridgeContext context, Writer out) throws IOException {
+        PrintWriter writer = new PrintWriter(out);
+        this.printWriter = new IndentingPrintWriter(writer);
+        
+        if (levelsOfDetail != null) {
+            transcodeLevelsOfDetail(context);
+        } else {
+            GraphicsNode root = context.getGraphicsNode(context.getDocument());
+            transcodeVariant(root, cull(context), simplificationTolerance, coordinatePrecision);
+        }
+        
+        this.printWriter.close();
+        if (writer.checkError()) {
+            throw new IOException("Unable to write the painting code");
+        }
+    }
+
+    /**
+     * Transcodes the document into the painting code of the variants for each level of detail,
+     * followed by the full detail painting code.
+     *
+     * @param context the context of the image, with its GVT tree built
+     */
+    private void transcodeLevelsOfDetail(BridgeContext context) {
+        GraphicsNode root = context.getGraphicsNode(context.getDocument());
+        Set<GraphicsNode> nodes = cull(context);
+        Rectangle2D bounds = getDocumentBounds(context);
+        
+        int previousSize = 0;
+        for (int size : levelsOfDetail) {
+            float pixel = (float) Math.max(bounds.getWidth(), bounds.getHeight()) / size;
+            
+            // the coordinates are rounded to a tenth of a pixel
+            int precision = (int) Math.max(0, Math.ceil(Math.log10(10 / pixel)));
+            if (coordinatePrecision >= 0) {
+                precision = Math.min(precision, coordinatePrecision);
+            }
+            
+            Set<GraphicsNode> variantNodes = Collections.newSetFromMap(new IdentityHashMap<GraphicsNode, Boolean>());
+            variantNodes.addAll(nodes);
+            collectSubPixelNodes(root, new AffineTransform(), pixel, variantNodes);
+            
+            printWriter.println("");
+            printWriter.println("if (" + (previousSize > 0 ? "size > " + previousSize + " && " : "") + "size <= " + size + ") {");
+            if (operations != null) {
+                operations.add(PaintingOperations.Kind.SIZE_TEST, new int[] {previousSize > 0 ? previousSize : Integer.MIN_VALUE, size});
+            }
+            if (metrics != null) {
+                metrics.beginVariant();
+            }
+            transcodeVariant(root, variantNodes, Math.max(simplificationTolerance, pixel / 2), precision);
+            printWriter.println("}");
+            if (operations != null) {
+                operations.add(PaintingOperations.Kind.END);
+            }
+            
+            previousSize = size;
+        }
+        
+        printWriter.println("");
+        printWriter.println("if (size > " + previousSize + ") {");
+        if (operations != null) {
+            operations.add(PaintingOperations.Kind.SIZE_TEST, new int[] {previousSize, Integer.MAX_VALUE});
+        }
+        if (metrics != null) {
+            metrics.beginVariant();
+        }
+        transcodeVariant(root, nodes, simplificationTolerance, coordinatePrecision);
+        printWriter.println("}");
+        if (operations != null) {
+            operations.add(PaintingOperations.Kind.END);
+        }
+        
+        // only the largest variant is counted, a single variant is painted at a time
+        if (metrics != null) {
+            metrics.endVariants();
+        }
+    }
+
+    /**
+     * Returns the nodes removed by the cullers.
+     */
+    private Set<GraphicsNode> cull(BridgeContext context) {
+        GraphicsNode root = context.getGraphicsNode(context.getDocument());
+        
+        Set<GraphicsNode> nodes = Collections.newSetFromMap(new IdentityHashMap<GraphicsNode, Boolean>());
+        if (nodeCuller != null) {
+            nodes.addAll(nodeCuller.cull(root, getDocumentBounds(context)));
+        }
+        if (occlusionCuller != null) {
+            nodes.addAll(occlusionCuller.cull(root));
+        }
+        
+        return nodes;
+    }
+
+    /**
+     * Collects the nodes smaller than a pixel.
+     *
+     * @param node      the node
+     * @param transform the transformation from the parent of the node to the root
+     * @param pixel     the size of a pixel in the user space of the root
+     * @param nodes     the set receiving the nodes
+     */
+    private void collectSubPixelNodes(GraphicsNode node, AffineTransform transform, float pixel, Set<GraphicsNode> nodes) {
+        Rectangle2D bounds = node.getTransformedBounds(transform);
+        if (bounds != null && node.getParent() != null && Math.max(bounds.getWidth(), bounds.getHeight()) < pixel) {
+            nodes.add(node);
+        } else if (node instanceof CompositeGraphicsNode) {
+            AffineTransform childTransform = new AffineTransform(transform);
+            if (node.getTransform() != null) {
+                childTransform.concatenate(node.getTransform());
+            }
+            
+            List children = ((CompositeGraphicsNode) node).getChildren();
+            for (int i = 0; i < children.size(); i++) {
+                collectSubPixelNodes((GraphicsNode) children.get(i), childTransform, pixel, nodes);
+            }
+        }
+    }
+
+    /**
+     * Transcodes the tree into the current print writer.
+     *
+     * @param root      the root of the tree
+     * @param nodes     the nodes skipped
+     * @param tolerance the tolerance of the path simplification
+     * @param precision the number of decimals kept in the path coordinates
+     */
+    private void transcodeVariant(GraphicsNode root, Set<GraphicsNode> nodes, float tolerance, int precision) {
+        culledNodes = nodes;
+        
+        currentComposite = null;
+        currentPaint = null;
+        currentStroke = null;
+        currentShape = null;
+        
+        if (tolerance > 0 || precision >= 0) {
+            pathSimplifier = new PathSimplifier(tolerance, precision);
+        } else {
+            pathSimplifier = null;
+        }
+        
+        transcodeGraphicsNode(root, "");
     }
 
     /**
@@ -264,7 +951,22 @@ public class SvgTranscoder {
             return;
         }
         
-        ShapeTranscoder.INSTANCE.transcode(shape, printWriter);
+        Shape transcodedShape = shape;
+        if (pathSimplifier != null && (shape instanceof GeneralPath || shape instanceof ExtendedGeneralPath)) {
+            transcodedShape = pathSimplifier.simplify(shape);
+        }
+        ShapeTranscoder.INSTANCE.transcode(transcodedShape, printWriter);
+        if (operations != null) {
+            operations.addShape(transcodedShape);
+        }
+        
+        if (metrics != null) {
+            float[] coords = new float[6];
+            for (PathIterator iterator = transcodedShape.getPathIterator(null); !iterator.isDone(); iterator.next()) {
+                metrics.segmentCount++;
+                metrics.coordinateCount += COORDINATE_COUNTS[iterator.currentSegment(coords)];
+            }
+        }
         
         currentShape = shape;
     }
@@ -312,6 +1014,9 @@ public class SvgTranscoder {
         transcodeShape(painter.getShape());
         transcodePaintChange(paint);
         printWriter.println("g.fillShape(shape);");
+        if (operations != null) {
+            operations.add(PaintingOperations.Kind.FILL);
+        }
     }
 
     private void transcodePaintChange(Paint paint) {
@@ -319,6 +1024,9 @@ public class SvgTranscoder {
         if (!p.equals(currentPaint)) {
             currentPaint = p;
             printWriter.println("g.setColor(" + currentPaint + ");");
+            if (operations != null) {
+                operations.addPaint(paint);
+            }
         }
     }
 
@@ -337,6 +1045,9 @@ public class SvgTranscoder {
         transcodePaintChange(paint);
         transcodeStrokeChange(painter.getStroke());
         printWriter.println("g.drawShape(shape, baseStroke);");
+        if (operations != null) {
+            operations.add(PaintingOperations.Kind.DRAW);
+        }
     }
 
     private void transcodeStrokeChange(Stroke stroke) {
@@ -344,6 +1055,9 @@ public class SvgTranscoder {
         if (s == null && currentStroke != null || s != null && !s.equals(currentStroke)) {
             currentStroke = s;
             printWriter.println("baseStroke = " + s + ";");
+            if (operations != null) {
+                operations.addStroke((BasicStroke) stroke);
+            }
         }
     }
 
@@ -352,66 +1066,208 @@ public class SvgTranscoder {
             currentComposite = composite;
             //printWriter.println("g.setComposite(AlphaComposite.getInstance(" + composite.getRule() + ", " + FloatTranscoder.INSTANCE.transcode(composite.getAlpha()) + " * origAlpha));");
             printWriter.println("g.setAlpha((int)Math.round("+FloatTranscoder.INSTANCE.transcode(composite.getAlpha()) + " * origAlpha));");
+            if (operations != null) {
+                operations.add(PaintingOperations.Kind.ALPHA, composite.getAlpha());
+            }
         }
     }
 
     /**
-     * Transcodes the specified graphics node.
+     * Transcodes the specified graphics node and its descendants. The tree is
+     * traversed iteratively, the state inherited from the ancestors is kept in
+     * the stack of frames.
+     *
+     * @param root    Graphics node.
+     * @param comment Comment (for associating the Java2D section with the corresponding SVG section).
+     * @throws UnsupportedOperationException if a graphics node is unsupported.
+     */
+    private void transcodeGraphicsNode(GraphicsNode root, String comment) throws UnsupportedOperationException {
+        depth = 0;
+        enterGraphicsNode(root, comment, null);
+        
+        while (depth > 0) {
+            Frame frame = frames[depth - 1];
+            if (frame.children != null && frame.childIndex < frame.children.size()) {
+                int index = frame.childIndex++;
+                enterGraphicsNode((GraphicsNode) frame.children.get(index), frame.comment + "_" + index, frame);
+            } else {
+                exitGraphicsNode(frame);
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * Transcodes the beginning of the specified node, and pushes its frame on the stack.
      *
      * @param node    Graphics node.
      * @param comment Comment (for associating the Java2D section with the corresponding SVG section).
-     * @throws UnsupportedOperationException if the graphics node is unsupported.
+     * @param parent  The frame of the parent, or null for the root.
      */
-    private void transcodeGraphicsNode(GraphicsNode node, String comment) throws UnsupportedOperationException {
-        transcodeCompositeChange(getAbsoluteAlphaComposite(node));
+    private void enterGraphicsNode(GraphicsNode node, String comment, Frame parent) {
+        if (culledNodes.contains(node)) {
+            return;
+        }
+        
+        if (metrics != null) {
+            metrics.nodeCount++;
+            if (node instanceof ShapeNode) {
+                metrics.shapeCount++;
+            }
+        }
+        
+        if (depth == frames.length) {
+            frames = Arrays.copyOf(frames, depth * 2);
+        }
+        if (frames[depth] == null) {
+            frames[depth] = new Frame();
+        }
+        Frame frame = frames[depth];
+        frame.comment = comment;
+        frame.children = null;
+        frame.childIndex = 0;
+        
+        if (parent != null) {
+            frame.transform.setTransform(parent.transform);
+            frame.alpha = parent.alpha;
+        } else {
+            frame.transform.setToIdentity();
+            frame.alpha = 1;
+        }
+        
+        frame.clipped = groupClipping && parent != null && node instanceof CompositeGraphicsNode;
+        if (frame.clipped) {
+            Rectangle2D bounds = node.getTransformedBounds(frame.transform);
+            if (bounds == null) {
+                return;
+            }
+            transcodeClipTest(frame, bounds);
+        }
+        
+        AlphaComposite composite = (AlphaComposite) node.getComposite();
+        if (composite != null) {
+            frame.alpha *= composite.getAlpha();
+            transcodeCompositeChange(AlphaComposite.getInstance(composite.getRule(), frame.alpha));
+        }
         
         AffineTransform transform = node.getTransform();
-        if (transform != null && !transform.isIdentity()) {
+        frame.transformed = transform != null && !transform.isIdentity();
+        if (frame.transformed) {
+            frame.transform.concatenate(transform);
             printWriter.println("transformations.push(g.getTransform());");
             printWriter.println("g.transform(" + AffineTransformTranscoder.INSTANCE.transcode(transform) + ");");
+            if (operations != null) {
+                operations.addTransform(transform);
+            }
         }
         
-        try {
+        depth++;
+        
+        printWriter.println("");
+        printWriter.println("// " + comment);
+        if (node instanceof ShapeNode) {
+            transcodeShapePainter(((ShapeNode) node).getShapePainter());
+        } else if (node instanceof CompositeGraphicsNode) {
+            frame.children = ((CompositeGraphicsNode) node).getChildren();
+        } else if (node instanceof TextNode) {
+            transcodeTextNode((TextNode) node);
+        } else {
+            throw new UnsupportedOperationException(node.getClass().getCanonicalName());
+        }
+    }
+
+    /**
+     * Transcodes the end of the node of the specified frame.
+     */
+    private void exitGraphicsNode(Frame frame) {
+        if (frame.transformed) {
             printWriter.println("");
-            printWriter.println("// " + comment);
-            if (node instanceof ShapeNode) {
-                transcodeShapePainter(((ShapeNode) node).getShapePainter());
-            } else if (node instanceof CompositeGraphicsNode) {
-                List children = ((CompositeGraphicsNode) node).getChildren();
-                for (int i = 0; i < children.size(); i++) {
-                    transcodeGraphicsNode((GraphicsNode) children.get(i), comment + "_" + i);
-                }
-            } else if (node instanceof TextNode) {
-                transcodeTextNode((TextNode) node);
-            } else {
-                throw new UnsupportedOperationException(node.getClass().getCanonicalName());
+            printWriter.println("g.setTransform(transformations.pop()); // " + frame.comment);
+            if (operations != null) {
+                operations.add(PaintingOperations.Kind.POP_TRANSFORM);
             }
-        } finally {
-            if (transform != null && !transform.isIdentity()) {
-                printWriter.println("");
-                printWriter.println("g.setTransform(transformations.pop()); // " + comment);
+        }
+        
+        if (frame.clipped) {
+            printWriter.println("} // " + frame.comment);
+            if (operations != null) {
+                operations.add(PaintingOperations.Kind.END);
+            }
+            
+            // the block may be skipped, the state changed inside is unknown after the block
+            if (frame.composite != currentComposite) {
+                currentComposite = UNKNOWN_COMPOSITE;
+            }
+            if (frame.paint != currentPaint) {
+                currentPaint = null;
+            }
+            if (frame.stroke != currentStroke) {
+                currentStroke = null;
+            }
+            if (frame.shape != currentShape) {
+                currentShape = null;
             }
         }
     }
 
     /**
-     * Get the absolute alpha composite of a node.
+     * Opens a block skipped when the specified bounds don't intersect the clip,
+     * and saves the current state in the frame.
      */
-    private AlphaComposite getAbsoluteAlphaComposite(GraphicsNode node) {
-        AlphaComposite composite = (AlphaComposite) node.getComposite();
+    private void transcodeClipTest(Frame frame, Rectangle2D bounds) {
+        frame.composite = currentComposite;
+        frame.paint = currentPaint;
+        frame.stroke = currentStroke;
+        frame.shape = currentShape;
         
-        if (composite != null) {
-            float alpha = composite.getAlpha();
-            while ((node = node.getParent()) != null) {
-                AlphaComposite parentComposite = (AlphaComposite) node.getComposite();
-                if (parentComposite != null) {
-                    alpha = alpha * parentComposite.getAlpha();
-                }
-            }
-            composite = AlphaComposite.getInstance(composite.getRule(), alpha);
-        }
+        float[] rect = {
+            (float) Math.floor(bounds.getMinX() * 100) / 100,
+            (float) Math.floor(bounds.getMinY() * 100) / 100,
+            (float) Math.ceil(bounds.getWidth() * 100 + 1) / 100,
+            (float) Math.ceil(bounds.getHeight() * 100 + 1) / 100
+        };
         
-        return composite;
+        printWriter.println("");
+        printWriter.println("if (clip == null || clip.intersects("
+                + FloatTranscoder.INSTANCE.transcode(rect[0]) + ", "
+                + FloatTranscoder.INSTANCE.transcode(rect[1]) + ", "
+                + FloatTranscoder.INSTANCE.transcode(rect[2]) + ", "
+                + FloatTranscoder.INSTANCE.transcode(rect[3]) + ")) {");
+        if (operations != null) {
+            operations.add(PaintingOperations.Kind.CLIP_TEST, rect);
+        }
+    }
+
+    /**
+     * The state of a node being transcoded, inherited by its children.
+     */
+    private static class Frame {
+        /** The comment of the node. */
+        String comment;
+
+        /** The children of the group, or null if the node isn't a group. */
+        List children;
+
+        /** The index of the next child transcoded. */
+        int childIndex;
+
+        /** The transformation from the node to the root. */
+        final AffineTransform transform = new AffineTransform();
+
+        /** The opacity of the node multiplied by the opacity of its ancestors. */
+        float alpha;
+
+        /** Tells if the transformation of the node was applied. */
+        boolean transformed;
+
+        /** Tells if the node is transcoded inside a clip test. */
+        boolean clipped;
+
+        /** The state before the clip test. */
+        AlphaComposite composite;
+        String paint;
+        String stroke;
+        Shape shape;
     }
 
     /**
@@ -419,7 +1275,7 @@ public class SvgTranscoder {
      * 
      * @param text
      */
-    private void transcodeTextNode(TextNode text) {
+    private void transcodeTextNode(final TextNode text) {
         if (text.getText() == null) {
             return;
         }
@@ -428,13 +1284,19 @@ public class SvgTranscoder {
         
         Graphics2D g = new NoOpGraphics2D() {
             public void draw(Shape shape) {
-                transcodeShape(shape);
+                transcodeTextShape(text, shape);
                 printWriter.println("g.drawShape(shape, baseStroke);");
+                if (operations != null) {
+                    operations.add(PaintingOperations.Kind.DRAW);
+                }
             }
 
             public void fill(Shape shape) {
-                transcodeShape(shape);
+                transcodeTextShape(text, shape);
                 printWriter.println("g.fillShape(shape);");
+                if (operations != null) {
+                    operations.add(PaintingOperations.Kind.FILL);
+                }
             }
 
             public void setComposite(Composite composite) {
@@ -461,5 +1323,99 @@ public class SvgTranscoder {
         };
         
         text.getTextPainter().paint(text, g);
+        
+        if (metrics != null && text.getTextRuns() != null) {
+            for (Object run : text.getTextRuns()) {
+                metrics.glyphCount += ((StrokingTextPainter.TextRun) run).getLayout().getGlyphCount();
+            }
+        }
+    }
+
+    /**
+     * Transcodes a shape painted by the text painter. The outline of a glyph vector
+     * is assembled from the cached glyphs if possible.
+     */
+    private void transcodeTextShape(TextNode text, Shape shape) {
+        if (shape == currentShape) {
+            return;
+        }
+        
+        GVTGlyphVector glyphVector = glyphMethods != null ? getGlyphVector(text, shape) : null;
+        List<String> statements = glyphVector != null ? transcodeGlyphs(glyphVector) : null;
+        if (statements == null) {
+            transcodeShape(shape);
+            return;
+        }
+        
+        printWriter.println("shape = new GeneralPath();");
+        for (String statement : statements) {
+            printWriter.println(statement);
+        }
+        if (operations != null) {
+            operations.setUnsupported("the glyphs appended from the methods of the glyph cache");
+        }
+        printWriter.println("");
+        
+        currentShape = shape;
+    }
+
+    /**
+     * Returns the glyph vector of the text with the specified outline, or null if the shape isn't the outline of a glyph vector.
+     */
+    private GVTGlyphVector getGlyphVector(TextNode text, Shape outline) {
+        List runs = text.getTextRuns();
+        if (runs != null) {
+            for (Object run : runs) {
+                GVTGlyphVector glyphVector = ((StrokingTextPainter.TextRun) run).getLayout().getGlyphVector();
+                if (glyphVector != null && glyphVector.getOutline() == outline) {
+                    return glyphVector;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Transcodes the glyphs of the specified glyph vector into calls to the methods building their outlines,
+     * and declares the methods of the glyphs not used before.
+     *
+     * @return the statements appending the glyphs to the shape, or null if a glyph is transformed and can't be cached
+     */
+    private List<String> transcodeGlyphs(GVTGlyphVector glyphVector) {
+        List<String> statements = new ArrayList<>();
+        for (int i = 0; i < glyphVector.getNumGlyphs(); i++) {
+            if (!glyphVector.isGlyphVisible(i)) {
+                continue;
+            }
+            
+            AffineTransform glyphTransform = glyphVector.getGlyphTransform(i);
+            if (glyphTransform != null && (glyphTransform.getType() & ~AffineTransform.TYPE_TRANSLATION) != 0) {
+                return null;
+            }
+            
+            Point2D position = glyphVector.getGlyphPosition(i);
+            float x = (float) (position.getX() + (glyphTransform != null ? glyphTransform.getTranslateX() : 0));
+            float y = (float) (position.getY() + (glyphTransform != null ? glyphTransform.getTranslateY() : 0));
+            Shape outline = AffineTransform.getTranslateInstance(-x, -y).createTransformedShape(glyphVector.getGlyphOutline(i));
+            
+            String path = glyphOutlineCache.getPath(glyphVector.getFont(), glyphVector.getGlyphCode(i), outline, pathSimplifier);
+            String method = glyphMethods.get(path);
+            if (method == null) {
+                method = "glyph" + glyphMethods.size();
+                glyphMethods.put(path, method);
+                
+                declarations.append("\n    private static Shape ").append(method).append("(double x, double y) {\n");
+                declarations.append("        GeneralPath shape = new GeneralPath();\n");
+                for (String line : path.split("\n")) {
+                    declarations.append("        ").append(line).append("\n");
+                }
+                declarations.append("        return shape;\n");
+                declarations.append("    }\n");
+            }
+            
+            statements.add("((GeneralPath) shape).append(" + method + "(" + x + ", " + y + "), false);");
+        }
+        
+        return statements;
     }
 }
@@ -21,6 +21,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.PrintWriter;
+import java.io.Reader;
 import java.net.URL;
 import java.util.Map;
 
@@ -33,12 +34,25 @@ import java.util.Map;
 public class Template {
 
     public enum Token {
-        PACKAGE, CLASSNAME, PAINTING_CODE, X, Y, WIDTH, HEIGHT
+        PACKAGE, CLASSNAME, PAINTING_CODE, DECLARATIONS, X, Y, WIDTH, HEIGHT, GROUP_CLIPPING
     }
 
+    /** The prefix of the template line declaring the parameters of the painting methods. */
+    private static final String PARAMETERS_DIRECTIVE = "#parameters ";
+
+    /**
+     * The prefix of the template line replaced by the content of another file, resolved relatively
+     * to the template. The code shared by several templates, like the Java2D adapter of the icon
+     * and resizable templates, is thus written once.
+     */
+    private static final String INCLUDE_DIRECTIVE = "#include ";
+
     private URL url;
     private String template;
 
+    /** The parameters of the painting methods, or null if not declared by the template. */
+    private String paintingParameters;
+
     public Template(String resource) throws IOException {
         load(getClass().getResource(resource));
 
@@ -49,20 +63,31 @@ public class Template {
     }
 
     private void load(URL url) throws IOException {
-        InputStream in = url.openStream();
         this.url = url;
+        
+        StringBuilder buffer = new StringBuilder();
+        read(url, buffer);
+        template = buffer.toString();
+    }
+
+    /**
+     * Reads a template or a file included, and interprets its directives.
+     */
+    private void read(URL url, StringBuilder buffer) throws IOException {
+        InputStream in = url.openStream();
 
         try {
-            in = url.openStream();
-            StringBuilder buffer = new StringBuilder();
-            
             BufferedReader reader = new BufferedReader(new InputStreamReader(in));
             String line;
             while ((line = reader.readLine()) != null) {
-                buffer.append(line).append("\n");
+                if (line.startsWith(PARAMETERS_DIRECTIVE)) {
+                    paintingParameters = line.substring(PARAMETERS_DIRECTIVE.length()).trim();
+                } else if (line.startsWith(INCLUDE_DIRECTIVE)) {
+                    read(new URL(url, line.substring(INCLUDE_DIRECTIVE.length()).trim()), buffer);
+                } else {
+                    buffer.append(line).append("\n");
+                }
             }
-            
-            template = buffer.toString();
         } finally {
             in.close();
         }
@@ -79,6 +104,60 @@ public class Template {
         out.close();
     }
 
+    /**
+     * Applies the template with the value of a token read from a stream instead of
+     * being held in memory, for example the painting code spilled into a temporary file.
+     *
+     * @param out           the output receiving the result
+     * @param params        the values of the other tokens
+     * @param streamedToken the token receiving the content read
+     * @param content       the content of the streamed token, left open
+     */
+    public void apply(PrintWriter out, Map<Token, Object> params, Token streamedToken, Reader content) throws IOException {
+        String template = this.template;
+        
+        for (Token token : params.keySet()) {
+            if (token != streamedToken) {
+                template = template.replaceAll("\\$\\{" + token.name() + "}", params.get(token).toString());
+            }
+        }
+        
+        String placeholder = "${" + streamedToken.name() + "}";
+        int index = template.indexOf(placeholder);
+        if (index == -1) {
+            out.println(template);
+        } else {
+            out.print(template.substring(0, index));
+            char[] buffer = new char[8192];
+            int length;
+            while ((length = content.read(buffer)) != -1) {
+                out.write(buffer, 0, length);
+            }
+            out.println(template.substring(index + placeholder.length()));
+        }
+        out.close();
+    }
+
+    /**
+     * Tells if the template contains the specified token.
+     */
+    public boolean hasToken(Token token) {
+        return template.contains("${" + token.name() + "}");
+    }
+
+    /**
+     * Returns the parameters of the methods receiving the painting code split
+     * in several parts, as declared by the template with a line starting
+     * with {@code #parameters}. For example:
+     * 
+     * <pre>#parameters Graphics g, int origAlpha, java.util.LinkedList&lt;Transform&gt; transformations, Stroke baseStroke, Shape shape, Rectangle2D clip, int size</pre>
+     * 
+     * @return the declaration of the parameters, or null if the template doesn't declare them
+     */
+    public String getPaintingParameters() {
+        return paintingParameters;
+    }
+
     public URL getURL() {
         return url;
     }
@@ -0,0 +1,91 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+/**
+ * The temporary files receiving the intermediate content of the transcoding
+ * in the bounded memory mode, instead of the heap. The files are deleted
+ * once read.
+ */
+class TemporaryFiles {
+
+    private TemporaryFiles() {
+    }
+
+    static File create(String suffix) throws IOException {
+        return File.createTempFile("flamingo-svg-", suffix);
+    }
+
+    /**
+     * Opens a writer encoding the characters in UTF-8.
+     */
+    static Writer openWriter(File file) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+    }
+
+    /**
+     * Opens a reader decoding the file in UTF-8, the file is kept when the reader is closed.
+     */
+    static BufferedReader openReader(File file) throws IOException {
+        return new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+    }
+
+    /**
+     * Opens a reader decoding the file in UTF-8, the file is deleted when the reader is closed.
+     */
+    static BufferedReader openReaderAndDelete(final File file) throws IOException {
+        return new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8")) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    file.delete();
+                }
+            }
+        };
+    }
+
+    /**
+     * Opens a stream reading the file, the file is deleted when the stream is closed.
+     */
+    static InputStream openStreamAndDelete(final File file) throws IOException {
+        return new FilterInputStream(new BufferedInputStream(new FileInputStream(file))) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    file.delete();
+                }
+            }
+        };
+    }
+}
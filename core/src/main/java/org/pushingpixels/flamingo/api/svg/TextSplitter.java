@@ -16,14 +16,18 @@
 
 package org.pushingpixels.flamingo.api.svg;
 
+import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.LineNumberReader;
+import java.io.Reader;
 import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.LinkedList;
-import java.util.List;
 
 /**
  * Inserts a string inside a text every n lines, on blank lines only.
+ * The blocks opened by a line ending with a brace and still open at
+ * the insertion point are closed before the string and reopened after.
  * 
  * @author Emmanuel Bourg
  * @version $Revision$, $Date$
@@ -35,52 +39,88 @@ class TextSplitter {
             return content;
         }
 
-        StringBuilder out = new StringBuilder();
+        StringWriter out = new StringWriter();
+        try {
+            insert(new StringReader(content), out, separator, limit);
+        } catch (IOException e) {
+            // not thrown by the string reader and writer
+            throw new IllegalStateException(e);
+        }
+        
+        return out.toString();
+    }
+
+    /**
+     * Inserts the separator in the content read, and writes the result. The content
+     * is processed chunk by chunk, it isn't held in memory.
+     *
+     * @return the number of separators inserted
+     */
+    static int insert(Reader content, Writer out, String separator, int limit) throws IOException {
+        BufferedReader reader = new BufferedReader(content);
         
-        List<Chunk> chunks = getChunks(content);
+        int chunkIndex = 0;
         int accumulatedLines = 0;
         int separatorCount = 0;
-
-        for (int i = 0; i < chunks.size(); i++) {
-            Chunk chunk = chunks.get(i);
+        LinkedList<String> openBlocks = new LinkedList<>();
+        
+        Chunk chunk = new Chunk();
+        String line;
+        do {
+            line = reader.readLine();
+            if (line != null && line.trim().length() > 0) {
+                chunk.content.append(line).append('\n');
+                chunk.lines++;
+                continue;
+            }
+            
+            // a blank line or the end of the content completes the chunk
             if (accumulatedLines > 0 && accumulatedLines + chunk.lines > limit) {
+                for (String block : openBlocks) {
+                    out.append(getIndentation(block)).append("}\n");
+                }
                 out.append(separator.replaceAll("\\$\\{count}", String.valueOf(++separatorCount)));
                 out.append('\n');
+                for (int j = openBlocks.size() - 1; j >= 0; j--) {
+                    out.append(openBlocks.get(j)).append('\n');
+                }
                 accumulatedLines = 0;
-            } else if (i > 0) {
+            } else if (chunkIndex > 0) {
                 out.append('\n');
             }
 
             accumulatedLines += chunk.lines;
             out.append(chunk.content);
-        }
+            updateOpenBlocks(chunk, openBlocks);
+            
+            chunkIndex++;
+            chunk = new Chunk();
+        } while (line != null);
 
-        return out.toString();
+        return separatorCount;
     }
     
-    static List<Chunk> getChunks(String content) {
-        List<Chunk> chunks = new LinkedList<>();
-        
-        Chunk chunk = new Chunk();
-        chunks.add(chunk);
-
-        try {
-            LineNumberReader reader = new LineNumberReader(new StringReader(content));
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (line.trim().length() == 0) {
-                    chunk = new Chunk();
-                    chunks.add(chunk);
-                } else {
-                    chunk.content.append(line).append('\n');
-                    chunk.lines++;
-                }
+    /**
+     * Pushes the lines opening a block and pops them when the block is closed,
+     * the innermost block being the first of the list.
+     */
+    private static void updateOpenBlocks(Chunk chunk, LinkedList<String> openBlocks) {
+        for (String line : chunk.content.toString().split("\n")) {
+            String statement = line.trim();
+            if (statement.endsWith("{")) {
+                openBlocks.addFirst(line);
+            } else if ((statement.equals("}") || statement.startsWith("} //")) && !openBlocks.isEmpty()) {
+                openBlocks.removeFirst();
             }
+        }
+    }
 
-        } catch (IOException e) {
+    private static String getIndentation(String line) {
+        int i = 0;
+        while (i < line.length() && Character.isWhitespace(line.charAt(i))) {
+            i++;
         }
-        
-        return chunks;
+        return line.substring(0, i);
     }
 
     private static class Chunk {
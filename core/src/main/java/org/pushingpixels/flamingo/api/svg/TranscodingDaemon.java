@@ -0,0 +1,460 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Long running process converting the SVG images for the command line converter and the Ant task,
+ * sparing the startup of a JVM and the warm up of Batik to each build. The daemon listens on the
+ * loopback interface only and publishes its port in a file of the user, with a token required by
+ * the conversion requests. The converter and the Ant task use the daemon automatically when it's running.
+ *
+ * <p>The daemon serves these requests:</p>
+ * <ul>
+ *   <li>GET /health : the status of the daemon and its counters</li>
+ *   <li>POST /transcode : the conversion of the files of a request, see {@link DaemonClient.Request}</li>
+ *   <li>POST /shutdown : stops the daemon once the requests in progress are completed</li>
+ * </ul>
+ *
+ * The requests are converted by a fixed number of worker threads, each with its own session,
+ * the other requests wait in the queue. The daemon stops after a period without request.
+ */
+public class TranscodingDaemon {
+
+    /** The number of requests converted simultaneously. */
+    private final int threadCount;
+
+    /** The time without request after which the daemon stops, in milliseconds, 0 to keep it running. */
+    private final long idleTimeout;
+
+    /** The file publishing the address, the port and the token of the daemon. */
+    private final File file;
+
+    /** The token required by the conversion and the shutdown requests. */
+    private final String token;
+
+    private HttpServer server;
+
+    private ExecutorService workers;
+
+    private ScheduledExecutorService idleMonitor;
+
+    /** The sessions of the worker threads. */
+    private final ThreadLocal<TranscodingSession> sessions = new ThreadLocal<TranscodingSession>() {
+        @Override
+        protected TranscodingSession initialValue() {
+            return new TranscodingSession();
+        }
+    };
+
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    private long startTime;
+
+    /** The time of the end of the last request, in nanoseconds. */
+    private volatile long lastActivity;
+
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final AtomicInteger queuedCount = new AtomicInteger();
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong fileCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+
+    /**
+     * @param threadCount the number of requests converted simultaneously
+     * @param idleTimeout the time without request after which the daemon stops, in milliseconds, 0 to keep it running
+     * @param file        the file publishing the address, the port and the token of the daemon
+     */
+    public TranscodingDaemon(int threadCount, long idleTimeout, File file) {
+        this.threadCount = threadCount;
+        this.idleTimeout = idleTimeout;
+        this.file = file;
+
+        byte[] bytes = new byte[16];
+        new SecureRandom().nextBytes(bytes);
+        StringBuilder token = new StringBuilder();
+        for (byte b : bytes) {
+            token.append(String.format("%02x", b & 0xFF));
+        }
+        this.token = token.toString();
+    }
+
+    /**
+     * Starts the daemon on the specified port of the loopback interface, and publishes its port.
+     *
+     * @param port the port, or 0 to pick a free port
+     */
+    public synchronized void start(int port) throws IOException {
+        workers = Executors.newFixedThreadPool(threadCount, new DaemonThreadFactory("flamingo-svg-worker"));
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.setExecutor(Executors.newCachedThreadPool(new DaemonThreadFactory("flamingo-svg-http")));
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                TranscodingDaemon.this.handle(exchange);
+            }
+        });
+        server.start();
+
+        startTime = System.nanoTime();
+        lastActivity = startTime;
+
+        if (idleTimeout > 0) {
+            idleMonitor = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("flamingo-svg-idle-monitor"));
+            idleMonitor.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    if (activeCount.get() == 0 && queuedCount.get() == 0 && System.nanoTime() - lastActivity > idleTimeout * 1000000) {
+                        System.err.println("Stopping the daemon after " + idleTimeout / 1000 + " seconds without request");
+                        stop();
+                    }
+                }
+            }, idleTimeout / 4, idleTimeout / 4, TimeUnit.MILLISECONDS);
+        }
+
+        publish();
+    }
+
+    /**
+     * Writes the address, the port and the token of the daemon into the file, readable by the user only.
+     */
+    private void publish() throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("host", server.getAddress().getAddress().getHostAddress());
+        properties.setProperty("port", String.valueOf(getPort()));
+        properties.setProperty("token", token);
+
+        file.getParentFile().mkdirs();
+        try (OutputStream out = new FileOutputStream(file)) {
+            file.setReadable(false, false);
+            file.setReadable(true, true);
+            properties.store(out, "Flamingo SVG transcoding daemon");
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops the daemon. The requests in progress are completed.
+     */
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+
+        server.stop(0);
+        workers.shutdown();
+        if (idleMonitor != null) {
+            idleMonitor.shutdown();
+        }
+        ((ExecutorService) server.getExecutor()).shutdown();
+        server = null;
+
+        // the file is left to the daemon started since, if any
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            properties.load(in);
+        } catch (IOException e) {
+            // already deleted
+        }
+        if (token.equals(properties.getProperty("token"))) {
+            file.delete();
+        }
+
+        stopped.countDown();
+    }
+
+    public synchronized boolean isRunning() {
+        return server != null;
+    }
+
+    /**
+     * Waits until the daemon is stopped.
+     */
+    public void awaitStop() throws InterruptedException {
+        stopped.await();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        Properties response;
+        int status = 200;
+        boolean shutdown = false;
+        try {
+            String path = exchange.getRequestURI().getPath();
+            if (!"/health".equals(path) && !isAuthorized(exchange)) {
+                status = 403;
+                response = getError("Invalid token");
+            } else {
+                switch (path) {
+                    case "/health":
+                        response = getHealth();
+                        break;
+                    case "/transcode":
+                        Properties properties = new Properties();
+                        properties.load(exchange.getRequestBody());
+                        response = submit(new DaemonClient.Request(properties)).getProperties();
+                        break;
+                    case "/shutdown":
+                        response = getHealth();
+                        response.setProperty("status", "stopping");
+                        shutdown = true;
+                        break;
+                    default:
+                        status = 404;
+                        response = getError("Unknown request " + path);
+                }
+            }
+        } catch (Exception e) {
+            status = 500;
+            response = getError(e instanceof ExecutionException ? String.valueOf(e.getCause()) : String.valueOf(e));
+        }
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        response.store(buffer, null);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=ISO-8859-1");
+        exchange.sendResponseHeaders(status, buffer.size());
+        try (OutputStream out = exchange.getResponseBody()) {
+            buffer.writeTo(out);
+        }
+
+        if (shutdown) {
+            // stopped once the response is sent, from another thread since the server waits for its handlers
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    stop();
+                }
+            }, "flamingo-svg-shutdown").start();
+        }
+    }
+
+    private boolean isAuthorized(HttpExchange exchange) throws IOException {
+        String requestToken = exchange.getRequestHeaders().getFirst(DaemonClient.TOKEN_HEADER);
+        return requestToken != null && MessageDigest.isEqual(token.getBytes("UTF-8"), requestToken.getBytes("UTF-8"));
+    }
+
+    private Properties getError(String message) {
+        Properties properties = new Properties();
+        properties.setProperty("error", message);
+        return properties;
+    }
+
+    /**
+     * Returns the status of the daemon and its counters.
+     */
+    Properties getHealth() {
+        Properties health = new Properties();
+        health.setProperty("status", isRunning() ? "ok" : "stopped");
+        health.setProperty("uptime", String.valueOf((System.nanoTime() - startTime) / 1000000000));
+        health.setProperty("idle", String.valueOf((System.nanoTime() - lastActivity) / 1000000000));
+        health.setProperty("idle_timeout", String.valueOf(idleTimeout / 1000));
+        health.setProperty("threads", String.valueOf(threadCount));
+        health.setProperty("active", String.valueOf(activeCount.get()));
+        health.setProperty("queued", String.valueOf(queuedCount.get()));
+        health.setProperty("requests", String.valueOf(requestCount.get()));
+        health.setProperty("files", String.valueOf(fileCount.get()));
+        health.setProperty("failures", String.valueOf(failureCount.get()));
+        health.setProperty("heap_used", String.valueOf(Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory()));
+        return health;
+    }
+
+    /**
+     * Queues the request for the worker threads, and waits for its completion.
+     */
+    private DaemonClient.Response submit(final DaemonClient.Request request) throws InterruptedException, ExecutionException {
+        queuedCount.incrementAndGet();
+        Future<DaemonClient.Response> response = workers.submit(new Callable<DaemonClient.Response>() {
+            @Override
+            public DaemonClient.Response call() {
+                queuedCount.decrementAndGet();
+                activeCount.incrementAndGet();
+                try {
+                    return transcode(request);
+                } finally {
+                    activeCount.decrementAndGet();
+                    requestCount.incrementAndGet();
+                    lastActivity = System.nanoTime();
+                }
+            }
+        });
+        return response.get();
+    }
+
+    /**
+     * Converts the files of a request, in a worker thread.
+     */
+    DaemonClient.Response transcode(DaemonClient.Request request) {
+        SvgBatchConverter converter = new SvgBatchConverter(sessions.get());
+        List<String> options = request.getOptions();
+        String[] args = options.toArray(new String[options.size()]);
+        for (int i = 0; i < args.length; i++) {
+            int last = converter.parseOption(args, i);
+            if (last == -1) {
+                throw new IllegalArgumentException("Unsupported option: " + args[i]);
+            }
+            i = last;
+        }
+        converter.setPackageName(request.getPackageName());
+
+        DaemonClient.Response response = new DaemonClient.Response();
+        for (int i = 0; i < request.getFileCount(); i++) {
+            File file = request.getFile(i);
+            TranscodingMetrics metrics = new TranscodingMetrics(file.getName());
+            StringWriter log = new StringWriter();
+            String error = null;
+            List<String> violations = Collections.emptyList();
+            try {
+                violations = converter.convert(file, request.getTarget(i), request.getClassName(i), metrics, new PrintWriter(log));
+            } catch (Exception e) {
+                StringWriter trace = new StringWriter();
+                e.printStackTrace(new PrintWriter(trace));
+                error = trace.toString();
+                metrics.setError(String.valueOf(e));
+            }
+
+            fileCount.incrementAndGet();
+            if (metrics.getError() != null) {
+                failureCount.incrementAndGet();
+            }
+            response.setResult(i, log.toString(), error, metrics, violations);
+        }
+        response.setGlyphSummary(converter.getGlyphSummary());
+
+        return response;
+    }
+
+    /**
+     * Factory of the daemon threads, the JVM exits when the daemon is stopped.
+     */
+    private static class DaemonThreadFactory implements ThreadFactory {
+
+        private final String name;
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        DaemonThreadFactory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    /**
+     * Starts the daemon, or controls the daemon running.
+     *
+     * @param args the options:
+     *             <ul>
+     *               <li>-port &lt;port&gt; : the port of the daemon on the loopback interface (a free port by default)</li>
+     *               <li>-threads &lt;count&gt; : the number of requests converted simultaneously (the number of processors by default)</li>
+     *               <li>-idle &lt;minutes&gt; : stop the daemon after the specified time without request (30 minutes by default, 0 to keep it running)</li>
+     *               <li>-status : print the status of the daemon running</li>
+     *               <li>-stop : stop the daemon running</li>
+     *             </ul>
+     */
+    public static void main(String... args) throws Exception {
+        int port = 0;
+        int threadCount = Runtime.getRuntime().availableProcessors();
+        long idleTimeout = TimeUnit.MINUTES.toMillis(30);
+        File file = DaemonClient.getDefaultFile();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+                case "-threads":
+                    threadCount = Integer.parseInt(args[++i]);
+                    break;
+                case "-idle":
+                    idleTimeout = TimeUnit.MINUTES.toMillis(Integer.parseInt(args[++i]));
+                    break;
+                case "-status":
+                case "-stop":
+                    DaemonClient client = DaemonClient.find(file);
+                    if (client == null) {
+                        System.err.println("The daemon isn't running");
+                        System.exit(1);
+                    }
+                    if ("-stop".equals(args[i])) {
+                        client.shutdown();
+                        System.err.println("The daemon is stopping");
+                    } else {
+                        Properties health = client.getHealth();
+                        for (String key : new TreeSet<>(health.stringPropertyNames())) {
+                            System.out.println(key + "=" + health.getProperty(key));
+                        }
+                    }
+                    return;
+                default:
+                    System.out.println("options : -port <port>, -threads <count>, -idle <minutes>, -status, -stop");
+                    System.exit(1);
+            }
+        }
+
+        if (DaemonClient.find(file) != null) {
+            System.err.println("The daemon is already running (" + file + ")");
+            System.exit(1);
+        }
+
+        TranscodingDaemon daemon = new TranscodingDaemon(threadCount, idleTimeout, file);
+        daemon.start(port);
+        System.err.println("Daemon listening on port " + daemon.getPort() + " with " + threadCount + " thread" + (threadCount == 1 ? "" : "s")
+                + (idleTimeout > 0 ? ", stopping after " + idleTimeout / 60000 + " minute" + (idleTimeout < 120000 ? "" : "s") + " without request" : ""));
+        daemon.awaitStop();
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.pushingpixels.flamingo.api.svg;
+
+/**
+ * Emits the events of the transcoding to Java Flight Recorder. The events are
+ * implemented by {@link FlightRecorderEvents}, loaded only if the JFR API is
+ * available; otherwise, and when no recording is running, nothing is emitted
+ * and the events are never created.
+ */
+abstract class TranscodingEvents {
+
+    private static final TranscodingEvents INSTANCE = create();
+
+    private static TranscodingEvents create() {
+        try {
+            Class.forName("jdk.jfr.FlightRecorder");
+            return (TranscodingEvents) Class.forName(TranscodingEvents.class.getPackage().getName() + ".FlightRecorderEvents").newInstance();
+        } catch (Throwable t) {
+            return new TranscodingEvents() {
+                @Override
+                boolean isEnabled() {
+                    return false;
+                }
+
+                @Override
+                Object begin(TranscodingMetrics.Stage stage) {
+                    return null;
+                }
+
+                @Override
+                void commit(Object event, TranscodingMetrics metrics) {
+                }
+
+                @Override
+                Object beginBatch() {
+                    return null;
+                }
+
+                @Override
+                void commitBatch(Object event, String directory, int fileCount) {
+                }
+            };
+        }
+    }
+
+    static TranscodingEvents get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Tells if the transcoding of the files is recorded.
+     */
+    abstract boolean isEnabled();
+
+    /**
+     * Starts the event of a stage of the transcoding.
+     *
+     * @param stage the stage, or null for the transcoding of the whole file
+     * @return the event started, or null if the event isn't recorded
+     */
+    abstract Object begin(TranscodingMetrics.Stage stage);
+
+    /**
+     * Ends and commits an event started by {@link #begin(TranscodingMetrics.Stage)}.
+     *
+     * @param event   the event, or null if the event isn't recorded
+     * @param metrics the metrics of the file transcoded, providing the name of the file and the counters, or null
+     */
+    abstract void commit(Object event, TranscodingMetrics metrics);
+
+    /**
+     * Starts the event of the transcoding of a batch of files.
+     *
+     * @return the event started, or null if the event isn't recorded
+     */
+    abstract Object beginBatch();
+
+    /**
+     * Ends and commits an event started by {@link #beginBatch()}.
+     *
+     * @param event     the event, or null if the event isn't recorded
+     * @param directory the directory of the files transcoded
+     * @param fileCount the number of files transcoded
+     */
+    abstract void commitBatch(Object event, String directory, int fileCount);
+}
@@ -0,0 +1,348 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.util.Properties;
+
+/**
+ * The time spent in each stage of the transcoding of a file, and the size
+ * of the image and of the generated code.
+ */
+public class TranscodingMetrics {
+
+    /**
+     * The stages of the transcoding.
+     */
+    public enum Stage {
+        /** The cleanup of the SVG file by the XSLT stylesheet, parsing included. */
+        CLEAN,
+        /** The loading of the cleaned document by Batik. */
+        PARSE,
+        /** The build of the GVT tree. */
+        BUILD,
+        /** The tuning of the simplification. */
+        TUNE,
+        /** The traversal of the GVT tree and the emission of the painting code. */
+        EMIT,
+        /** The application of the template and the writing of the class. */
+        WRITE
+    }
+
+    /** The name of the file transcoded. */
+    private final String file;
+
+    /** The time spent in each stage, in nanoseconds. */
+    private final long[] times = new long[Stage.values().length];
+
+    /** The error that stopped the transcoding, or null if the file was transcoded. */
+    private String error;
+
+    int nodeCount;
+    int shapeCount;
+    long segmentCount;
+    long coordinateCount;
+    int glyphCount;
+    long lineCount;
+    long byteCount;
+    int methodCount;
+    int drawCallCount;
+    int stateChangeCount;
+    int gradientCount;
+
+    /** The counters before the first variant for a level of detail, or null if no variant is counted. */
+    private long[] variantBase;
+
+    /** The largest value of each counter over the variants for the levels of detail already counted. */
+    private long[] variantMax;
+
+    public TranscodingMetrics(String file) {
+        this.file = file;
+    }
+
+    void addTime(Stage stage, long nanos) {
+        times[stage.ordinal()] += nanos;
+    }
+
+    /**
+     * Clears the counters of the generated code before the final emission.
+     */
+    void resetCounts() {
+        nodeCount = 0;
+        shapeCount = 0;
+        segmentCount = 0;
+        glyphCount = 0;
+        lineCount = 0;
+        byteCount = 0;
+        methodCount = 0;
+        coordinateCount = 0;
+        drawCallCount = 0;
+        stateChangeCount = 0;
+        gradientCount = 0;
+        variantBase = null;
+        variantMax = null;
+    }
+
+    /**
+     * Starts the counting of a variant of the painting code for a level of detail. The variants
+     * are alternatives painted at different sizes, the counters of the nodes, the path segments
+     * and the statements thus only keep the largest value over the variants once
+     * {@link #endVariants()} is called. The lines, the bytes and the methods still measure
+     * the whole generated class.
+     */
+    void beginVariant() {
+        if (variantBase == null) {
+            variantBase = getCounts();
+            variantMax = new long[variantBase.length];
+        } else {
+            foldVariant();
+            setCounts(variantBase);
+        }
+    }
+
+    /**
+     * Ends the counting of the variants for the levels of detail, the counters then hold the largest
+     * value over the variants. Does nothing if no variant was counted.
+     */
+    void endVariants() {
+        if (variantBase != null) {
+            foldVariant();
+            long[] counts = variantBase.clone();
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += variantMax[i];
+            }
+            setCounts(counts);
+            variantBase = null;
+            variantMax = null;
+        }
+    }
+
+    private void foldVariant() {
+        long[] counts = getCounts();
+        for (int i = 0; i < counts.length; i++) {
+            variantMax[i] = Math.max(variantMax[i], counts[i] - variantBase[i]);
+        }
+    }
+
+    private long[] getCounts() {
+        return new long[] { nodeCount, shapeCount, segmentCount, coordinateCount, glyphCount, drawCallCount, stateChangeCount, gradientCount };
+    }
+
+    private void setCounts(long[] counts) {
+        nodeCount = (int) counts[0];
+        shapeCount = (int) counts[1];
+        segmentCount = counts[2];
+        coordinateCount = counts[3];
+        glyphCount = (int) counts[4];
+        drawCallCount = (int) counts[5];
+        stateChangeCount = (int) counts[6];
+        gradientCount = (int) counts[7];
+    }
+
+    /**
+     * Counts the draw calls, the changes of the state of the graphics context
+     * and the gradients created by the painting code generated.
+     */
+    void countStatements(String paintingCode) {
+        int start = 0;
+        while (start < paintingCode.length()) {
+            int end = paintingCode.indexOf('\n', start);
+            if (end == -1) {
+                end = paintingCode.length();
+            }
+            
+            countStatement(paintingCode.substring(start, end));
+            start = end + 1;
+        }
+        endVariants();
+    }
+
+    /**
+     * Counts the draw call, the change of the state of the graphics context
+     * or the gradient of a line of the painting code generated. The test of the size starting
+     * a variant for a level of detail starts the counting of the variant, {@link #endVariants()}
+     * must be called after the last line.
+     */
+    void countStatement(String line) {
+        line = line.trim();
+        if (line.startsWith("if (size ")) {
+            beginVariant();
+        } else if (line.startsWith("g.fillShape(") || line.startsWith("g.drawShape(")) {
+            drawCallCount++;
+        } else if (line.startsWith("g.setColor(") || line.startsWith("g.setAlpha(") || line.startsWith("g.transform(")
+                || line.startsWith("g.setTransform(") || line.startsWith("baseStroke = ")) {
+            stateChangeCount++;
+            if (line.contains("GradientPaint(")) {
+                gradientCount++;
+            }
+        }
+    }
+
+    /**
+     * Adds the times and the counters of the specified metrics to these metrics.
+     */
+    public void add(TranscodingMetrics metrics) {
+        for (int i = 0; i < times.length; i++) {
+            times[i] += metrics.times[i];
+        }
+        nodeCount += metrics.nodeCount;
+        shapeCount += metrics.shapeCount;
+        segmentCount += metrics.segmentCount;
+        glyphCount += metrics.glyphCount;
+        lineCount += metrics.lineCount;
+        byteCount += metrics.byteCount;
+        methodCount += metrics.methodCount;
+        coordinateCount += metrics.coordinateCount;
+        drawCallCount += metrics.drawCallCount;
+        stateChangeCount += metrics.stateChangeCount;
+        gradientCount += metrics.gradientCount;
+    }
+
+    /**
+     * Stores the times, the counters and the error into properties, with the specified prefix.
+     */
+    void store(Properties properties, String prefix) {
+        for (Stage stage : Stage.values()) {
+            properties.setProperty(prefix + stage.name().toLowerCase(), String.valueOf(getTime(stage)));
+        }
+        properties.setProperty(prefix + "nodes", String.valueOf(nodeCount));
+        properties.setProperty(prefix + "shapes", String.valueOf(shapeCount));
+        properties.setProperty(prefix + "segments", String.valueOf(segmentCount));
+        properties.setProperty(prefix + "coordinates", String.valueOf(coordinateCount));
+        properties.setProperty(prefix + "glyphs", String.valueOf(glyphCount));
+        properties.setProperty(prefix + "lines", String.valueOf(lineCount));
+        properties.setProperty(prefix + "bytes", String.valueOf(byteCount));
+        properties.setProperty(prefix + "methods", String.valueOf(methodCount));
+        properties.setProperty(prefix + "draw_calls", String.valueOf(drawCallCount));
+        properties.setProperty(prefix + "state_changes", String.valueOf(stateChangeCount));
+        properties.setProperty(prefix + "gradients", String.valueOf(gradientCount));
+        if (error != null) {
+            properties.setProperty(prefix + "error", error);
+        }
+    }
+
+    /**
+     * Loads the metrics stored into properties with the specified prefix.
+     */
+    static TranscodingMetrics load(String file, Properties properties, String prefix) {
+        TranscodingMetrics metrics = new TranscodingMetrics(file);
+        for (Stage stage : Stage.values()) {
+            metrics.times[stage.ordinal()] = Long.parseLong(properties.getProperty(prefix + stage.name().toLowerCase(), "0"));
+        }
+        metrics.nodeCount = Integer.parseInt(properties.getProperty(prefix + "nodes", "0"));
+        metrics.shapeCount = Integer.parseInt(properties.getProperty(prefix + "shapes", "0"));
+        metrics.segmentCount = Long.parseLong(properties.getProperty(prefix + "segments", "0"));
+        metrics.coordinateCount = Long.parseLong(properties.getProperty(prefix + "coordinates", "0"));
+        metrics.glyphCount = Integer.parseInt(properties.getProperty(prefix + "glyphs", "0"));
+        metrics.lineCount = Long.parseLong(properties.getProperty(prefix + "lines", "0"));
+        metrics.byteCount = Long.parseLong(properties.getProperty(prefix + "bytes", "0"));
+        metrics.methodCount = Integer.parseInt(properties.getProperty(prefix + "methods", "0"));
+        metrics.drawCallCount = Integer.parseInt(properties.getProperty(prefix + "draw_calls", "0"));
+        metrics.stateChangeCount = Integer.parseInt(properties.getProperty(prefix + "state_changes", "0"));
+        metrics.gradientCount = Integer.parseInt(properties.getProperty(prefix + "gradients", "0"));
+        metrics.error = properties.getProperty(prefix + "error");
+        return metrics;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    /**
+     * Returns the time spent in the specified stage, in nanoseconds.
+     */
+    public long getTime(Stage stage) {
+        return times[stage.ordinal()];
+    }
+
+    /**
+     * Returns the time spent in all the stages, in nanoseconds.
+     */
+    public long getTotalTime() {
+        long total = 0;
+        for (long time : times) {
+            total += time;
+        }
+        return total;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    void setError(String error) {
+        this.error = error;
+    }
+
+    /** Returns the number of graphics nodes transcoded. */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /** Returns the number of shape nodes transcoded. */
+    public int getShapeCount() {
+        return shapeCount;
+    }
+
+    /** Returns the number of path segments emitted. */
+    public long getSegmentCount() {
+        return segmentCount;
+    }
+
+    /** Returns the number of glyphs of the texts. */
+    public int getGlyphCount() {
+        return glyphCount;
+    }
+
+    /** Returns the number of lines of the generated class. */
+    public long getLineCount() {
+        return lineCount;
+    }
+
+    /** Returns the size of the generated class in bytes, encoded in UTF-8. */
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    /** Returns the number of methods the painting code was split into. */
+    public int getMethodCount() {
+        return methodCount;
+    }
+
+    /** Returns the number of shapes filled or drawn by the generated code. */
+    public int getDrawCallCount() {
+        return drawCallCount;
+    }
+
+    /** Returns the number of changes of the color, the alpha, the transform or the stroke in the generated code. */
+    public int getStateChangeCount() {
+        return stateChangeCount;
+    }
+
+    /** Returns the number of gradients created by the generated code. */
+    public int getGradientCount() {
+        return gradientCount;
+    }
+
+    /**
+     * Returns an estimation of the size in bytes of the bytecode of the painting methods. The weights
+     * of the path coordinates, the segments, the draw calls, the state changes and the gradients were
+     * measured on classes compiled from the icon template.
+     */
+    public long getEstimatedBytecodeSize() {
+        return 100L * methodCount + 6 * segmentCount + (7 * coordinateCount) / 2 + 18L * drawCallCount + 10L * stateChangeCount + 120L * gradientCount;
+    }
+}
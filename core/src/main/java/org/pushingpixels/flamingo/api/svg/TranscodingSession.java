@@ -0,0 +1,371 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.sax.SAXSource;
+import javax.xml.transform.sax.SAXTransformerFactory;
+import javax.xml.transform.sax.TransformerHandler;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+
+import org.apache.batik.bridge.BridgeContext;
+import org.apache.batik.bridge.DocumentLoader;
+import org.apache.batik.bridge.GVTBuilder;
+import org.apache.batik.bridge.UserAgentAdapter;
+import org.apache.batik.gvt.CompositeGraphicsNode;
+import org.apache.batik.gvt.GraphicsNode;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.Attributes;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.XMLFilterImpl;
+
+/**
+ * The objects reused by the transcodings of a worker: the XML parser factory,
+ * the compiled cleanup stylesheet, the user agent, the document loader and
+ * the GVT builder. The bridge context is bound to a single document in Batik,
+ * a new one is created for each file and disposed with the document once
+ * the file is transcoded.
+ *
+ * A session isn't thread safe, each worker thread uses its own session.
+ */
+public class TranscodingSession {
+
+    /** The factory of the parsers reading the SVG files. */
+    private final SAXParserFactory parserFactory;
+
+    /** The compiled stylesheet cleaning the SVG files before their loading. */
+    private final Templates cleanupStylesheet;
+
+    private final UserAgentAdapter userAgent = new UserAgentAdapter();
+
+    private final DocumentLoader loader = new DocumentLoader(userAgent);
+
+    private final GVTBuilder builder = new GVTBuilder();
+
+    /** The builder used when the document is released after the build. */
+    private final GVTBuilder detachingBuilder = new DetachingGVTBuilder();
+
+    /** The number of files loaded by the session. */
+    private int fileCount;
+
+    public TranscodingSession() {
+        parserFactory = SAXParserFactory.newInstance();
+        parserFactory.setNamespaceAware(true);
+
+        try (InputStream in = getClass().getResourceAsStream("/svg-cleanup.xsl")) {
+            cleanupStylesheet = TransformerFactory.newInstance().newTemplates(new StreamSource(in));
+        } catch (TransformerConfigurationException | IOException e) {
+            throw new IllegalStateException("Unable to load the SVG cleanup stylesheet", e);
+        }
+    }
+
+    /**
+     * Loads the specified SVG file and builds its GVT tree. The context returned
+     * must be released with {@link #release(BridgeContext)} once the file is transcoded.
+     *
+     * @param url the URL of the SVG file
+     * @return the bridge context holding the document and the GVT tree
+     */
+    public BridgeContext load(URL url) throws Exception {
+        return load(url, clean(url));
+    }
+
+    /**
+     * Loads the SVG content already cleaned by the stylesheet and builds its GVT tree.
+     *
+     * @param url     the URL of the SVG file, used to resolve the relative references
+     * @param content the content returned by {@link #clean(URL)}
+     */
+    BridgeContext load(URL url, InputStream content) throws Exception {
+        return load(url, content, null);
+    }
+
+    /**
+     * Loads the SVG content already cleaned by the stylesheet and builds its GVT tree.
+     *
+     * @param url     the URL of the SVG file, used to resolve the relative references
+     * @param content the content returned by {@link #clean(URL)}
+     * @param metrics the metrics receiving the time spent parsing the document and building the tree, or null.
+     *                The parsing and the build are also recorded by Java Flight Recorder
+     */
+    BridgeContext load(URL url, InputStream content, TranscodingMetrics metrics) throws Exception {
+        return load(url, content, metrics, false);
+    }
+
+    /**
+     * Loads the SVG content already cleaned by the stylesheet and builds its GVT tree.
+     *
+     * @param url     the URL of the SVG file, used to resolve the relative references
+     * @param content the content returned by {@link #clean(URL)}
+     * @param metrics the metrics receiving the time spent parsing the document and building the tree, or null.
+     *                The parsing and the build are also recorded by Java Flight Recorder
+     * @param detach  true to release the document as soon as the tree is built, the context returned
+     *                holds the tree and the size of the document only
+     */
+    BridgeContext load(URL url, InputStream content, TranscodingMetrics metrics, boolean detach) throws Exception {
+        BridgeContext context = new BridgeContext(userAgent, loader);
+        context.setDynamicState(detach ? BridgeContext.STATIC : BridgeContext.DYNAMIC);
+        userAgent.setBridgeContext(context);
+
+        try {
+            TranscodingEvents events = TranscodingEvents.get();
+            
+            long start = System.nanoTime();
+            Object event = events.begin(TranscodingMetrics.Stage.PARSE);
+            Document document = loader.loadDocument(url.toString(), content);
+            long parsed = System.nanoTime();
+            if (metrics != null) {
+                metrics.addTime(TranscodingMetrics.Stage.PARSE, parsed - start);
+            }
+            events.commit(event, metrics);
+            
+            event = events.begin(TranscodingMetrics.Stage.BUILD);
+            GraphicsNode root = (detach ? detachingBuilder : builder).build(context, document);
+            if (detach) {
+                BridgeContext detached = new DetachedBridgeContext(url.toString(), root, context.getDocumentSize());
+                release(context);
+                context = detached;
+            }
+            if (metrics != null) {
+                metrics.addTime(TranscodingMetrics.Stage.BUILD, System.nanoTime() - parsed);
+            }
+            events.commit(event, metrics);
+            fileCount++;
+            return context;
+        } catch (Exception | Error e) {
+            release(context);
+            throw e;
+        }
+    }
+
+    /**
+     * Releases the document and the GVT tree of a file loaded by this session.
+     */
+    public void release(BridgeContext context) {
+        context.dispose();
+        loader.dispose();
+        userAgent.setBridgeContext(null);
+    }
+
+    /**
+     * Returns the number of files loaded by this session.
+     */
+    public int getFileCount() {
+        return fileCount;
+    }
+
+    /**
+     * Returns the filtered image content. The metadata are removed from
+     * the document to prevent illegal elements from breaking the parsing.
+     * (For example several KDE icons have unrecognized RDF elements)
+     */
+    InputStream clean(URL url) throws Exception {
+        return clean(url, false);
+    }
+
+    /**
+     * Returns the filtered image content.
+     *
+     * @param url   the URL of the SVG file
+     * @param spill true to write the content into a temporary file instead of the heap. The document
+     *              is then filtered on the fly, the stylesheet would hold the whole document in memory.
+     *              The file is deleted when the stream returned is closed
+     */
+    InputStream clean(URL url, boolean spill) throws Exception {
+        XMLReader reader = parserFactory.newSAXParser().getXMLReader();
+        reader.setEntityResolver(new EntityResolver() {
+            public InputSource resolveEntity(String pid, String sid) throws SAXException {
+                return new InputSource(new StringReader(""));
+            }
+        });
+
+        if (!spill) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            try (InputStream in = openStream(url)) {
+                SAXSource source = new SAXSource(reader, new InputSource(in));
+                cleanupStylesheet.newTransformer().transform(source, new StreamResult(buffer));
+            }
+            return new ByteArrayInputStream(buffer.toByteArray());
+        }
+
+        File file = TemporaryFiles.create(".svg");
+        try (InputStream in = openStream(url); OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+            TransformerHandler serializer = ((SAXTransformerFactory) TransformerFactory.newInstance()).newTransformerHandler();
+            serializer.getTransformer().setOutputProperty(OutputKeys.INDENT, "yes");
+            serializer.getTransformer().setOutputProperty(OutputKeys.STANDALONE, "yes");
+            serializer.setResult(new StreamResult(out));
+
+            XMLFilterImpl filter = new CleanupFilter();
+            filter.setParent(reader);
+            filter.setEntityResolver(reader.getEntityResolver());
+            filter.setContentHandler(serializer);
+            filter.parse(new InputSource(in));
+        } catch (Exception | Error e) {
+            file.delete();
+            throw e;
+        }
+        return TemporaryFiles.openStreamAndDelete(file);
+    }
+
+    private InputStream openStream(URL url) throws IOException {
+        return url.toString().endsWith(".svgz") ? new GZIPInputStream(url.openStream()) : url.openStream();
+    }
+
+    /**
+     * Streaming equivalent of the cleanup stylesheet, removing the metadata and
+     * midPointStop elements and attributes.
+     */
+    private static class CleanupFilter extends XMLFilterImpl {
+
+        /** The depth of the current element inside the element removed, 0 outside of a removed element. */
+        private int removedDepth;
+
+        private boolean isRemoved(String localName) {
+            return "metadata".equals(localName) || "midPointStop".equals(localName);
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+            if (removedDepth > 0 || isRemoved(localName)) {
+                removedDepth++;
+                return;
+            }
+
+            AttributesImpl kept = null;
+            for (int i = attributes.getLength() - 1; i >= 0; i--) {
+                if (isRemoved(attributes.getLocalName(i))) {
+                    if (kept == null) {
+                        kept = new AttributesImpl(attributes);
+                    }
+                    kept.removeAttribute(i);
+                }
+            }
+            super.startElement(uri, localName, qName, kept != null ? kept : attributes);
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            if (removedDepth > 0) {
+                removedDepth--;
+            } else {
+                super.endElement(uri, localName, qName);
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) throws SAXException {
+            if (removedDepth == 0) {
+                super.characters(ch, start, length);
+            }
+        }
+
+        @Override
+        public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+            if (removedDepth == 0) {
+                super.ignorableWhitespace(ch, start, length);
+            }
+        }
+
+        @Override
+        public void processingInstruction(String target, String data) throws SAXException {
+            if (removedDepth == 0) {
+                super.processingInstruction(target, data);
+            }
+        }
+    }
+
+    /**
+     * Builder removing the shapes from the document as soon as their graphics node is built,
+     * the geometry parsed by Batik isn't held by the document until the end of the build. The shapes
+     * with an id are kept since they may be referenced by a use element or a text path built later.
+     * The documents with style sheets keep all their shapes, the selectors matching the siblings
+     * of an element (rect + rect, :first-child) would no longer apply once the shapes are removed.
+     */
+    private static class DetachingGVTBuilder extends GVTBuilder {
+
+        private static final Set<String> SHAPES = new HashSet<>(Arrays.asList(
+                SVG_PATH_TAG, SVG_POLYGON_TAG, SVG_POLYLINE_TAG, SVG_RECT_TAG, SVG_CIRCLE_TAG, SVG_ELLIPSE_TAG, SVG_LINE_TAG));
+
+        /** Tells if the shapes of the document being built are removed. */
+        private boolean detachShapes;
+
+        @Override
+        public GraphicsNode build(BridgeContext ctx, Document document) {
+            detachShapes = !hasStyleSheets(document);
+            return super.build(ctx, document);
+        }
+
+        /**
+         * Tells if the document has style elements or xml-stylesheet processing instructions.
+         */
+        private boolean hasStyleSheets(Document document) {
+            for (Node node = document.getFirstChild(); node != null; node = node.getNextSibling()) {
+                if (node.getNodeType() == Node.PROCESSING_INSTRUCTION_NODE && "xml-stylesheet".equals(node.getNodeName())) {
+                    return true;
+                }
+            }
+            return document.getElementsByTagNameNS(SVG_NAMESPACE_URI, SVG_STYLE_TAG).getLength() > 0;
+        }
+
+        @Override
+        protected void buildComposite(BridgeContext ctx, Element e, CompositeGraphicsNode parentNode) {
+            if (!detachShapes) {
+                super.buildComposite(ctx, e, parentNode);
+                return;
+            }
+            
+            Node node = e.getFirstChild();
+            while (node != null) {
+                Node next = node.getNextSibling();
+                if (node.getNodeType() == Node.ELEMENT_NODE) {
+                    Element element = (Element) node;
+                    buildGraphicsNode(ctx, element, parentNode);
+                    if (SVG_NAMESPACE_URI.equals(element.getNamespaceURI()) && SHAPES.contains(element.getLocalName())
+                            && !element.hasAttributeNS(null, SVG_ID_ATTRIBUTE)) {
+                        e.removeChild(element);
+                    }
+                }
+                node = next;
+            }
+        }
+    }
+}
@@ -64,4 +64,19 @@ public class ColorTranscoder extends Transcoder<Color> {
             output.append("0x" + Integer.toHexString(color.getRGB()).toUpperCase());
         }
     }
+
+    /**
+     * Returns the value of the literal written for the specified color: the RGB components
+     * of the opaque colors, the ARGB components otherwise.
+     */
+    public int getValue(Color color) {
+        if (color.equals(Color.ORANGE)) {
+            // the literal written for orange
+            return 0x255c800;
+        } else if (color.getTransparency() == Transparency.OPAQUE) {
+            return color.getRGB() & 0xffffff;
+        } else {
+            return color.getRGB();
+        }
+    }
 }
@@ -28,10 +28,19 @@ public class DoubleTranscoder extends Transcoder<Double> {
 
     @Override
     public void transcode(Double d, PrintWriter output) {
+        output.append(String.valueOf(getValue(d)));
+    }
+
+    /**
+     * Returns the value of the literal written for the specified double.
+     *
+     * @return a Long if the double is an integer to 10^-6, the double otherwise
+     */
+    public Number getValue(double d) {
         if (Math.abs(Math.round(d) - d) < 0.000001) {
-            output.append(String.valueOf(Math.round(d)));
+            return Math.round(d);
         } else {
-            output.append(String.valueOf(d));
+            return d;
         }
     }
 }
@@ -28,10 +28,24 @@ public class FloatTranscoder extends Transcoder<Float> {
 
     @Override
     public void transcode(Float f, PrintWriter output) {
+        Number value = getValue(f);
+        if (value instanceof Float) {
+            output.append(String.valueOf(value) + "f");
+        } else {
+            output.append(String.valueOf(value));
+        }
+    }
+
+    /**
+     * Returns the value of the literal written for the specified float.
+     *
+     * @return an Integer if the float is an integer to 10^-6, the float otherwise
+     */
+    public Number getValue(float f) {
         if (Math.abs(Math.round(f) - f) < 0.000001) {
-            output.append(String.valueOf(Math.round(f)));
+            return Math.round(f);
         } else {
-            output.append(String.valueOf(f) + "f");
+            return f;
         }
     }
 }
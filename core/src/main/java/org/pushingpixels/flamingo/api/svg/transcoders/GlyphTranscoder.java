@@ -0,0 +1,73 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.pushingpixels.flamingo.api.svg.transcoders;
+
+import java.awt.Shape;
+import java.awt.geom.PathIterator;
+import java.io.PrintWriter;
+
+/**
+ * Transcodes the outline of a glyph into the statements building the path
+ * relatively to the position of the glyph, held by the variables x and y.
+ */
+public class GlyphTranscoder extends Transcoder<Shape> {
+
+    public static GlyphTranscoder INSTANCE = new GlyphTranscoder();
+
+    @Override
+    public void transcode(Shape outline, PrintWriter output) {
+        float[] coords = new float[6];
+        for (PathIterator pathIterator = outline.getPathIterator(null); !pathIterator.isDone(); pathIterator.next()) {
+            int type = pathIterator.currentSegment(coords);
+            switch (type) {
+                case PathIterator.SEG_CUBICTO:
+                    output.println("shape.curveTo(" + x(coords[0]) + ", " + y(coords[1]) + ", " + x(coords[2]) + ", " + y(coords[3]) + ", " + x(coords[4]) + ", " + y(coords[5]) + ");");
+                    break;
+                case PathIterator.SEG_QUADTO:
+                    output.println("shape.quadTo(" + x(coords[0]) + ", " + y(coords[1]) + ", " + x(coords[2]) + ", " + y(coords[3]) + ");");
+                    break;
+                case PathIterator.SEG_MOVETO:
+                    output.println("shape.moveTo(" + x(coords[0]) + ", " + y(coords[1]) + ");");
+                    break;
+                case PathIterator.SEG_LINETO:
+                    output.println("shape.lineTo(" + x(coords[0]) + ", " + y(coords[1]) + ");");
+                    break;
+                case PathIterator.SEG_CLOSE:
+                    output.println("shape.closePath();");
+                    break;
+            }
+        }
+    }
+
+    private String x(float offset) {
+        return offset("x", offset);
+    }
+
+    private String y(float offset) {
+        return offset("y", offset);
+    }
+
+    private String offset(String variable, float offset) {
+        if (offset == 0) {
+            return variable;
+        } else if (offset < 0) {
+            return variable + " - " + (-offset);
+        } else {
+            return variable + " + " + offset;
+        }
+    }
+}
@@ -24,7 +24,10 @@ import org.apache.batik.ext.awt.MultipleGradientPaint;
  */
 public abstract class MultipleGradientPaintTranscoder<P extends MultipleGradientPaint> extends Transcoder<P> {
 
-    protected String transcode(MultipleGradientPaint.CycleMethodEnum cycleMethod) {
+    /** The minimal difference between two consecutive fractions. */
+    static final float FRACTION_STEP = 0.00001f;
+
+    public String transcode(MultipleGradientPaint.CycleMethodEnum cycleMethod) {
         if (cycleMethod == MultipleGradientPaint.NO_CYCLE) {
             return "NO_CYCLE";
         } else if (cycleMethod == MultipleGradientPaint.REFLECT) {
@@ -36,7 +39,7 @@ public abstract class MultipleGradientPaintTranscoder<P extends MultipleGradient
         }
     }
 
-    protected String transcode(MultipleGradientPaint.ColorSpaceEnum colorSpace) {
+    public String transcode(MultipleGradientPaint.ColorSpaceEnum colorSpace) {
         if (colorSpace == MultipleGradientPaint.SRGB) {
             return "SRGB";
         } else if (colorSpace == MultipleGradientPaint.LINEAR_RGB) {
@@ -51,10 +54,9 @@ public abstract class MultipleGradientPaintTranscoder<P extends MultipleGradient
      *
      * @param fractions
      */
-    protected float[] normalizeFractions(float[] fractions) {
+    public float[] normalizeFractions(float[] fractions) {
         float[] values = new float[fractions.length];
         
-        float previousFraction = -1;
         for (int i = 0; i < fractions.length; i++) {
             float fraction = fractions[i];
             if (fraction < 0f || fraction > 1f) {
@@ -64,13 +66,20 @@ public abstract class MultipleGradientPaintTranscoder<P extends MultipleGradient
                 throw new IllegalArgumentException("Keyframe fractions must be non-decreasing: " + fraction);
             }
             
-            if (fraction == previousFraction) {
-                fraction = Math.nextAfter(fraction, Float.POSITIVE_INFINITY);
+            // the step between the fractions must survive the rounding of the transcoded values
+            if (i >= 1) {
+                fraction = Math.max(fraction, values[i - 1] + FRACTION_STEP);
             }
             
             values[i] = fraction;
-            
-            previousFraction = fraction;
+        }
+        
+        // the fractions pushed beyond 1 shift back the previous ones
+        if (values.length > 0 && values[values.length - 1] > 1f) {
+            values[values.length - 1] = 1f;
+            for (int i = values.length - 2; i >= 0 && values[i] > values[i + 1] - FRACTION_STEP; i--) {
+                values[i] = values[i + 1] - FRACTION_STEP;
+            }
         }
         
         return values;
@@ -32,7 +32,7 @@ public class RadialGradientPaintTranscoder extends MultipleGradientPaintTranscod
 
     @Override
     public void transcode(RadialGradientPaint paint, PrintWriter output) {
-        output.print("0x" + Integer.toHexString(paint.getColors()[0].getRGB()));
+        output.print("0x" + Integer.toHexString(getValue(paint)));
         /*StringBuilder colorsRep = new StringBuilder();
         if (paint.getFractions() == null) {
             colorsRep.append("null");
@@ -50,4 +50,11 @@ public class RadialGradientPaintTranscoder extends MultipleGradientPaintTranscod
                 transcode(paint.getColorSpace()),
                 AffineTransformTranscoder.INSTANCE.transcode(paint.getTransform()));*/
     }
+
+    /**
+     * Returns the value of the literal written for the specified paint, the first color of the gradient.
+     */
+    public int getValue(RadialGradientPaint paint) {
+        return paint.getColors()[0].getRGB();
+    }
 }
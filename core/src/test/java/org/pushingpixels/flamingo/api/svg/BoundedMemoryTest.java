@@ -0,0 +1,160 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class BoundedMemoryTest extends TestCase {
+
+    private static final String[] FILES = { "apache-feather.svg", "edit-copy.svg", "font-x-generic.svgz", "text.svg" };
+
+    private String transcode(String file, boolean boundedMemory) {
+        return transcode(getClass().getResource("/svg/" + file), boundedMemory);
+    }
+
+    private String transcode(URL url, boolean boundedMemory) {
+        StringWriter out = new StringWriter();
+
+        SvgTranscoder transcoder = new SvgTranscoder(url, "Test");
+        transcoder.setBoundedMemory(boundedMemory);
+        transcoder.setLevelsOfDetail(new int[] { 16 });
+        transcoder.setPrintWriter(new PrintWriter(out));
+        transcoder.transcode();
+
+        return out.toString();
+    }
+
+    public void testSameOutput() {
+        for (String file : FILES) {
+            String expected = transcode(file, false);
+            assertTrue("Empty transcoding of " + file, expected.contains("fillShape"));
+            assertEquals("Transcoding of " + file, expected, transcode(file, true));
+        }
+    }
+
+    /**
+     * Checks that the shapes released during the build don't change the style of their siblings.
+     */
+    public void testSiblingSelectors() throws Exception {
+        File svg = File.createTempFile("flamingo-svg-", ".svg");
+        try {
+            try (Writer out = new OutputStreamWriter(new FileOutputStream(svg), "UTF-8")) {
+                out.write("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"40\" height=\"10\">\n");
+                out.write("<style type=\"text/css\">rect { fill: #0000ff } rect + rect { fill: #ff0000 } circle:first-child { fill: #00ff00 }</style>\n");
+                out.write("<rect x=\"0\" width=\"10\" height=\"10\"/>\n");
+                out.write("<rect x=\"10\" width=\"10\" height=\"10\"/>\n");
+                out.write("<rect x=\"20\" width=\"10\" height=\"10\"/>\n");
+                out.write("<g><circle cx=\"35\" cy=\"5\" r=\"2\"/><circle cx=\"35\" cy=\"5\" r=\"1\"/></g>\n");
+                out.write("</svg>\n");
+            }
+            
+            String expected = transcode(svg.toURI().toURL(), false);
+            assertTrue("Sibling selector not applied:\n" + expected, expected.contains("g.setColor(0xff0000);"));
+            assertEquals(expected, transcode(svg.toURI().toURL(), true));
+        } finally {
+            svg.delete();
+        }
+    }
+
+    /**
+     * Transcodes a document of 100MB made of long paths in a JVM with a heap of 384MB.
+     */
+    public void testLargeDocument() throws Exception {
+        File dir = File.createTempFile("flamingo-svg-", "");
+        dir.delete();
+        dir.mkdir();
+        File svg = new File(dir, "large.svg");
+        File java = new File(dir, "large.java");
+
+        try {
+            generate(svg, 100 * 1024 * 1024);
+
+            ProcessBuilder builder = new ProcessBuilder(
+                    new File(System.getProperty("java.home"), "bin/java").getPath(), "-Xmx384m",
+                    "-cp", System.getProperty("java.class.path"),
+                    SvgBatchConverter.class.getName(), "-boundedmemory", dir.getPath(), "test");
+            builder.redirectErrorStream(true);
+            Process process = builder.start();
+
+            StringBuilder output = new StringBuilder();
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    output.append(line).append('\n');
+                }
+            }
+
+            assertEquals("Exit code, output:\n" + output, 0, process.waitFor());
+            assertFalse("Exception reported:\n" + output, output.toString().contains("Exception"));
+            assertTrue("Class not generated", java.length() > svg.length());
+            assertTrue("Class truncated", tail(java).trim().endsWith("}"));
+        } finally {
+            svg.delete();
+            java.delete();
+            dir.delete();
+        }
+    }
+
+    /**
+     * Writes a document of the specified size with paths of 2000 random line segments.
+     */
+    private void generate(File file, long size) throws IOException {
+        Random random = new Random(0);
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"))) {
+            out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            out.write("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"1000\" height=\"1000\">\n");
+            long length = 0;
+            while (length < size) {
+                StringBuilder path = new StringBuilder();
+                path.append("<path fill=\"#").append(String.format("%06x", random.nextInt(0x1000000)));
+                path.append("\" d=\"M").append(random.nextInt(1000)).append(' ').append(random.nextInt(1000));
+                for (int i = 0; i < 2000; i++) {
+                    path.append(" l").append(random.nextInt(9) - 4).append('.').append(random.nextInt(10));
+                    path.append(',').append(random.nextInt(9) - 4).append('.').append(random.nextInt(10));
+                }
+                path.append("z\"/>\n");
+                out.write(path.toString());
+                length += path.length();
+            }
+            out.write("</svg>\n");
+        }
+    }
+
+    private String tail(File file) throws IOException {
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            byte[] buffer = new byte[64];
+            in.seek(file.length() - buffer.length);
+            in.readFully(buffer);
+            return new String(buffer, "UTF-8");
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.tools.ToolProvider;
+
+import junit.framework.TestCase;
+
+public class ClassFileEmitterTest extends TestCase {
+
+    private static final String[] FILES = { "apache-feather.svg", "edit-copy.svg", "edit-cut.svg", "edit-paste.svg", "font-x-generic.svg", "text.svg", "empty.svg" };
+
+    private SvgTranscoder transcode(String file, Template template, ClassFileEmitter emitter, StringWriter out) {
+        SvgTranscoder transcoder = new SvgTranscoder(getClass().getResource("/svg/" + file), "Icon");
+        transcoder.setJavaPackageName("test");
+        transcoder.setTemplate(template);
+        transcoder.setGroupClipping(true);
+        transcoder.setLevelsOfDetail(new int[] {16});
+        transcoder.setClassFileEmitter(emitter);
+        transcoder.setMetrics(new TranscodingMetrics(file));
+        transcoder.setPrintWriter(new PrintWriter(out));
+        transcoder.transcode();
+        return transcoder;
+    }
+
+    private BufferedImage render(Map<String, byte[]> classes, int size, boolean clipped) throws Exception {
+        Class<?> cls = new InMemoryCompiler.CompiledClassLoader(classes, getClass().getClassLoader()).loadClass("test.Icon");
+        Method paint = cls.getDeclaredMethod("paint", Graphics2D.class);
+        paint.setAccessible(true);
+
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        if (clipped) {
+            g.clipRect(size / 4, size / 4, size / 2, size / 2);
+        }
+        paint.invoke(null, g);
+        g.dispose();
+        return image;
+    }
+
+    private void testTemplate(String name, String... files) throws Exception {
+        Template template = new Template(name);
+        ClassFileEmitter emitter = new ClassFileEmitter(template, System.getProperty("java.class.path"));
+
+        for (String file : files) {
+            SvgTranscoder transcoder = transcode(file, template, emitter, new StringWriter());
+            assertNull(file + ": " + transcoder.getClassFileError(), transcoder.getClassFileError());
+            Map<String, byte[]> emitted = transcoder.getClassFiles();
+            assertNotNull(file, emitted);
+            assertTrue(file, emitted.containsKey("test.Icon"));
+
+            StringWriter source = new StringWriter();
+            assertNull(transcode(file, template, null, source).getClassFiles());
+            Map<String, byte[]> compiled = new InMemoryCompiler().compile(Collections.singletonMap("test.Icon", source.toString()), null);
+            assertNotNull(file + " doesn't compile", compiled);
+
+            for (int size : new int[] {16, 64}) {
+                for (boolean clipped : new boolean[] {false, true}) {
+                    BufferedImage expected = render(compiled, size, clipped);
+                    BufferedImage actual = render(emitted, size, clipped);
+                    for (int y = 0; y < size; y++) {
+                        for (int x = 0; x < size; x++) {
+                            assertEquals(file + " at " + size + "px: pixel " + x + "," + y, expected.getRGB(x, y), actual.getRGB(x, y));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    public void testIconTemplate() throws Exception {
+        testTemplate("icon.template", FILES);
+    }
+
+    public void testResizableTemplate() throws Exception {
+        testTemplate("resizable.template", "edit-copy.svg", "text.svg");
+    }
+
+    public void testMethodSize() throws Exception {
+        Template template = new Template("icon.template");
+        SvgTranscoder transcoder = transcode("apache-feather.svg", template, new ClassFileEmitter(template, System.getProperty("java.class.path")), new StringWriter());
+
+        assertTrue("methods: " + transcoder.getMetrics().getMethodCount(), transcoder.getMetrics().getMethodCount() > 1);
+        Map<String, Integer> lengths = getCodeLengths(transcoder.getClassFiles().get("test.Icon"));
+        for (int i = 0; i < transcoder.getMetrics().getMethodCount(); i++) {
+            int length = lengths.get("paint" + i);
+            assertTrue("paint" + i + ": " + length + " bytes", length <= ClassFileEmitter.METHOD_SIZE_LIMIT);
+            if (i < transcoder.getMetrics().getMethodCount() - 1) {
+                assertTrue("paint" + i + ": " + length + " bytes", length > ClassFileEmitter.METHOD_SIZE_LIMIT - 1000);
+            }
+        }
+    }
+
+    public void testClassVersion() throws Exception {
+        Template template = new Template("icon.template");
+        SvgTranscoder transcoder = transcode("edit-copy.svg", template, new ClassFileEmitter(template, System.getProperty("java.class.path")), new StringWriter());
+
+        for (Map.Entry<String, byte[]> cls : transcoder.getClassFiles().entrySet()) {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(cls.getValue()));
+            in.skipBytes(6);
+            assertEquals("major version of " + cls.getKey(), 44 + ClassFileEmitter.getRelease(ToolProvider.getSystemJavaCompiler()), in.readUnsignedShort());
+        }
+    }
+
+    public void testRelease() {
+        int release = ClassFileEmitter.getRelease(ToolProvider.getSystemJavaCompiler());
+        String version = System.getProperty("java.specification.version");
+        int javaVersion = Integer.parseInt(version.startsWith("1.") ? version.substring(2) : version);
+
+        // the release 7 is supported up to Java 19, a later release is chosen by the compilers above
+        if (javaVersion < 20) {
+            assertEquals(7, release);
+        } else {
+            assertTrue("release " + release, release >= 8 && release <= javaVersion);
+        }
+    }
+
+    public void testSourceFallback() throws Exception {
+        Template template = new Template("icon.template");
+        StringWriter out = new StringWriter();
+
+        SvgTranscoder transcoder = new SvgTranscoder(getClass().getResource("/svg/text.svg"), "Icon");
+        transcoder.setTemplate(template);
+        transcoder.setGlyphOutlineCache(new GlyphOutlineCache());
+        transcoder.setClassFileEmitter(new ClassFileEmitter(template, System.getProperty("java.class.path")));
+        transcoder.setPrintWriter(new PrintWriter(out));
+        transcoder.transcode();
+
+        assertNull(transcoder.getClassFiles());
+        assertNotNull(transcoder.getClassFileError());
+        assertTrue(out.toString().contains("class Icon"));
+    }
+
+    /**
+     * Returns the size in bytes of the code of the methods of a class.
+     */
+    private static Map<String, Integer> getCodeLengths(byte[] bytecode) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytecode));
+        in.skipBytes(8);
+        int count = in.readUnsignedShort();
+        String[] strings = new String[count];
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            if (tag == 1) {
+                strings[i] = in.readUTF();
+            } else if (tag == 5 || tag == 6) {
+                in.skipBytes(8);
+                i++;
+            } else {
+                in.skipBytes(tag == 7 || tag == 8 || tag == 16 || tag == 19 || tag == 20 ? 2 : tag == 15 ? 3 : 4);
+            }
+        }
+        in.skipBytes(6);
+        in.skipBytes(2 * in.readUnsignedShort());
+
+        Map<String, Integer> lengths = new LinkedHashMap<>();
+        for (int member = 0; member < 2; member++) {
+            int memberCount = in.readUnsignedShort();
+            for (int i = 0; i < memberCount; i++) {
+                in.skipBytes(2);
+                String name = strings[in.readUnsignedShort()];
+                in.skipBytes(2);
+                int attributeCount = in.readUnsignedShort();
+                for (int j = 0; j < attributeCount; j++) {
+                    String attribute = strings[in.readUnsignedShort()];
+                    int length = in.readInt();
+                    if (attribute.equals("Code")) {
+                        in.skipBytes(4);
+                        lengths.put(name, in.readInt());
+                        in.skipBytes(length - 8);
+                    } else {
+                        in.skipBytes(length);
+                    }
+                }
+            }
+        }
+        return lengths;
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+public class CompilationCheckTest extends TestCase {
+
+    private static String source(String className, String body) {
+        return "package test; public class " + className + " { " + body + " }";
+    }
+
+    public void testCheck() throws Exception {
+        CompilationCheck check = new CompilationCheck(System.getProperty("java.class.path"), 2, 2);
+        check.add("test.Valid1", source("Valid1", "int x = 1;"));
+        check.add("test.Broken", source("Broken", "int x = \"1\";"));
+        check.add("test.Valid2", source("Valid2", "java.awt.Color color = java.awt.Color.RED;"));
+        check.add("test.Missing", source("Missing", "com.codename1.ui.Image image;"));
+        check.add("test.Valid3", source("Valid3", ""));
+
+        Map<String, List<String>> failures = check.finish();
+        assertEquals("failures", 2, failures.size());
+        assertEquals("[test.Broken, test.Missing]", failures.keySet().toString());
+        assertTrue(failures.get("test.Broken").toString(), failures.get("test.Broken").get(0).startsWith("line 1: "));
+    }
+
+    public void testManyErrors() throws Exception {
+        // more errors than reported by the compiler
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 150; i++) {
+            body.append("int x").append(i).append(" = \"").append(i).append("\";");
+        }
+
+        CompilationCheck check = new CompilationCheck(System.getProperty("java.class.path"), 1, CompilationCheck.DEFAULT_BATCH_SIZE);
+        check.add("test.Broken", source("Broken", body.toString()));
+        check.add("test.Broken2", source("Broken2", "int x = \"1\";"));
+        check.add("test.Valid", source("Valid", ""));
+
+        Map<String, List<String>> failures = check.finish();
+        assertEquals("[test.Broken, test.Broken2]", failures.keySet().toString());
+    }
+}
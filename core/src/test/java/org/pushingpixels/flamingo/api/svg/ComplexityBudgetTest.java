@@ -0,0 +1,80 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+public class ComplexityBudgetTest extends TestCase {
+
+    private TranscodingMetrics transcode(String file, int... levelsOfDetail) {
+        TranscodingMetrics metrics = new TranscodingMetrics(file);
+
+        SvgTranscoder transcoder = new SvgTranscoder(getClass().getResource("/svg/" + file), "Icon");
+        transcoder.setMetrics(metrics);
+        transcoder.setLevelsOfDetail(levelsOfDetail);
+        transcoder.setPrintWriter(new PrintWriter(new StringWriter()));
+        transcoder.transcode();
+
+        return metrics;
+    }
+
+    public void testCounts() {
+        TranscodingMetrics metrics = transcode("edit-copy.svg");
+
+        assertEquals(19, metrics.getDrawCallCount());
+        assertTrue(metrics.getStateChangeCount() > 0);
+        assertEquals(6, metrics.getGradientCount());
+        assertTrue(metrics.getEstimatedBytecodeSize() > 0);
+    }
+
+    public void testLevelsOfDetail() {
+        TranscodingMetrics metrics = transcode("edit-copy.svg");
+        TranscodingMetrics variants = transcode("edit-copy.svg", 16, 32);
+
+        // only the full detail variant is counted
+        assertEquals(metrics.getDrawCallCount(), variants.getDrawCallCount());
+        assertEquals(metrics.getStateChangeCount(), variants.getStateChangeCount());
+        assertEquals(metrics.getGradientCount(), variants.getGradientCount());
+        assertEquals(metrics.getSegmentCount(), variants.getSegmentCount());
+        assertEquals(metrics.getShapeCount(), variants.getShapeCount());
+        assertTrue(variants.getLineCount() > metrics.getLineCount());
+    }
+
+    public void testCheck() {
+        TranscodingMetrics metrics = transcode("edit-copy.svg");
+
+        assertTrue(ComplexityBudget.parse("segments=10000,drawcalls=500,statechanges=1000,bytecode=65536,gradients=20").check(metrics).isEmpty());
+
+        List<String> violations = ComplexityBudget.parse("segments=10, gradients=2").check(metrics);
+        assertEquals(violations.toString(), 2, violations.size());
+        assertTrue(violations.get(0), violations.get(0).endsWith("path segments > 10"));
+        assertEquals("6 gradients > 2", violations.get(1));
+    }
+
+    public void testInvalidLimit() {
+        try {
+            ComplexityBudget.parse("colors=3");
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
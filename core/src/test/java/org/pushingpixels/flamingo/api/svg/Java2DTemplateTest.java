@@ -0,0 +1,85 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Map;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaFileObject;
+
+import junit.framework.TestCase;
+
+public class Java2DTemplateTest extends TestCase {
+
+    private static final String[] FILES = { "apache-feather.svg", "edit-copy.svg", "edit-cut.svg", "edit-paste.svg", "font-x-generic.svg", "text.svg" };
+
+    private Class<?> compile(String file, Template template) throws Exception {
+        StringWriter out = new StringWriter();
+
+        SvgTranscoder transcoder = new SvgTranscoder(getClass().getResource("/svg/" + file), "Icon");
+        transcoder.setJavaPackageName("test");
+        transcoder.setTemplate(template);
+        transcoder.setPrintWriter(new PrintWriter(out));
+        transcoder.transcode();
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        Map<String, byte[]> classes = new InMemoryCompiler().compile(Collections.singletonMap("test.Icon", out.toString()), diagnostics);
+        assertNotNull(file + " doesn't compile: " + diagnostics.getDiagnostics(), classes);
+
+        return new InMemoryCompiler.CompiledClassLoader(classes, getClass().getClassLoader()).loadClass("test.Icon");
+    }
+
+    private void testTemplate(String name) throws Exception {
+        Template template = new Template(name);
+
+        for (String file : FILES) {
+            Method paint = compile(file, template).getDeclaredMethod("paint", Graphics2D.class);
+            paint.setAccessible(true);
+
+            BufferedImage image = new BufferedImage(64, 64, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = image.createGraphics();
+            paint.invoke(null, g);
+            g.dispose();
+
+            assertTrue("Nothing painted for " + file, isPainted(image));
+        }
+    }
+
+    private boolean isPainted(BufferedImage image) {
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                if (image.getRGB(x, y) != 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public void testIconTemplate() throws Exception {
+        testTemplate("icon.template");
+    }
+
+    public void testResizableTemplate() throws Exception {
+        testTemplate("resizable.template");
+    }
+}
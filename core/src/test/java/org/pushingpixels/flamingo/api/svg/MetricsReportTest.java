@@ -0,0 +1,77 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+public class MetricsReportTest extends TestCase {
+
+    private TranscodingMetrics transcode(String file) throws Exception {
+        StringWriter out = new StringWriter();
+        TranscodingMetrics metrics = new TranscodingMetrics(file);
+
+        SvgTranscoder transcoder = new SvgTranscoder(getClass().getResource("/svg/" + file), "Icon");
+        transcoder.setMetrics(metrics);
+        transcoder.setPrintWriter(new PrintWriter(out));
+        transcoder.transcode();
+
+        assertEquals("lines", out.toString().split("\n", -1).length - 1, metrics.getLineCount());
+        assertEquals("bytes", out.toString().getBytes(StandardCharsets.UTF_8).length, metrics.getByteCount());
+
+        return metrics;
+    }
+
+    public void testMetrics() throws Exception {
+        TranscodingMetrics metrics = transcode("edit-copy.svg");
+
+        assertNull(metrics.getError());
+        assertTrue(metrics.getNodeCount() > 0);
+        assertTrue(metrics.getShapeCount() > 0);
+        assertTrue(metrics.getSegmentCount() > 0);
+        assertEquals(0, metrics.getGlyphCount());
+        assertTrue(metrics.getMethodCount() > 0);
+        for (TranscodingMetrics.Stage stage : TranscodingMetrics.Stage.values()) {
+            assertTrue(stage + " not timed", stage == TranscodingMetrics.Stage.TUNE || metrics.getTime(stage) > 0);
+        }
+
+        assertTrue("glyphs", transcode("text.svg").getGlyphCount() > 0);
+    }
+
+    public void testReport() throws Exception {
+        File file = File.createTempFile("metrics", ".csv");
+        file.deleteOnExit();
+
+        MetricsReport report = new MetricsReport(file);
+        report.write(transcode("edit-copy.svg"));
+        report.write(transcode("edit-cut.svg"));
+        report.close();
+
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        assertEquals(4, lines.size());
+        assertTrue(lines.get(0).startsWith("file,total_ms,"));
+        assertTrue(lines.get(1).startsWith("\"edit-copy.svg\","));
+        assertTrue(lines.get(3).startsWith("TOTAL,"));
+        assertTrue(report.getSummary(), report.getSummary().startsWith("2 files in "));
+    }
+}
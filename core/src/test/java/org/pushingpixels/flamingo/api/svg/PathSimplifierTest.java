@@ -0,0 +1,164 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.awt.geom.GeneralPath;
+import java.awt.geom.Line2D;
+import java.awt.geom.PathIterator;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+public class PathSimplifierTest extends TestCase {
+
+    private String toString(GeneralPath path) {
+        StringBuilder builder = new StringBuilder();
+        float[] coords = new float[6];
+        for (PathIterator iterator = path.getPathIterator(null); !iterator.isDone(); iterator.next()) {
+            switch (iterator.currentSegment(coords)) {
+                case PathIterator.SEG_MOVETO:
+                    builder.append("M").append(coords[0]).append(",").append(coords[1]).append(" ");
+                    break;
+                case PathIterator.SEG_LINETO:
+                    builder.append("L").append(coords[0]).append(",").append(coords[1]).append(" ");
+                    break;
+                case PathIterator.SEG_QUADTO:
+                    builder.append("Q").append(coords[0]).append(",").append(coords[1]).append(",").append(coords[2]).append(",").append(coords[3]).append(" ");
+                    break;
+                case PathIterator.SEG_CUBICTO:
+                    builder.append("C").append(coords[0]).append(",").append(coords[1]).append(",").append(coords[2]).append(",").append(coords[3]).append(",").append(coords[4]).append(",").append(coords[5]).append(" ");
+                    break;
+                case PathIterator.SEG_CLOSE:
+                    builder.append("Z");
+                    break;
+            }
+        }
+        return builder.toString().trim();
+    }
+
+    public void testCollinearLines() {
+        GeneralPath path = new GeneralPath();
+        path.moveTo(0, 0);
+        path.lineTo(1, 0.01f);
+        path.lineTo(2, 0);
+        path.lineTo(3, -0.01f);
+        path.lineTo(4, 0);
+        path.lineTo(4, 4);
+
+        PathSimplifier simplifier = new PathSimplifier(0.1f);
+        assertEquals("M0.0,0.0 L4.0,0.0 L4.0,4.0", toString(simplifier.simplify(path)));
+        assertEquals(6, simplifier.getInputSegmentCount());
+        assertEquals(3, simplifier.getOutputSegmentCount());
+    }
+
+    public void testZeroLengthSegments() {
+        GeneralPath path = new GeneralPath();
+        path.moveTo(0, 0);
+        path.lineTo(0, 0);
+        path.lineTo(5, 5);
+        path.curveTo(5, 5, 5, 5, 5, 5);
+        path.lineTo(5, 5);
+
+        assertEquals("M0.0,0.0 L5.0,5.0", toString(new PathSimplifier(0.01f).simplify(path)));
+    }
+
+    public void testCloseMergedWithLastLine() {
+        GeneralPath path = new GeneralPath();
+        path.moveTo(0, 0);
+        path.lineTo(10, 0);
+        path.lineTo(10, 10);
+        path.lineTo(0, 0);
+        path.closePath();
+
+        assertEquals("M0.0,0.0 L10.0,0.0 L10.0,10.0 Z", toString(new PathSimplifier(0.01f).simplify(path)));
+    }
+
+    public void testConsecutiveMoves() {
+        GeneralPath path = new GeneralPath();
+        path.moveTo(0, 0);
+        path.moveTo(1, 1);
+        path.lineTo(2, 3);
+        path.moveTo(4, 4);
+
+        assertEquals("M1.0,1.0 L2.0,3.0", toString(new PathSimplifier(0.01f).simplify(path)));
+    }
+
+    public void testFlatCurves() {
+        GeneralPath path = new GeneralPath();
+        path.moveTo(0, 0);
+        path.quadTo(5, 0.001f, 10, 0);
+        path.curveTo(12, 0, 15, 0.001f, 20, 0);
+
+        assertEquals("M0.0,0.0 L20.0,0.0", toString(new PathSimplifier(0.01f).simplify(path)));
+    }
+
+    public void testCubicDegreeReduction() {
+        // cubic elevation of the quadratic curve (0,0) (10,20) (20,0)
+        GeneralPath path = new GeneralPath();
+        path.moveTo(0, 0);
+        path.curveTo(20 / 3f, 40 / 3f, 40 / 3f, 40 / 3f, 20, 0);
+
+        assertEquals("M0.0,0.0 Q10.0,20.0,20.0,0.0", toString(new PathSimplifier(0.01f).simplify(path)));
+    }
+
+    public void testCurvesPreserved() {
+        GeneralPath path = new GeneralPath();
+        path.moveTo(0, 0);
+        path.curveTo(0, 10, 20, 10, 20, 0);
+
+        assertEquals("M0.0,0.0 C0.0,10.0,20.0,10.0,20.0,0.0", toString(new PathSimplifier(0.01f).simplify(path)));
+    }
+
+    /**
+     * Returns the segments of the path flattened finely.
+     */
+    private List<Line2D> flatten(GeneralPath path) {
+        List<Line2D> lines = new ArrayList<Line2D>();
+        float[] coords = new float[6];
+        float x = 0;
+        float y = 0;
+        for (PathIterator iterator = path.getPathIterator(null, 0.0001); !iterator.isDone(); iterator.next()) {
+            int type = iterator.currentSegment(coords);
+            if (type == PathIterator.SEG_LINETO) {
+                lines.add(new Line2D.Float(x, y, coords[0], coords[1]));
+            }
+            x = coords[0];
+            y = coords[1];
+        }
+        return lines;
+    }
+
+    public void testToleranceBound() {
+        // two flat curves bulging below their chords, joined by a point dropped by the Douglas-Peucker algorithm
+        GeneralPath path = new GeneralPath();
+        path.moveTo(0, 0);
+        path.curveTo(10 / 3f, -0.129f, 20 / 3f, -0.159f, 10, -0.09f);
+        path.curveTo(40 / 3f, -0.159f, 50 / 3f, -0.129f, 20, 0);
+
+        float tolerance = 0.1f;
+        GeneralPath simplified = new PathSimplifier(tolerance).simplify(path);
+        List<Line2D> lines = flatten(simplified);
+        for (Line2D original : flatten(path)) {
+            double distance = Double.MAX_VALUE;
+            for (Line2D line : lines) {
+                distance = Math.min(distance, line.ptSegDist(original.getP2()));
+            }
+            assertTrue("distance " + distance + " exceeds the tolerance at " + original.getP2(), distance <= tolerance + 0.0001);
+        }
+    }
+}
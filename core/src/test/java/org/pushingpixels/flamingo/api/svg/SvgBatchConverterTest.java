@@ -0,0 +1,128 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import junit.framework.TestCase;
+
+public class SvgBatchConverterTest extends TestCase {
+
+    private void copy(String name, File file) throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/svg/" + name)) {
+            Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private String waitForClass(File file, String previousContent) throws Exception {
+        for (int i = 0; i < 200; i++) {
+            if (file.exists()) {
+                String content = new String(Files.readAllBytes(file.toPath()), "UTF-8");
+                if (content.trim().endsWith("}") && !content.equals(previousContent)) {
+                    return content;
+                }
+            }
+            Thread.sleep(50);
+        }
+        fail("The class " + file.getName() + " wasn't generated");
+        return null;
+    }
+
+    public void testCompilationCheckIgnoresStaleSources() throws Exception {
+        File dir = Files.createTempDirectory("flamingo-svg-").toFile();
+        File classes = new File(dir, "classes");
+        copy("edit-copy.svg", new File(dir, "icon.svg"));
+        Files.write(new File(dir, "icon.java").toPath(), "package test; class icon { broken".getBytes("UTF-8"));
+        Files.write(new File(dir, "stale.java").toPath(), "package test; class stale { broken".getBytes("UTF-8"));
+
+        try {
+            String classpath = System.getProperty("java.class.path");
+            SvgBatchConverter converter = new SvgBatchConverter();
+            converter.parseOption(new String[] { "-template", "icon" }, 0);
+            converter.setPackageName("test");
+            converter.setClassOutput(new ClassFileOutput(classes), classpath);
+            converter.convertDirectory(dir, null);
+
+            // the class files are emitted, the source left by a previous conversion isn't compiled
+            assertEquals(0, converter.checkCompilation(classpath));
+
+            converter = new SvgBatchConverter();
+            converter.parseOption(new String[] { "-template", "icon" }, 0);
+            converter.setPackageName("test");
+            converter.convertDirectory(dir, null);
+
+            assertTrue(new String(Files.readAllBytes(new File(dir, "icon.java").toPath()), "UTF-8").contains("class icon"));
+            assertEquals(0, converter.checkCompilation(classpath));
+        } finally {
+            delete(dir);
+        }
+    }
+
+    private void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    public void testWatch() throws Exception {
+        final File dir = Files.createTempDirectory("flamingo-svg-").toFile();
+        File svg = new File(dir, "icon.svg");
+        File java = new File(dir, "icon.java");
+        copy("edit-copy.svg", svg);
+
+        Thread watcher = new Thread() {
+            public void run() {
+                try {
+                    SvgBatchConverter.main("-watch", dir.getPath(), "test");
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+        watcher.start();
+
+        try {
+            String content = waitForClass(java, null);
+            assertTrue(content.contains("class icon"));
+
+            copy("edit-cut.svg", svg);
+            String updatedContent = waitForClass(java, content);
+            assertTrue(updatedContent.contains("class icon"));
+
+            copy("edit-paste.svg", new File(dir, "paste.svg"));
+            assertTrue(waitForClass(new File(dir, "paste.java"), null).contains("class paste"));
+        } finally {
+            watcher.interrupt();
+            watcher.join(10000);
+            assertFalse("The watch mode wasn't stopped", watcher.isAlive());
+
+            for (File file : dir.listFiles()) {
+                file.delete();
+            }
+            dir.delete();
+        }
+    }
+}
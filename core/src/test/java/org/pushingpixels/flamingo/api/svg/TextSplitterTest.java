@@ -0,0 +1,45 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.pushingpixels.flamingo.api.svg;
+
+import junit.framework.TestCase;
+
+public class TextSplitterTest extends TestCase {
+
+    public void testInsert() {
+        String content = "a\nb\n\nc\nd\n\ne\n";
+
+        assertEquals("a\nb\n---1\nc\nd\n---2\ne\n", TextSplitter.insert(content, "---${count}", 2));
+        assertEquals(content, TextSplitter.insert(content, "---${count}", 10));
+    }
+
+    public void testInsertInsideBlocks() {
+        String content = "  if (a) {\n  b\n\n  if (c) {\n  d\n\n  e\n  }\n  }\n";
+
+        String expected = "  if (a) {\n  b\n\n  if (c) {\n  d\n"
+                + "  }\n  }\n---1\n  if (a) {\n  if (c) {\n"
+                + "  e\n  }\n  }\n";
+
+        assertEquals(expected, TextSplitter.insert(content, "---${count}", 4));
+    }
+
+    public void testInsertAfterCommentedBlockEnd() {
+        String content = "  if (a) {\n  b\n  } // a\n\n  c\n\n  d\n";
+
+        assertEquals("  if (a) {\n  b\n  } // a\n---1\n  c\n\n  d\n", TextSplitter.insert(content, "---${count}", 3));
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+public class TranscodingDaemonTest extends TestCase {
+
+    private File dir;
+
+    private File file;
+
+    private TranscodingDaemon daemon;
+
+    protected void setUp() throws Exception {
+        dir = Files.createTempDirectory("flamingo-svg-").toFile();
+        file = new File(dir, "daemon.properties");
+        try (InputStream in = getClass().getResourceAsStream("/svg/edit-copy.svg")) {
+            Files.copy(in, new File(dir, "edit-copy.svg").toPath());
+        }
+    }
+
+    protected void tearDown() throws Exception {
+        if (daemon != null) {
+            daemon.stop();
+        }
+        for (File f : dir.listFiles()) {
+            f.delete();
+        }
+        dir.delete();
+    }
+
+    private String transcodeLocally(File svg) throws IOException {
+        StringWriter out = new StringWriter();
+        SvgTranscoder transcoder = new SvgTranscoder(svg.toURI().toURL(), "EditCopy");
+        transcoder.setJavaPackageName("test");
+        transcoder.setCullInvisibleNodes(true);
+        transcoder.setPrintWriter(new PrintWriter(out));
+        transcoder.transcode();
+        return out.toString();
+    }
+
+    public void testTranscode() throws Exception {
+        daemon = new TranscodingDaemon(1, 0, file);
+        daemon.start(0);
+
+        DaemonClient client = DaemonClient.find(file);
+        assertNotNull("Daemon not found", client);
+        assertEquals("ok", client.getHealth().getProperty("status"));
+
+        File svg = new File(dir, "edit-copy.svg");
+        File target = new File(dir, "EditCopy.java");
+        DaemonClient.Request request = new DaemonClient.Request("test", Arrays.asList("-cull", "-budget", "segments=10"));
+        request.add(svg, target, "EditCopy");
+        request.add(new File(dir, "missing.svg"), new File(dir, "Missing.java"), "Missing");
+        DaemonClient.Response response = client.transcode(request);
+
+        assertNull(response.getError(0));
+        assertEquals(transcodeLocally(svg), new String(Files.readAllBytes(target.toPath()), "UTF-8"));
+        assertTrue(response.getLog(0), response.getLog(0).contains("Complexity of edit-copy.svg"));
+        assertEquals(1, response.getBudgetViolations(0).size());
+        assertTrue(response.getMetrics(0).getSegmentCount() > 10);
+        assertNotNull("Error expected for a missing file", response.getMetrics(1).getError());
+
+        assertEquals("1", client.getHealth().getProperty("requests"));
+        assertEquals("2", client.getHealth().getProperty("files"));
+        assertEquals("1", client.getHealth().getProperty("failures"));
+
+        client.shutdown();
+        daemon.awaitStop();
+        assertFalse("Daemon file not deleted", file.exists());
+        assertNull(DaemonClient.find(file));
+    }
+
+    public void testInvalidToken() throws Exception {
+        daemon = new TranscodingDaemon(1, 0, file);
+        daemon.start(0);
+
+        DaemonClient client = new DaemonClient("127.0.0.1", daemon.getPort(), "foo");
+        try {
+            client.shutdown();
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("403"));
+        }
+        assertTrue(daemon.isRunning());
+    }
+
+    public void testIdleShutdown() throws Exception {
+        daemon = new TranscodingDaemon(1, 200, file);
+        daemon.start(0);
+        assertTrue(file.exists());
+
+        for (int i = 0; i < 100 && daemon.isRunning(); i++) {
+            Thread.sleep(50);
+        }
+        assertFalse("Daemon still running", daemon.isRunning());
+        assertFalse("Daemon file not deleted", file.exists());
+    }
+
+    public void testBatchConverter() throws Exception {
+        String userHome = System.getProperty("user.home");
+        System.setProperty("user.home", dir.getPath());
+        try {
+            daemon = new TranscodingDaemon(1, 0, DaemonClient.getDefaultFile());
+            daemon.start(0);
+
+            SvgBatchConverter.main("-daemon", dir.getPath(), "test");
+
+            assertTrue(new File(dir, "edit_copy.java").exists());
+            assertEquals("1", DaemonClient.find(DaemonClient.getDefaultFile()).getHealth().getProperty("files"));
+
+            daemon.stop();
+        } finally {
+            System.setProperty("user.home", userHome);
+            new File(dir, ".flamingo-svg-transcoder").delete();
+        }
+    }
+}
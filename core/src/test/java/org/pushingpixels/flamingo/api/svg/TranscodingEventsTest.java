@@ -0,0 +1,66 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import junit.framework.TestCase;
+
+public class TranscodingEventsTest extends TestCase {
+
+    public void testEvents() throws Exception {
+        File file = File.createTempFile("transcoding", ".jfr");
+        file.deleteOnExit();
+
+        SvgTranscoder transcoder;
+        try (Recording recording = new Recording()) {
+            for (String name : new String[] { "Transcode", "Clean", "Parse", "Build", "Emit", "Write" }) {
+                recording.enable("org.pushingpixels.flamingo.svg." + name);
+            }
+            recording.start();
+
+            transcoder = new SvgTranscoder(getClass().getResource("/svg/edit-copy.svg"), "Icon");
+            transcoder.setPrintWriter(new PrintWriter(new StringWriter()));
+            transcoder.transcode();
+
+            recording.stop();
+            recording.dump(file.toPath());
+        }
+
+        Map<String, RecordedEvent> events = new HashMap<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file.toPath())) {
+            events.put(event.getEventType().getName().substring("org.pushingpixels.flamingo.svg.".length()), event);
+        }
+
+        assertEquals(events.keySet().toString(), 6, events.size());
+        for (RecordedEvent event : events.values()) {
+            assertEquals("edit-copy.svg", event.getString("file"));
+        }
+        assertTrue(events.get("Emit").getLong("segments") > 0);
+        assertTrue(events.get("Write").getLong("bytes") > 0);
+        assertEquals(events.get("Write").getLong("bytes"), events.get("Transcode").getLong("bytes"));
+        assertNull(events.get("Transcode").getString("error"));
+        assertNull("metrics kept after the transcoding", transcoder.getMetrics());
+    }
+}
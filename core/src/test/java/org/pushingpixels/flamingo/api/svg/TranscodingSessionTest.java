@@ -0,0 +1,86 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.URL;
+
+import junit.framework.TestCase;
+import org.apache.batik.bridge.BridgeContext;
+
+public class TranscodingSessionTest extends TestCase {
+
+    private String transcode(String name, TranscodingSession session) {
+        URL url = getClass().getResource("/svg/" + name);
+        StringWriter out = new StringWriter();
+
+        SvgTranscoder transcoder = new SvgTranscoder(url, "Test");
+        transcoder.setSession(session);
+        transcoder.setPrintWriter(new PrintWriter(out));
+        transcoder.transcode();
+
+        return out.toString();
+    }
+
+    public void testReuse() {
+        TranscodingSession session = new TranscodingSession();
+
+        String[] files = { "edit-copy.svg", "font-x-generic.svgz", "text.svg", "edit-copy.svg" };
+        for (String file : files) {
+            String expected = transcode(file, null);
+            assertTrue("Empty transcoding of " + file, expected.contains("fillShape"));
+            assertEquals("Transcoding of " + file, expected, transcode(file, session));
+        }
+
+        assertEquals(files.length, session.getFileCount());
+    }
+
+    private String transcode(SvgTranscoder transcoder, BridgeContext context, Template template, String className) throws Exception {
+        StringWriter out = new StringWriter();
+        transcoder.setTemplate(template);
+        transcoder.setJavaClassName(className);
+        transcoder.setPrintWriter(new PrintWriter(out));
+        transcoder.transcode(context);
+        return out.toString();
+    }
+
+    public void testCachedPaintingCode() throws Exception {
+        URL url = getClass().getResource("/svg/edit-cut.svg");
+        TranscodingSession session = new TranscodingSession();
+        BridgeContext context = session.load(url);
+        try {
+            SvgTranscoder cached = new SvgTranscoder(url, "Test");
+            cached.setPaintingCodeCached(true);
+
+            Template[] templates = { new Template("icon.template"), new Template("plain.template"), new Template("icon.template") };
+            for (int i = 0; i < templates.length; i++) {
+                String expected = transcode(new SvgTranscoder(url, "Test"), context, templates[i], "Test" + i);
+                assertEquals("Transcoding " + i, expected, transcode(cached, context, templates[i], "Test" + i));
+            }
+
+            // the painting code is generated again once the settings change
+            SvgTranscoder simplified = new SvgTranscoder(url, "Test");
+            simplified.setSimplificationTolerance(0.5f);
+            cached.setSimplificationTolerance(0.5f);
+            String expected = transcode(simplified, context, templates[0], "Test");
+            assertEquals("Simplified transcoding", expected, transcode(cached, context, templates[0], "Test"));
+        } finally {
+            session.release(context);
+        }
+    }
+}
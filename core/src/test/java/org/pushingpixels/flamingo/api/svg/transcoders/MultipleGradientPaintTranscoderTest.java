@@ -0,0 +1,90 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.pushingpixels.flamingo.api.svg.transcoders;
+
+import java.awt.Color;
+import java.awt.LinearGradientPaint;
+
+import junit.framework.TestCase;
+
+public class MultipleGradientPaintTranscoderTest extends TestCase {
+
+    /**
+     * Normalizes the fractions and checks that the transcoded values are accepted by a Java2D gradient.
+     */
+    private float[] normalize(float... fractions) {
+        float[] values = LinearGradientPaintTranscoder.INSTANCE.normalizeFractions(fractions);
+        assertEquals("length", fractions.length, values.length);
+        
+        float[] transcoded = new float[values.length];
+        for (int i = 0; i < values.length; i++) {
+            transcoded[i] = Float.parseFloat(FloatTranscoder.INSTANCE.transcode(values[i]).replace("f", ""));
+            assertTrue("fraction " + i + " out of range: " + transcoded[i], transcoded[i] >= 0f && transcoded[i] <= 1f);
+            assertTrue("fraction " + i + " not increasing: " + transcoded[i], i == 0 || transcoded[i] > transcoded[i - 1]);
+        }
+        
+        Color[] colors = new Color[values.length];
+        for (int i = 0; i < colors.length; i++) {
+            colors[i] = Color.BLACK;
+        }
+        new LinearGradientPaint(0, 0, 10, 10, transcoded, colors);
+        
+        return values;
+    }
+
+    public void testIncreasingFractions() {
+        float[] values = normalize(0f, 0.25f, 0.5f, 1f);
+        assertEquals(0f, values[0]);
+        assertEquals(0.25f, values[1]);
+        assertEquals(0.5f, values[2]);
+        assertEquals(1f, values[3]);
+    }
+
+    public void testEqualFractions() {
+        float[] values = normalize(0f, 0.5f, 0.5f, 1f);
+        assertEquals(0.5f, values[1]);
+        assertEquals(0.5f + MultipleGradientPaintTranscoder.FRACTION_STEP, values[2]);
+    }
+
+    public void testRunOfEqualFractions() {
+        normalize(0.5f, 0.5f, 0.5f, 0.5f);
+        normalize(0f, 0f, 0f, 1f);
+    }
+
+    public void testFractionsCloserThanTheStep() {
+        normalize(0.5f, 0.5f, 0.500005f);
+        normalize(0.2f, 0.200001f, 0.200002f, 0.200003f);
+    }
+
+    public void testEqualFractionsAtOne() {
+        float[] values = normalize(1f, 1f, 1f);
+        assertEquals(1f, values[2]);
+        
+        normalize(0f, 1f, 1f);
+        normalize(0f, 0.99999f, 1f, 1f, 1f);
+    }
+
+    public void testInvalidFractions() {
+        try {
+            normalize(0.5f, 0.2f);
+            fail("No exception thrown on decreasing fractions");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,407 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.pushingpixels.flamingo.api.svg.gui;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.File;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+
+import org.apache.batik.bridge.BridgeContext;
+import org.pushingpixels.flamingo.api.svg.NamingStrategy;
+import org.pushingpixels.flamingo.api.svg.SvgTranscoder;
+import org.pushingpixels.flamingo.api.svg.Template;
+import org.pushingpixels.flamingo.api.svg.TranscodingSession;
+
+/**
+ * The queue of the SVG images converted in the background by a pool of worker threads,
+ * each with its own transcoding session. The queue is the model of the table displaying
+ * the status of each image.
+ * 
+ * The workers only update the state of the entries, the table is refreshed by a timer
+ * on the event dispatch thread, 4 times per second at most, to keep the user interface
+ * responsive whatever the number of images converted per second.
+ */
+class ConversionQueue extends AbstractTableModel {
+
+    /** The delay between two refreshes of the table, in milliseconds. */
+    private static final int REFRESH_DELAY = 250;
+
+    private static final String[] COLUMNS = { "File", "Class", "Status", "Time", "Error" };
+
+    /**
+     * The status of an image in the queue.
+     */
+    enum Status {
+        QUEUED("Queued", 0),
+        LOADING("Loading", 20),
+        GENERATING("Generating", 60),
+        DONE("Done", 100),
+        FAILED("Failed", 100),
+        CANCELLED("Cancelled", 0);
+
+        private final String label;
+
+        /** The progress of the conversion reached when entering this status, in percents. */
+        private final int progress;
+
+        Status(String label, int progress) {
+            this.label = label;
+            this.progress = progress;
+        }
+
+        boolean isFinished() {
+            return this == DONE || this == FAILED || this == CANCELLED;
+        }
+
+        int getProgress() {
+            return progress;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    /**
+     * An image of the queue, with the settings selected when it was added.
+     */
+    static class Entry {
+        final File file;
+        final Template template;
+        final String className;
+
+        volatile Status status = Status.QUEUED;
+
+        /** The time spent converting the image, in nanoseconds. */
+        volatile long time;
+
+        volatile String error;
+
+        /** Set when the conversion is cancelled, the worker stops at the end of the current stage. */
+        volatile boolean cancelled;
+
+        Future<?> future;
+
+        Entry(File file, Template template, NamingStrategy namingStrategy) {
+            this.file = file;
+            this.template = template;
+            this.className = namingStrategy.getClassName(file);
+        }
+
+        File getTarget() {
+            return new File(file.getParentFile(), className + ".java");
+        }
+    }
+
+    /** The entries displayed, accessed on the event dispatch thread only. */
+    private final List<Entry> entries = new ArrayList<>();
+
+    private final ExecutorService workers;
+
+    /** The sessions of the worker threads. */
+    private final ThreadLocal<TranscodingSession> sessions = new ThreadLocal<TranscodingSession>() {
+        @Override
+        protected TranscodingSession initialValue() {
+            return new TranscodingSession();
+        }
+    };
+
+    /** Set by the workers when an entry changes, cleared by the next refresh of the table. */
+    private final AtomicBoolean changed = new AtomicBoolean();
+
+    /** The number of entries not finished. */
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    /** The number of entries converted or failed since the queue was last idle. */
+    private final AtomicInteger batchCount = new AtomicInteger();
+
+    /** The start of the current batch, in nanoseconds. */
+    private volatile long batchStart;
+
+    private final Timer refreshTimer;
+
+    /**
+     * Creates a queue converting the images with the specified number of threads.
+     */
+    ConversionQueue(int threadCount) {
+        workers = Executors.newFixedThreadPool(threadCount, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "flamingo-svg-converter-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                // leave the priority to the event dispatch thread
+                thread.setPriority(Thread.NORM_PRIORITY - 1);
+                return thread;
+            }
+        });
+
+        refreshTimer = new Timer(REFRESH_DELAY, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent event) {
+                refresh();
+            }
+        });
+    }
+
+    /**
+     * Adds an image to the queue. Must be called on the event dispatch thread.
+     * 
+     * @param file           the SVG image
+     * @param template       the template of the class generated
+     * @param namingStrategy the naming strategy of the class generated
+     */
+    void add(File file, Template template, NamingStrategy namingStrategy) {
+        addAll(Collections.singletonList(file), template, namingStrategy);
+    }
+
+    /**
+     * Adds several images to the queue. Must be called on the event dispatch thread.
+     * 
+     * @param files          the SVG images
+     * @param template       the template of the classes generated
+     * @param namingStrategy the naming strategy of the classes generated
+     */
+    void addAll(List<File> files, Template template, NamingStrategy namingStrategy) {
+        if (files.isEmpty()) {
+            return;
+        }
+
+        int firstRow = entries.size();
+        for (File file : files) {
+            final Entry entry = new Entry(file, template, namingStrategy);
+            entries.add(entry);
+
+            if (pendingCount.getAndIncrement() == 0) {
+                batchStart = System.nanoTime();
+                batchCount.set(0);
+            }
+
+            entry.future = workers.submit(new Runnable() {
+                @Override
+                public void run() {
+                    convert(entry);
+                }
+            });
+        }
+        fireTableRowsInserted(firstRow, entries.size() - 1);
+        refreshTimer.start();
+    }
+
+    /**
+     * Converts an image, on a worker thread.
+     */
+    private void convert(Entry entry) {
+        long start = System.nanoTime();
+        if (entry.cancelled) {
+            finish(entry, Status.CANCELLED, null, start);
+            return;
+        }
+
+        TranscodingSession session = sessions.get();
+        BridgeContext context = null;
+        File target = entry.getTarget();
+        try {
+            update(entry, Status.LOADING);
+            context = session.load(entry.file.toURI().toURL());
+
+            if (entry.cancelled) {
+                finish(entry, Status.CANCELLED, null, start);
+                return;
+            }
+
+            update(entry, Status.GENERATING);
+            SvgTranscoder transcoder = new SvgTranscoder(entry.file.toURI().toURL(), entry.className);
+            transcoder.setTemplate(entry.template);
+            try (PrintWriter out = new PrintWriter(target)) {
+                transcoder.setPrintWriter(out);
+                transcoder.transcode(context);
+            }
+
+            finish(entry, Status.DONE, null, start);
+        } catch (Exception e) {
+            target.delete();
+            finish(entry, Status.FAILED, e.getMessage() != null ? e.getMessage() : e.toString(), start);
+        } finally {
+            if (context != null) {
+                session.release(context);
+            }
+        }
+    }
+
+    private void update(Entry entry, Status status) {
+        entry.status = status;
+        changed.set(true);
+    }
+
+    private void finish(Entry entry, Status status, String error, long start) {
+        entry.time = System.nanoTime() - start;
+        entry.error = error;
+        entry.status = status;
+        if (status != Status.CANCELLED) {
+            batchCount.incrementAndGet();
+        }
+        // the change is flagged before the count decreases, the last refresh can't miss it
+        changed.set(true);
+        pendingCount.decrementAndGet();
+    }
+
+    /**
+     * Cancels the conversion of the entries at the specified rows, or of all
+     * the entries if no row is specified. The images being converted are
+     * cancelled at the end of their current stage.
+     */
+    void cancel(int... rows) {
+        if (rows.length == 0) {
+            for (Entry entry : entries) {
+                cancel(entry);
+            }
+        } else {
+            for (int row : rows) {
+                cancel(entries.get(row));
+            }
+        }
+        refresh();
+    }
+
+    private void cancel(Entry entry) {
+        if (entry.status.isFinished() || entry.cancelled) {
+            return;
+        }
+
+        entry.cancelled = true;
+        if (entry.future.cancel(false)) {
+            // the worker never started the conversion
+            entry.status = Status.CANCELLED;
+            changed.set(true);
+            pendingCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Removes the finished entries from the queue.
+     */
+    void clearFinished() {
+        for (int row = entries.size() - 1; row >= 0; row--) {
+            if (entries.get(row).status.isFinished()) {
+                entries.remove(row);
+                fireTableRowsDeleted(row, row);
+            }
+        }
+    }
+
+    /**
+     * Refreshes the table if an entry changed since the last refresh, and stops the timer once the queue is idle.
+     */
+    private void refresh() {
+        int pending = pendingCount.get();
+        if (changed.getAndSet(false) && !entries.isEmpty()) {
+            fireTableRowsUpdated(0, entries.size() - 1);
+        }
+        if (pending == 0) {
+            refreshTimer.stop();
+        }
+    }
+
+    Entry getEntry(int row) {
+        return entries.get(row);
+    }
+
+    /**
+     * Returns the status of the queue: the number of images pending, converted and failed,
+     * and the number of images converted per second since the queue was last idle.
+     */
+    String getSummary() {
+        int pending = pendingCount.get();
+        int done = 0;
+        int failed = 0;
+        for (Entry entry : entries) {
+            if (entry.status == Status.DONE) {
+                done++;
+            } else if (entry.status == Status.FAILED) {
+                failed++;
+            }
+        }
+
+        StringBuilder summary = new StringBuilder();
+        summary.append(pending).append(" pending, ").append(done).append(" converted, ").append(failed).append(" failed");
+        if (pending > 0 && batchCount.get() > 0) {
+            double seconds = (System.nanoTime() - batchStart) / 1e9;
+            summary.append(String.format(", %.1f images/s", batchCount.get() / seconds));
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Stops the workers, the images being converted are abandoned.
+     */
+    void shutdown() {
+        refreshTimer.stop();
+        workers.shutdownNow();
+    }
+
+    @Override
+    public int getRowCount() {
+        return entries.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return column == 2 ? Entry.class : String.class;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Entry entry = entries.get(row);
+        switch (column) {
+            case 0:
+                return entry.file.getName();
+            case 1:
+                return entry.className;
+            case 2:
+                return entry;
+            case 3:
+                return entry.status == Status.DONE || entry.status == Status.FAILED ? entry.time / 1000000 + " ms" : "";
+            default:
+                return entry.error != null ? entry.error : "";
+        }
+    }
+}
@@ -0,0 +1,359 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.pushingpixels.flamingo.api.svg.gui;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.Method;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaFileObject;
+
+import org.apache.batik.bridge.BridgeContext;
+import org.apache.batik.gvt.CompositeGraphicsNode;
+import org.apache.batik.gvt.GraphicsNode;
+import org.pushingpixels.flamingo.api.svg.InMemoryCompiler;
+import org.pushingpixels.flamingo.api.svg.SvgTranscoder;
+import org.pushingpixels.flamingo.api.svg.Template;
+import org.pushingpixels.flamingo.api.svg.TranscodingSession;
+
+/**
+ * Profiles the painting code generated for an SVG image. The class generated
+ * is compiled in memory and rendered repeatedly with Java2D, and the time spent
+ * painting each node of the image is measured by marks inserted into the painting
+ * code after the comment identifying each node (<tt>// _0_1_2</tt> for the third
+ * child of the second child of the first child of the root).
+ * 
+ * The class is generated with the Swing icon template whatever the template
+ * selected, the painting code being the same for all the templates and the
+ * icon template being the one rendered with Java2D without other dependency.
+ */
+public class PaintProfiler {
+
+    /** The name of the class generated and profiled. */
+    private static final String CLASS_NAME = "ProfiledImage";
+
+    /** The comment preceding the painting code of a node. */
+    private static final Pattern NODE_COMMENT = Pattern.compile("^(\\s*)// ((?:_\\d+)+)$");
+
+    /** The statements adding a segment to the current path. */
+    private static final Pattern SEGMENT = Pattern.compile("^\\s*\\(\\(GeneralPath\\) shape\\)\\.(moveTo|lineTo|quadTo|curveTo|closePath)\\(");
+
+    /** The time spent warming up the painting code before the measures, in milliseconds. */
+    private static final long WARMUP_TIME = 300;
+
+    /** The time spent measuring the renderings, in milliseconds. */
+    private static final long MEASURE_TIME = 1000;
+
+    /** The profiler of the current thread, or null if the thread isn't profiling. */
+    private static final ThreadLocal<PaintProfiler> current = new ThreadLocal<>();
+
+    /**
+     * The cost of painting a node of the image.
+     */
+    static class NodeCost {
+        /** The identifier of the node in the comments of the painting code, or an empty string for the root. */
+        final String node;
+
+        /** The bounds of the node in the image rendered, or null if the node has no bounds. */
+        Rectangle2D bounds;
+
+        /** The average time spent painting the node, its children excluded, in nanoseconds. */
+        long selfTime;
+
+        /** The average time spent painting the node and its children, in nanoseconds. */
+        long totalTime;
+
+        /** The number of path segments of the node, its children excluded. */
+        int segmentCount;
+
+        /** The number of path segments of the node and of its children. */
+        int totalSegmentCount;
+
+        /** The time accumulated by the renderings measured, in nanoseconds. */
+        long time;
+
+        NodeCost(String node) {
+            this.node = node;
+        }
+    }
+
+    /**
+     * The result of the profiling of an image at a given size.
+     */
+    static class Profile {
+        int size;
+
+        /** The last rendering of the image. */
+        BufferedImage image;
+
+        /** The cost of the nodes, by decreasing total time. */
+        List<NodeCost> nodes;
+
+        /** The number of renderings measured. */
+        int renderCount;
+
+        /** The average and the minimum time of a rendering, in nanoseconds. */
+        long averageTime;
+        long minimumTime;
+
+        /** The time spent compiling the class generated, in nanoseconds. */
+        long compileTime;
+
+        long segmentCount;
+    }
+
+    /** The cost of the nodes by identifier, in the order of the painting code. */
+    private final Map<String, NodeCost> nodes = new LinkedHashMap<>();
+
+    /** The node being painted. */
+    private NodeCost node;
+
+    /** The time the painting of the current node started, in nanoseconds. */
+    private long start;
+
+    /**
+     * Marks the start of the painting of a node. Called by the instrumented painting code.
+     * 
+     * @param node the identifier of the node
+     */
+    public static void mark(String node) {
+        PaintProfiler profiler = current.get();
+        if (profiler != null) {
+            profiler.enter(node);
+        }
+    }
+
+    private void enter(String node) {
+        long now = System.nanoTime();
+        if (this.node != null) {
+            this.node.time += now - start;
+        }
+        this.node = node != null ? getNodeCost(node) : null;
+        this.start = System.nanoTime();
+    }
+
+    /**
+     * Generates, compiles and renders the image at the specified size.
+     * 
+     * @param url     the URL of the SVG image
+     * @param session the session loading the image
+     * @param size    the size in pixels of the largest side of the image rendered
+     */
+    Profile profile(URL url, TranscodingSession session, int size) throws Exception {
+        Profile profile = new Profile();
+        profile.size = size;
+        nodes.clear();
+        getNodeCost("");
+
+        Method paint;
+        Rectangle2D bounds;
+        AffineTransform transform;
+        BridgeContext context = session.load(url);
+        try {
+            StringWriter out = new StringWriter();
+            SvgTranscoder transcoder = new SvgTranscoder(url, CLASS_NAME);
+            transcoder.setTemplate(new Template("icon.template"));
+            transcoder.setPrintWriter(new PrintWriter(out));
+            transcoder.transcode(context);
+
+            long compileStart = System.nanoTime();
+            paint = compile(instrument(out.toString()));
+            profile.compileTime = System.nanoTime() - compileStart;
+
+            GraphicsNode root = context.getGraphicsNode(context.getDocument());
+            bounds = root.getBounds();
+            if (bounds == null) {
+                bounds = new Rectangle2D.Double(0, 0, context.getDocumentSize().getWidth(), context.getDocumentSize().getHeight());
+            }
+            // the image is scaled to the size selected, and translated to paint its bounds only
+            double scale = size / Math.max(Math.ceil(bounds.getWidth()), Math.ceil(bounds.getHeight()));
+            transform = AffineTransform.getScaleInstance(scale, scale);
+            transform.translate(-bounds.getX(), -bounds.getY());
+            setBounds(root, "", transform);
+        } finally {
+            session.release(context);
+        }
+
+        int width = Math.max(1, (int) Math.ceil(bounds.getWidth() * transform.getScaleX()));
+        int height = Math.max(1, (int) Math.ceil(bounds.getHeight() * transform.getScaleY()));
+        profile.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+
+        // warm up the painting code before measuring it
+        long warmupEnd = System.nanoTime() + WARMUP_TIME * 1000000;
+        while (System.nanoTime() < warmupEnd) {
+            render(paint, profile.image, transform);
+        }
+        for (NodeCost cost : nodes.values()) {
+            cost.time = 0;
+        }
+
+        long total = 0;
+        long minimum = Long.MAX_VALUE;
+        long measureEnd = System.nanoTime() + MEASURE_TIME * 1000000;
+        while (profile.renderCount < 5 || System.nanoTime() < measureEnd) {
+            long time = render(paint, profile.image, transform);
+            total += time;
+            minimum = Math.min(minimum, time);
+            profile.renderCount++;
+        }
+        profile.averageTime = total / profile.renderCount;
+        profile.minimumTime = minimum;
+
+        for (NodeCost cost : new ArrayList<>(nodes.values())) {
+            cost.selfTime = cost.time / profile.renderCount;
+            // the time and the segments of the node are added to the totals of the node and of its ancestors
+            String ancestor = cost.node;
+            while (true) {
+                NodeCost ancestorCost = getNodeCost(ancestor);
+                ancestorCost.totalTime += cost.selfTime;
+                ancestorCost.totalSegmentCount += cost.segmentCount;
+                if (ancestor.isEmpty()) {
+                    break;
+                }
+                ancestor = ancestor.substring(0, ancestor.lastIndexOf('_'));
+            }
+        }
+
+        profile.nodes = new ArrayList<>(nodes.values());
+        for (NodeCost cost : profile.nodes) {
+            profile.segmentCount += cost.segmentCount;
+        }
+        Collections.sort(profile.nodes, new Comparator<NodeCost>() {
+            @Override
+            public int compare(NodeCost cost1, NodeCost cost2) {
+                return Long.compare(cost2.totalTime, cost1.totalTime);
+            }
+        });
+
+        return profile;
+    }
+
+    private NodeCost getNodeCost(String node) {
+        NodeCost cost = nodes.get(node);
+        if (cost == null) {
+            cost = new NodeCost(node);
+            nodes.put(node, cost);
+        }
+        return cost;
+    }
+
+    /**
+     * Inserts the marks after the comments identifying the nodes in the source generated,
+     * and counts the path segments of each node.
+     */
+    String instrument(String source) {
+        StringBuilder instrumented = new StringBuilder(source.length() * 11 / 10);
+        NodeCost cost = null;
+        for (String line : source.split("\n", -1)) {
+            instrumented.append(line).append('\n');
+
+            Matcher matcher = NODE_COMMENT.matcher(line);
+            if (matcher.matches()) {
+                cost = getNodeCost(matcher.group(2));
+                instrumented.append(matcher.group(1)).append(PaintProfiler.class.getName()).append(".mark(\"").append(cost.node).append("\");\n");
+            } else if (cost != null && SEGMENT.matcher(line).find()) {
+                cost.segmentCount++;
+            }
+        }
+        return instrumented.toString();
+    }
+
+    /**
+     * Compiles the instrumented class and returns its method painting on a Graphics2D.
+     */
+    private Method compile(String source) throws ReflectiveOperationException, URISyntaxException {
+        // the instrumented class references the profiler, wherever it's loaded from
+        String classpath = new File(PaintProfiler.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        Map<String, byte[]> classes = new InMemoryCompiler(classpath).compile(Collections.singletonMap(CLASS_NAME, source), diagnostics);
+        if (classes == null) {
+            throw new IllegalStateException("The class generated doesn't compile: " + diagnostics.getDiagnostics());
+        }
+
+        Class<?> cls = new InMemoryCompiler.CompiledClassLoader(classes, PaintProfiler.class.getClassLoader()).loadClass(CLASS_NAME);
+        Method paint = cls.getDeclaredMethod("paint", Graphics2D.class);
+        paint.setAccessible(true);
+        return paint;
+    }
+
+    /**
+     * Computes the bounds of the nodes painted in the image rendered.
+     * 
+     * @param node      the node
+     * @param id        the identifier of the node in the painting code
+     * @param transform the transform from the user space of the parent of the node to the image
+     */
+    private void setBounds(GraphicsNode node, String id, AffineTransform transform) {
+        NodeCost cost = nodes.get(id);
+        if (cost != null) {
+            cost.bounds = node.getTransformedBounds(transform);
+        }
+
+        if (node instanceof CompositeGraphicsNode) {
+            AffineTransform childTransform = new AffineTransform(transform);
+            if (node.getTransform() != null) {
+                childTransform.concatenate(node.getTransform());
+            }
+            List<?> children = ((CompositeGraphicsNode) node).getChildren();
+            for (int i = 0; i < children.size(); i++) {
+                setBounds((GraphicsNode) children.get(i), id + "_" + i, childTransform);
+            }
+        }
+    }
+
+    /**
+     * Renders the image and returns the time spent in nanoseconds.
+     */
+    private long render(Method paint, BufferedImage image, AffineTransform transform) throws ReflectiveOperationException {
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setComposite(AlphaComposite.Clear);
+            g.fillRect(0, 0, image.getWidth(), image.getHeight());
+            g.setComposite(AlphaComposite.SrcOver);
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.transform(transform);
+
+            current.set(this);
+            long renderStart = System.nanoTime();
+            enter("");
+            paint.invoke(null, g);
+            enter(null);
+            return System.nanoTime() - renderStart;
+        } finally {
+            current.remove();
+            g.dispose();
+        }
+    }
+}
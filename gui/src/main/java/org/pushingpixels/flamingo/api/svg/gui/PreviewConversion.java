@@ -0,0 +1,113 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.pushingpixels.flamingo.api.svg.gui;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.net.MalformedURLException;
+import java.net.URL;
+
+import org.apache.batik.bridge.BridgeContext;
+import org.pushingpixels.flamingo.api.svg.NamingStrategy;
+import org.pushingpixels.flamingo.api.svg.SvgTranscoder;
+import org.pushingpixels.flamingo.api.svg.Template;
+import org.pushingpixels.flamingo.api.svg.TranscodingSession;
+
+/**
+ * The conversion of the image previewed. The GVT tree of the image and the painting
+ * code generated are kept in memory, so that the class is generated again without
+ * parsing the image when the template or the naming strategy change. The image is
+ * parsed again once it's modified.
+ * 
+ * The conversion isn't thread safe, it's used by a single thread at a time.
+ */
+class PreviewConversion {
+
+    private final File file;
+
+    private final TranscodingSession session;
+
+    private final SvgTranscoder transcoder;
+
+    /** The context of the image loaded, or null if the image isn't loaded. */
+    private BridgeContext context;
+
+    /** The modification time of the image when it was last loaded, or 0 if it was never loaded. */
+    private volatile long lastModified;
+
+    /**
+     * @param file    the SVG image
+     * @param session the session loading the image
+     */
+    PreviewConversion(File file, TranscodingSession session) throws MalformedURLException {
+        this.file = file;
+        this.session = session;
+
+        URL url = file.toURI().toURL();
+        transcoder = new SvgTranscoder(url, null);
+        transcoder.setPaintingCodeCached(true);
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * Tells if the image was modified since it was last loaded, or since its loading failed.
+     */
+    boolean isModified() {
+        return lastModified != 0 && file.lastModified() != lastModified;
+    }
+
+    /**
+     * Generates the class of the image in the folder of the image, and loads the image first
+     * if it isn't loaded yet or if it was modified since.
+     * 
+     * @param template       the template of the class generated
+     * @param namingStrategy the naming strategy of the class generated
+     * @return the file receiving the class generated
+     */
+    File convert(Template template, NamingStrategy namingStrategy) throws Exception {
+        if (context == null || isModified()) {
+            release();
+            lastModified = file.lastModified();
+            context = session.load(file.toURI().toURL());
+        }
+
+        String className = namingStrategy.getClassName(file);
+        File target = new File(file.getParentFile(), className + ".java");
+
+        transcoder.setTemplate(template);
+        transcoder.setJavaClassName(className);
+        try (PrintWriter out = new PrintWriter(target)) {
+            transcoder.setPrintWriter(out);
+            transcoder.transcode(context);
+        }
+
+        return target;
+    }
+
+    /**
+     * Releases the image loaded.
+     */
+    void release() {
+        if (context != null) {
+            session.release(context);
+            context = null;
+        }
+    }
+}
@@ -0,0 +1,316 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.pushingpixels.flamingo.api.svg.gui;
+
+import java.awt.BasicStroke;
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JComboBox;
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JSplitPane;
+import javax.swing.JTable;
+import javax.swing.ListSelectionModel;
+import javax.swing.SwingWorker;
+import javax.swing.event.ListSelectionEvent;
+import javax.swing.event.ListSelectionListener;
+import javax.swing.table.AbstractTableModel;
+
+import net.miginfocom.swing.MigLayout;
+import org.pushingpixels.flamingo.api.svg.TranscodingSession;
+
+/**
+ * The panel profiling the painting code generated for the image previewed. The image
+ * is rendered at the size selected, with a heatmap of the time spent painting each
+ * node overlaid, and the nodes are listed by decreasing cost with the number of their path segments.
+ * The image is profiled when the panel is displayed, or when the size changes.
+ */
+class ProfilerPanel extends JPanel {
+
+    private static final Integer[] SIZES = { 16, 24, 32, 48, 64, 128, 256, 512 };
+
+    private static final String[] COLUMNS = { "Node", "Total (µs)", "Self (µs)", "Share", "Segments" };
+
+    private JComboBox<Integer> comboSizes = new JComboBox<>(SIZES);
+    private JCheckBox heatmapBox = new JCheckBox("Heatmap", true);
+    private JButton profileButton = new JButton("Profile");
+    private JLabel label = new JLabel();
+    private ImageView imageView = new ImageView();
+    private NodeTableModel nodeModel = new NodeTableModel();
+    private JTable nodeTable = new JTable(nodeModel);
+
+    /** The session loading the images, used by one profiling at a time. */
+    private TranscodingSession session;
+
+    /** The image profiled, or null if no image is previewed. */
+    private File file;
+
+    /** The last profile, or null if the image isn't profiled yet. */
+    private PaintProfiler.Profile profile;
+
+    /** Set when the profile doesn't match the image or the size selected. */
+    private boolean stale;
+
+    private boolean running;
+
+    ProfilerPanel() {
+        super(new BorderLayout());
+
+        comboSizes.setSelectedItem(64);
+        comboSizes.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent event) {
+                invalidateProfile();
+            }
+        });
+        heatmapBox.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent event) {
+                imageView.repaint();
+            }
+        });
+        profileButton.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent event) {
+                profile();
+            }
+        });
+
+        nodeTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        nodeTable.getSelectionModel().addListSelectionListener(new ListSelectionListener() {
+            public void valueChanged(ListSelectionEvent e) {
+                imageView.repaint();
+            }
+        });
+
+        JPanel toolbar = new JPanel(new MigLayout("ins 1r, fill", "[][]2u[]2u[grow][]"));
+        toolbar.add(new JLabel("Size:"), "right");
+        toolbar.add(comboSizes);
+        toolbar.add(heatmapBox);
+        toolbar.add(label, "growx");
+        toolbar.add(profileButton);
+
+        JSplitPane splitPane = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, imageView, new JScrollPane(nodeTable));
+        splitPane.setResizeWeight(0.5);
+
+        add(toolbar, BorderLayout.NORTH);
+        add(splitPane, BorderLayout.CENTER);
+
+        // the image is profiled once the panel is displayed
+        addHierarchyListener(new HierarchyListener() {
+            public void hierarchyChanged(HierarchyEvent e) {
+                if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0 && isShowing() && stale) {
+                    profile();
+                }
+            }
+        });
+    }
+
+    /**
+     * Sets the image profiled.
+     */
+    void setFile(File file) {
+        this.file = file;
+        invalidateProfile();
+    }
+
+    private void invalidateProfile() {
+        stale = true;
+        if (isShowing()) {
+            profile();
+        }
+    }
+
+    /**
+     * Profiles the image in the background, or once the current profiling completes.
+     */
+    private void profile() {
+        if (file == null) {
+            return;
+        }
+        stale = true;
+        if (running) {
+            return;
+        }
+
+        running = true;
+        stale = false;
+        profileButton.setEnabled(false);
+        label.setText("Profiling " + file.getName() + "...");
+
+        final File file = this.file;
+        final int size = (Integer) comboSizes.getSelectedItem();
+        new SwingWorker<PaintProfiler.Profile, Object>() {
+            @Override
+            protected PaintProfiler.Profile doInBackground() throws Exception {
+                if (session == null) {
+                    session = new TranscodingSession();
+                }
+                return new PaintProfiler().profile(file.toURI().toURL(), session, size);
+            }
+
+            @Override
+            protected void done() {
+                running = false;
+                profileButton.setEnabled(true);
+                try {
+                    setProfile(get());
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    setProfile(null);
+                    label.setText("Unable to profile " + file.getName() + ": " + cause.getMessage());
+                }
+
+                if (stale) {
+                    profile();
+                }
+            }
+        }.execute();
+    }
+
+    private void setProfile(PaintProfiler.Profile profile) {
+        this.profile = profile;
+        nodeModel.setNodes(profile != null ? profile.nodes : Collections.<PaintProfiler.NodeCost>emptyList());
+        imageView.repaint();
+        if (profile != null) {
+            label.setText(String.format("%d px: %.3f ms per rendering (min %.3f ms, %d renderings), %d segments, compiled in %d ms",
+                    profile.size, profile.averageTime / 1e6, profile.minimumTime / 1e6, profile.renderCount,
+                    profile.segmentCount, profile.compileTime / 1000000));
+        }
+    }
+
+    /**
+     * Displays the image rendered, enlarged to fill the component, with the heatmap.
+     */
+    private class ImageView extends JComponent {
+
+        /** The color of the nodes with the highest self time. */
+        private final Color hotColor = new Color(255, 0, 0);
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            if (profile == null) {
+                return;
+            }
+
+            Graphics2D g2d = (Graphics2D) g.create();
+            double zoom = Math.min((double) getWidth() / profile.image.getWidth(), (double) getHeight() / profile.image.getHeight());
+            int x = (int) (getWidth() - profile.image.getWidth() * zoom) / 2;
+            int y = (int) (getHeight() - profile.image.getHeight() * zoom) / 2;
+            g2d.translate(x, y);
+
+            AffineTransform zoomTransform = AffineTransform.getScaleInstance(zoom, zoom);
+            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+            g2d.drawImage(profile.image, zoomTransform, null);
+
+            if (heatmapBox.isSelected()) {
+                // the nodes are filled with an opacity proportional to their self time
+                long maxTime = 1;
+                for (PaintProfiler.NodeCost node : profile.nodes) {
+                    maxTime = Math.max(maxTime, node.selfTime);
+                }
+                for (PaintProfiler.NodeCost node : profile.nodes) {
+                    if (node.bounds != null && node.selfTime > 0) {
+                        int alpha = (int) (160 * node.selfTime / maxTime);
+                        g2d.setColor(new Color(hotColor.getRed(), hotColor.getGreen(), hotColor.getBlue(), alpha));
+                        g2d.fill(zoomTransform.createTransformedShape(node.bounds));
+                    }
+                }
+            }
+
+            int row = nodeTable.getSelectedRow();
+            if (row != -1) {
+                Rectangle2D bounds = nodeModel.getNode(row).bounds;
+                if (bounds != null) {
+                    g2d.setColor(Color.BLUE);
+                    g2d.setStroke(new BasicStroke(2));
+                    g2d.draw(zoomTransform.createTransformedShape(bounds));
+                }
+            }
+
+            g2d.dispose();
+        }
+    }
+
+    /**
+     * The nodes of the image profiled, by decreasing total time.
+     */
+    private class NodeTableModel extends AbstractTableModel {
+
+        private List<PaintProfiler.NodeCost> nodes = Collections.emptyList();
+
+        void setNodes(List<PaintProfiler.NodeCost> nodes) {
+            this.nodes = nodes;
+            fireTableDataChanged();
+        }
+
+        PaintProfiler.NodeCost getNode(int row) {
+            return nodes.get(row);
+        }
+
+        @Override
+        public int getRowCount() {
+            return nodes.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            return column == 0 || column == 3 ? String.class : Number.class;
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            PaintProfiler.NodeCost node = nodes.get(row);
+            switch (column) {
+                case 0:
+                    return node.node.isEmpty() ? "(root)" : node.node;
+                case 1:
+                    return node.totalTime / 1000;
+                case 2:
+                    return node.selfTime / 1000;
+                case 3:
+                    long total = nodes.get(0).totalTime;
+                    return total > 0 ? String.format("%.1f %%", 100.0 * node.totalTime / total) : "";
+                default:
+                    return node.totalSegmentCount;
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.pushingpixels.flamingo.api.svg.gui;
+
+import java.awt.Component;
+import javax.swing.JProgressBar;
+import javax.swing.JTable;
+import javax.swing.table.TableCellRenderer;
+
+/**
+ * TableCellRenderer displaying the status of an image of the conversion queue as a progress bar.
+ */
+class ProgressTableCellRenderer implements TableCellRenderer {
+
+    private final JProgressBar progressBar = new JProgressBar(0, 100);
+
+    ProgressTableCellRenderer() {
+        progressBar.setStringPainted(true);
+        progressBar.setBorderPainted(false);
+    }
+
+    @Override
+    public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
+        ConversionQueue.Entry entry = (ConversionQueue.Entry) value;
+        progressBar.setValue(entry.status.getProgress());
+        progressBar.setString(entry.status.toString());
+        progressBar.setToolTipText(entry.error);
+        return progressBar;
+    }
+}
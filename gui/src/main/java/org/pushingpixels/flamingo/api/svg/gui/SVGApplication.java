@@ -32,10 +32,13 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.File;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import javax.swing.DefaultComboBoxModel;
 import javax.swing.ImageIcon;
 import javax.swing.JButton;
@@ -45,10 +48,17 @@ import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JSplitPane;
+import javax.swing.JTabbedPane;
+import javax.swing.JTable;
 import javax.swing.SwingUtilities;
 import javax.swing.SwingWorker;
+import javax.swing.Timer;
 import javax.swing.UIManager;
 import javax.swing.WindowConstants;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
 import net.miginfocom.swing.MigLayout;
@@ -64,8 +74,8 @@ import org.pushingpixels.flamingo.api.svg.CamelCaseNamingStrategy;
 import org.pushingpixels.flamingo.api.svg.DefaultNamingStrategy;
 import org.pushingpixels.flamingo.api.svg.IconSuffixNamingStrategy;
 import org.pushingpixels.flamingo.api.svg.NamingStrategy;
-import org.pushingpixels.flamingo.api.svg.SvgTranscoder;
 import org.pushingpixels.flamingo.api.svg.Template;
+import org.pushingpixels.flamingo.api.svg.TranscodingSession;
 
 public class SVGApplication {
 
@@ -78,7 +88,7 @@ public class SVGApplication {
         SVGApplication app = new SVGApplication(frame);
         frame.getContentPane().add(app.createComponents());
         frame.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
-        frame.setSize(640, 480);
+        frame.setSize(800, 600);
         Dimension screen = Toolkit.getDefaultToolkit().getScreenSize();
         frame.setLocation((int) (screen.getWidth() - frame.getWidth()) / 2, (int) (screen.getHeight() - frame.getHeight()) / 2);
         frame.setVisible(true);
@@ -103,6 +113,42 @@ public class SVGApplication {
     private String lastDir;
     private JComboBox<Template> comboTemplates = new JComboBox<>();
     private JComboBox<NamingStrategy> comboNaming = new JComboBox<>();
+    private ConversionQueue queue = new ConversionQueue(Runtime.getRuntime().availableProcessors());
+    private JTable queueTable = new JTable(queue);
+    private JLabel queueLabel = new JLabel();
+    private ProfilerPanel profilerPanel = new ProfilerPanel();
+    private JTabbedPane tabbedPane = new JTabbedPane();
+    private ThumbnailBrowser thumbnailBrowser = new ThumbnailBrowser(new ThumbnailBrowser.Callback() {
+        public void convert(List<File> files) {
+            queue.addAll(files, (Template) comboTemplates.getSelectedItem(), (NamingStrategy) comboNaming.getSelectedItem());
+        }
+
+        public void preview(File file) {
+            SVGApplication.this.preview(file);
+            tabbedPane.setSelectedIndex(0);
+        }
+    });
+    
+    /** The conversion of the image previewed, or null if no image is previewed. */
+    private PreviewConversion preview;
+    
+    /** The session loading the image previewed. */
+    private TranscodingSession previewSession = new TranscodingSession();
+    
+    /** The thread converting the image previewed, the conversions are performed one at a time. */
+    private ExecutorService previewExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "flamingo-svg-preview");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+    
+    /** Tells if the image previewed is being converted. */
+    private boolean previewRunning;
+    
+    /** Tells if the image previewed must be converted again once the current conversion completes. */
+    private boolean previewStale;
 
     public SVGApplication(JFrame frame) {
         this.frame = frame;
@@ -111,7 +157,14 @@ public class SVGApplication {
     public JComponent createComponents() {
         JPanel panel = new JPanel(new BorderLayout());
         panel.add(createToolbar(), BorderLayout.NORTH);
-        panel.add(createCanvas(), BorderLayout.CENTER);
+        
+        tabbedPane.addTab("Preview", createCanvas());
+        tabbedPane.addTab("Profile", profilerPanel);
+        tabbedPane.addTab("Browse", thumbnailBrowser);
+        
+        JSplitPane splitPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT, tabbedPane, createQueue());
+        splitPane.setResizeWeight(0.7);
+        panel.add(splitPane, BorderLayout.CENTER);
         
         return panel;
     }
@@ -137,6 +190,30 @@ public class SVGApplication {
                 new DefaultNamingStrategy()
         }));
         comboNaming.setRenderer(new NamingStrategyListCellRenderer());
+        
+        // the image previewed is converted again when the settings change
+        ActionListener settingsListener = new ActionListener() {
+            public void actionPerformed(ActionEvent event) {
+                convertPreview();
+            }
+        };
+        comboTemplates.addActionListener(settingsListener);
+        comboNaming.addActionListener(settingsListener);
+        
+        // and when it's modified
+        new Timer(1000, new ActionListener() {
+            public void actionPerformed(ActionEvent event) {
+                if (preview != null && !previewRunning && preview.isModified()) {
+                    try {
+                        svgCanvas.setURI(preview.getFile().toURI().toURL().toString());
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                    profilerPanel.setFile(preview.getFile());
+                    convertPreview();
+                }
+            }
+        }).start();
 
         toolbar.add(new JLabel("Template:"), "right");
         toolbar.add(comboTemplates);
@@ -149,11 +226,12 @@ public class SVGApplication {
         button.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent event) {
                 JFileChooser chooser = new JFileChooser(lastDir);
-                chooser.setMultiSelectionEnabled(false);
+                chooser.setMultiSelectionEnabled(true);
+                chooser.setFileSelectionMode(JFileChooser.FILES_AND_DIRECTORIES);
                 chooser.setFileFilter(new FileNameExtensionFilter("SVG images", "svg", "svgz"));
                 int choice = chooser.showOpenDialog(button.getTopLevelAncestor());
-                if (choice == JFileChooser.APPROVE_OPTION && chooser.getSelectedFile().exists()) {
-                    transcode(chooser.getSelectedFile());
+                if (choice == JFileChooser.APPROVE_OPTION) {
+                    convert(Arrays.asList(chooser.getSelectedFiles()));
                 }
             }
         });
@@ -161,44 +239,183 @@ public class SVGApplication {
         return toolbar;
     }
 
-    private void transcode(final File file) {
-        lastDir = file.getParent();
+    /**
+     * Previews and converts the image if a single image is selected, browses the folder
+     * if a single folder is selected, otherwise adds the images selected to the conversion
+     * queue, with the images of the folders selected.
+     */
+    private void convert(final List<File> files) {
+        if (files.isEmpty()) {
+            return;
+        }
+        
+        File first = files.get(0);
+        lastDir = first.isDirectory() ? first.getPath() : first.getParent();
+        if (files.size() == 1 && isImage(first)) {
+            preview(first);
+            return;
+        }
+        if (files.size() == 1 && first.isDirectory()) {
+            thumbnailBrowser.setDirectory(first);
+            tabbedPane.setSelectedComponent(thumbnailBrowser);
+            return;
+        }
+        
+        final Template template = (Template) comboTemplates.getSelectedItem();
+        final NamingStrategy namingStrategy = (NamingStrategy) comboNaming.getSelectedItem();
+        
+        // the folders are listed in the background
+        new SwingWorker<List<File>, Object>() {
+            @Override
+            protected List<File> doInBackground() throws Exception {
+                List<File> images = new ArrayList<>();
+                for (File file : files) {
+                    listImages(file, images);
+                }
+                return images;
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    queue.addAll(get(), template, namingStrategy);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Previews the image and converts it.
+     */
+    private void preview(File file) {
         try {
             svgCanvas.setURI(file.toURI().toURL().toString());
             frame.setTitle(APPNAME + " - [" + file.getAbsolutePath() + "]");
+            profilerPanel.setFile(file);
+            
+            if (preview != null) {
+                final PreviewConversion previous = preview;
+                previewExecutor.execute(new Runnable() {
+                    public void run() {
+                        previous.release();
+                    }
+                });
+            }
+            preview = new PreviewConversion(file, previewSession);
+            convertPreview();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
 
-            new SwingWorker() {
-                @Override
-                protected Object doInBackground() throws Exception {
-                    setMessage("Transcoding...");
-
-                    NamingStrategy namingStrategy = (NamingStrategy) comboNaming.getSelectedItem();
-
-                    String svgClassName = namingStrategy.getClassName(file);
-
-                    String javaClassFilename = file.getParent() + File.separator + svgClassName + ".java";
-
-                    PrintWriter out = new PrintWriter(javaClassFilename);
-
-                    SvgTranscoder transcoder = new SvgTranscoder(file.toURI().toURL(), svgClassName);
-                    transcoder.setTemplate((Template) comboTemplates.getSelectedItem());
-                    transcoder.setPrintWriter(out);
-                    transcoder.transcode();
+    /**
+     * Converts the image previewed in the background with the template and the naming strategy selected,
+     * or once the current conversion completes. The image is parsed only if it wasn't already or was modified.
+     */
+    private void convertPreview() {
+        if (preview == null) {
+            return;
+        }
+        if (previewRunning) {
+            previewStale = true;
+            return;
+        }
+        
+        previewRunning = true;
+        previewStale = false;
+        setMessage("Transcoding...");
+        
+        final PreviewConversion conversion = preview;
+        final Template template = (Template) comboTemplates.getSelectedItem();
+        final NamingStrategy namingStrategy = (NamingStrategy) comboNaming.getSelectedItem();
+        
+        previewExecutor.execute(new SwingWorker<File, Object>() {
+            private long time;
+            
+            @Override
+            protected File doInBackground() throws Exception {
+                long start = System.nanoTime();
+                File target = conversion.convert(template, namingStrategy);
+                time = System.nanoTime() - start;
+                return target;
+            }
 
-                    return null;
+            @Override
+            protected void done() {
+                previewRunning = false;
+                try {
+                    setMessage("Generated " + get().getName() + " in " + time / 1000000 + " ms");
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    setMessage("Unable to transcode " + conversion.getFile().getName() + ": " + cause.getMessage());
                 }
-
-                @Override
-                protected void done() {
-                    setMessage("Transcoding completed");
+                
+                if (previewStale) {
+                    convertPreview();
                 }
-            }.execute();
+            }
+        });
+    }
 
-        } catch (IOException e) {
-            e.printStackTrace();
+    private static boolean isImage(File file) {
+        return file.isFile() && (file.getName().endsWith(".svg") || file.getName().endsWith(".svgz"));
+    }
+
+    /**
+     * Adds the specified image, or the images found in the specified folder and its sub folders, to the list.
+     */
+    static void listImages(File file, List<File> images) {
+        if (file.isDirectory()) {
+            File[] children = file.listFiles();
+            if (children != null) {
+                Arrays.sort(children);
+                for (File child : children) {
+                    listImages(child, images);
+                }
+            }
+        } else if (isImage(file)) {
+            images.add(file);
         }
     }
     
+    public JComponent createQueue() {
+        JPanel panel = new JPanel(new MigLayout("ins 1r, fill", "[grow][][]", "[grow][]"));
+        
+        queueTable.setFillsViewportHeight(true);
+        queueTable.setDefaultRenderer(ConversionQueue.Entry.class, new ProgressTableCellRenderer());
+        queueTable.getColumnModel().getColumn(4).setPreferredWidth(200);
+        queue.addTableModelListener(new TableModelListener() {
+            public void tableChanged(TableModelEvent e) {
+                queueLabel.setText(queue.getSummary());
+            }
+        });
+        
+        JButton cancelButton = new JButton("Cancel");
+        cancelButton.setToolTipText("Cancel the conversion of the selected images, or of all the images if none is selected");
+        cancelButton.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent event) {
+                queue.cancel(queueTable.getSelectedRows());
+            }
+        });
+        
+        JButton clearButton = new JButton("Clear");
+        clearButton.setToolTipText("Remove the images converted, failed or cancelled from the queue");
+        clearButton.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent event) {
+                queue.clearFinished();
+            }
+        });
+        
+        panel.add(new JScrollPane(queueTable), "span, grow, wrap");
+        panel.add(queueLabel, "growx");
+        panel.add(cancelButton, "sg buttons");
+        panel.add(clearButton, "sg buttons");
+        
+        return panel;
+    }
+    
     public JComponent createCanvas() {
         JXPanel panel = new JXPanel(new BorderLayout());
         panel.setBackgroundPainter(new CheckerboardPainter(Color.WHITE, new Color(0xF0F0F0), 15));
@@ -232,12 +449,13 @@ public class SVGApplication {
         
         panel.setDropTarget(new DropTarget(panel, new DropTargetAdapter() {
             public void dragEnter(DropTargetDragEvent dtde) {
-                List<File> files = getFiles(dtde.getTransferable());
-                if (files.size() == 1 && (files.get(0).getName().endsWith(".svgz") || files.get(0).getName().endsWith(".svg"))) {
-                    dtde.acceptDrag(DnDConstants.ACTION_COPY_OR_MOVE);
-                } else {
-                    dtde.rejectDrag();
-                }                
+                for (File file : getFiles(dtde.getTransferable())) {
+                    if (file.isDirectory() || isImage(file)) {
+                        dtde.acceptDrag(DnDConstants.ACTION_COPY_OR_MOVE);
+                        return;
+                    }
+                }
+                dtde.rejectDrag();
             }
             
             private List<File> getFiles(Transferable transferable) {
@@ -254,7 +472,7 @@ public class SVGApplication {
 
             public void drop(DropTargetDropEvent dtde) {
                 dtde.acceptDrop(DnDConstants.ACTION_COPY_OR_MOVE);
-                transcode(getFiles(dtde.getTransferable()).get(0));
+                convert(getFiles(dtde.getTransferable()));
             }
         }));
 
@@ -0,0 +1,308 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.pushingpixels.flamingo.api.svg.gui;
+
+import java.awt.BorderLayout;
+import java.awt.Component;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.swing.AbstractListModel;
+import javax.swing.DefaultListCellRenderer;
+import javax.swing.Icon;
+import javax.swing.JButton;
+import javax.swing.JFileChooser;
+import javax.swing.JLabel;
+import javax.swing.JList;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.ListSelectionModel;
+import javax.swing.SwingConstants;
+import javax.swing.SwingWorker;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import javax.swing.event.ListSelectionEvent;
+import javax.swing.event.ListSelectionListener;
+
+import net.miginfocom.swing.MigLayout;
+
+/**
+ * The grid of the thumbnails of the SVG images of a folder and its sub folders.
+ * Only the visible cells are rendered by the list, and their thumbnails are rendered
+ * in the background by the cache, so the grid scrolls smoothly through thousands
+ * of images. The images selected are added to the conversion queue, and the image
+ * double clicked is previewed.
+ */
+class ThumbnailBrowser extends JPanel {
+
+    /** The size in pixels of the thumbnails. */
+    private static final int THUMBNAIL_SIZE = 64;
+
+    /** The maximum size in bytes of the thumbnails kept in memory. */
+    private static final long MEMORY_BUDGET = 32 * 1024 * 1024;
+
+    /** The maximum size in bytes of the thumbnails stored on the disk. */
+    private static final long DISK_BUDGET = 64 * 1024 * 1024;
+
+    /** The number of rows of thumbnails requested beyond the visible cells. */
+    private static final int PREFETCHED_ROWS = 2;
+
+    /**
+     * Receives the images selected in the browser.
+     */
+    interface Callback {
+        /** Converts the images selected. */
+        void convert(List<File> files);
+
+        /** Previews the image double clicked. */
+        void preview(File file);
+    }
+
+    private final ThumbnailCache cache = new ThumbnailCache(THUMBNAIL_SIZE, MEMORY_BUDGET, ThumbnailCache.getDefaultDirectory(),
+            DISK_BUDGET, Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+
+    private final FileListModel model = new FileListModel();
+    private final JList<File> list = new JList<>(model);
+    private final JScrollPane scrollPane = new JScrollPane(list);
+    private final JLabel label = new JLabel();
+    private final JButton browseButton = new JButton("Browse...");
+    private final JButton convertButton = new JButton("Convert");
+
+    /** The folder browsed, or null. */
+    private File directory;
+
+    ThumbnailBrowser(final Callback callback) {
+        super(new BorderLayout());
+
+        list.setLayoutOrientation(JList.HORIZONTAL_WRAP);
+        list.setVisibleRowCount(-1);
+        list.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        // the fixed size of the cells spares the measure of all the cells by the list
+        list.setFixedCellWidth(THUMBNAIL_SIZE + 32);
+        list.setFixedCellHeight(THUMBNAIL_SIZE + 24);
+        list.setCellRenderer(new ThumbnailCellRenderer());
+
+        cache.setListener(new ThumbnailCache.Listener() {
+            public void thumbnailLoaded(File file, int index) {
+                if (index < model.getSize() && model.getElementAt(index).equals(file)) {
+                    Rectangle bounds = list.getCellBounds(index, index);
+                    if (bounds != null) {
+                        list.repaint(bounds);
+                    }
+                }
+            }
+        });
+
+        scrollPane.getViewport().addChangeListener(new ChangeListener() {
+            public void stateChanged(ChangeEvent e) {
+                updateVisibleRange();
+            }
+        });
+
+        list.addListSelectionListener(new ListSelectionListener() {
+            public void valueChanged(ListSelectionEvent e) {
+                updateLabel();
+            }
+        });
+
+        list.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int index = list.locationToIndex(e.getPoint());
+                if (e.getClickCount() == 2 && index != -1 && list.getCellBounds(index, index).contains(e.getPoint())) {
+                    callback.preview(model.getElementAt(index));
+                }
+            }
+        });
+
+        browseButton.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent event) {
+                JFileChooser chooser = new JFileChooser(directory);
+                chooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+                if (chooser.showOpenDialog(ThumbnailBrowser.this) == JFileChooser.APPROVE_OPTION) {
+                    setDirectory(chooser.getSelectedFile());
+                }
+            }
+        });
+
+        convertButton.setToolTipText("Convert the images selected, or all the images if none is selected");
+        convertButton.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent event) {
+                callback.convert(list.isSelectionEmpty() ? model.files : list.getSelectedValuesList());
+            }
+        });
+
+        JPanel toolbar = new JPanel(new MigLayout("ins 1r, fill", "[grow][][]"));
+        toolbar.add(label, "growx");
+        toolbar.add(browseButton, "sg buttons");
+        toolbar.add(convertButton, "sg buttons");
+
+        add(toolbar, BorderLayout.NORTH);
+        add(scrollPane, BorderLayout.CENTER);
+        updateLabel();
+    }
+
+    /**
+     * Displays the images of the folder and of its sub folders, listed in the background.
+     */
+    void setDirectory(final File directory) {
+        this.directory = directory;
+        label.setText("Listing " + directory.getName() + "...");
+
+        new SwingWorker<List<File>, Object>() {
+            @Override
+            protected List<File> doInBackground() throws Exception {
+                List<File> images = new ArrayList<>();
+                SVGApplication.listImages(directory, images);
+                return images;
+            }
+
+            @Override
+            protected void done() {
+                if (directory != ThumbnailBrowser.this.directory) {
+                    return;
+                }
+                try {
+                    cache.clearRequests();
+                    model.setFiles(get());
+                    list.clearSelection();
+                    list.ensureIndexIsVisible(0);
+                    updateVisibleRange();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+                updateLabel();
+            }
+        }.execute();
+    }
+
+    /**
+     * Tells the cache which thumbnails are visible, with a few rows before and after.
+     */
+    private void updateVisibleRange() {
+        Rectangle view = scrollPane.getViewport().getViewRect();
+        int columns = Math.max(1, view.width / list.getFixedCellWidth());
+        int margin = PREFETCHED_ROWS * columns;
+        int first = list.getFirstVisibleIndex();
+        int last = list.getLastVisibleIndex();
+        if (first == -1) {
+            cache.setVisibleRange(0, -1);
+        } else {
+            cache.setVisibleRange(Math.max(0, first - margin), last + margin);
+        }
+    }
+
+    private void updateLabel() {
+        if (directory == null) {
+            label.setText("Select a folder to browse its images");
+        } else {
+            int selected = list.getSelectedIndices().length;
+            label.setText(directory.getName() + ": " + model.getSize() + " images" + (selected > 0 ? ", " + selected + " selected" : ""));
+        }
+    }
+
+    /**
+     * The images of the folder browsed.
+     */
+    private static class FileListModel extends AbstractListModel<File> {
+
+        private List<File> files = Collections.emptyList();
+
+        void setFiles(List<File> files) {
+            int size = this.files.size();
+            this.files = Collections.emptyList();
+            if (size > 0) {
+                fireIntervalRemoved(this, 0, size - 1);
+            }
+            this.files = files;
+            if (!files.isEmpty()) {
+                fireIntervalAdded(this, 0, files.size() - 1);
+            }
+        }
+
+        @Override
+        public int getSize() {
+            return files.size();
+        }
+
+        @Override
+        public File getElementAt(int index) {
+            return files.get(index);
+        }
+    }
+
+    /**
+     * Displays the thumbnail of an image above its name, or requests the thumbnail if it isn't rendered yet.
+     */
+    private class ThumbnailCellRenderer extends DefaultListCellRenderer {
+
+        private final ThumbnailIcon icon = new ThumbnailIcon();
+
+        ThumbnailCellRenderer() {
+            setHorizontalAlignment(SwingConstants.CENTER);
+            setHorizontalTextPosition(SwingConstants.CENTER);
+            setVerticalTextPosition(SwingConstants.BOTTOM);
+        }
+
+        @Override
+        public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
+            File file = (File) value;
+            super.getListCellRendererComponent(list, file.getName(), index, isSelected, cellHasFocus);
+            setToolTipText(file.getPath());
+
+            icon.image = cache.get(file, index);
+            setIcon(icon);
+            if (icon.image == null && cache.isFailed(file)) {
+                setText("(error) " + file.getName());
+            }
+            return this;
+        }
+    }
+
+    /**
+     * The thumbnail of an image centered in a square of the size of the thumbnails, empty while it's rendered.
+     */
+    private static class ThumbnailIcon implements Icon {
+
+        private BufferedImage image;
+
+        @Override
+        public void paintIcon(Component c, Graphics g, int x, int y) {
+            if (image != null) {
+                g.drawImage(image, x + (THUMBNAIL_SIZE - image.getWidth()) / 2, y + (THUMBNAIL_SIZE - image.getHeight()) / 2, null);
+            }
+        }
+
+        @Override
+        public int getIconWidth() {
+            return THUMBNAIL_SIZE;
+        }
+
+        @Override
+        public int getIconHeight() {
+            return THUMBNAIL_SIZE;
+        }
+    }
+}
@@ -0,0 +1,429 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.pushingpixels.flamingo.api.svg.gui;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.imageio.ImageIO;
+import javax.swing.SwingUtilities;
+
+import org.apache.batik.bridge.BridgeContext;
+import org.apache.batik.gvt.GraphicsNode;
+import org.pushingpixels.flamingo.api.svg.TranscodingSession;
+
+/**
+ * The thumbnails of the SVG images, rendered in the background by a pool of threads.
+ * 
+ * The thumbnails requested last are rendered first, and the requests of the images
+ * no longer visible are dropped, so that the visible images are rendered first while
+ * scrolling. The thumbnails are kept in memory within a budget in bytes, the least
+ * recently used being evicted first, and on the disk in PNG files named after the hash
+ * of the content of the image and the size of the thumbnail, to be loaded again without
+ * rendering the image when it isn't modified. The thumbnails on the disk are kept within
+ * another budget, the files used least recently being deleted at startup and when the
+ * budget is exceeded.
+ */
+class ThumbnailCache {
+
+    /**
+     * Notified on the event dispatch thread when a thumbnail is available.
+     */
+    interface Listener {
+        void thumbnailLoaded(File file, int index);
+    }
+
+    /**
+     * The request of the thumbnail of the image at an index of the view.
+     */
+    private static class Request {
+        final File file;
+        final int index;
+
+        Request(File file, int index) {
+            this.file = file;
+            this.index = index;
+        }
+    }
+
+    /** The size in pixels of the largest side of the thumbnails. */
+    private final int size;
+
+    /** The maximum size in bytes of the thumbnails kept in memory. */
+    private final long memoryBudget;
+
+    /** The folder of the thumbnails stored on the disk, or null to keep the thumbnails in memory only. */
+    private final File directory;
+
+    /** The maximum size in bytes of the thumbnails stored on the disk. */
+    private final long diskBudget;
+
+    /** The size in bytes of the thumbnails stored on the disk, counted when the folder is pruned and increased by each thumbnail stored. */
+    private final AtomicLong diskSize = new AtomicLong();
+
+    /** The thumbnails in memory by file and modification time, the least recently used first. */
+    private final LinkedHashMap<String, BufferedImage> images = new LinkedHashMap<>(256, 0.75f, true);
+
+    /** The size in bytes of the thumbnails in memory. */
+    private long memorySize;
+
+    /** The keys of the images failing to render. */
+    private final Set<String> failures = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    /** The keys of the images requested and not rendered yet. */
+    private final Set<String> pending = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    /** The requests, the last one first. */
+    private final BlockingDeque<Request> requests = new LinkedBlockingDeque<>();
+
+    /** The range of the indexes visible in the view. */
+    private volatile int firstVisibleIndex;
+    private volatile int lastVisibleIndex = Integer.MAX_VALUE;
+
+    private volatile Listener listener;
+
+    /** The sessions of the worker threads. */
+    private final ThreadLocal<TranscodingSession> sessions = new ThreadLocal<TranscodingSession>() {
+        @Override
+        protected TranscodingSession initialValue() {
+            return new TranscodingSession();
+        }
+    };
+
+    /**
+     * @param size         the size in pixels of the largest side of the thumbnails
+     * @param memoryBudget the maximum size in bytes of the thumbnails kept in memory
+     * @param directory    the folder of the thumbnails stored on the disk, or null to keep the thumbnails in memory only
+     * @param diskBudget   the maximum size in bytes of the thumbnails stored on the disk
+     * @param threadCount  the number of threads rendering the thumbnails
+     */
+    ThumbnailCache(int size, long memoryBudget, File directory, long diskBudget, int threadCount) {
+        this.size = size;
+        this.memoryBudget = memoryBudget;
+        this.directory = directory;
+        this.diskBudget = diskBudget;
+
+        if (directory != null) {
+            Thread thread = new Thread("flamingo-svg-thumbnail-pruning") {
+                @Override
+                public void run() {
+                    prune();
+                }
+            };
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            thread.start();
+        }
+
+        for (int i = 1; i <= threadCount; i++) {
+            Thread thread = new Thread("flamingo-svg-thumbnail-" + i) {
+                @Override
+                public void run() {
+                    while (true) {
+                        try {
+                            load(requests.takeFirst());
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                    }
+                }
+            };
+            thread.setDaemon(true);
+            // leave the priority to the event dispatch thread
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            thread.start();
+        }
+    }
+
+    /**
+     * Returns the default folder of the thumbnails stored on the disk (~/.flamingo-svg-transcoder/thumbnails).
+     */
+    static File getDefaultDirectory() {
+        return new File(System.getProperty("user.home"), ".flamingo-svg-transcoder" + File.separator + "thumbnails");
+    }
+
+    void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Sets the range of the indexes visible in the view, the requests outside of the range are dropped.
+     */
+    void setVisibleRange(int first, int last) {
+        firstVisibleIndex = first;
+        lastVisibleIndex = last;
+    }
+
+    private static String getKey(File file) {
+        return file.getPath() + "@" + file.lastModified();
+    }
+
+    /**
+     * Returns the thumbnail of the image if it's in memory, or requests it otherwise. Never blocks.
+     * 
+     * @param file  the SVG image
+     * @param index the index of the image in the view
+     * @return the thumbnail, or null if it isn't rendered yet or if the image failed to render
+     */
+    BufferedImage get(File file, int index) {
+        String key = getKey(file);
+        synchronized (images) {
+            BufferedImage image = images.get(key);
+            if (image != null) {
+                return image;
+            }
+        }
+
+        if (!failures.contains(key) && pending.add(key)) {
+            requests.offerFirst(new Request(file, index));
+        }
+        return null;
+    }
+
+    /**
+     * Tells if the image failed to render.
+     */
+    boolean isFailed(File file) {
+        return failures.contains(getKey(file));
+    }
+
+    /**
+     * Drops the pending requests, for example when the images displayed change.
+     */
+    void clearRequests() {
+        requests.clear();
+        pending.clear();
+    }
+
+    private void load(final Request request) {
+        String key = getKey(request.file);
+        if (request.index < firstVisibleIndex || request.index > lastVisibleIndex) {
+            // the thumbnail will be requested again once the image is visible
+            pending.remove(key);
+            return;
+        }
+
+        try {
+            String hash = hash(request.file);
+            File cached = directory != null ? new File(directory, hash + "-" + size + ".png") : null;
+            BufferedImage image = null;
+            if (cached != null && cached.exists()) {
+                image = ImageIO.read(cached);
+                // the thumbnails used recently are pruned last
+                cached.setLastModified(System.currentTimeMillis());
+            }
+            if (image == null) {
+                image = render(request.file);
+                if (cached != null) {
+                    store(image, cached);
+                }
+            }
+            put(key, image);
+        } catch (Throwable e) {
+            // the errors of Batik (a stack overflow on a deeply nested document) don't stop the thread
+            failures.add(key);
+        } finally {
+            pending.remove(key);
+        }
+
+        SwingUtilities.invokeLater(new Runnable() {
+            public void run() {
+                Listener listener = ThumbnailCache.this.listener;
+                if (listener != null) {
+                    listener.thumbnailLoaded(request.file, request.index);
+                }
+            }
+        });
+    }
+
+    /**
+     * Adds a thumbnail in memory, and evicts the least recently used thumbnails exceeding the budget.
+     */
+    private void put(String key, BufferedImage image) {
+        synchronized (images) {
+            BufferedImage previous = images.put(key, image);
+            if (previous != null) {
+                memorySize -= getMemorySize(previous);
+            }
+            memorySize += getMemorySize(image);
+
+            Iterator<Map.Entry<String, BufferedImage>> iterator = images.entrySet().iterator();
+            while (memorySize > memoryBudget && iterator.hasNext()) {
+                Map.Entry<String, BufferedImage> eldest = iterator.next();
+                if (eldest.getValue() != image) {
+                    memorySize -= getMemorySize(eldest.getValue());
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    private static long getMemorySize(BufferedImage image) {
+        return 4L * image.getWidth() * image.getHeight();
+    }
+
+    /**
+     * Returns the size in bytes of the thumbnails in memory.
+     */
+    long getMemorySize() {
+        synchronized (images) {
+            return memorySize;
+        }
+    }
+
+    /**
+     * Returns the SHA-1 hash of the content of the file, in hexadecimal.
+     */
+    private static String hash(File file) throws IOException, NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-1");
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file.toPath()), digest)) {
+            byte[] buffer = new byte[8192];
+            while (in.read(buffer) != -1) {
+                // the content is digested while it's read
+            }
+        }
+
+        StringBuilder hash = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hash.append(String.format("%02x", b & 0xFF));
+        }
+        return hash.toString();
+    }
+
+    /**
+     * Renders the GVT tree of the image, scaled to the size of the thumbnails.
+     */
+    private BufferedImage render(File file) throws Exception {
+        TranscodingSession session = sessions.get();
+        BridgeContext context = session.load(file.toURI().toURL());
+        try {
+            GraphicsNode root = context.getGraphicsNode(context.getDocument());
+            Rectangle2D bounds = root.getBounds();
+            if (bounds == null || bounds.isEmpty()) {
+                bounds = new Rectangle2D.Double(0, 0, context.getDocumentSize().getWidth(), context.getDocumentSize().getHeight());
+            }
+
+            double scale = size / Math.max(bounds.getWidth(), bounds.getHeight());
+            if (Double.isInfinite(scale) || Double.isNaN(scale)) {
+                scale = 1;
+            }
+            int width = Math.max(1, Math.min(size, (int) Math.ceil(bounds.getWidth() * scale)));
+            int height = Math.max(1, Math.min(size, (int) Math.ceil(bounds.getHeight() * scale)));
+
+            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = image.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.scale(scale, scale);
+                g.translate(-bounds.getX(), -bounds.getY());
+                root.paint(g);
+            } finally {
+                g.dispose();
+            }
+            return image;
+        } finally {
+            session.release(context);
+        }
+    }
+
+    /**
+     * Stores a thumbnail on the disk. The file is written under a temporary name
+     * and renamed, the other threads never read a partial file.
+     */
+    private void store(BufferedImage image, File cached) {
+        try {
+            directory.mkdirs();
+            File tmp = new File(directory, cached.getName() + "." + Thread.currentThread().getId() + ".tmp");
+            ImageIO.write(image, "png", tmp);
+            if (!tmp.renameTo(cached)) {
+                tmp.delete();
+            } else if (diskSize.addAndGet(cached.length()) > diskBudget) {
+                prune();
+            }
+        } catch (IOException e) {
+            // the thumbnail is kept in memory only
+        }
+    }
+
+    /**
+     * Deletes the thumbnails used least recently until the thumbnails stored on the disk fit in 3/4 of the
+     * budget, once the budget is exceeded, and the temporary files left by an interrupted session.
+     */
+    synchronized void prune() {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        long time = System.currentTimeMillis();
+        final Map<File, Long> lastModified = new LinkedHashMap<>();
+        long total = 0;
+        for (File file : files) {
+            if (file.getName().endsWith(".tmp")) {
+                if (time - file.lastModified() > 60 * 60 * 1000) {
+                    file.delete();
+                }
+            } else if (file.getName().endsWith(".png")) {
+                lastModified.put(file, file.lastModified());
+                total += file.length();
+            }
+        }
+
+        if (total > diskBudget) {
+            File[] thumbnails = lastModified.keySet().toArray(new File[lastModified.size()]);
+            Arrays.sort(thumbnails, new Comparator<File>() {
+                public int compare(File file1, File file2) {
+                    return Long.compare(lastModified.get(file1), lastModified.get(file2));
+                }
+            });
+            for (int i = 0; i < thumbnails.length && total > diskBudget * 3 / 4; i++) {
+                long length = thumbnails[i].length();
+                if (thumbnails[i].delete()) {
+                    total -= length;
+                }
+            }
+        }
+        diskSize.set(total);
+    }
+
+    /**
+     * Returns the size in bytes of the thumbnails stored on the disk.
+     */
+    long getDiskSize() {
+        return diskSize.get();
+    }
+}
@@ -0,0 +1,686 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.lang.model.SourceVersion;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.compiler.util.scan.InclusionScanException;
+import org.codehaus.plexus.compiler.util.scan.SimpleSourceInclusionScanner;
+import org.codehaus.plexus.compiler.util.scan.StaleSourceScanner;
+import org.codehaus.plexus.compiler.util.scan.mapping.SourceMapping;
+import org.codehaus.plexus.compiler.util.scan.mapping.SuffixMapping;
+
+/**
+ * Maven goal converting the SVG images of the project into Java2D classes, added to the compiled sources.
+ * 
+ * <p>The images in the subfolders of the source directory are converted into the sub-packages
+ * of the same names. Only the images modified since the generation of their class are converted,
+ * unless the options of the conversion changed since the previous build. The classes of the images
+ * deleted since the previous build are removed. The images are converted in parallel, each
+ * thread loading the images with its own session.</p>
+ * 
+ * <p>The class files can also be emitted directly into the classes directory, without generating
+ * and compiling the sources.</p>
+ */
+@Mojo(name = "transcode", defaultPhase = LifecyclePhase.GENERATE_SOURCES, requiresDependencyResolution = ResolutionScope.COMPILE, threadSafe = true)
+public class TranscoderMojo extends AbstractMojo {
+
+    @Parameter(defaultValue = "${project}", readonly = true, required = true)
+    private MavenProject project;
+
+    /** The folder containing the SVG images. */
+    @Parameter(defaultValue = "${basedir}/src/main/svg", required = true)
+    private File sourceDirectory;
+
+    /** The patterns of the images converted, relatively to the source directory (all the SVG images by default). */
+    @Parameter
+    private Set<String> includes = new HashSet<>();
+
+    /** The patterns of the images excluded, relatively to the source directory. */
+    @Parameter
+    private Set<String> excludes = new HashSet<>();
+
+    /** The folder receiving the classes generated, added to the compiled sources of the project. */
+    @Parameter(defaultValue = "${project.build.directory}/generated-sources/svg", required = true)
+    private File outputDirectory;
+
+    /** The file storing the settings of the last conversion, compared to detect the changes of the options. */
+    @Parameter(defaultValue = "${project.build.directory}/maven-status/svg-transcoder/settings.properties", readonly = true)
+    private File settingsFile;
+
+    /** The package of the classes generated from the images at the root of the source directory. */
+    @Parameter(property = "svg.packageName", required = true)
+    private String packageName;
+
+    /** The naming strategy of the classes generated ("default" or "camelcase"). */
+    @Parameter(property = "svg.namingStrategy", defaultValue = "default")
+    private String namingStrategy;
+
+    /** The template of the classes generated (plain, icon or resizable). */
+    @Parameter(property = "svg.template")
+    private String template;
+
+    /** The tolerance of the path simplification, 0 to disable the simplification. */
+    @Parameter(property = "svg.tolerance", defaultValue = "0")
+    private float tolerance;
+
+    /** The number of decimals of the path coordinates, -1 to keep the coordinates unchanged. */
+    @Parameter(property = "svg.precision", defaultValue = "-1")
+    private int precision;
+
+    /** The maximum rendering difference of the tuned simplification (0.01 for 1%), -1 to disable the tuning. */
+    @Parameter(property = "svg.maxDifference", defaultValue = "-1")
+    private float maxDifference;
+
+    /** The comma separated sizes at which the renderings are compared by the tuning. */
+    @Parameter(property = "svg.tuningSizes", defaultValue = "16,32,64")
+    private String tuningSizes;
+
+    /** Tells if the invisible nodes are removed. */
+    @Parameter(property = "svg.cull", defaultValue = "false")
+    private boolean cull;
+
+    /** Tells if the shapes covered by opaque shapes are removed, only for the images painted with a fully opaque graphics context. */
+    @Parameter(property = "svg.occlusion", defaultValue = "false")
+    private boolean occlusion;
+
+    /** Tells if the painting code of the groups outside of the clip is skipped. */
+    @Parameter(property = "svg.clipGroups", defaultValue = "false")
+    private boolean clipGroups;
+
+    /** The comma separated sizes of the simplified variants generated for the small renderings. */
+    @Parameter(property = "svg.levelsOfDetail")
+    private String levelsOfDetail;
+
+    /** Tells if each distinct glyph of the texts is transcoded once. */
+    @Parameter(property = "svg.glyphCache", defaultValue = "false")
+    private boolean glyphCache;
+
+    /** The comma separated complexity limits of the generated code, for example "segments=10000,drawcalls=500". */
+    @Parameter(property = "svg.budget")
+    private String budget;
+
+    /** Tells if the build fails when an image exceeds the complexity budget. */
+    @Parameter(property = "svg.failOnBudget", defaultValue = "false")
+    private boolean failOnBudget;
+
+    /** Tells if the documents and the painting code are kept out of the heap, for the very large documents. */
+    @Parameter(property = "svg.boundedMemory", defaultValue = "false")
+    private boolean boundedMemory;
+
+    /** The number of threads converting the images, 0 for the number of processors. */
+    @Parameter(property = "svg.threads", defaultValue = "0")
+    private int threads;
+
+    /** Tells if the classes generated are compiled in memory against the compile classpath of the project. */
+    @Parameter(property = "svg.compileCheck", defaultValue = "false")
+    private boolean compileCheck;
+
+    @Parameter(defaultValue = "${project.compileClasspathElements}", readonly = true, required = true)
+    private List<String> classpathElements;
+
+    /**
+     * Tells if the class files are emitted directly into the classes directory instead of generating
+     * the sources. The source of a class is generated if its class files can't be emitted.
+     */
+    @Parameter(property = "svg.emitClasses", defaultValue = "false")
+    private boolean emitClasses;
+
+    /** The folder receiving the class files emitted. */
+    @Parameter(defaultValue = "${project.build.outputDirectory}", required = true)
+    private File classesDirectory;
+
+    /** Tells if the conversion is skipped. */
+    @Parameter(property = "svg.skip", defaultValue = "false")
+    private boolean skip;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (skip) {
+            getLog().info("Skipping the conversion of the SVG images");
+            return;
+        }
+
+        project.addCompileSourceRoot(outputDirectory.getAbsolutePath());
+
+        if (!sourceDirectory.isDirectory()) {
+            getLog().debug("No SVG images in " + sourceDirectory);
+            return;
+        }
+
+        NamingStrategy naming = getNamingStrategy();
+        List<String> options = getOptions();
+        Properties settings = getSettings(options);
+        final ClassFileOutput classOutput = emitClasses ? new ClassFileOutput(classesDirectory) : null;
+
+        final Map<String, String> classes = getClasses(naming);
+        removeDeletedClasses(classes);
+
+        List<File> files = getStaleFiles(naming, settings);
+        if (files.isEmpty()) {
+            getLog().info("All the SVG images are up to date");
+            return;
+        }
+
+        int threadCount = Math.min(files.size(), threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+        getLog().info("Converting " + files.size() + " file" + (files.size() == 1 ? "" : "s") + " to " + (classOutput != null ? classesDirectory : outputDirectory)
+                + (threadCount > 1 ? " with " + threadCount + " threads" : ""));
+
+        // the settings are forgotten until the conversion succeeds, everything is converted again after an interruption
+        settingsFile.delete();
+
+        Object batchEvent = TranscodingEvents.get().beginBatch();
+        List<String> overBudgetFiles = new ArrayList<>();
+        List<String> failedFiles = new ArrayList<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            final ThreadLocal<SvgBatchConverter> converters = newConverters(options, classOutput);
+            List<Future<Result>> results = new ArrayList<>();
+            for (final File file : files) {
+                final String qualifiedName = classes.get(getPath(file));
+                results.add(executor.submit(new Callable<Result>() {
+                    @Override
+                    public Result call() {
+                        File target = getSourceFile(qualifiedName);
+                        if (classOutput != null) {
+                            // the source is written again only if the class files can't be emitted
+                            target.delete();
+                        } else {
+                            target.getParentFile().mkdirs();
+                        }
+                        return convert(converters.get(), file, target, qualifiedName);
+                    }
+                }));
+            }
+
+            for (Future<Result> future : results) {
+                Result result = future.get();
+                report(result, overBudgetFiles, failedFiles);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("The conversion of the SVG images was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new MojoExecutionException("Failed to convert the SVG images", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        TranscodingEvents.get().commitBatch(batchEvent, outputDirectory.getPath(), files.size());
+
+        if (!failedFiles.isEmpty()) {
+            throw new MojoExecutionException("Failed to convert " + failedFiles);
+        }
+        if (compileCheck) {
+            // the sources generated only, the class files emitted are verified when loaded
+            checkCompilation(files, classes, classOutput, threadCount);
+        }
+        if (failOnBudget && !overBudgetFiles.isEmpty()) {
+            throw new MojoFailureException(overBudgetFiles.size() + " file" + (overBudgetFiles.size() == 1 ? "" : "s") + " over the complexity budget: " + overBudgetFiles);
+        }
+
+        storeSettings(settings);
+    }
+
+    /**
+     * Returns the qualified names of the classes generated from all the images, by path of the image
+     * relatively to the source directory.
+     * 
+     * @throws MojoExecutionException if two images are converted into the same class
+     */
+    Map<String, String> getClasses(NamingStrategy naming) throws MojoExecutionException {
+        Set<File> files;
+        try {
+            SimpleSourceInclusionScanner scanner = new SimpleSourceInclusionScanner(getIncludes(), excludes);
+            // the scanner returns no source without a mapping, the mapping isn't used otherwise
+            scanner.addSourceMapping(new SuffixMapping("svg", "java"));
+            files = scanner.getIncludedSources(sourceDirectory, outputDirectory);
+        } catch (InclusionScanException e) {
+            throw new MojoExecutionException("Failed to scan " + sourceDirectory, e);
+        }
+
+        Map<String, String> classes = new TreeMap<>();
+        Map<String, String> images = new TreeMap<>();
+        for (File file : new TreeSet<>(files)) {
+            String path = getPath(file);
+            String qualifiedName = getQualifiedName(naming, path);
+            String previous = images.put(qualifiedName, path);
+            if (previous != null) {
+                throw new MojoExecutionException("The images " + previous + " and " + path + " are both converted into the class " + qualifiedName);
+            }
+            classes.put(path, qualifiedName);
+        }
+        return classes;
+    }
+
+    /**
+     * Returns the path of an image relatively to the source directory.
+     */
+    private String getPath(File file) {
+        return sourceDirectory.getAbsoluteFile().toURI().relativize(file.getAbsoluteFile().toURI()).getPath();
+    }
+
+    /**
+     * Returns the qualified name of the class generated from an image. The subfolders of the image
+     * are mapped to the sub-packages of the package of the plugin.
+     * 
+     * @param path the path of the image relatively to the source directory
+     */
+    String getQualifiedName(NamingStrategy naming, String path) {
+        String[] names = path.replace(File.separatorChar, '/').split("/");
+        StringBuilder qualifiedName = new StringBuilder(packageName);
+        for (int i = 0; i < names.length - 1; i++) {
+            qualifiedName.append(qualifiedName.length() > 0 ? "." : "").append(toIdentifier(names[i]));
+        }
+        String className = naming.getClassName(new File(names[names.length - 1]));
+        return qualifiedName.length() > 0 ? qualifiedName + "." + className : className;
+    }
+
+    /**
+     * Turns the name of a folder into a valid package name.
+     */
+    private String toIdentifier(String name) {
+        StringBuilder identifier = new StringBuilder();
+        for (char c : name.toCharArray()) {
+            identifier.append(Character.isJavaIdentifierPart(c) ? c : '_');
+        }
+        if (identifier.length() == 0 || !Character.isJavaIdentifierStart(identifier.charAt(0))) {
+            identifier.insert(0, '_');
+        }
+        if (SourceVersion.isKeyword(identifier)) {
+            identifier.append('_');
+        }
+        return identifier.toString();
+    }
+
+    private Set<String> getIncludes() {
+        return includes.isEmpty() ? new HashSet<>(Arrays.asList("**/*.svg", "**/*.svgz")) : includes;
+    }
+
+    /**
+     * Returns the source generated for the specified class.
+     */
+    private File getSourceFile(String qualifiedName) {
+        return new File(outputDirectory, qualifiedName.replace('.', File.separatorChar) + ".java");
+    }
+
+    /**
+     * Returns the class file emitted for the specified class.
+     */
+    private File getClassFile(String qualifiedName) {
+        return new File(classesDirectory, qualifiedName.replace('.', File.separatorChar) + ".class");
+    }
+
+    /**
+     * Returns the images to convert: the images modified since the generation of their class, or all
+     * the images if the package, the naming strategy or the options of the conversion changed.
+     */
+    List<File> getStaleFiles(final NamingStrategy naming, Properties settings) throws MojoExecutionException {
+        // the settings changed: every class is stale, the scanner considers then the classes as missing
+        final boolean settingsChanged = !settings.equals(loadSettings());
+        
+        StaleSourceScanner scanner = new StaleSourceScanner(0, getIncludes(), excludes);
+        scanner.addSourceMapping(new SourceMapping() {
+            @Override
+            public Set<File> getTargetFiles(File targetDir, String source) {
+                String qualifiedName = getQualifiedName(naming, source);
+                File target = getSourceFile(qualifiedName);
+                if (emitClasses && !target.exists()) {
+                    target = getClassFile(qualifiedName);
+                }
+                return Collections.singleton(settingsChanged ? new File(target.getPath() + ".missing") : target);
+            }
+        });
+
+        try {
+            List<File> files = new ArrayList<>(scanner.getIncludedSources(sourceDirectory, outputDirectory));
+            Collections.sort(files);
+            return files;
+        } catch (InclusionScanException e) {
+            throw new MojoExecutionException("Failed to scan " + sourceDirectory, e);
+        }
+    }
+
+    /**
+     * Removes the sources and the class files of the images deleted since the previous build, and
+     * records the classes generated from the current images.
+     */
+    private void removeDeletedClasses(Map<String, String> classes) throws MojoExecutionException {
+        File classesFile = getClassesFile();
+        Set<String> currentClasses = new HashSet<>(classes.values());
+        if (classesFile.exists()) {
+            try {
+                for (String qualifiedName : Files.readAllLines(classesFile.toPath(), StandardCharsets.UTF_8)) {
+                    if (qualifiedName.length() > 0 && !currentClasses.contains(qualifiedName)) {
+                        getLog().info("Removing the class " + qualifiedName + " of a deleted image");
+                        removeClass(qualifiedName);
+                    }
+                }
+            } catch (IOException e) {
+                getLog().debug("Unable to read " + classesFile, e);
+            }
+        }
+
+        classesFile.getParentFile().mkdirs();
+        try {
+            Files.write(classesFile.toPath(), classes.values(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to write " + classesFile, e);
+        }
+    }
+
+    /**
+     * Deletes the source and the class files of the specified class, nested classes included.
+     */
+    private void removeClass(String qualifiedName) {
+        getSourceFile(qualifiedName).delete();
+        File classFile = getClassFile(qualifiedName);
+        classFile.delete();
+
+        String prefix = classFile.getName().substring(0, classFile.getName().length() - ".class".length()) + "$";
+        File[] nestedClasses = classFile.getParentFile().listFiles();
+        if (nestedClasses != null) {
+            for (File file : nestedClasses) {
+                if (file.getName().startsWith(prefix) && file.getName().endsWith(".class")) {
+                    file.delete();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the file listing the classes generated by the previous build.
+     */
+    private File getClassesFile() {
+        return new File(settingsFile.getParentFile(), "classes.lst");
+    }
+
+    /**
+     * Creates the converters used by each thread, with their own session and their own emitter of the class files.
+     */
+    private ThreadLocal<SvgBatchConverter> newConverters(final List<String> options, final ClassFileOutput classOutput) {
+        return new ThreadLocal<SvgBatchConverter>() {
+            @Override
+            protected SvgBatchConverter initialValue() {
+                SvgBatchConverter converter = new SvgBatchConverter(new TranscodingSession());
+                String[] args = options.toArray(new String[options.size()]);
+                for (int i = 0; i < args.length; i++) {
+                    i = converter.parseOption(args, i);
+                }
+                if (classOutput != null) {
+                    converter.setClassOutput(classOutput, getClasspath());
+                }
+                return converter;
+            }
+        };
+    }
+
+    /**
+     * Converts an image, in a worker thread.
+     */
+    private Result convert(SvgBatchConverter converter, File file, File target, String qualifiedName) {
+        Result result = new Result(file, target);
+        TranscodingMetrics metrics = new TranscodingMetrics(file.getName());
+        StringWriter log = new StringWriter();
+        try {
+            int index = qualifiedName.lastIndexOf('.');
+            converter.setPackageName(index > 0 ? qualifiedName.substring(0, index) : "");
+            result.violations = converter.convert(file, target, qualifiedName.substring(index + 1), metrics, new PrintWriter(log));
+            result.error = metrics.getError();
+        } catch (Exception e) {
+            result.exception = e;
+        }
+        result.log = log.toString();
+        return result;
+    }
+
+    /**
+     * Compiles in memory the classes generated, and fails if a class doesn't compile.
+     */
+    private void checkCompilation(List<File> files, Map<String, String> classes, ClassFileOutput classOutput, int threadCount) throws MojoExecutionException, MojoFailureException {
+        long start = System.nanoTime();
+        CompilationCheck check = new CompilationCheck(getClasspath(), threadCount, CompilationCheck.DEFAULT_BATCH_SIZE);
+        int classCount = 0;
+        for (File file : files) {
+            String qualifiedName = classes.get(getPath(file));
+            File target = getSourceFile(qualifiedName);
+            if (classOutput == null || target.exists()) {
+                try {
+                    check.add(qualifiedName, new String(Files.readAllBytes(target.toPath())));
+                    classCount++;
+                } catch (IOException e) {
+                    throw new MojoExecutionException("Unable to read " + target, e);
+                }
+            }
+        }
+
+        Map<String, List<String>> failures;
+        try {
+            failures = check.finish();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("The compilation check was interrupted", e);
+        }
+
+        for (Map.Entry<String, List<String>> failure : failures.entrySet()) {
+            getLog().error(failure.getKey() + " doesn't compile: " + failure.getValue());
+        }
+        getLog().info("Compiled " + classCount + " class" + (classCount == 1 ? "" : "es") + " in " + (System.nanoTime() - start) / 1000000 + " ms");
+
+        if (!failures.isEmpty()) {
+            throw new MojoFailureException(failures.size() + " class" + (failures.size() == 1 ? "" : "es") + " failing to compile: " + failures.keySet());
+        }
+    }
+
+    /**
+     * Returns the compile classpath of the project.
+     */
+    private String getClasspath() {
+        StringBuilder classpath = new StringBuilder();
+        for (String element : classpathElements) {
+            classpath.append(classpath.length() > 0 ? File.pathSeparator : "").append(element);
+        }
+        return classpath.toString();
+    }
+
+    /**
+     * Logs the result of the conversion of an image.
+     */
+    private void report(Result result, List<String> overBudgetFiles, List<String> failedFiles) {
+        String name = result.file.getName();
+        getLog().debug("Converting " + result.file + " to " + result.target);
+        for (String line : result.log.split("\r?\n")) {
+            if (line.length() > 0) {
+                getLog().info(line);
+            }
+        }
+
+        if (result.exception != null || result.error != null) {
+            if (result.exception != null) {
+                getLog().error("Failed to convert " + name, result.exception);
+            } else {
+                getLog().error("Unable to transcode " + name + ": " + result.error);
+            }
+            // the class is incomplete, it's removed to be generated again by the next build
+            result.target.delete();
+            failedFiles.add(name);
+        } else if (!result.violations.isEmpty()) {
+            String message = name + " exceeds the complexity budget: " + result.violations;
+            if (failOnBudget) {
+                getLog().error(message);
+            } else {
+                getLog().warn(message);
+            }
+            overBudgetFiles.add(name);
+        }
+    }
+
+    private NamingStrategy getNamingStrategy() throws MojoExecutionException {
+        switch (namingStrategy) {
+            case "camelcase":
+                return new CamelCaseNamingStrategy();
+            case "default":
+                return new DefaultNamingStrategy();
+            default:
+                throw new MojoExecutionException("Unsupported naming strategy: " + namingStrategy);
+        }
+    }
+
+    /**
+     * Returns the options of the conversion, in the syntax of the command line converter.
+     */
+    List<String> getOptions() {
+        List<String> options = new ArrayList<>();
+        if (tolerance > 0) {
+            options.addAll(Arrays.asList("-tolerance", String.valueOf(tolerance)));
+        }
+        if (precision >= 0) {
+            options.addAll(Arrays.asList("-precision", String.valueOf(precision)));
+        }
+        if (maxDifference >= 0) {
+            options.addAll(Arrays.asList("-maxdiff", String.valueOf(maxDifference), "-sizes", tuningSizes));
+        }
+        if (cull) {
+            options.add("-cull");
+        }
+        if (occlusion) {
+            options.add("-occlusion");
+        }
+        if (clipGroups) {
+            options.add("-clipgroups");
+        }
+        if (levelsOfDetail != null && levelsOfDetail.trim().length() > 0) {
+            options.addAll(Arrays.asList("-lod", levelsOfDetail));
+        }
+        if (glyphCache) {
+            options.add("-glyphs");
+        }
+        if (template != null) {
+            options.addAll(Arrays.asList("-template", template));
+        }
+        if (budget != null) {
+            options.addAll(Arrays.asList("-budget", budget));
+        }
+        if (boundedMemory) {
+            options.add("-boundedmemory");
+        }
+        return options;
+    }
+
+    /**
+     * Returns the properties describing the conversion: the package, the naming strategy, the options and the compilation check.
+     */
+    private Properties getSettings(List<String> options) {
+        Properties settings = new Properties();
+        settings.setProperty("package", packageName);
+        settings.setProperty("naming", namingStrategy);
+        settings.setProperty("options", String.valueOf(options.size()));
+        for (int i = 0; i < options.size(); i++) {
+            settings.setProperty("option." + i, options.get(i));
+        }
+        if (compileCheck) {
+            // all the classes are checked once the check is enabled
+            settings.setProperty("compileCheck", "true");
+        }
+        if (emitClasses) {
+            settings.setProperty("emitClasses", "true");
+        }
+        return settings;
+    }
+
+    /**
+     * Returns the settings of the last successful conversion, or null if they are unknown.
+     */
+    private Properties loadSettings() {
+        if (!settingsFile.exists()) {
+            return null;
+        }
+
+        Properties settings = new Properties();
+        try (InputStream in = new FileInputStream(settingsFile)) {
+            settings.load(in);
+        } catch (IOException e) {
+            getLog().debug("Unable to read " + settingsFile, e);
+            return null;
+        }
+        return settings;
+    }
+
+    /**
+     * Stores the settings of the conversion, compared by the next build.
+     */
+    private void storeSettings(Properties settings) throws MojoExecutionException {
+        settingsFile.getParentFile().mkdirs();
+        try (OutputStream out = new FileOutputStream(settingsFile)) {
+            settings.store(out, null);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to write " + settingsFile, e);
+        }
+    }
+
+    /**
+     * The result of the conversion of an image.
+     */
+    private static class Result {
+        final File file;
+        final File target;
+        String log;
+        List<String> violations = Collections.emptyList();
+        String error;
+        Exception exception;
+
+        Result(File file, File target) {
+            this.file = file;
+            this.target = target;
+        }
+    }
+}
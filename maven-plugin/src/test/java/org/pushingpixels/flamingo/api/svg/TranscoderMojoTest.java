@@ -0,0 +1,250 @@
+/**
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.pushingpixels.flamingo.api.svg;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
+
+public class TranscoderMojoTest extends TestCase {
+
+    private File sourceDirectory;
+    private File outputDirectory;
+    private File settingsFile;
+    private MavenProject project;
+
+    protected void setUp() throws Exception {
+        File dir = Files.createTempDirectory("flamingo-svg-").toFile();
+        sourceDirectory = new File(dir, "svg");
+        outputDirectory = new File(dir, "generated-sources");
+        settingsFile = new File(dir, "settings.properties");
+        project = new MavenProject();
+
+        new File(sourceDirectory, "edit").mkdirs();
+        copy("edit-copy.svg", new File(sourceDirectory, "edit/edit-copy.svg"));
+        copy("edit-cut.svg", new File(sourceDirectory, "edit/edit-cut.svg"));
+        copy("edit-paste.svg", new File(sourceDirectory, "edit/edit-paste.svg"));
+        copy("apache-feather.svg", new File(sourceDirectory, "apache-feather.svg"));
+    }
+
+    private void copy(String name, File file) throws Exception {
+        Files.copy(new File("../core/src/test/resources/svg/" + name).toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        file.setLastModified(System.currentTimeMillis() - 60000);
+    }
+
+    private TranscoderMojo createMojo() throws Exception {
+        TranscoderMojo mojo = new TranscoderMojo();
+        set(mojo, "project", project);
+        set(mojo, "sourceDirectory", sourceDirectory);
+        set(mojo, "outputDirectory", outputDirectory);
+        set(mojo, "settingsFile", settingsFile);
+        set(mojo, "packageName", "test.icons");
+        set(mojo, "namingStrategy", "camelcase");
+        set(mojo, "tuningSizes", "16,32,64");
+        set(mojo, "precision", -1);
+        set(mojo, "maxDifference", -1f);
+        set(mojo, "threads", 2);
+        set(mojo, "classpathElements", Arrays.asList(System.getProperty("java.class.path").split(File.pathSeparator)));
+        return mojo;
+    }
+
+    private void set(Object object, String name, Object value) throws Exception {
+        Field field = object.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(object, value);
+    }
+
+    /**
+     * Returns the files in the specified folder and its subfolders.
+     */
+    private File[] listFiles(File dir) {
+        List<File> files = new ArrayList<>();
+        File[] children = dir.listFiles();
+        if (children != null) {
+            for (File file : children) {
+                if (file.isDirectory()) {
+                    files.addAll(Arrays.asList(listFiles(file)));
+                } else {
+                    files.add(file);
+                }
+            }
+        }
+        return files.toArray(new File[files.size()]);
+    }
+
+    /**
+     * Marks the classes generated as written a while ago, to detect the classes generated again.
+     */
+    private File[] age(long time) {
+        File[] classes = listFiles(outputDirectory);
+        for (File file : classes) {
+            file.setLastModified(time);
+        }
+        return classes;
+    }
+
+    private int countModified(File[] classes, long time) {
+        int count = 0;
+        for (File file : classes) {
+            if (file.lastModified() != time) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public void testIncrementalConversion() throws Exception {
+        createMojo().execute();
+
+        File[] classes = listFiles(outputDirectory);
+        assertEquals(4, classes.length);
+        assertTrue(new File(outputDirectory, "test/icons/edit/EditCopy.java").exists());
+        assertTrue(new File(outputDirectory, "test/icons/ApacheFeather.java").exists());
+        assertTrue(new String(Files.readAllBytes(new File(outputDirectory, "test/icons/edit/EditCopy.java").toPath())).contains("package test.icons.edit;"));
+        assertTrue(settingsFile.exists());
+        assertTrue(project.getCompileSourceRoots().contains(outputDirectory.getAbsolutePath()));
+
+        // nothing changed
+        long time = System.currentTimeMillis() - 30000;
+        classes = age(time);
+        createMojo().execute();
+        assertEquals("classes generated again", 0, countModified(classes, time));
+
+        // one image modified
+        new File(sourceDirectory, "edit/edit-cut.svg").setLastModified(System.currentTimeMillis());
+        createMojo().execute();
+        assertEquals("classes generated again", 1, countModified(classes, time));
+        assertTrue(new File(outputDirectory, "test/icons/edit/EditCut.java").lastModified() != time);
+
+        // the options changed
+        classes = age(time);
+        TranscoderMojo mojo = createMojo();
+        set(mojo, "tolerance", 0.5f);
+        mojo.execute();
+        assertEquals("classes generated again", 4, countModified(classes, time));
+    }
+
+    public void testCompileCheck() throws Exception {
+        TranscoderMojo mojo = createMojo();
+        set(mojo, "compileCheck", true);
+        set(mojo, "template", "icon");
+        mojo.execute();
+
+        // the Codename One API of the default template isn't on the classpath
+        mojo = createMojo();
+        set(mojo, "compileCheck", true);
+        try {
+            mojo.execute();
+            fail("MojoFailureException expected");
+        } catch (MojoFailureException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("4 classes failing to compile"));
+        }
+        assertFalse("settings stored after a failure", settingsFile.exists());
+    }
+
+    public void testEmitClasses() throws Exception {
+        File classesDirectory = new File(outputDirectory.getParentFile(), "classes");
+        TranscoderMojo mojo = createMojo();
+        set(mojo, "emitClasses", true);
+        set(mojo, "classesDirectory", classesDirectory);
+        set(mojo, "template", "icon");
+        set(mojo, "compileCheck", true);
+        mojo.execute();
+
+        assertEquals(0, listFiles(outputDirectory).length);
+        File[] classes = listFiles(classesDirectory);
+        assertEquals(4 * 5, classes.length);
+        assertTrue(new File(classesDirectory, "test/icons/edit/EditCopy.class").exists());
+        assertTrue(new File(classesDirectory, "test/icons/edit/EditCopy$GraphicsAdapter.class").exists());
+
+        // nothing changed
+        long time = System.currentTimeMillis() - 30000;
+        for (File file : classes) {
+            file.setLastModified(time);
+        }
+        mojo.execute();
+        assertEquals("classes emitted again", 0, countModified(classes, time));
+
+        // the sources are generated again once the emission is disabled
+        set(mojo, "emitClasses", false);
+        mojo.execute();
+        assertEquals(4, listFiles(outputDirectory).length);
+
+        // the sources and the class files of the images deleted are removed
+        new File(sourceDirectory, "edit/edit-paste.svg").delete();
+        set(mojo, "emitClasses", true);
+        mojo.execute();
+        assertFalse(new File(outputDirectory, "test/icons/edit/EditPaste.java").exists());
+        assertFalse(new File(classesDirectory, "test/icons/edit/EditPaste.class").exists());
+        assertFalse(new File(classesDirectory, "test/icons/edit/EditPaste$GraphicsAdapter.class").exists());
+        assertTrue(new File(classesDirectory, "test/icons/edit/EditCopy.class").exists());
+    }
+
+    public void testDeletedImage() throws Exception {
+        createMojo().execute();
+        assertTrue(new File(outputDirectory, "test/icons/edit/EditCut.java").exists());
+
+        new File(sourceDirectory, "edit/edit-cut.svg").delete();
+        long time = System.currentTimeMillis() - 30000;
+        File[] classes = age(time);
+        createMojo().execute();
+        assertFalse("class of the deleted image", new File(outputDirectory, "test/icons/edit/EditCut.java").exists());
+        assertEquals(3, listFiles(outputDirectory).length);
+        assertEquals("classes generated again", 1, countModified(classes, time));
+    }
+
+    public void testSubPackages() throws Exception {
+        new File(sourceDirectory, "2x/new").mkdirs();
+        copy("edit-copy.svg", new File(sourceDirectory, "2x/new/edit-copy.svg"));
+        TranscoderMojo mojo = createMojo();
+        assertEquals("test.icons._2x.new_.EditCopy", mojo.getQualifiedName(new CamelCaseNamingStrategy(), "2x/new/edit-copy.svg"));
+
+        set(mojo, "compileCheck", true);
+        set(mojo, "template", "icon");
+        mojo.execute();
+        assertTrue(new File(outputDirectory, "test/icons/_2x/new_/EditCopy.java").exists());
+        assertTrue(new File(outputDirectory, "test/icons/edit/EditCopy.java").exists());
+    }
+
+    public void testClassNameCollision() throws Exception {
+        copy("edit-cut.svg", new File(sourceDirectory, "edit/edit_cut.svg"));
+        try {
+            createMojo().execute();
+            fail("MojoExecutionException expected");
+        } catch (MojoExecutionException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("test.icons.edit.EditCut"));
+        }
+    }
+
+    public void testSkip() throws Exception {
+        TranscoderMojo mojo = createMojo();
+        set(mojo, "skip", true);
+        mojo.execute();
+
+        assertFalse(outputDirectory.exists());
+    }
+}